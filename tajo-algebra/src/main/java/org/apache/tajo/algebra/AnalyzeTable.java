@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tajo.algebra;
+
+import com.google.common.base.Objects;
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.SerializedName;
+import org.apache.tajo.util.TUtil;
+
+import java.util.Arrays;
+
+public class AnalyzeTable extends Expr {
+  @Expose @SerializedName("TableName")
+  private String tableName;
+  @Expose @SerializedName("Columns")
+  private String[] columnNames;
+
+  public AnalyzeTable(final String tableName) {
+    super(OpType.AnalyzeTable);
+    this.tableName = tableName;
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  public boolean hasColumnNames() {
+    return columnNames != null;
+  }
+
+  public String[] getColumnNames() {
+    return columnNames;
+  }
+
+  public void setColumnNames(String[] columnNames) {
+    this.columnNames = columnNames;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(tableName, Arrays.hashCode(columnNames));
+  }
+
+  @Override
+  boolean equalsTo(Expr expr) {
+    AnalyzeTable another = (AnalyzeTable) expr;
+    return tableName.equals(another.tableName) && TUtil.checkEquals(columnNames, another.columnNames);
+  }
+
+  @Override
+  public Object clone() throws CloneNotSupportedException {
+    AnalyzeTable analyzeTable = (AnalyzeTable) super.clone();
+    analyzeTable.tableName = tableName;
+    analyzeTable.columnNames = columnNames != null ? columnNames.clone() : null;
+    return analyzeTable;
+  }
+}
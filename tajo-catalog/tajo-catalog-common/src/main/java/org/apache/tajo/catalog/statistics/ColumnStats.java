@@ -33,12 +33,16 @@ import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.json.GsonObject;
 import org.apache.tajo.util.TUtil;
 
+import java.util.Arrays;
+
 public class ColumnStats implements ProtoObject<CatalogProtos.ColumnStatsProto>, Cloneable, GsonObject {
   @Expose private Column column = null; // required
   @Expose private Long numDistVals = null; // optional
   @Expose private Long numNulls = null; // optional
   @Expose private Datum minValue = null; // optional
   @Expose private Datum maxValue = null; // optional
+  @Expose private Histogram histogram = null; // optional
+  @Expose private byte[] ndvSketch = null; // optional, serialized HyperLogLog
 
   public ColumnStats(Column column) {
     this.column = column;
@@ -61,6 +65,12 @@ public class ColumnStats implements ProtoObject<CatalogProtos.ColumnStatsProto>,
     if (proto.hasMaxValue()) {
       this.maxValue = DatumFactory.createFromBytes(getColumn().getDataType(), proto.getMaxValue().toByteArray());
     }
+    if (proto.hasHistogram()) {
+      this.histogram = new Histogram(getColumn().getDataType(), proto.getHistogram());
+    }
+    if (proto.hasNdvSketch()) {
+      this.ndvSketch = proto.getNdvSketch().toByteArray();
+    }
   }
 
   public Column getColumn() {
@@ -111,6 +121,30 @@ public class ColumnStats implements ProtoObject<CatalogProtos.ColumnStatsProto>,
     return numNulls > 0;
   }
 
+  public boolean hasHistogram() {
+    return histogram != null && !histogram.isEmpty();
+  }
+
+  public Histogram getHistogram() {
+    return histogram;
+  }
+
+  public void setHistogram(Histogram histogram) {
+    this.histogram = histogram;
+  }
+
+  public boolean hasNdvSketch() {
+    return ndvSketch != null;
+  }
+
+  public HyperLogLog getNdvSketch() {
+    return ndvSketch == null ? null : HyperLogLog.fromBytes(ndvSketch);
+  }
+
+  public void setNdvSketch(HyperLogLog sketch) {
+    this.ndvSketch = sketch == null ? null : sketch.toBytes();
+  }
+
   public boolean equals(Object obj) {
     if (obj instanceof ColumnStats) {
       ColumnStats other = (ColumnStats) obj;
@@ -118,7 +152,9 @@ public class ColumnStats implements ProtoObject<CatalogProtos.ColumnStatsProto>,
           && getNumDistValues().equals(other.getNumDistValues())
           && getNumNulls().equals(other.getNumNulls())
           && TUtil.checkEquals(getMinValue(), other.getMinValue())
-          && TUtil.checkEquals(getMaxValue(), other.getMaxValue());
+          && TUtil.checkEquals(getMaxValue(), other.getMaxValue())
+          && TUtil.checkEquals(getHistogram(), other.getHistogram())
+          && Arrays.equals(ndvSketch, other.ndvSketch);
     } else {
       return false;
     }
@@ -135,6 +171,8 @@ public class ColumnStats implements ProtoObject<CatalogProtos.ColumnStatsProto>,
     stat.numNulls = numNulls;
     stat.minValue = minValue;
     stat.maxValue = maxValue;
+    stat.histogram = histogram;
+    stat.ndvSketch = ndvSketch;
 
     return stat;
   }
@@ -168,6 +206,12 @@ public class ColumnStats implements ProtoObject<CatalogProtos.ColumnStatsProto>,
     if (this.maxValue != null) {
       builder.setMaxValue(ByteString.copyFrom(this.maxValue.asByteArray()));
     }
+    if (this.histogram != null) {
+      builder.setHistogram(this.histogram.getProto());
+    }
+    if (this.ndvSketch != null) {
+      builder.setNdvSketch(ByteString.copyFrom(this.ndvSketch));
+    }
 
     return builder.build();
   }
@@ -0,0 +1,264 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.catalog.statistics;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+import com.google.gson.annotations.Expose;
+import com.google.protobuf.ByteString;
+import org.apache.tajo.catalog.json.CatalogGsonHelper;
+import org.apache.tajo.catalog.proto.CatalogProtos.HistogramBucketProto;
+import org.apache.tajo.catalog.proto.CatalogProtos.HistogramProto;
+import org.apache.tajo.common.ProtoObject;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.json.GsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An equi-depth histogram of a column. Every bucket holds about the same number of values,
+ * and all occurrences of a value belong to the same bucket. So, frequent values get narrow buckets.
+ */
+public class Histogram implements ProtoObject<HistogramProto>, Cloneable, GsonObject {
+  public static final int DEFAULT_BUCKET_NUM = 64;
+
+  @Expose private List<Bucket> buckets = new ArrayList<>();
+
+  public static class Bucket {
+    @Expose private Datum lower;      // inclusive
+    @Expose private Datum upper;      // inclusive
+    @Expose private long frequency;   // the number of values in this bucket
+    @Expose private long numDistVals; // the number of distinct values in this bucket
+
+    public Bucket(Datum lower, Datum upper, long frequency, long numDistVals) {
+      this.lower = lower;
+      this.upper = upper;
+      this.frequency = frequency;
+      this.numDistVals = numDistVals;
+    }
+
+    public Datum getLower() {
+      return lower;
+    }
+
+    public Datum getUpper() {
+      return upper;
+    }
+
+    public long getFrequency() {
+      return frequency;
+    }
+
+    public long getNumDistVals() {
+      return numDistVals;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof Bucket) {
+        Bucket other = (Bucket) obj;
+        return lower.equals(other.lower) && upper.equals(other.upper)
+            && frequency == other.frequency && numDistVals == other.numDistVals;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(lower, upper, frequency, numDistVals);
+    }
+  }
+
+  public Histogram() {
+  }
+
+  public Histogram(DataType dataType, HistogramProto proto) {
+    for (HistogramBucketProto eachBucket : proto.getBucketsList()) {
+      buckets.add(new Bucket(
+          DatumFactory.createFromBytes(dataType, eachBucket.getLower().toByteArray()),
+          DatumFactory.createFromBytes(dataType, eachBucket.getUpper().toByteArray()),
+          eachBucket.getFrequency(), eachBucket.getNumDistVals()));
+    }
+  }
+
+  /**
+   * Build an equi-depth histogram.
+   *
+   * @param sortedValues non-null values of a column in ascending order
+   * @param bucketNum the maximum number of buckets
+   * @return a histogram
+   */
+  public static Histogram build(List<Datum> sortedValues, int bucketNum) {
+    Preconditions.checkArgument(bucketNum > 0, "bucketNum must be positive: " + bucketNum);
+    Histogram histogram = new Histogram();
+    int depth = (int) Math.ceil((double) sortedValues.size() / bucketNum);
+
+    int begin = 0;
+    while (begin < sortedValues.size()) {
+      int end = Math.min(begin + depth, sortedValues.size());
+      // a value must not span two buckets
+      while (end < sortedValues.size() && sortedValues.get(end).equals(sortedValues.get(end - 1))) {
+        end++;
+      }
+
+      long numDistVals = 1;
+      for (int i = begin + 1; i < end; i++) {
+        if (!sortedValues.get(i).equals(sortedValues.get(i - 1))) {
+          numDistVals++;
+        }
+      }
+      histogram.addBucket(new Bucket(sortedValues.get(begin), sortedValues.get(end - 1), end - begin, numDistVals));
+      begin = end;
+    }
+    return histogram;
+  }
+
+  public void addBucket(Bucket bucket) {
+    buckets.add(bucket);
+  }
+
+  public List<Bucket> getBuckets() {
+    return buckets;
+  }
+
+  public boolean isEmpty() {
+    return buckets.isEmpty();
+  }
+
+  public long getTotalFrequency() {
+    long total = 0;
+    for (Bucket bucket : buckets) {
+      total += bucket.frequency;
+    }
+    return total;
+  }
+
+  /**
+   * @return the estimated fraction of values which are equal to the given value
+   */
+  public double estimateEqualSelectivity(Datum value) {
+    long total = getTotalFrequency();
+    if (total == 0) {
+      return 0;
+    }
+
+    for (Bucket bucket : buckets) {
+      if (bucket.lower.compareTo(value) <= 0 && bucket.upper.compareTo(value) >= 0) {
+        // values are assumed to be uniformly distributed within a bucket
+        return (double) bucket.frequency / Math.max(1, bucket.numDistVals) / total;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @return the estimated fraction of values which are less than (or equal to) the given value
+   */
+  public double estimateLessThanSelectivity(Datum value, boolean inclusive) {
+    long total = getTotalFrequency();
+    if (total == 0) {
+      return 0;
+    }
+
+    double count = 0;
+    for (Bucket bucket : buckets) {
+      int cmpLower = bucket.lower.compareTo(value);
+      int cmpUpper = bucket.upper.compareTo(value);
+      if (cmpUpper < 0 || (cmpUpper == 0 && inclusive)) {
+        count += bucket.frequency;
+      } else if (cmpLower > 0 || (cmpLower == 0 && !inclusive)) {
+        break;
+      } else {
+        double equalFrequency = (double) bucket.frequency / Math.max(1, bucket.numDistVals);
+        double lessFrequency = (bucket.frequency - equalFrequency) * interpolate(bucket, value);
+        count += Math.min(bucket.frequency, lessFrequency + (inclusive ? equalFrequency : 0));
+        break;
+      }
+    }
+    return count / total;
+  }
+
+  /**
+   * @return the estimated fraction of values which are between the given bounds
+   */
+  public double estimateRangeSelectivity(Datum lower, boolean lowerInclusive, Datum upper, boolean upperInclusive) {
+    double selectivity = estimateLessThanSelectivity(upper, upperInclusive)
+        - estimateLessThanSelectivity(lower, !lowerInclusive);
+    return Math.max(0, selectivity);
+  }
+
+  /**
+   * @return the relative position of the given value between the bounds of the bucket
+   */
+  private static double interpolate(Bucket bucket, Datum value) {
+    if (bucket.lower.isNumeric() && bucket.upper.isNumeric() && value.isNumeric()) {
+      double width = bucket.upper.asFloat8() - bucket.lower.asFloat8();
+      if (width > 0) {
+        return Math.min(1, Math.max(0, (value.asFloat8() - bucket.lower.asFloat8()) / width));
+      }
+    }
+    return 0.5;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof Histogram) {
+      return buckets.equals(((Histogram) obj).buckets);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return buckets.hashCode();
+  }
+
+  @Override
+  public Histogram clone() throws CloneNotSupportedException {
+    Histogram histogram = (Histogram) super.clone();
+    histogram.buckets = new ArrayList<>(buckets);
+    return histogram;
+  }
+
+  @Override
+  public String toString() {
+    return CatalogGsonHelper.getPrettyInstance().toJson(this, Histogram.class);
+  }
+
+  @Override
+  public String toJson() {
+    return CatalogGsonHelper.toJson(this, Histogram.class);
+  }
+
+  @Override
+  public HistogramProto getProto() {
+    HistogramProto.Builder builder = HistogramProto.newBuilder();
+    for (Bucket bucket : buckets) {
+      builder.addBuckets(HistogramBucketProto.newBuilder()
+          .setLower(ByteString.copyFrom(bucket.lower.asByteArray()))
+          .setUpper(ByteString.copyFrom(bucket.upper.asByteArray()))
+          .setFrequency(bucket.frequency)
+          .setNumDistVals(bucket.numDistVals));
+    }
+    return builder.build();
+  }
+}
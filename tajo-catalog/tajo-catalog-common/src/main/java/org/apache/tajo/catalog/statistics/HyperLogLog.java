@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.catalog.statistics;
+
+import com.google.common.base.Preconditions;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.util.MurmurHash;
+
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog sketch to estimate the number of distinct values of a column.
+ * The sketches built from different parts of a table can be merged into one without losing accuracy,
+ * so the number of distinct values of a table can be computed from those of its partitions.
+ * With the default precision, a sketch occupies 1 KB and its standard error is about 3%.
+ */
+public class HyperLogLog {
+  public static final int DEFAULT_PRECISION = 10;
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  public HyperLogLog(int precision) {
+    Preconditions.checkArgument(precision >= 4 && precision <= 16, "precision must be in [4, 16]: " + precision);
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+
+  public void offer(Datum datum) {
+    if (datum == null || datum.isNull()) {
+      return;
+    }
+    byte[] bytes = datum.asByteArray();
+    offerHash(MurmurHash.hash64(bytes, bytes.length));
+  }
+
+  public void offerHash(long hash) {
+    int index = (int) (hash >>> (Long.SIZE - precision));
+    // the guard bit bounds the rank when all remaining bits are zero
+    long remaining = (hash << precision) | (1L << (precision - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+    if (rank > registers[index]) {
+      registers[index] = rank;
+    }
+  }
+
+  public void merge(HyperLogLog other) {
+    Preconditions.checkArgument(precision == other.precision,
+        "cannot merge sketches of different precisions: " + precision + ", " + other.precision);
+    for (int i = 0; i < registers.length; i++) {
+      if (other.registers[i] > registers[i]) {
+        registers[i] = other.registers[i];
+      }
+    }
+  }
+
+  public long cardinality() {
+    int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0d / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+
+    double alpha = 0.7213d / (1 + 1.079d / m);
+    double estimate = alpha * m * m / sum;
+    if (estimate <= 2.5d * m && zeros > 0) {
+      // linear counting is more accurate for small cardinalities
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  public byte[] toBytes() {
+    byte[] bytes = new byte[registers.length + 1];
+    bytes[0] = (byte) precision;
+    System.arraycopy(registers, 0, bytes, 1, registers.length);
+    return bytes;
+  }
+
+  public static HyperLogLog fromBytes(byte[] bytes) {
+    HyperLogLog sketch = new HyperLogLog(bytes[0]);
+    Preconditions.checkArgument(bytes.length == sketch.registers.length + 1, "invalid sketch length: " + bytes.length);
+    System.arraycopy(bytes, 1, sketch.registers, 0, sketch.registers.length);
+    return sketch;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof HyperLogLog) {
+      HyperLogLog other = (HyperLogLog) obj;
+      return precision == other.precision && Arrays.equals(registers, other.registers);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(registers);
+  }
+}
@@ -80,6 +80,7 @@ public class StatisticsUtil {
                 agg.getMaxValue().compareTo(cs.getMaxValue()) < 0)) {
               agg.setMaxValue(stats.getColumnStats().get(i).getMaxValue());
             }
+            aggregateSketches(agg, cs, false);
           } catch (Exception e) {
             LOG.warn(e.getMessage(), e);
           }
@@ -115,6 +116,7 @@ public class StatisticsUtil {
       }
     }
 
+    boolean first = true;
     for (TableStats ts : tableStatses) {
       // if there is empty stats
       if (ts.getColumnStats().size() > 0) {
@@ -136,10 +138,12 @@ public class StatisticsUtil {
                 css[i].getMaxValue().compareTo(cs.getMaxValue()) < 0)) {
               css[i].setMaxValue(ts.getColumnStats().get(i).getMaxValue());
             }
+            aggregateSketches(css[i], cs, first);
           } catch (Exception e) {
             LOG.warn(e.getMessage(), e);
           }
         }
+        first = false;
       }
 
       // aggregate table stats for each table
@@ -158,6 +162,35 @@ public class StatisticsUtil {
     return aggregated;
   }
 
+  /**
+   * Aggregate the NDV sketches and the histograms of two column stats. The number of distinct values is taken from
+   * the merged sketch if both have sketches. Histograms of different parts cannot be merged, so the aggregated stats
+   * keep a histogram only if it is built from a single part.
+   *
+   * @param agg The aggregated column stats
+   * @param cs The column stats to be aggregated
+   * @param first True if cs is the first column stats aggregated to agg
+   */
+  private static void aggregateSketches(ColumnStats agg, ColumnStats cs, boolean first) {
+    if (first) {
+      agg.setNdvSketch(cs.getNdvSketch());
+      agg.setHistogram(cs.getHistogram());
+    } else {
+      if (agg.hasNdvSketch() && cs.hasNdvSketch()) {
+        HyperLogLog sketch = agg.getNdvSketch();
+        sketch.merge(cs.getNdvSketch());
+        agg.setNdvSketch(sketch);
+      } else {
+        agg.setNdvSketch(null);
+      }
+      agg.setHistogram(null);
+    }
+
+    if (agg.hasNdvSketch()) {
+      agg.setNumDistVals(agg.getNdvSketch().cardinality());
+    }
+  }
+
   public static List<ColumnStats> aggregateColumnStats(List<ColumnStats> stats1, List<ColumnStats> stats2) {
     Preconditions.checkState(stats1.size() == stats2.size());
     List<ColumnStats> result = new ArrayList<>(stats1.size());
@@ -21,9 +21,13 @@ package org.apache.tajo.catalog.statistics;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.json.CatalogGsonHelper;
 import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -79,4 +83,25 @@ public class TestColumnStat {
     ColumnStats stat2 = (ColumnStats) stat.clone();
     assertEquals(stat, stat2);
   }
+
+  @Test
+  public final void testHistogramAndNdvSketch() {
+    ColumnStats stat = new ColumnStats(new Column("test", Type.INT8));
+    List<Datum> values = new ArrayList<>();
+    HyperLogLog sketch = new HyperLogLog();
+    for (int i = 0; i < 100; i++) {
+      values.add(DatumFactory.createInt8(i));
+      sketch.offer(DatumFactory.createInt8(i));
+    }
+    stat.setHistogram(Histogram.build(values, 10));
+    stat.setNdvSketch(sketch);
+
+    ColumnStats fromProto = new ColumnStats(stat.getProto());
+    assertEquals(stat, fromProto);
+    assertEquals(10, fromProto.getHistogram().getBuckets().size());
+    assertEquals(sketch.cardinality(), fromProto.getNdvSketch().cardinality());
+
+    ColumnStats fromJson = CatalogGsonHelper.fromJson(stat.toJson(), ColumnStats.class);
+    assertEquals(stat, fromJson);
+  }
 }
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.catalog.statistics;
+
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestHistogram {
+
+  @Test
+  public final void testBuild() {
+    // 0, 1, 2, ..., 89, and 90 repeated 110 times
+    List<Datum> values = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      values.add(DatumFactory.createInt4(Math.min(i, 90)));
+    }
+    Histogram histogram = Histogram.build(values, 10);
+
+    assertEquals(200, histogram.getTotalFrequency());
+    // a value must not span two buckets
+    Histogram.Bucket last = histogram.getBuckets().get(histogram.getBuckets().size() - 1);
+    assertEquals(DatumFactory.createInt4(80), last.getLower());
+    assertEquals(DatumFactory.createInt4(90), last.getUpper());
+    assertEquals(120, last.getFrequency());
+    assertEquals(11, last.getNumDistVals());
+  }
+
+  @Test
+  public final void testEstimate() {
+    List<Datum> values = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      values.add(DatumFactory.createInt4(i));
+    }
+    Histogram histogram = Histogram.build(values, 10);
+
+    assertEquals(0.001, histogram.estimateEqualSelectivity(DatumFactory.createInt4(500)), 0.0001);
+    assertEquals(0, histogram.estimateEqualSelectivity(DatumFactory.createInt4(1000)), 0.0001);
+    assertEquals(0.25, histogram.estimateLessThanSelectivity(DatumFactory.createInt4(250), false), 0.01);
+    assertEquals(0, histogram.estimateLessThanSelectivity(DatumFactory.createInt4(0), false), 0.0001);
+    assertEquals(1, histogram.estimateLessThanSelectivity(DatumFactory.createInt4(999), true), 0.0001);
+    assertEquals(0.5, histogram.estimateRangeSelectivity(
+        DatumFactory.createInt4(200), true, DatumFactory.createInt4(700), false), 0.01);
+  }
+
+  @Test
+  public final void testHyperLogLog() {
+    HyperLogLog sketch1 = new HyperLogLog();
+    HyperLogLog sketch2 = new HyperLogLog();
+    for (int i = 0; i < 100000; i++) {
+      sketch1.offer(DatumFactory.createInt8(i));
+      sketch2.offer(DatumFactory.createInt8(i + 50000));
+    }
+    assertTrue(Math.abs(sketch1.cardinality() - 100000) < 10000);
+
+    sketch1.merge(sketch2);
+    assertTrue(Math.abs(sketch1.cardinality() - 150000) < 15000);
+    assertEquals(sketch1, HyperLogLog.fromBytes(sketch1.toBytes()));
+
+    HyperLogLog small = new HyperLogLog();
+    for (int i = 0; i < 100; i++) {
+      small.offer(DatumFactory.createText("value" + (i % 10)));
+    }
+    assertTrue(Math.abs(small.cardinality() - 10) <= 1);
+  }
+}
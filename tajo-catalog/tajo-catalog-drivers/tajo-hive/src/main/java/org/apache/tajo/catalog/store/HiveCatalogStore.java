@@ -55,6 +55,7 @@ import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.catalog.proto.CatalogProtos.*;
+import org.apache.tajo.catalog.statistics.ColumnStats;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.common.TajoDataTypes;
 import org.apache.tajo.conf.TajoConf;
@@ -185,6 +186,13 @@ public class HiveCatalogStore extends CatalogConstants implements CatalogStore {
       HiveCatalogUtil.validateSchema(table);
 
       stats = new TableStats();
+      // Hive sets numRows to -1 when it is unknown.
+      String numRows = table.getParameters().get(StatsSetupConst.ROW_COUNT);
+      if (numRows != null && Long.parseLong(numRows) >= 0) {
+        stats.setNumRows(Long.parseLong(numRows));
+        stats.setColumnStats(getColumnStats(databaseName, tableName, schema));
+      }
+
       options = new KeyValueSet();
       options.putAll(table.getParameters());
       options.remove("EXTERNAL");
@@ -347,8 +355,81 @@ public class HiveCatalogStore extends CatalogConstants implements CatalogStore {
   }
 
   @Override
-  public void updateTableStats(CatalogProtos.UpdateTableStatsProto statsProto) {
-    // TODO - not implemented yet
+  public void updateTableStats(CatalogProtos.UpdateTableStatsProto statsProto)
+      throws UndefinedDatabaseException, UndefinedTableException {
+
+    final String[] split = IdentifierUtil.splitFQTableName(statsProto.getTableName());
+    if (split.length == 1) {
+      throw new IllegalArgumentException("updateTableStats() requires a qualified table name, but it is \""
+          + statsProto.getTableName() + "\".");
+    }
+    final String databaseName = split[0];
+    final String tableName = split[1];
+
+    if (!existDatabase(databaseName)) {
+      throw new UndefinedDatabaseException(databaseName);
+    }
+
+    HiveCatalogStoreClientPool.HiveCatalogStoreClient client = null;
+    try {
+      client = clientPool.getClient();
+      Table table = client.getHiveClient().getTable(databaseName, tableName);
+
+      // row and byte counts are kept in the table parameters, as Hive does.
+      table.getParameters().put(StatsSetupConst.ROW_COUNT, String.valueOf(statsProto.getStats().getNumRows()));
+      table.getParameters().put(StatsSetupConst.TOTAL_SIZE, String.valueOf(statsProto.getStats().getNumBytes()));
+      client.getHiveClient().alter_table(databaseName, tableName, table);
+
+      List<ColumnStatisticsObj> statsObjs = new ArrayList<>();
+      for (ColumnStatsProto colStatsProto : statsProto.getStats().getColStatList()) {
+        ColumnStatisticsObj statsObj = HiveCatalogUtil.getHiveColumnStats(new ColumnStats(colStatsProto));
+        if (statsObj != null) {
+          statsObjs.add(statsObj);
+        }
+      }
+
+      if (!statsObjs.isEmpty()) {
+        ColumnStatisticsDesc statsDesc = new ColumnStatisticsDesc(true, databaseName, tableName);
+        client.getHiveClient().updateTableColumnStatistics(new ColumnStatistics(statsDesc, statsObjs));
+      }
+    } catch (NoSuchObjectException nsoe) {
+      throw new UndefinedTableException(statsProto.getTableName());
+    } catch (Exception e) {
+      throw new TajoInternalError(e);
+    } finally {
+      if (client != null) {
+        client.release();
+      }
+    }
+  }
+
+  private List<ColumnStats> getColumnStats(String databaseName, String tableName, Schema schema) throws TException {
+    List<String> columnNames = new ArrayList<>();
+    for (Column column : schema.getRootColumns()) {
+      columnNames.add(column.getSimpleName());
+    }
+
+    List<ColumnStats> columnStats = new ArrayList<>();
+    HiveCatalogStoreClientPool.HiveCatalogStoreClient client = null;
+    try {
+      client = clientPool.getClient();
+      for (ColumnStatisticsObj statsObj :
+          client.getHiveClient().getTableColumnStatistics(databaseName, tableName, columnNames)) {
+        for (Column column : schema.getRootColumns()) {
+          if (column.getSimpleName().equalsIgnoreCase(statsObj.getColName())) {
+            ColumnStats stats = HiveCatalogUtil.getTajoColumnStats(column, statsObj);
+            if (stats != null) {
+              columnStats.add(stats);
+            }
+          }
+        }
+      }
+    } finally {
+      if (client != null) {
+        client.release();
+      }
+    }
+    return columnStats;
   }
 
   @Override
@@ -19,8 +19,15 @@ package org.apache.tajo.catalog.store;
 
 import com.google.common.base.Preconditions;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.Date;
+import org.apache.hadoop.hive.metastore.api.DateColumnStatsData;
+import org.apache.hadoop.hive.metastore.api.DoubleColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.StringColumnStatsData;
 import org.apache.hadoop.hive.ql.io.RCFileInputFormat;
 import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
 import org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe;
@@ -35,13 +42,17 @@ import org.apache.hadoop.hive.serde2.lazybinary.LazyBinarySerDe;
 import org.apache.hadoop.mapred.SequenceFileInputFormat;
 import org.apache.hadoop.mapred.TextInputFormat;
 import org.apache.tajo.BuiltinStorages;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.statistics.ColumnStats;
 import org.apache.tajo.common.TajoDataTypes;
+import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.exception.LMDNoMatchedDatatypeException;
 import org.apache.tajo.exception.TajoRuntimeException;
 import org.apache.tajo.exception.UnknownDataFormatException;
 import org.apache.tajo.exception.UnsupportedException;
 import org.apache.tajo.type.Type;
 import org.apache.tajo.type.TypeStringEncoder;
+import org.apache.tajo.util.datetime.DateTimeConstants;
 import org.apache.thrift.TException;
 
 public class HiveCatalogUtil {
@@ -153,4 +164,136 @@ public class HiveCatalogUtil {
   public static Table getTable(IMetaStoreClient client, String dbName, String tableName) throws TException {
     return new Table(client.getTable(dbName, tableName));
   }
+
+  /**
+   * Converts Tajo column statistics into Hive column statistics. Histograms and NDV sketches have no place
+   * in Hive, and Hive keeps no min/max values for strings, so they are dropped.
+   *
+   * @return Hive column statistics, or null if Hive keeps no statistics for the column type
+   */
+  public static ColumnStatisticsObj getHiveColumnStats(ColumnStats stats) throws LMDNoMatchedDatatypeException {
+    Column column = stats.getColumn();
+    long numNulls = stats.getNumNulls() == null ? 0 : stats.getNumNulls();
+    long numDVs = stats.getNumDistValues() == null ? 0 : stats.getNumDistValues();
+
+    ColumnStatisticsData data;
+    switch (column.getDataType().getType()) {
+    case INT1:
+    case INT2:
+    case INT4:
+    case INT8:
+      LongColumnStatsData longStats = new LongColumnStatsData(numNulls, numDVs);
+      if (!stats.minIsNotSet()) {
+        longStats.setLowValue(stats.getMinValue().asInt8());
+      }
+      if (!stats.maxIsNotSet()) {
+        longStats.setHighValue(stats.getMaxValue().asInt8());
+      }
+      data = ColumnStatisticsData.longStats(longStats);
+      break;
+    case FLOAT4:
+    case FLOAT8:
+      DoubleColumnStatsData doubleStats = new DoubleColumnStatsData(numNulls, numDVs);
+      if (!stats.minIsNotSet()) {
+        doubleStats.setLowValue(stats.getMinValue().asFloat8());
+      }
+      if (!stats.maxIsNotSet()) {
+        doubleStats.setHighValue(stats.getMaxValue().asFloat8());
+      }
+      data = ColumnStatisticsData.doubleStats(doubleStats);
+      break;
+    case CHAR:
+    case VARCHAR:
+    case TEXT:
+      // Tajo does not collect value lengths.
+      data = ColumnStatisticsData.stringStats(new StringColumnStatsData(0, 0, numNulls, numDVs));
+      break;
+    case DATE:
+      DateColumnStatsData dateStats = new DateColumnStatsData(numNulls, numDVs);
+      if (!stats.minIsNotSet()) {
+        dateStats.setLowValue(new Date(stats.getMinValue().asInt4() - DateTimeConstants.UNIX_EPOCH_JDATE));
+      }
+      if (!stats.maxIsNotSet()) {
+        dateStats.setHighValue(new Date(stats.getMaxValue().asInt4() - DateTimeConstants.UNIX_EPOCH_JDATE));
+      }
+      data = ColumnStatisticsData.dateStats(dateStats);
+      break;
+    default:
+      return null;
+    }
+
+    return new ColumnStatisticsObj(column.getSimpleName(), getHiveFieldType(column.getType()), data);
+  }
+
+  /**
+   * Converts Hive column statistics into Tajo column statistics.
+   *
+   * @return Tajo column statistics, or null if the statistics do not match the column type
+   */
+  public static ColumnStats getTajoColumnStats(Column column, ColumnStatisticsObj statsObj) {
+    ColumnStats stats = new ColumnStats(column);
+    ColumnStatisticsData data = statsObj.getStatsData();
+    TajoDataTypes.Type type = column.getDataType().getType();
+
+    if (data.isSetLongStats()) {
+      LongColumnStatsData longStats = data.getLongStats();
+      stats.setNumNulls(longStats.getNumNulls());
+      stats.setNumDistVals(longStats.getNumDVs());
+      if (type == TajoDataTypes.Type.INT4) {
+        if (longStats.isSetLowValue()) {
+          stats.setMinValue(DatumFactory.createInt4((int) longStats.getLowValue()));
+        }
+        if (longStats.isSetHighValue()) {
+          stats.setMaxValue(DatumFactory.createInt4((int) longStats.getHighValue()));
+        }
+      } else if (type == TajoDataTypes.Type.INT8) {
+        if (longStats.isSetLowValue()) {
+          stats.setMinValue(DatumFactory.createInt8(longStats.getLowValue()));
+        }
+        if (longStats.isSetHighValue()) {
+          stats.setMaxValue(DatumFactory.createInt8(longStats.getHighValue()));
+        }
+      }
+    } else if (data.isSetDoubleStats()) {
+      DoubleColumnStatsData doubleStats = data.getDoubleStats();
+      stats.setNumNulls(doubleStats.getNumNulls());
+      stats.setNumDistVals(doubleStats.getNumDVs());
+      if (type == TajoDataTypes.Type.FLOAT4) {
+        if (doubleStats.isSetLowValue()) {
+          stats.setMinValue(DatumFactory.createFloat4((float) doubleStats.getLowValue()));
+        }
+        if (doubleStats.isSetHighValue()) {
+          stats.setMaxValue(DatumFactory.createFloat4((float) doubleStats.getHighValue()));
+        }
+      } else if (type == TajoDataTypes.Type.FLOAT8) {
+        if (doubleStats.isSetLowValue()) {
+          stats.setMinValue(DatumFactory.createFloat8(doubleStats.getLowValue()));
+        }
+        if (doubleStats.isSetHighValue()) {
+          stats.setMaxValue(DatumFactory.createFloat8(doubleStats.getHighValue()));
+        }
+      }
+    } else if (data.isSetStringStats()) {
+      stats.setNumNulls(data.getStringStats().getNumNulls());
+      stats.setNumDistVals(data.getStringStats().getNumDVs());
+    } else if (data.isSetDateStats()) {
+      DateColumnStatsData dateStats = data.getDateStats();
+      stats.setNumNulls(dateStats.getNumNulls());
+      stats.setNumDistVals(dateStats.getNumDVs());
+      if (type == TajoDataTypes.Type.DATE) {
+        if (dateStats.isSetLowValue()) {
+          stats.setMinValue(DatumFactory.createDate(
+              (int) dateStats.getLowValue().getDaysSinceEpoch() + DateTimeConstants.UNIX_EPOCH_JDATE));
+        }
+        if (dateStats.isSetHighValue()) {
+          stats.setMaxValue(DatumFactory.createDate(
+              (int) dateStats.getHighValue().getDaysSinceEpoch() + DateTimeConstants.UNIX_EPOCH_JDATE));
+        }
+      }
+    } else {
+      return null;
+    }
+
+    return stats;
+  }
 }
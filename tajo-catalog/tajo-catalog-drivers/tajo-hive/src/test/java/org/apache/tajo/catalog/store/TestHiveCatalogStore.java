@@ -39,8 +39,11 @@ import org.apache.tajo.catalog.partition.PartitionDesc;
 import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.catalog.proto.CatalogProtos.PartitionKeyProto;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.common.TajoDataTypes;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.schema.IdentifierUtil;
 import org.apache.tajo.storage.StorageConstants;
@@ -683,6 +686,88 @@ public class TestHiveCatalogStore {
     fs.close();
   }
 
+  @Test
+  public void testUpdateTableStats() throws Exception {
+    TableMeta meta = new TableMeta(BuiltinStorages.TEXT, new KeyValueSet());
+    org.apache.tajo.catalog.Schema schema = SchemaBuilder.builder()
+        .add("o_orderkey", TajoDataTypes.Type.INT8)
+        .add("o_totalprice", TajoDataTypes.Type.FLOAT8)
+        .add("o_comment", TajoDataTypes.Type.TEXT)
+        .add("o_orderdate", TajoDataTypes.Type.DATE)
+        .build();
+
+    String tableName = "stats_table";
+    TableDesc table = new TableDesc(IdentifierUtil.buildFQName(DB_NAME, tableName), schema, meta,
+        new Path(warehousePath, new Path(DB_NAME, tableName)).toUri());
+    store.createTable(table.getProto());
+
+    TableStats stats = new TableStats();
+    stats.setNumRows(100);
+    stats.setNumBytes(4096);
+
+    ColumnStats orderKey = new ColumnStats(schema.getColumn(0));
+    orderKey.setNumNulls(0);
+    orderKey.setNumDistVals(100);
+    orderKey.setMinValue(DatumFactory.createInt8(1));
+    orderKey.setMaxValue(DatumFactory.createInt8(100));
+    stats.addColumnStat(orderKey);
+
+    ColumnStats totalPrice = new ColumnStats(schema.getColumn(1));
+    totalPrice.setNumNulls(2);
+    totalPrice.setNumDistVals(90);
+    totalPrice.setMinValue(DatumFactory.createFloat8(0.5));
+    totalPrice.setMaxValue(DatumFactory.createFloat8(999.5));
+    stats.addColumnStat(totalPrice);
+
+    ColumnStats comment = new ColumnStats(schema.getColumn(2));
+    comment.setNumNulls(5);
+    comment.setNumDistVals(80);
+    comment.setMinValue(DatumFactory.createText("a"));
+    comment.setMaxValue(DatumFactory.createText("z"));
+    stats.addColumnStat(comment);
+
+    ColumnStats orderDate = new ColumnStats(schema.getColumn(3));
+    orderDate.setNumNulls(0);
+    orderDate.setNumDistVals(30);
+    orderDate.setMinValue(DatumFactory.createDate("1995-01-01"));
+    orderDate.setMaxValue(DatumFactory.createDate("1995-01-30"));
+    stats.addColumnStat(orderDate);
+
+    store.updateTableStats(CatalogProtos.UpdateTableStatsProto.newBuilder()
+        .setTableName(table.getName())
+        .setStats(stats.getProto())
+        .build());
+
+    TableStats updated = new TableDesc(store.getTable(DB_NAME, tableName)).getStats();
+    assertEquals(100, updated.getNumRows().longValue());
+    assertEquals(4096, updated.getNumBytes().longValue());
+    assertEquals(4, updated.getColumnStats().size());
+
+    for (ColumnStats columnStats : updated.getColumnStats()) {
+      String name = columnStats.getColumn().getSimpleName();
+      if (name.equals("o_orderkey")) {
+        assertEquals(100, columnStats.getNumDistValues().longValue());
+        assertEquals(DatumFactory.createInt8(1), columnStats.getMinValue());
+        assertEquals(DatumFactory.createInt8(100), columnStats.getMaxValue());
+      } else if (name.equals("o_totalprice")) {
+        assertEquals(2, columnStats.getNumNulls().longValue());
+        assertEquals(DatumFactory.createFloat8(0.5), columnStats.getMinValue());
+        assertEquals(DatumFactory.createFloat8(999.5), columnStats.getMaxValue());
+      } else if (name.equals("o_comment")) {
+        // Hive keeps no min/max values for strings.
+        assertEquals(5, columnStats.getNumNulls().longValue());
+        assertEquals(80, columnStats.getNumDistValues().longValue());
+        assertTrue(columnStats.minIsNotSet());
+      } else {
+        assertEquals("o_orderdate", name);
+        assertEquals(DatumFactory.createDate("1995-01-01"), columnStats.getMinValue());
+        assertEquals(DatumFactory.createDate("1995-01-30"), columnStats.getMaxValue());
+      }
+    }
+
+    store.dropTable(DB_NAME, tableName);
+  }
+
   @Test
   public void testTableUsingSequenceFileWithBinarySerde() throws Exception {
     KeyValueSet options = new KeyValueSet();
@@ -269,6 +269,12 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
 
     schemaVersion = getSchemaVersion();
 
+    if (schemaVersion != -1 && schemaVersion < getDriverVersion() &&
+        catalogSchemaManager.isUpgradable(schemaVersion)) {
+      upgradeSchemaVersion(schemaVersion);
+      schemaVersion = getSchemaVersion();
+    }
+
     if (schemaVersion == -1 || schemaVersion != getDriverVersion()) {
       LOG.error(String.format("Catalog version (%d) and current driver version (%d) are mismatch to each other",
           schemaVersion, getDriverVersion()));
@@ -287,6 +293,21 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
         getDriverVersion()));
   }
 
+  /**
+   * Apply the schema patches from the given version, and update the version of the catalog schema
+   */
+  private void upgradeSchemaVersion(int schemaVersion) {
+    LOG.info(String.format("Upgrading the catalog schema from version %d to %d", schemaVersion, getDriverVersion()));
+    catalogSchemaManager.upgradeBaseSchema(getConnection(), schemaVersion);
+
+    try (PreparedStatement pstmt = getConnection().prepareStatement("UPDATE META SET VERSION = ?")) {
+      pstmt.setInt(1, getDriverVersion());
+      pstmt.executeUpdate();
+    } catch (SQLException se) {
+      throw new TajoInternalError(se);
+    }
+  }
+
   /**
    * Insert the version of the current catalog schema
    */
@@ -874,6 +895,10 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
         pstmt.setLong(3, table.getStats().getNumBytes());
         pstmt.executeUpdate();
         pstmt.close();
+
+        if (table.getStats().getColStatCount() > 0) {
+          replaceColumnStats(conn, tableId, table.getStats().getColStatList());
+        }
       }
 
       if (table.hasPartition()) {
@@ -957,7 +982,28 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
         pstmt.setLong(1, statsProto.getStats().getNumRows());
         pstmt.setLong(2, statsProto.getStats().getNumBytes());
         pstmt.setInt(3, tableId);
-        pstmt.executeUpdate();
+        int updated = pstmt.executeUpdate();
+        pstmt.close();
+
+        // A table created without stats does not have a row yet.
+        if (updated == 0) {
+          statSql = "INSERT INTO " + TB_STATISTICS + " (TID, NUM_ROWS, NUM_BYTES) VALUES(?, ?, ?)";
+
+          if (LOG.isDebugEnabled()) {
+            LOG.debug(statSql);
+          }
+
+          pstmt = conn.prepareStatement(statSql);
+          pstmt.setInt(1, tableId);
+          pstmt.setLong(2, statsProto.getStats().getNumRows());
+          pstmt.setLong(3, statsProto.getStats().getNumBytes());
+          pstmt.executeUpdate();
+          pstmt.close();
+        }
+
+        if (statsProto.getStats().getColStatCount() > 0) {
+          replaceColumnStats(conn, tableId, statsProto.getStats().getColStatList());
+        }
       }
 
       // If there is no error, commit the changes.
@@ -976,6 +1022,41 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
     }
   }
 
+  /**
+   * Replaces the column statistics of a table. Each column stat is kept as a serialized ColumnStatsProto
+   * keyed by its position in the given list.
+   */
+  private void replaceColumnStats(Connection conn, int tableId, List<ColumnStatsProto> columnStats)
+      throws SQLException {
+    String sql = "DELETE FROM " + TB_COLUMN_STATISTICS + " WHERE " + COL_TABLES_PK + " = ?";
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(sql);
+    }
+
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      pstmt.setInt(1, tableId);
+      pstmt.executeUpdate();
+    }
+
+    sql = "INSERT INTO " + TB_COLUMN_STATISTICS + " (TID, ORDINAL_POSITION, STATS) VALUES(?, ?, ?)";
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(sql);
+    }
+
+    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+      for (int i = 0; i < columnStats.size(); i++) {
+        pstmt.setInt(1, tableId);
+        pstmt.setInt(2, i);
+        pstmt.setBytes(3, columnStats.get(i).toByteArray());
+        pstmt.addBatch();
+        pstmt.clearParameters();
+      }
+      pstmt.executeBatch();
+    }
+  }
+
   @Override
   public void alterTable(CatalogProtos.AlterTableDescProto alterTableDescProto)
       throws UndefinedDatabaseException, DuplicateTableException, DuplicateColumnException,
@@ -1496,6 +1577,16 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       pstmt.executeUpdate();
       pstmt.close();
 
+      sql = "DELETE FROM " + TB_COLUMN_STATISTICS + " WHERE " + COL_TABLES_PK + " = ? ";
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug(sql);
+      }
+
+      pstmt = conn.prepareStatement(sql);
+      pstmt.setInt(1, tableId);
+      pstmt.executeUpdate();
+      pstmt.close();
 
       sql = "DELETE FROM " + TB_STATISTICS + " WHERE " + COL_TABLES_PK + " = ? ";
 
@@ -1719,6 +1810,20 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
         TableStatsProto.Builder statBuilder = TableStatsProto.newBuilder();
         statBuilder.setNumRows(res.getLong("num_rows"));
         statBuilder.setNumBytes(res.getLong("num_bytes"));
+        res.close();
+        pstmt.close();
+
+        sql = "SELECT stats FROM " + TB_COLUMN_STATISTICS + " WHERE " + COL_TABLES_PK + " = ?" +
+            " ORDER BY ORDINAL_POSITION ASC";
+        if (LOG.isDebugEnabled()) {
+          LOG.debug(sql);
+        }
+        pstmt = conn.prepareStatement(sql);
+        pstmt.setInt(1, tableId);
+        res = pstmt.executeQuery();
+        while (res.next()) {
+          statBuilder.addColStat(ColumnStatsProto.parseFrom(res.getBytes("stats")));
+        }
         tableBuilder.setStats(statBuilder);
       }
       res.close();
@@ -1742,7 +1847,7 @@ public abstract class AbstractDBStore extends CatalogConstants implements Catalo
       if (res.next()) {
         tableBuilder.setPartition(resultToPartitionMethodProto(databaseName, tableName, res));
       }
-    } catch (SQLException se) {
+    } catch (SQLException | InvalidProtocolBufferException se) {
       throw new TajoInternalError(se);
     } finally {
       CatalogUtil.closeQuietly(pstmt, res);
@@ -28,8 +28,12 @@ import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.catalog.proto.CatalogProtos.FunctionType;
 import org.apache.tajo.catalog.proto.CatalogProtos.IndexMethod;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.HyperLogLog;
+import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.common.TajoDataTypes;
 import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.exception.TajoException;
 import org.apache.tajo.exception.UndefinedFunctionException;
 import org.apache.tajo.function.Function;
@@ -323,6 +327,52 @@ public class TestCatalog {
     assertFalse(catalog.existsTable(DEFAULT_DATABASE_NAME, "getTable"));
 	}
 
+  @Test
+  public void testUpdateColumnStats() throws Exception {
+    Schema schema = SchemaBuilder.builder()
+        .add("id", Type.INT4)
+        .add("name", Type.TEXT)
+        .build();
+    String tableName = IdentifierUtil.buildFQName(DEFAULT_DATABASE_NAME, "column_stats");
+    Path path = new Path(CommonTestingUtil.getTestDir(), "column_stats");
+    catalog.createTable(new TableDesc(tableName, schema, "TEXT", new KeyValueSet(), path.toUri()));
+
+    TableStats stats = new TableStats();
+    stats.setNumRows(100);
+    stats.setNumBytes(1000);
+
+    ColumnStats idStats = new ColumnStats(schema.getColumn(0));
+    HyperLogLog sketch = new HyperLogLog();
+    for (int i = 1; i <= 100; i++) {
+      sketch.offer(DatumFactory.createInt4(i));
+    }
+    idStats.setNdvSketch(sketch);
+    idStats.setNumDistVals(sketch.cardinality());
+    idStats.setNumNulls(0);
+    idStats.setMinValue(DatumFactory.createInt4(1));
+    idStats.setMaxValue(DatumFactory.createInt4(100));
+    stats.addColumnStat(idStats);
+
+    ColumnStats nameStats = new ColumnStats(schema.getColumn(1));
+    nameStats.setNumNulls(10);
+    stats.addColumnStat(nameStats);
+
+    catalog.updateTableStats(CatalogProtos.UpdateTableStatsProto.newBuilder()
+        .setTableName(tableName)
+        .setStats(stats.getProto())
+        .build());
+
+    TableStats restored = catalog.getTableDesc(tableName).getStats();
+    assertEquals(100, restored.getNumRows().longValue());
+    assertEquals(1000, restored.getNumBytes().longValue());
+    assertEquals(2, restored.getColumnStats().size());
+    assertEquals(idStats, restored.getColumnStats().get(0));
+    assertEquals(nameStats, restored.getColumnStats().get(1));
+
+    catalog.dropTable(tableName);
+    assertFalse(catalog.existsTable(tableName));
+  }
+
   /**
    * It asserts the equality between an original table desc and a restored table desc.
    */
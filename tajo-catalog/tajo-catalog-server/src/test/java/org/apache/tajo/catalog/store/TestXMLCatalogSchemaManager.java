@@ -464,6 +464,8 @@ public class TestXMLCatalogSchemaManager {
     assertThat(manager.isLoaded(), is(true));
     assertThat(manager.getCatalogStore().getPatches(), hasSize(1));
     assertThat(manager.getCatalogStore().getPatches().get(0).getObjects(), hasSize(2));
+    assertThat(manager.isUpgradable(1), is(true));
+    assertThat(manager.isUpgradable(0), is(false));
     
     stmt = conn.createStatement();
     stmt.addBatch("create schema " + manager.getCatalogStore().getSchema().getSchemaName());
@@ -31,6 +31,7 @@ public enum QueryVars implements ConfigKey {
   OUTPUT_OVERWRITE,
   OUTPUT_AS_DIRECTORY,
   OUTPUT_PER_FILE_SIZE,
+  ANALYZE_TABLE_NAME,
   ;
 
   QueryVars() {
@@ -92,6 +92,9 @@ public enum SessionVars implements ConfigKey {
   USE_TABLE_VOLUME(ConfVars.$USE_TABLE_VOLUME,
       "Enable optimizer to get and use the table volume via storage handlers", DEFAULT, Boolean.class,
       Validators.bool()),
+  JOIN_ORDER_DP_MAX_RELATIONS(ConfVars.$JOIN_ORDER_DP_MAX_RELATIONS,
+      "the maximum number of relations of which the join order is found by dynamic programming", DEFAULT,
+      Integer.class, Validators.range("0", "20")),
 
   // for distributed query strategies
   BROADCAST_NON_CROSS_JOIN_THRESHOLD(ConfVars.$DIST_QUERY_BROADCAST_NON_CROSS_JOIN_THRESHOLD,
@@ -117,27 +120,63 @@ public enum SessionVars implements ConfigKey {
   GROUPBY_MULTI_LEVEL_ENABLED(ConfVars.$GROUPBY_MULTI_LEVEL_ENABLED, "Multiple level groupby enabled", DEFAULT,
       Boolean.class, Validators.bool()),
 
+  RUNTIME_JOIN_FILTER_ENABLED(ConfVars.$DIST_QUERY_RUNTIME_JOIN_FILTER_ENABLED,
+      "If true, a Bloom filter on the join keys of the right relation drops non-matching left rows before shuffle",
+      DEFAULT, Boolean.class, Validators.bool()),
+  RUNTIME_JOIN_FILTER_SIZE(ConfVars.$DIST_QUERY_RUNTIME_JOIN_FILTER_SIZE, "the size of a runtime join filter (kb)",
+      DEFAULT, Integer.class, Validators.min("1")),
+  JOIN_SKEW_SPLIT_ENABLED(ConfVars.$DIST_QUERY_JOIN_SKEW_SPLIT_ENABLED,
+      "If true, a skewed join partition is split across multiple tasks", DEFAULT, Boolean.class, Validators.bool()),
+  JOIN_SKEW_FACTOR(ConfVars.$DIST_QUERY_JOIN_SKEW_FACTOR,
+      "a join partition is skewed if it is larger than the average partition by this factor", DEFAULT),
+  SHUFFLE_COALESCE_PARTITIONS_ENABLED(ConfVars.$DIST_QUERY_COALESCE_PARTITIONS_ENABLED,
+      "If true, contiguous small shuffle partitions are coalesced into a task up to the task input size", DEFAULT,
+      Boolean.class, Validators.bool()),
+  ADAPTIVE_EXECUTION_ENABLED(ConfVars.$DIST_QUERY_ADAPTIVE_EXECUTION_ENABLED,
+      "If true, remaining execution blocks are adjusted according to the actual output sizes of completed ones",
+      DEFAULT, Boolean.class, Validators.bool()),
+  SPECULATIVE_EXECUTION_ENABLED(ConfVars.$DIST_QUERY_SPECULATIVE_EXECUTION_ENABLED,
+      "If true, a straggler task of a range shuffled stage is executed again on another worker", DEFAULT,
+      Boolean.class, Validators.bool()),
+
   QUERY_EXECUTE_PARALLEL(ConfVars.$QUERY_EXECUTE_PARALLEL_MAX, "Maximum parallel running of execution blocks for a query",
       DEFAULT, Integer.class, Validators.min("1")),
+  QUERY_QUEUE(ConfVars.$QUERY_QUEUE, "the scheduler queue to which a query is submitted", DEFAULT),
 
   // for physical Executors
   EXTSORT_BUFFER_SIZE(ConfVars.$EXECUTOR_EXTERNAL_SORT_BUFFER_SIZE, "sort buffer size for external sort (mb)", DEFAULT,
       Integer.class, Validators.min("0")),
   HASH_SHUFFLE_BUFFER_SIZE(ConfVars.$EXECUTOR_HASH_SHUFFLE_BUFFER_SIZE, "hash-shuffle buffer size for local disk I/O (mb)"
       , DEFAULT, Integer.class, Validators.min("1")),
+  HASH_SHUFFLE_PUSH_ENABLED(ConfVars.$EXECUTOR_HASH_SHUFFLE_PUSH_ENABLED,
+      "If true, hash-shuffle tasks push partitions to merger workers instead of keeping them for pull", DEFAULT,
+      Boolean.class, Validators.bool()),
+  HASH_SHUFFLE_COMPRESSION_CODEC(ConfVars.$EXECUTOR_HASH_SHUFFLE_COMPRESSION_CODEC,
+      "compression codec name or class of hash-shuffle data blocks (empty means no compression)", DEFAULT),
   HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_HASH_JOIN_SIZE_THRESHOLD, "limited size for hash join (mb)", DEFAULT,
       Long.class, Validators.min("0")),
   INNER_HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_INNER_HASH_JOIN_SIZE_THRESHOLD,
       "limited size for hash inner join (mb)", DEFAULT, Long.class, Validators.min("0")),
   OUTER_HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_OUTER_HASH_JOIN_SIZE_THRESHOLD, "limited size for hash outer join (mb)",
       DEFAULT, Long.class, Validators.min("0")),
+  HASH_JOIN_SPILL_ENABLED(ConfVars.$EXECUTOR_HASH_JOIN_SPILL_ENABLED,
+      "If true, hash join spills partitions of both inputs to local disk when the build side exceeds its size limit",
+      DEFAULT, Boolean.class, Validators.bool()),
   HASH_GROUPBY_SIZE_LIMIT(ConfVars.$EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD, "limited size for hash groupby (mb)",
       DEFAULT, Long.class, Validators.min("0")),
+  HASH_GROUPBY_SPILL_ENABLED(ConfVars.$EXECUTOR_GROUPBY_HASH_SPILL_ENABLED,
+      "If true, hash groupby spills partitions to local disk when it exceeds HASH_GROUPBY_SIZE_LIMIT", DEFAULT,
+      Boolean.class, Validators.bool()),
   MAX_OUTPUT_FILE_SIZE(ConfVars.$MAX_OUTPUT_FILE_SIZE, "Maximum per-output file size (mb). 0 means infinite.", DEFAULT,
       Long.class, Validators.min("0")),
   NULL_CHAR(ConfVars.$TEXT_NULL, "Null char of text file output. " +
       "This value is used when the table property 'text.null' is not specified.", DEFAULT),
   CODEGEN(ConfVars.$CODEGEN, "Runtime code generation enabled (experiment)", DEFAULT),
+  VECTORIZED_EXECUTION_ENABLED(ConfVars.$EXECUTOR_VECTORIZED_ENABLED,
+      "If true, scan, filter, projection and hash aggregation exchange rows in column batches (experiment)", DEFAULT,
+      Boolean.class, Validators.bool()),
+  VECTORIZED_BATCH_SIZE(ConfVars.$EXECUTOR_VECTORIZED_BATCH_SIZE, "The number of rows in a column batch", DEFAULT,
+      Integer.class, Validators.min("1")),
   AGG_HASH_TABLE_SIZE(ConfVars.$AGG_HASH_TABLE_SIZE, "The initial size of list for in-memory aggregation", DEFAULT),
   SORT_LIST_SIZE(ConfVars.$SORT_LIST_SIZE, "The initial size of list for in-memory sort", DEFAULT),
   JOIN_HASH_TABLE_SIZE(ConfVars.$JOIN_HASH_TABLE_SIZE, "The initial size of hash table for in-memory hash join",
@@ -185,6 +185,9 @@ public class TajoConf extends Configuration {
     WORKER_RESOURCE_AVAILABLE_CPU_CORES("tajo.worker.resource.cpu-cores",
         Math.max(Runtime.getRuntime().availableProcessors(), 2), Validators.min("2")), // 1qm + 1task container
     WORKER_RESOURCE_AVAILABLE_MEMORY_MB("tajo.worker.resource.memory-mb", 1500, Validators.min("64")),
+    // the rate of the worker memory which can be reserved by sort, hash join and hash aggregation operators
+    WORKER_RESOURCE_EXECUTION_MEMORY_RATE("tajo.worker.resource.execution-memory.rate", 0.7f,
+        Validators.range("0.0", "1.0")),
 
     WORKER_RESOURCE_AVAILABLE_DISK_PARALLEL_NUM("tajo.worker.resource.disk.parallel-execution.num", 2,
         Validators.min("1")),
@@ -196,11 +199,23 @@ public class TajoConf extends Configuration {
     //Default query scheduler
     RESOURCE_SCHEDULER_CLASS("tajo.resource.scheduler", "org.apache.tajo.master.scheduler.SimpleScheduler",
         Validators.groups(Validators.notNull(), Validators.clazz())),
+    // comma separated queue names of FairScheduler. Each queue is configured by tajo.resource.scheduler.queue.<name>.*
+    RESOURCE_SCHEDULER_QUEUES("tajo.resource.scheduler.queues", "default", Validators.notNull()),
+    // a queue starved for this time takes the resources released by queues over their fair shares
+    RESOURCE_SCHEDULER_PREEMPTION_TIMEOUT("tajo.resource.scheduler.preemption.timeout", 5000,
+        Validators.min("0")),  // 5 sec
 
     QUERYMASTER_TASK_SCHEDULER_DELAY("tajo.qm.task-scheduler.delay", 50),  // 50 ms
 
     QUERYMASTER_TASK_SCHEDULER_REQUEST_MAX_NUM("tajo.qm.task-scheduler.request.max-num", 50),
 
+    // a leaf task waits for a worker holding its data up to this delay since the last local assignment
+    QUERYMASTER_TASK_SCHEDULER_LOCALITY_DELAY("tajo.qm.task-scheduler.locality-delay", 0, Validators.min("0")),
+    QUERYMASTER_SPECULATIVE_SLOW_TASK_FACTOR("tajo.qm.speculative.slow-task-factor", 1.5f, Validators.min("1")),
+    QUERYMASTER_SPECULATIVE_MIN_COMPLETED_RATIO("tajo.qm.speculative.min-completed-ratio", 0.5f,
+        Validators.range("0", "1")),
+    QUERYMASTER_SPECULATIVE_MAX_TASK_RATIO("tajo.qm.speculative.max-task-ratio", 0.1f, Validators.range("0", "1")),
+
     // Query Configuration
     QUERY_SESSION_TIMEOUT("tajo.query.session.timeout-sec", 60, Validators.min("0")),
     QUERY_SESSION_QUERY_CACHE_SIZE("tajo.query.session.query-cache-size-kb", 0, Validators.min("0")),
@@ -209,6 +224,9 @@ public class TajoConf extends Configuration {
     PULLSERVER_PORT("tajo.pullserver.port", 0, Validators.range("0", "65535")),
     PULLSERVER_CACHE_SIZE("tajo.pullserver.index-cache.size", 10000, Validators.min("1")),
     PULLSERVER_CACHE_TIMEOUT("tajo.pullserver.index-cache.timeout-min", 5, Validators.min("1")),
+    PULLSERVER_CACHE_MEMORY_SIZE("tajo.pullserver.index-cache.memory-size", (long) 64 * StorageUnit.MB,
+        Validators.min("0")),
+    PULLSERVER_FILE_CACHE_SIZE("tajo.pullserver.file-cache.size", 1024, Validators.min("0")),
     PULLSERVER_FETCH_URL_MAX_LENGTH("tajo.pullserver.fetch-url.max-length", StorageUnit.KB,
         Validators.min("1")),
     YARN_SHUFFLE_SERVICE_ENABLED("tajo.shuffle.yarn-service.enabled", false, Validators.bool()),
@@ -220,8 +238,14 @@ public class TajoConf extends Configuration {
     SHUFFLE_FETCHER_CONNECT_TIMEOUT("tajo.shuffle.fetcher.connect.timeout-sec", 60, Validators.min("1")),
     SHUFFLE_FETCHER_READ_TIMEOUT("tajo.shuffle.fetcher.read.timeout-sec", 60, Validators.min("1")),
     SHUFFLE_FETCHER_READ_RETRY_MAX_NUM("tajo.shuffle.fetcher.read.retry.max-num", 2, Validators.min("0")),
+    SHUFFLE_FETCHER_STREAMING_ENABLED("tajo.shuffle.fetcher.streaming.enabled", false, Validators.bool()),
+    SHUFFLE_FETCHER_STREAMING_BUFFER_SIZE("tajo.shuffle.fetcher.streaming.buffer-mb", 64, Validators.min("1")),
+    SHUFFLE_FETCHER_BATCH_ENABLED("tajo.shuffle.fetcher.batch.enabled", false, Validators.bool()),
+    SHUFFLE_FETCHER_BATCH_MAX_NUM("tajo.shuffle.fetcher.batch.max-num", 64, Validators.min("1")),
+    SHUFFLE_FETCHER_MMAP_ENABLED("tajo.shuffle.fetcher.mmap.enabled", false, Validators.bool()),
     SHUFFLE_HASH_APPENDER_PAGE_VOLUME("tajo.shuffle.hash.appender.page.volume-mb", 30),
     SHUFFLE_HASH_PARENT_DIRS("tajo.shuffle.hash.parent.dirs.count", 64),
+    SHUFFLE_PUSH_MERGER_THREAD_NUM("tajo.shuffle.push.merger.thread-num", 4, Validators.min("1")),
 
     // Query output Configuration --------------------------------------------------
     QUERY_OUTPUT_DEFAULT_FILE_FORMAT("tajo.query.output.file-format", BuiltinStorages.DRAW, Validators.javaString()),
@@ -229,6 +253,8 @@ public class TajoConf extends Configuration {
     // Storage Configuration --------------------------------------------------
     ROWFILE_SYNC_INTERVAL("rowfile.sync.interval", 100),
     MINIMUM_SPLIT_SIZE("tajo.min.split.size", 32 * StorageUnit.MB, Validators.min("1")),
+    // If true, a text scanner decodes only the fields referred by a filter before evaluating it
+    TEXT_LATE_MATERIALIZATION_ENABLED("tajo.storage.text.late-materialization.enabled", true, Validators.bool()),
     // for RCFile
     HIVEUSEEXPLICITRCFILEHEADER("tajo.exec.rcfile.use.explicit.header", true, Validators.bool()),
 
@@ -279,6 +305,9 @@ public class TajoConf extends Configuration {
         "org.apache.tajo.engine.planner.global.rewriter.BaseGlobalPlanRewriteRuleProvider"),
     EXECUTOR_EXTERNAL_SORT_THREAD_NUM("tajo.executor.external-sort.thread-num", 1),
     EXECUTOR_EXTERNAL_SORT_FANOUT("tajo.executor.external-sort.fanout-num", 8),
+    EXECUTOR_EXTERNAL_SORT_MAX_FANOUT("tajo.executor.external-sort.max-fanout-num", 256),
+    EXECUTOR_GROUPBY_SPILL_PARTITION_NUM("tajo.executor.groupby.spill.partition-num", 16),
+    EXECUTOR_JOIN_SPILL_PARTITION_NUM("tajo.executor.join.spill.partition-num", 32),
 
     // Metrics ----------------------------------------------------------------
     METRICS_PROPERTY_FILENAME("tajo.metrics.property.file", "tajo-metrics.properties"),
@@ -331,6 +360,10 @@ public class TajoConf extends Configuration {
     // By default, this config value is false, and in this case the optimizer uses the table stats from catalog.
     $USE_TABLE_VOLUME("tajo.optimizer.stats.use-table-volume", Boolean.FALSE),
 
+    // The maximum number of relations of which the join order is found by dynamic programming.
+    // The greedy heuristic is used for more relations. 0 disables dynamic programming.
+    $JOIN_ORDER_DP_MAX_RELATIONS("tajo.optimizer.join-order.dp.max-relations", 0, Validators.range("0", "20")),
+
 
     // for distributed query strategies
     $DIST_QUERY_BROADCAST_NON_CROSS_JOIN_THRESHOLD("tajo.dist-query.broadcast.non-cross-join.threshold-kb", 5 * 1024l,
@@ -347,7 +380,16 @@ public class TajoConf extends Configuration {
 
     $GROUPBY_MULTI_LEVEL_ENABLED("tajo.dist-query.groupby.multi-level-aggr", true),
 
+    $DIST_QUERY_RUNTIME_JOIN_FILTER_ENABLED("tajo.dist-query.join.runtime-filter.enabled", false),
+    $DIST_QUERY_RUNTIME_JOIN_FILTER_SIZE("tajo.dist-query.join.runtime-filter.size-kb", 1024, Validators.min("1")),
+    $DIST_QUERY_JOIN_SKEW_SPLIT_ENABLED("tajo.dist-query.join.skew-split.enabled", true),
+    $DIST_QUERY_JOIN_SKEW_FACTOR("tajo.dist-query.join.skew-factor", 4.0f, Validators.min("1")),
+    $DIST_QUERY_COALESCE_PARTITIONS_ENABLED("tajo.dist-query.shuffle.coalesce-partitions.enabled", true),
+    $DIST_QUERY_ADAPTIVE_EXECUTION_ENABLED("tajo.dist-query.adaptive-execution.enabled", false),
+    $DIST_QUERY_SPECULATIVE_EXECUTION_ENABLED("tajo.dist-query.speculative-execution.enabled", false),
+
     $QUERY_EXECUTE_PARALLEL_MAX("tajo.query.execute.parallel.max", 10),
+    $QUERY_QUEUE("tajo.query.queue", "default"),
 
     // for physical Executors
     $EXECUTOR_EXTERNAL_SORT_BUFFER_SIZE("tajo.executor.external-sort.buffer-mb", 200),
@@ -356,11 +398,17 @@ public class TajoConf extends Configuration {
         Validators.min("0")),
     $EXECUTOR_OUTER_HASH_JOIN_SIZE_THRESHOLD("tajo.executor.join.outer.in-memory-hash-threshold-mb", 64l,
         Validators.min("0")),
+    $EXECUTOR_HASH_JOIN_SPILL_ENABLED("tajo.executor.join.hash-spill.enabled", false),
     $EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD("tajo.executor.groupby.in-memory-hash-threshold-mb", 64l,
         Validators.min("0")),
+    $EXECUTOR_GROUPBY_HASH_SPILL_ENABLED("tajo.executor.groupby.hash-spill.enabled", false),
     $EXECUTOR_HASH_SHUFFLE_BUFFER_SIZE("tajo.executor.hash-shuffle.buffer-mb", 100, Validators.min("1")),
+    $EXECUTOR_HASH_SHUFFLE_PUSH_ENABLED("tajo.executor.hash-shuffle.push.enabled", false),
+    $EXECUTOR_HASH_SHUFFLE_COMPRESSION_CODEC("tajo.executor.hash-shuffle.compression.codec", ""),
     $MAX_OUTPUT_FILE_SIZE("tajo.query.max-outfile-size-mb", 0), // zero means infinite
     $CODEGEN("tajo.executor.codegen.enabled", false), // Runtime code generation (todo this is broken)
+    $EXECUTOR_VECTORIZED_ENABLED("tajo.executor.vectorized.enabled", false),
+    $EXECUTOR_VECTORIZED_BATCH_SIZE("tajo.executor.vectorized.batch-size", 1024, Validators.min("1")),
     $AGG_HASH_TABLE_SIZE("tajo.executor.aggregate.hash-table.size", 10000),
     $SORT_LIST_SIZE("tajo.executor.sort.list.size", 100000),
     $JOIN_HASH_TABLE_SIZE("tajo.executor.join.hash-table.size", 100000),
@@ -121,6 +121,8 @@ public class StorageConstants {
 
   // Internal storage properties -------------------------------------------------
   public static final String SHUFFLE_TYPE = "shuffle.type";
+  // If true, the range of a fragment in a local raw file is read through memory-mapped buffers
+  public static final String RAWFILE_MMAP_ENABLED = "rawfile.mmap.enabled";
 
   public static final String DEFAULT_PARTITION_NAME = "__TAJO_DEFAULT_PARTITION__";
 
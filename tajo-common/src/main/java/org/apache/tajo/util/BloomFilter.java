@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A Bloom filter over 32-bit hash values of keys. It never gives false negatives, so it can be used to drop rows
+ * which cannot match any key of another relation. Each key is mapped to <code>numHashes</code> bits by double
+ * hashing. Filters of the same size can be merged.
+ */
+public class BloomFilter {
+  private final BitArray bits;
+  private final int numBits;
+  private final int numHashes;
+
+  public BloomFilter(int numBits, int numHashes) {
+    Preconditions.checkArgument(numBits > 0, "numBits must be positive");
+    Preconditions.checkArgument(numHashes > 0, "numHashes must be positive");
+    // rounded up to bytes so that a filter restored from bytes has the same size
+    this.bits = new BitArray((numBits + 7) / 8 * 8);
+    this.numBits = bits.bitsLength();
+    this.numHashes = numHashes;
+  }
+
+  public BloomFilter(byte [] bytes, int numHashes) {
+    Preconditions.checkArgument(bytes.length > 0, "bytes must not be empty");
+    this.bits = new BitArray(bytes);
+    this.numBits = bits.bitsLength();
+    this.numHashes = numHashes;
+  }
+
+  public void add(int hash) {
+    int hash2 = MurmurHash.hashLong(hash);
+    for (int i = 0; i < numHashes; i++) {
+      bits.set(((hash + i * hash2) & Integer.MAX_VALUE) % numBits);
+    }
+  }
+
+  /**
+   * @return false if the key of the hash value is definitely not added. Otherwise, true.
+   */
+  public boolean mightContain(int hash) {
+    int hash2 = MurmurHash.hashLong(hash);
+    for (int i = 0; i < numHashes; i++) {
+      if (!bits.get(((hash + i * hash2) & Integer.MAX_VALUE) % numBits)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Add all keys of the other filter into this filter.
+   */
+  public void merge(BloomFilter other) {
+    Preconditions.checkArgument(numBits == other.numBits && numHashes == other.numHashes,
+        "Bloom filters of different sizes cannot be merged");
+    byte [] data = bits.toArray();
+    byte [] otherData = other.bits.toArray();
+    for (int i = 0; i < data.length; i++) {
+      data[i] |= otherData[i];
+    }
+  }
+
+  /**
+   * @return the ratio of set bits. The false positive rate is about (ratio ^ numHashes).
+   */
+  public double getFillRatio() {
+    long setBits = 0;
+    for (byte b : bits.toArray()) {
+      setBits += Integer.bitCount(b & 0xff);
+    }
+    return (double) setBits / numBits;
+  }
+
+  public int getNumBits() {
+    return numBits;
+  }
+
+  public int getNumHashes() {
+    return numHashes;
+  }
+
+  public byte [] toByteArray() {
+    return bits.toArray();
+  }
+}
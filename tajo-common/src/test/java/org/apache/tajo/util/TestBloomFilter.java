@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestBloomFilter {
+
+  @Test
+  public void testMightContain() {
+    BloomFilter filter = new BloomFilter(8 * 1024, 3);
+    for (int i = 0; i < 100; i++) {
+      filter.add(MurmurHash.hashLong(i));
+    }
+    for (int i = 0; i < 100; i++) {
+      assertTrue(filter.mightContain(MurmurHash.hashLong(i)));
+    }
+
+    int falsePositives = 0;
+    for (int i = 100; i < 10100; i++) {
+      if (filter.mightContain(MurmurHash.hashLong(i))) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 100);
+  }
+
+  @Test
+  public void testMerge() {
+    BloomFilter filter1 = new BloomFilter(1000, 3);
+    BloomFilter filter2 = new BloomFilter(1000, 3);
+    filter1.add(1);
+    filter2.add(2);
+    assertFalse(filter1.mightContain(2));
+
+    // a filter restored from bytes should have the same size
+    BloomFilter restored = new BloomFilter(filter2.toByteArray(), 3);
+    assertEquals(filter1.getNumBits(), restored.getNumBits());
+
+    filter1.merge(restored);
+    assertTrue(filter1.mightContain(1));
+    assertTrue(filter1.mightContain(2));
+    assertTrue(filter1.getFillRatio() > 0);
+  }
+}
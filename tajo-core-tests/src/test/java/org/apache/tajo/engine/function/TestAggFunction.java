@@ -18,14 +18,22 @@
 
 package org.apache.tajo.engine.function;
 
+import com.google.protobuf.ByteString;
+import org.apache.tajo.InternalTypes.ValueSampleProto;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.statistics.HyperLogLog;
+import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.plan.function.FunctionContext;
 import org.junit.Test;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.engine.function.builtin.AvgLong;
+import org.apache.tajo.engine.function.builtin.NdvSketch;
+import org.apache.tajo.engine.function.builtin.ValueSample;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class TestAggFunction {
@@ -62,4 +70,70 @@ public class TestAggFunction {
     avg.merge(ctx, new VTuple(new Datum[] {avg.getPartialResult(ctx2)}));
     assertTrue((double)(15 + 55) / (5 + 10) == avg.terminate(ctx).asFloat8());
   }
+
+  private static FunctionContext evalRange(ValueSample sample, int from, int to) {
+    FunctionContext ctx = sample.newContext();
+    for (int i = from; i < to; i++) {
+      sample.eval(ctx, new VTuple(new Datum[] {DatumFactory.createInt4(i)}));
+    }
+    return ctx;
+  }
+
+  @Test
+  public void testNdvSketch() throws Exception {
+    NdvSketch ndv = new NdvSketch();
+    FunctionContext ctx = ndv.newContext();
+    FunctionContext ctx2 = ndv.newContext();
+    for (int i = 0; i < 10000; i++) {
+      ndv.eval(ctx, new VTuple(new Datum[] {DatumFactory.createInt4(i)}));
+      ndv.eval(ctx2, new VTuple(new Datum[] {DatumFactory.createInt4(i + 5000)}));
+    }
+    ndv.eval(ctx, new VTuple(new Datum[] {DatumFactory.createNullDatum()}));
+
+    long cardinality = HyperLogLog.fromBytes(ndv.terminate(ctx).asByteArray()).cardinality();
+    assertTrue(Math.abs(cardinality - 10000) < 10000 * 0.05);
+
+    // the overlapped values are not counted twice
+    ndv.merge(ctx, new VTuple(new Datum[] {ndv.getPartialResult(ctx2)}));
+    cardinality = HyperLogLog.fromBytes(ndv.terminate(ctx).asByteArray()).cardinality();
+    assertTrue(Math.abs(cardinality - 15000) < 15000 * 0.05);
+  }
+
+  @Test
+  public void testValueSampleMerge() throws Exception {
+    ValueSample sample = new ValueSample();
+
+    // a partial sample keeps all values if they are less than the sample size
+    FunctionContext small = evalRange(sample, 0, 1000);
+    ValueSampleProto proto = ValueSampleProto.parseFrom(sample.terminate(small).asByteArray());
+    assertEquals(1000, proto.getCount());
+    assertEquals(1000, proto.getValuesCount());
+
+    // merging an empty partial sample changes nothing
+    sample.merge(small, new VTuple(new Datum[] {sample.getPartialResult(sample.newContext())}));
+    proto = ValueSampleProto.parseFrom(sample.terminate(small).asByteArray());
+    assertEquals(1000, proto.getCount());
+
+    // a reservoir sample of 3000 values
+    FunctionContext large = evalRange(sample, 10000, 13000);
+    proto = ValueSampleProto.parseFrom(sample.terminate(large).asByteArray());
+    assertEquals(3000, proto.getCount());
+    assertEquals(ValueSample.SAMPLE_SIZE, proto.getValuesCount());
+
+    // the values are drawn from each partial sample in proportion to the number of rows it represents
+    sample.merge(small, new VTuple(new Datum[] {sample.getPartialResult(large)}));
+    proto = ValueSampleProto.parseFrom(sample.terminate(small).asByteArray());
+    assertEquals(4000, proto.getCount());
+    assertEquals(ValueSample.SAMPLE_SIZE, proto.getValuesCount());
+
+    int fromSmall = 0;
+    for (ByteString value : proto.getValuesList()) {
+      if (DatumFactory.createFromBytes(CatalogUtil.newSimpleDataType(Type.INT4), value.toByteArray()).asInt4()
+          < 10000) {
+        fromSmall++;
+      }
+    }
+    // 1/4 of the sample is expected to come from the small one
+    assertTrue("values from the small sample: " + fromSmall, Math.abs(fromSmall - ValueSample.SAMPLE_SIZE / 4) < 100);
+  }
 }
@@ -18,19 +18,26 @@
 
 package org.apache.tajo.engine.function;
 
+import com.google.protobuf.ByteString;
 import org.apache.tajo.IntegrationTest;
+import org.apache.tajo.InternalTypes.ValueSampleProto;
 import org.apache.tajo.QueryTestCaseBase;
 import org.apache.tajo.TajoConstants;
 import org.apache.tajo.TajoTestingCluster;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.SchemaBuilder;
+import org.apache.tajo.catalog.statistics.HyperLogLog;
 import org.apache.tajo.common.TajoDataTypes;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @Category(IntegrationTest.class)
 public class TestBuiltinFunctions extends QueryTestCaseBase {
@@ -777,4 +784,54 @@ public class TestBuiltinFunctions extends QueryTestCaseBase {
       executeString("DROP TABLE testbuiltin11 PURGE");
     }
   }
+
+  @Test
+  public void testNdvSketch() throws Exception {
+    Schema schema = SchemaBuilder.builder()
+        .add("id", TajoDataTypes.Type.INT4)
+        .add("value", TajoDataTypes.Type.TEXT)
+        .build();
+    String[] data = new String[]{ "1|a", "2|b", "3|\\N", "4|a", "5|c", "6|b", "7|\\N", "8|d" };
+    // the partial sketches of the data files are merged
+    TajoTestingCluster.createTable(conf, "testbuiltin11", schema, data, 2);
+
+    try {
+      ResultSet res = executeString("select ndv_sketch(value) as value, ndv_sketch(id) as id from testbuiltin11");
+      assertTrue(res.next());
+      assertEquals(4, HyperLogLog.fromBytes(res.getBytes(1)).cardinality());
+      assertEquals(8, HyperLogLog.fromBytes(res.getBytes(2)).cardinality());
+      res.close();
+    } finally {
+      executeString("DROP TABLE testbuiltin11 PURGE");
+    }
+  }
+
+  @Test
+  public void testValueSample() throws Exception {
+    Schema schema = SchemaBuilder.builder()
+        .add("id", TajoDataTypes.Type.INT4)
+        .add("value", TajoDataTypes.Type.TEXT)
+        .build();
+    String[] data = new String[]{ "1|a", "2|b", "3|\\N", "4|a", "5|c", "6|b", "7|\\N", "8|d" };
+    // the partial samples of the data files are merged
+    TajoTestingCluster.createTable(conf, "testbuiltin11", schema, data, 2);
+
+    try {
+      ResultSet res = executeString("select value_sample(value) as value from testbuiltin11");
+      assertTrue(res.next());
+      ValueSampleProto sample = ValueSampleProto.parseFrom(res.getBytes(1));
+      // all non-null values are kept because they are less than the sample size
+      assertEquals(6, sample.getCount());
+      assertEquals(6, sample.getValuesCount());
+      Set<String> values = new HashSet<>();
+      for (ByteString value : sample.getValuesList()) {
+        values.add(value.toStringUtf8());
+      }
+      assertEquals(4, values.size());
+      assertTrue(values.containsAll(Arrays.asList("a", "b", "c", "d")));
+      res.close();
+    } finally {
+      executeString("DROP TABLE testbuiltin11 PURGE");
+    }
+  }
 }
@@ -22,6 +22,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.tajo.BuiltinStorages;
 import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.TajoConstants;
 import org.apache.tajo.TajoTestingCluster;
 import org.apache.tajo.algebra.Expr;
@@ -48,10 +49,15 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.apache.tajo.TajoConstants.DEFAULT_DATABASE_NAME;
 import static org.apache.tajo.TajoConstants.DEFAULT_TABLESPACE_NAME;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class TestJoinOrderAlgorithm {
 
@@ -61,6 +67,7 @@ public class TestJoinOrderAlgorithm {
   private static LogicalPlanner planner;
   private static LogicalOptimizer optimizer;
   private static QueryContext defaultContext;
+  private static QueryContext dpContext;
 
   @BeforeClass
   public static void setUp() throws Exception {
@@ -133,11 +140,52 @@ public class TestJoinOrderAlgorithm {
     }
     ///////////////////////////////////////////////////////////////////////////
 
+    ///////////////////////////////////////////////////////////////////////////
+    // creating tables of a star schema with the number of rows
+    createTableWithStats(SchemaBuilder.builder()
+        .add("cust_id", Type.INT4).add("item_id", Type.INT4).add("store_id", Type.INT4).add("amount", Type.INT4)
+        .build(), "sales", 1000000000L);
+    createTableWithStats(SchemaBuilder.builder().add("cust_id", Type.INT4).add("name", Type.TEXT).build(),
+        "customer", 1000000L);
+    createTableWithStats(SchemaBuilder.builder().add("item_id", Type.INT4).add("name", Type.TEXT).build(),
+        "item", 100000L);
+    createTableWithStats(SchemaBuilder.builder().add("store_id", Type.INT4).add("region", Type.TEXT).build(),
+        "store", 100L);
+    ///////////////////////////////////////////////////////////////////////////
+
+    ///////////////////////////////////////////////////////////////////////////
+    // creating tables of a chain of which the volumes do not follow the number of rows
+    createTableWithStats(SchemaBuilder.builder().add("id", Type.INT4).build(), "chain_x", 10000000L, 1000L);
+    createTableWithStats(SchemaBuilder.builder().add("id", Type.INT4).add("ref", Type.INT4).build(),
+        "chain_y", 1000000L, 16000000L);
+    createTableWithStats(SchemaBuilder.builder().add("ref", Type.INT4).add("payload", Type.TEXT).build(),
+        "chain_z", 1000L, 1000000000L);
+    ///////////////////////////////////////////////////////////////////////////
+
     sqlAnalyzer = new SQLAnalyzer();
     planner = new LogicalPlanner(catalog, TablespaceManager.getInstance());
     optimizer = new LogicalOptimizer(util.getConfiguration(), catalog, TablespaceManager.getInstance());
 
     defaultContext = LocalTajoTestingUtility.createDummyContext(util.getConfiguration());
+    dpContext = LocalTajoTestingUtility.createDummyContext(util.getConfiguration());
+    dpContext.setInt(SessionVars.JOIN_ORDER_DP_MAX_RELATIONS, 12);
+  }
+
+  private static void createTableWithStats(Schema schema, String tableName, long numRows) throws Exception {
+    createTableWithStats(schema, tableName, numRows, numRows * 16);
+  }
+
+  private static void createTableWithStats(Schema schema, String tableName, long numRows, long numBytes)
+      throws Exception {
+    Path tablePath = new Path(CommonTestingUtil.getTestDir(), tableName);
+    FileSystem.getLocal(util.getConfiguration()).create(tablePath);
+    TableDesc desc = new TableDesc(IdentifierUtil.buildFQName(DEFAULT_DATABASE_NAME, tableName), schema,
+        CatalogUtil.newTableMeta("FAKEFILE", util.getConfiguration()), tablePath.toUri());
+    TableStats stats = new TableStats();
+    stats.setNumRows(numRows);
+    stats.setNumBytes(numBytes);
+    desc.setStats(stats);
+    catalog.createTable(desc);
   }
 
   @AfterClass
@@ -175,6 +223,59 @@ public class TestJoinOrderAlgorithm {
 
   }
 
+  @Test
+  public final void testStarJoinWithStats() throws Exception {
+    String query = "select s.amount from sales s, customer c, item i, store t " +
+        "where s.cust_id = c.cust_id and s.item_id = i.item_id and s.store_id = t.store_id and t.region = 'asia'";
+
+    Expr expr = sqlAnalyzer.parse(query);
+    LogicalPlan newPlan = planner.createPlan(dpContext, expr);
+    optimizer.optimize(dpContext, newPlan);
+
+    // The filtered dimension table should be joined with the fact table first.
+    LogicalNode[] joinNodes = PlannerUtil.findAllNodes(newPlan.getRootBlock().getRoot(), NodeType.JOIN);
+    assertEquals(3, joinNodes.length);
+    assertEquals(new HashSet<>(Arrays.asList("default.s", "default.t")), findFirstJoinedRelations(joinNodes));
+  }
+
+  @Test
+  public final void testDynamicProgrammingDisagreesWithGreedy() throws Exception {
+    // chain_x is the smallest in volume but the largest in the number of rows, so the greedy heuristic, which only
+    // considers volumes, joins chain_x first while the dynamic programming joins chain_y and chain_z first.
+    String query = "select x.id from chain_x x, chain_y y, chain_z z where x.id = y.id and y.ref = z.ref";
+
+    LogicalPlan greedyPlan = planner.createPlan(defaultContext, sqlAnalyzer.parse(query));
+    optimizer.optimize(defaultContext, greedyPlan);
+    LogicalNode[] joinNodes = PlannerUtil.findAllNodes(greedyPlan.getRootBlock().getRoot(), NodeType.JOIN);
+    assertEquals(2, joinNodes.length);
+    assertEquals(new HashSet<>(Arrays.asList("default.x", "default.y")), findFirstJoinedRelations(joinNodes));
+
+    LogicalPlan dpPlan = planner.createPlan(dpContext, sqlAnalyzer.parse(query));
+    optimizer.optimize(dpContext, dpPlan);
+    joinNodes = PlannerUtil.findAllNodes(dpPlan.getRootBlock().getRoot(), NodeType.JOIN);
+    assertEquals(2, joinNodes.length);
+    assertEquals(new HashSet<>(Arrays.asList("default.y", "default.z")), findFirstJoinedRelations(joinNodes));
+
+    // the larger input is placed on the left side
+    JoinNode topJoin = (JoinNode) joinNodes[1];
+    assertEquals(NodeType.SCAN, topJoin.getLeftChild().getType());
+    assertEquals("default.x", ((ScanNode) topJoin.getLeftChild()).getCanonicalName());
+    assertEquals(NodeType.JOIN, topJoin.getRightChild().getType());
+  }
+
+  private static Set<String> findFirstJoinedRelations(LogicalNode[] joinNodes) {
+    Set<String> firstJoinedRelations = new HashSet<>();
+    for (LogicalNode eachNode : joinNodes) {
+      JoinNode joinNode = (JoinNode) eachNode;
+      assertTrue(joinNode.hasJoinQual());
+      if (joinNode.getLeftChild().getType() == NodeType.SCAN && joinNode.getRightChild().getType() == NodeType.SCAN) {
+        firstJoinedRelations.add(((ScanNode) joinNode.getLeftChild()).getCanonicalName());
+        firstJoinedRelations.add(((ScanNode) joinNode.getRightChild()).getCanonicalName());
+      }
+    }
+    return firstJoinedRelations;
+  }
+
   private void assertJoinNode(LogicalNode node, String left, String right) {
     assertEquals(NodeType.JOIN, node.getType());
     JoinNode joinNode = (JoinNode)node;
@@ -22,6 +22,7 @@ import org.apache.hadoop.fs.Path;
 import org.apache.tajo.*;
 import org.apache.tajo.algebra.Expr;
 import org.apache.tajo.catalog.*;
+import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.conf.TajoConf.ConfVars;
@@ -51,8 +52,11 @@ import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Random;
 
 import static org.apache.tajo.TajoConstants.DEFAULT_TABLESPACE_NAME;
@@ -190,6 +194,7 @@ public class TestExternalSortExec {
   @Test
   public final void testNext() throws IOException, TajoException {
     conf.setIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_FANOUT, 2);
+    conf.setIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_MAX_FANOUT, 2);
     QueryContext queryContext = LocalTajoTestingUtility.createDummyContext(conf);
     queryContext.set(SessionVars.SORT_ALGORITHM.keyname(), sortAlgorithmString);
     queryContext.setInt(SessionVars.EXTSORT_BUFFER_SIZE, 4);
@@ -251,5 +256,89 @@ public class TestExternalSortExec {
     exec.close();
     System.out.println("Sort Time: " + (end - start) + " msc");
     conf.setIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_FANOUT, ConfVars.EXECUTOR_EXTERNAL_SORT_FANOUT.defaultIntVal);
+    conf.setIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_MAX_FANOUT,
+        ConfVars.EXECUTOR_EXTERNAL_SORT_MAX_FANOUT.defaultIntVal);
+  }
+
+  @Test
+  public final void testLoserTreeMergeWithLargerFanout() throws IOException {
+    Schema schema = SchemaBuilder.builder().add("id", Type.INT4).build();
+    BaseTupleComparator comparator = new BaseTupleComparator(schema,
+        new SortSpec[] {new SortSpec(schema.getColumn(0))});
+
+    for (int fanout : new int[] {3, 5}) {
+      Scanner[] runs = new Scanner[fanout];
+      int expectedNum = 0;
+      for (int i = 0; i < fanout; i++) {
+        // runs of different lengths, including empty ones
+        List<Tuple> run = new ArrayList<>();
+        int runLength = i % 3 == 1 ? 0 : 100 * (i + 1);
+        for (int j = 0; j < runLength; j++) {
+          VTuple tuple = new VTuple(1);
+          tuple.put(0, DatumFactory.createInt4(rnd.nextInt(50)));
+          run.add(tuple);
+        }
+        run.sort(comparator);
+        runs[i] = new RunScanner(run);
+        expectedNum += runLength;
+      }
+
+      Scanner merger = new ExternalSortExec.LoserTreeMerger(schema, runs, comparator);
+      merger.init();
+      Tuple tuple;
+      Tuple preVal = null;
+      int cnt = 0;
+      while ((tuple = merger.next()) != null) {
+        if (preVal != null) {
+          assertTrue("fanout: " + fanout + ", prev: " + preVal + ", but cur: " + tuple,
+              comparator.compare(preVal, tuple) <= 0);
+        }
+        preVal = new VTuple(tuple);
+        cnt++;
+      }
+      assertEquals(expectedNum, cnt);
+      assertEquals(expectedNum, merger.getInputStats().getNumRows().longValue());
+      merger.close();
+    }
+  }
+
+  private static class RunScanner extends AbstractScanner {
+    private final List<Tuple> run;
+    private Iterator<Tuple> iterator;
+
+    RunScanner(List<Tuple> run) {
+      this.run = run;
+    }
+
+    @Override
+    public void init() throws IOException {
+      iterator = run.iterator();
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+      return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    @Override
+    public void reset() throws IOException {
+      init();
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    @Override
+    public float getProgress() {
+      return 0.0f;
+    }
+
+    @Override
+    public TableStats getInputStats() {
+      TableStats stats = new TableStats();
+      stats.setNumRows(run.size());
+      return stats;
+    }
   }
 }
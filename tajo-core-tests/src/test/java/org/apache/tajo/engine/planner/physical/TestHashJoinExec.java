@@ -187,6 +187,61 @@ public class TestHashJoinExec {
     assertEquals(10 / 2, count);
   }
 
+  @Test
+  public final void testHybridHashInnerJoin() throws IOException, TajoException {
+
+    Expr expr = analyzer.parse(QUERIES[0]);
+    LogicalNode plan = planner.createPlan(defaultContext, expr).getRootBlock().getRoot();
+
+    JoinNode joinNode = PlannerUtil.findTopNode(plan, NodeType.JOIN);
+    Enforcer enforcer = new Enforcer();
+    enforcer.enforceJoinAlgorithm(joinNode.getPID(), JoinAlgorithm.IN_MEMORY_HASH_JOIN);
+
+    FileFragment[] empFrags = FileTablespace.splitNG(conf, "default.e", employee.getMeta(),
+        new Path(employee.getUri()), Integer.MAX_VALUE);
+    FileFragment[] peopleFrags = FileTablespace.splitNG(conf, "default.p", people.getMeta(),
+        new Path(people.getUri()), Integer.MAX_VALUE);
+    FileFragment[] merged = TUtil.concat(empFrags, peopleFrags);
+
+    Path workDir = CommonTestingUtil.getTestDir(TajoTestingCluster.DEFAULT_TEST_DIRECTORY + "/testHybridHashInnerJoin");
+    TaskAttemptContext ctx = new TaskAttemptContext(new QueryContext(conf),
+        LocalTajoTestingUtility.newTaskAttemptId(), merged, workDir);
+    ctx.setEnforcer(enforcer);
+    // every partition of the build relation is spilled
+    ctx.getQueryContext().setBool(SessionVars.HASH_JOIN_SPILL_ENABLED.keyname(), true);
+    ctx.getQueryContext().setLong(SessionVars.HASH_JOIN_SIZE_LIMIT.keyname(), 0);
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, plan);
+
+    ProjectionExec proj = (ProjectionExec) exec;
+    assertTrue(proj.getChild() instanceof HashJoinExec);
+
+    for (int scan = 0; scan < 2; scan++) {
+      if (scan == 0) {
+        exec.init();
+      } else {
+        exec.rescan();
+      }
+
+      Tuple tuple;
+      boolean[] found = new boolean[10];
+      int count = 0;
+      while ((tuple = exec.next()) != null) {
+        count++;
+        int i = tuple.getInt4(0);
+        assertEquals(1, i % 2);
+        assertFalse(found[i]);
+        found[i] = true;
+        assertEquals(i, tuple.getInt4(1));
+        assertEquals("dept_" + i, tuple.getText(2));
+        assertEquals(10 + i, tuple.getInt4(3));
+      }
+      assertEquals(10 / 2, count);
+    }
+    exec.close();
+  }
+
   @Test
   public final void testCheckIfInMemoryInnerJoinIsPossible() throws IOException, TajoException {
     Expr expr = analyzer.parse(QUERIES[0]);
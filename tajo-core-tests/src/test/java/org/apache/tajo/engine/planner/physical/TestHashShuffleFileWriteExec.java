@@ -0,0 +1,238 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.BuiltinStorages;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaBuilder;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.plan.logical.ShuffleFileWriteNode;
+import org.apache.tajo.plan.serder.PlanProto.ShuffleType;
+import org.apache.tajo.storage.HashShuffleAppenderManager;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.tuple.memory.MemoryRowBlock;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+public class TestHashShuffleFileWriteExec {
+  private final String TEST_PATH = TajoTestingCluster.DEFAULT_TEST_DIRECTORY + "/TestHashShuffleFileWriteExec";
+  private static final int NUM_PARTITIONS = 8;
+  private static final int NUM_ROWS = 100000;
+
+  private TajoConf conf;
+  private Schema schema;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    Path testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    // two volumes
+    Path volume1 = new Path(testDir, "volume1");
+    Path volume2 = new Path(testDir, "volume2");
+    volume1.getFileSystem(conf).mkdirs(volume1);
+    volume2.getFileSystem(conf).mkdirs(volume2);
+    conf.setVar(TajoConf.ConfVars.WORKER_TEMPORAL_DIR, volume1 + "," + volume2);
+
+    schema = SchemaBuilder.builder()
+        .add("default.t.id", Type.INT4)
+        .add("default.t.name", Type.TEXT)
+        .build();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    CommonTestingUtil.cleanupTestDir(TEST_PATH);
+  }
+
+  private HashShuffleFileWriteExec createExec(RecordingAppenderManager appenderManager) throws IOException {
+    QueryContext queryContext = LocalTajoTestingUtility.createDummyContext(conf);
+    // 1MB buffer makes the writer flush many times
+    queryContext.setInt(SessionVars.HASH_SHUFFLE_BUFFER_SIZE, 1);
+    TaskAttemptContext ctx = spy(new TaskAttemptContext(queryContext, LocalTajoTestingUtility.newTaskAttemptId(),
+        new FileFragment[0], CommonTestingUtil.getTestDir(TEST_PATH + "/work")));
+    doReturn(appenderManager).when(ctx).getHashShuffleAppenderManager();
+
+    ShuffleFileWriteNode plan = new ShuffleFileWriteNode(0);
+    plan.setInSchema(schema);
+    plan.setOutSchema(schema);
+    plan.setDataFormat(BuiltinStorages.DRAW);
+    plan.setShuffle(ShuffleType.HASH_SHUFFLE, new Column[]{schema.getColumn(0)}, NUM_PARTITIONS);
+    return new HashShuffleFileWriteExec(ctx, plan, new TupleListExec(ctx, schema, NUM_ROWS));
+  }
+
+  @Test
+  public void testBatchedWritesPerVolume() throws Exception {
+    RecordingAppenderManager appenderManager = new RecordingAppenderManager(conf, false);
+    HashShuffleFileWriteExec exec = createExec(appenderManager);
+    try {
+      exec.init();
+      assertNull(exec.next());
+      assertEquals(NUM_ROWS, exec.context.getResultStats().getNumRows().longValue());
+    } finally {
+      exec.close();
+    }
+
+    // a flush writes the partitions by a request per volume
+    assertTrue(appenderManager.flushes > 1);
+    assertTrue(appenderManager.maxWritesPerFlush <= 2);
+    // back-pressure: a flush is submitted after the writes of the previous one complete
+    assertFalse(appenderManager.overlapped);
+
+    ExecutionBlockId ebId = exec.context.getTaskId().getTaskId().getExecutionBlockId();
+    try {
+      assertEquals(NUM_PARTITIONS, appenderManager.close(ebId).size());
+    } finally {
+      appenderManager.shutdown();
+    }
+  }
+
+  @Test
+  public void testFailedWrite() throws Exception {
+    RecordingAppenderManager appenderManager = new RecordingAppenderManager(conf, true);
+    HashShuffleFileWriteExec exec = createExec(appenderManager);
+    try {
+      exec.init();
+      try {
+        exec.next();
+        fail("The failed write must fail the task");
+      } catch (IOException e) {
+        // expected
+      }
+
+      // the row blocks of the failed writes are released
+      assertTrue(appenderManager.flushes > 0);
+      assertFalse(appenderManager.submittedBlocks.isEmpty());
+      for (MemoryRowBlock rowBlock : appenderManager.submittedBlocks) {
+        assertEquals(0, rowBlock.getMemory().getBuffer().refCnt());
+      }
+    } finally {
+      exec.close();
+      appenderManager.shutdown();
+    }
+  }
+
+  /**
+   * It records the writes submitted by flushes, and it fails them if required.
+   */
+  private static class RecordingAppenderManager extends HashShuffleAppenderManager {
+    private final boolean failWrites;
+    private final List<MemoryRowBlock> submittedBlocks = new ArrayList<>();
+    private final List<Future<List<MemoryRowBlock>>> submittedWrites = new ArrayList<>();
+    private int flushes;
+    private int maxWritesPerFlush;
+    private boolean overlapped;
+
+    RecordingAppenderManager(TajoConf conf, boolean failWrites) throws IOException {
+      super(conf);
+      this.failWrites = failWrites;
+    }
+
+    @Override
+    public List<Future<List<MemoryRowBlock>>> writePartitions(TableMeta meta, Schema schema, TaskAttemptId taskId,
+                                                              Map<Integer, MemoryRowBlock> rowBlocks,
+                                                              boolean release) throws IOException {
+      for (Future<List<MemoryRowBlock>> eachWrite : submittedWrites) {
+        overlapped |= !eachWrite.isDone();
+      }
+      submittedBlocks.addAll(rowBlocks.values());
+
+      List<Future<List<MemoryRowBlock>>> writes;
+      if (failWrites) {
+        CompletableFuture<List<MemoryRowBlock>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException("Disk failure"));
+        writes = Collections.singletonList(failed);
+      } else {
+        writes = super.writePartitions(meta, schema, taskId, rowBlocks, release);
+      }
+
+      flushes++;
+      maxWritesPerFlush = Math.max(maxWritesPerFlush, writes.size());
+      submittedWrites.addAll(writes);
+      return writes;
+    }
+  }
+
+  /**
+   * It returns the given number of tuples.
+   */
+  private static class TupleListExec extends PhysicalExec {
+    private final int numRows;
+    private final Tuple tuple;
+    private int current;
+
+    TupleListExec(TaskAttemptContext context, Schema schema, int numRows) {
+      super(context, schema, schema);
+      this.numRows = numRows;
+      this.tuple = new VTuple(schema.size());
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+      if (current >= numRows) {
+        return null;
+      }
+      tuple.put(0, DatumFactory.createInt4(current));
+      tuple.put(1, DatumFactory.createText("name_" + current));
+      current++;
+      return tuple;
+    }
+
+    @Override
+    public void rescan() throws IOException {
+      current = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    @Override
+    public float getProgress() {
+      return (float) current / numRows;
+    }
+  }
+}
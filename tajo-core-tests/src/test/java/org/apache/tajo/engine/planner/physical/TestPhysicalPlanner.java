@@ -33,6 +33,7 @@ import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.codegen.CompiledPipeline;
 import org.apache.tajo.engine.function.FunctionLoader;
 import org.apache.tajo.engine.planner.PhysicalPlanner;
 import org.apache.tajo.engine.planner.PhysicalPlannerImpl;
@@ -46,6 +47,10 @@ import org.apache.tajo.plan.LogicalOptimizer;
 import org.apache.tajo.plan.LogicalPlan;
 import org.apache.tajo.plan.LogicalPlanner;
 import org.apache.tajo.plan.expr.AggregationFunctionCallEval;
+import org.apache.tajo.plan.expr.BinaryEval;
+import org.apache.tajo.plan.expr.ConstEval;
+import org.apache.tajo.plan.expr.EvalType;
+import org.apache.tajo.plan.expr.FieldEval;
 import org.apache.tajo.plan.logical.*;
 import org.apache.tajo.plan.serder.PlanProto.ShuffleType;
 import org.apache.tajo.plan.util.PlannerUtil;
@@ -327,6 +332,66 @@ public class TestPhysicalPlanner {
     assertEquals(10, i);
   }
 
+  @Test
+  public final void testGroupByPlanWithPipelineCodeGen() throws IOException, TajoException {
+    FileFragment[] frags = FileTablespace.splitNG(conf, "default.score", score.getMeta(), new Path(score.getUri()),
+        Integer.MAX_VALUE);
+    Path workDir = CommonTestingUtil.getTestDir(TajoTestingCluster.DEFAULT_TEST_DIRECTORY +
+        "/testGroupByPlanWithPipelineCodeGen");
+    QueryContext queryContext = new QueryContext(conf);
+    queryContext.setBool(SessionVars.CODEGEN, true);
+    TaskAttemptContext ctx = new TaskAttemptContext(queryContext,
+        LocalTajoTestingUtility.newTaskAttemptId(masterPlan),
+        new FileFragment[] { frags[0] }, workDir);
+    ctx.setEnforcer(new Enforcer());
+    Expr context = analyzer.parse("select deptName, class, sum(score), max(score), min(score) from score " +
+        "where score > 0 group by deptName, class");
+    LogicalPlan plan = planner.createPlan(defaultContext, context);
+    optimizer.optimize(plan);
+    LogicalNode rootNode = plan.getRootBlock().getRoot();
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, rootNode);
+    exec.init();
+
+    HashAggregateExec aggExec = PhysicalPlanUtil.findExecutor(exec, HashAggregateExec.class);
+    assertNotNull(aggExec);
+    PhysicalExec scanExec = aggExec.getChild();
+    // the scan applies its own qual and projection in next(), so there is nothing to fuse
+    assertNull(PhysicalPlanUtil.compilePipeline(ctx, scanExec));
+
+    // a selection over the scan is fused, and the scan is still called through next()
+    Schema scanSchema = scanExec.getSchema();
+    SelectionNode selectionNode = new SelectionNode(plan.newPID());
+    selectionNode.setInSchema(scanSchema);
+    selectionNode.setOutSchema(scanSchema);
+    selectionNode.setQual(new BinaryEval(EvalType.GTH, new FieldEval(scanSchema.getColumn("score")),
+        new ConstEval(DatumFactory.createInt4(1))));
+    selectionNode.getQual().bind(ctx.getEvalContext(), scanSchema);
+    CompiledPipeline pipeline = PhysicalPlanUtil.compilePipeline(ctx, new SelectionExec(ctx, selectionNode, scanExec));
+    assertNotNull(pipeline);
+    int selected = 0;
+    while (pipeline.next() != null) {
+      selected++;
+    }
+    assertEquals(20, selected);
+    scanExec.rescan();
+
+    for (int rescan = 0; rescan < 2; rescan++) {
+      int i = 0;
+      Tuple tuple;
+      while ((tuple = exec.next()) != null) {
+        assertEquals(6, tuple.getInt4(2)); // sum
+        assertEquals(3, tuple.getInt4(3)); // max
+        assertEquals(1, tuple.getInt4(4)); // min
+        i++;
+      }
+      assertEquals(10, i);
+      exec.rescan();
+    }
+    exec.close();
+  }
+
   @Test
   public final void testHashGroupByPlanWithALLField() throws IOException, TajoException {
     // TODO - currently, this query does not use hash-based group operator.
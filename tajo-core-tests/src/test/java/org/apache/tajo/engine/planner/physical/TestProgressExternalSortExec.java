@@ -134,7 +134,7 @@ public class TestProgressExternalSortExec {
   }
 
   @Test
-  public void testExternalSortExecProgressWithPairWiseMerger() throws Exception {
+  public void testExternalSortExecProgressWithLoserTreeMerger() throws Exception {
     QueryContext queryContext = LocalTajoTestingUtility.createDummyContext(conf);
     int bufferSize = (int) Math.max((testDataStats.getNumBytes() / StorageUnit.MB), 1);
     queryContext.setInt(SessionVars.EXTSORT_BUFFER_SIZE, bufferSize);
@@ -144,6 +144,7 @@ public class TestProgressExternalSortExec {
 
   private void testProgress(QueryContext queryContext) throws Exception {
     conf.setIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_FANOUT, 2);
+    conf.setIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_MAX_FANOUT, 2);
 
     FileFragment[] frags = FileTablespace.splitNG(conf, "default.employee", employee.getMeta(),
         new Path(employee.getUri()), Integer.MAX_VALUE);
@@ -226,5 +227,7 @@ public class TestProgressExternalSortExec {
     assertTrue(testDataStats.getNumBytes() <= tableStats.getReadBytes());
 
     conf.setIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_FANOUT, ConfVars.EXECUTOR_EXTERNAL_SORT_FANOUT.defaultIntVal);
+    conf.setIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_MAX_FANOUT,
+        ConfVars.EXECUTOR_EXTERNAL_SORT_MAX_FANOUT.defaultIntVal);
   }
 }
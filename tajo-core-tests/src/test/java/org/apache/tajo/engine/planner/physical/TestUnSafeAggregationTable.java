@@ -0,0 +1,166 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.collect.Lists;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.FunctionDesc;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaBuilder;
+import org.apache.tajo.catalog.proto.CatalogProtos.FunctionType;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.function.builtin.*;
+import org.apache.tajo.function.Function;
+import org.apache.tajo.plan.expr.AggregationFunctionCallEval;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.expr.FieldEval;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestUnSafeAggregationTable {
+  private static final Random rnd = new Random(-1);
+
+  private static final Column col0 = new Column("col0", Type.INT4);
+  private static final Column col1 = new Column("col1", Type.TEXT);
+  private static final Column col2 = new Column("col2", Type.INT8);
+  private static final Column col3 = new Column("col3", Type.FLOAT8);
+  private static final Schema schema = SchemaBuilder.builder().addAll(new Column[]{col0, col1, col2, col3}).build();
+
+  private static AggregationFunctionCallEval newAggFunction(String name, Class<? extends Function> clazz,
+                                                            Type returnType, Column... args) {
+    DataType[] paramTypes = new DataType[args.length];
+    EvalNode[] argEvals = new EvalNode[args.length];
+    for (int i = 0; i < args.length; i++) {
+      paramTypes[i] = args[i].getDataType();
+      argEvals[i] = new FieldEval(args[i]);
+    }
+    FunctionDesc desc = new FunctionDesc(name, clazz, FunctionType.AGGREGATION,
+        CatalogUtil.newSimpleDataType(returnType), paramTypes);
+    AggregationFunctionCallEval eval = new AggregationFunctionCallEval(desc, argEvals);
+    eval.bind(null, schema);
+    return eval;
+  }
+
+  @Test
+  public final void testAggregation() {
+    List<AggregationFunctionCallEval> aggFunctions = Lists.newArrayList(
+        newAggFunction("count", CountRows.class, Type.INT8),
+        newAggFunction("sum", SumLong.class, Type.INT8, col2),
+        newAggFunction("max", MaxDouble.class, Type.FLOAT8, col3),
+        newAggFunction("avg", AvgLong.class, Type.FLOAT8, col2),
+        newAggFunction("stddev_pop", StdDevPopDouble.class, Type.FLOAT8, col3));
+
+    assertNotNull(UnSafeAggregationTable.getFixedWidthStateKind(aggFunctions.get(0)));
+    assertNull(UnSafeAggregationTable.getFixedWidthStateKind(aggFunctions.get(4)));
+
+    Map<String, long[]> expectedCountAndSum = new HashMap<>();
+    Map<String, Double> expectedMax = new HashMap<>();
+
+    // a small page size makes the table use many key and state pages
+    UnSafeAggregationTable table = new UnSafeAggregationTable(new Column[]{col0, col1}, aggFunctions, 16, 4096, 1);
+    try {
+      for (int i = 0; i < 50000; i++) {
+        int key = rnd.nextInt(3000);
+        Tuple tuple = new VTuple(4);
+        tuple.put(0, key % 7 == 0 ? NullDatum.get() : DatumFactory.createInt4(key));
+        tuple.put(1, DatumFactory.createText("key_" + (key % 100)));
+        long value = rnd.nextInt(1000);
+        double dvalue = rnd.nextDouble();
+        tuple.put(2, DatumFactory.createInt8(value));
+        tuple.put(3, DatumFactory.createFloat8(dvalue));
+
+        Tuple keyTuple = new VTuple(2);
+        keyTuple.put(0, tuple.asDatum(0));
+        keyTuple.put(1, tuple.asDatum(1));
+        table.aggregate(table.findOrAddGroup(keyTuple), tuple);
+
+        String expectedKey = keyTuple.toString();
+        long[] countAndSum = expectedCountAndSum.get(expectedKey);
+        if (countAndSum == null) {
+          countAndSum = new long[2];
+          expectedCountAndSum.put(expectedKey, countAndSum);
+        }
+        countAndSum[0]++;
+        countAndSum[1] += value;
+        Double max = expectedMax.get(expectedKey);
+        expectedMax.put(expectedKey, max == null ? dvalue : Math.max(max, dvalue));
+      }
+
+      assertEquals(expectedCountAndSum.size(), table.size());
+
+      Tuple outTuple = new VTuple(7);
+      for (int groupId = 0; groupId < table.size(); groupId++) {
+        table.getGroup(groupId, outTuple);
+        Tuple keyTuple = new VTuple(2);
+        keyTuple.put(0, outTuple.asDatum(0));
+        keyTuple.put(1, outTuple.asDatum(1));
+        String key = keyTuple.toString();
+
+        long[] countAndSum = expectedCountAndSum.get(key);
+        assertNotNull(key, countAndSum);
+        assertEquals(countAndSum[0], outTuple.getInt8(2));
+        assertEquals(countAndSum[1], outTuple.getInt8(3));
+        assertEquals(expectedMax.get(key), outTuple.getFloat8(4), 0.0);
+        assertEquals((double) countAndSum[1] / countAndSum[0], outTuple.getFloat8(5), 0.000001);
+        assertFalse(outTuple.isBlankOrNull(6));
+      }
+    } finally {
+      table.release();
+    }
+  }
+
+  @Test
+  public final void testEmptyKeyAndNullValues() {
+    List<AggregationFunctionCallEval> aggFunctions = Lists.newArrayList(
+        newAggFunction("count", CountValue.class, Type.INT8, col2),
+        newAggFunction("sum", SumLong.class, Type.INT8, col2),
+        newAggFunction("min", MinLong.class, Type.INT8, col2));
+
+    UnSafeAggregationTable table = new UnSafeAggregationTable(new Column[]{}, aggFunctions, 16);
+    try {
+      Tuple tuple = new VTuple(4);
+      tuple.put(new Datum[]{
+          NullDatum.get(), NullDatum.get(), NullDatum.get(), NullDatum.get()});
+      table.aggregate(table.findOrAddGroup(new KeyTuple(0)), tuple);
+      table.aggregate(table.findOrAddGroup(new KeyTuple(0)), tuple);
+      assertEquals(1, table.size());
+
+      Tuple outTuple = new VTuple(3);
+      table.getGroup(0, outTuple);
+      assertEquals(0, outTuple.getInt8(0));
+      assertTrue(outTuple.isBlankOrNull(1));
+      assertTrue(outTuple.isBlankOrNull(2));
+    } finally {
+      table.release();
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaBuilder;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.storage.ColumnBatch;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestVectorizedFilter {
+  private static final Random rnd = new Random(-1);
+
+  private static final Column col0 = new Column("col0", Type.INT4);
+  private static final Column col1 = new Column("col1", Type.TEXT);
+  private static final Column col2 = new Column("col2", Type.FLOAT8);
+  private static final Schema schema = SchemaBuilder.builder().addAll(new Column[]{col0, col1, col2}).build();
+
+  private static final int CAPACITY = 100;
+
+  private static List<VTuple> createTuples(int num) {
+    List<VTuple> tuples = new ArrayList<>();
+    for (int i = 0; i < num; i++) {
+      VTuple tuple = new VTuple(schema.size());
+      tuple.put(0, rnd.nextInt(10) == 0 ? NullDatum.get() : DatumFactory.createInt4(rnd.nextInt(20)));
+      tuple.put(1, rnd.nextInt(10) == 0 ? NullDatum.get() : DatumFactory.createText("text_" + rnd.nextInt(20)));
+      tuple.put(2, rnd.nextInt(10) == 0 ? NullDatum.get() : DatumFactory.createFloat8(rnd.nextDouble() * 10));
+      tuples.add(tuple);
+    }
+    return tuples;
+  }
+
+  private static void assertFilter(EvalNode qual, boolean fullyVectorized) {
+    qual.bind(new EvalContext(), schema);
+    VectorizedFilter filter = new VectorizedFilter(qual, schema, CAPACITY);
+    assertEquals(fullyVectorized, filter.isFullyVectorized());
+
+    List<VTuple> tuples = createTuples(CAPACITY);
+    ColumnBatch batch = new ColumnBatch(schema, CAPACITY);
+    for (VTuple tuple : tuples) {
+      batch.add(tuple);
+    }
+    filter.filter(batch);
+
+    VTuple row = new VTuple(schema.size());
+    int selectedIdx = 0;
+    for (int i = 0; i < tuples.size(); i++) {
+      if (qual.eval(tuples.get(i)).isTrue()) {
+        assertTrue(selectedIdx < batch.getSelectedNum());
+        assertEquals(i, batch.getRowId(selectedIdx++));
+        batch.getRow(i, row);
+        assertEquals(tuples.get(i), row);
+      }
+    }
+    assertEquals(selectedIdx, batch.getSelectedNum());
+  }
+
+  private static EvalNode field(Column column) {
+    return new FieldEval(column);
+  }
+
+  @Test
+  public void testCompare() {
+    assertFilter(new BinaryEval(EvalType.GTH, field(col0), new ConstEval(DatumFactory.createInt4(10))), true);
+    assertFilter(new BinaryEval(EvalType.LEQ, new ConstEval(DatumFactory.createInt8(5)), field(col0)), true);
+    assertFilter(new BinaryEval(EvalType.EQUAL, field(col1), new ConstEval(DatumFactory.createText("text_3"))), true);
+    assertFilter(new BinaryEval(EvalType.LTH, field(col2), new ConstEval(DatumFactory.createFloat8(5.0))), true);
+    assertFilter(new BinaryEval(EvalType.NOT_EQUAL, field(col0), new ConstEval(NullDatum.get())), false);
+  }
+
+  @Test
+  public void testAndOr() {
+    EvalNode cond1 = new BinaryEval(EvalType.GEQ, field(col0), new ConstEval(DatumFactory.createInt4(5)));
+    EvalNode cond2 = new IsNullEval(false, field(col1));
+    EvalNode cond3 = new BinaryEval(EvalType.GTH, field(col2), new ConstEval(DatumFactory.createFloat8(8.0)));
+
+    assertFilter(new BinaryEval(EvalType.AND, cond1, new IsNullEval(true, field(col2))), true);
+    assertFilter(new BinaryEval(EvalType.OR, cond2, cond3), true);
+    assertFilter(new BinaryEval(EvalType.AND, cond1, new BinaryEval(EvalType.OR, cond2, cond3)), true);
+  }
+
+  @Test
+  public void testRowFallback() {
+    EvalNode like = new LikePredicateEval(false, field(col1), new ConstEval(DatumFactory.createText("text_1%")));
+    EvalNode cond = new BinaryEval(EvalType.LTH, field(col0), new ConstEval(DatumFactory.createInt4(15)));
+
+    assertFilter(like, false);
+    assertFilter(new BinaryEval(EvalType.OR, like, cond), false);
+    assertFilter(new NotEval(new BinaryEval(EvalType.AND, like, cond)), false);
+  }
+}
@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.query;
+
+import org.apache.tajo.QueryTestCaseBase;
+import org.apache.tajo.TajoConstants;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaBuilder;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.Histogram;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestAnalyzeTable extends QueryTestCaseBase {
+
+  public TestAnalyzeTable() {
+    super(TajoConstants.DEFAULT_DATABASE_NAME);
+  }
+
+  private static void createTestTable(String tableName) throws Exception {
+    Schema schema = SchemaBuilder.builder()
+        .add("id", Type.INT4)
+        .add("grp", Type.INT4)
+        .add("name", Type.TEXT)
+        .build();
+    // 100 rows of unique ids, 5 groups, and 20 names of which every 10th is null
+    String[] data = new String[100];
+    for (int i = 1; i <= 100; i++) {
+      data[i - 1] = i + "|" + (i % 5) + "|" + (i % 10 == 0 ? "\\N" : "name_" + (i % 20));
+    }
+    TajoTestingCluster.createTable(conf, tableName, schema, data, 2);
+  }
+
+  private static Map<String, ColumnStats> getColumnStats(TableStats stats) {
+    Map<String, ColumnStats> columnStats = new HashMap<>();
+    for (ColumnStats eachStats : stats.getColumnStats()) {
+      columnStats.put(eachStats.getColumn().getSimpleName(), eachStats);
+    }
+    return columnStats;
+  }
+
+  @Test
+  public final void testAnalyzeTable() throws Exception {
+    createTestTable("analyze_table1");
+    try {
+      executeString("ANALYZE TABLE analyze_table1").close();
+
+      TableDesc desc = catalog.getTableDesc(getCurrentDatabase(), "analyze_table1");
+      TableStats stats = desc.getStats();
+      assertEquals(100, stats.getNumRows().longValue());
+
+      Map<String, ColumnStats> columnStats = getColumnStats(stats);
+      assertEquals(3, columnStats.size());
+
+      ColumnStats id = columnStats.get("id");
+      assertEquals(0, id.getNumNulls().longValue());
+      assertEquals(1, id.getMinValue().asInt4());
+      assertEquals(100, id.getMaxValue().asInt4());
+      // HyperLogLog is nearly exact for a small number of distinct values
+      assertTrue(Math.abs(id.getNumDistValues() - 100) <= 5);
+      assertTrue(id.hasHistogram());
+      Histogram histogram = id.getHistogram();
+      assertFalse(histogram.getBuckets().isEmpty());
+      assertEquals(100, histogram.getTotalFrequency());
+      assertEquals(1, histogram.getBuckets().get(0).getLower().asInt4());
+      assertEquals(100, histogram.getBuckets().get(histogram.getBuckets().size() - 1).getUpper().asInt4());
+
+      ColumnStats grp = columnStats.get("grp");
+      assertEquals(5, grp.getNumDistValues().longValue());
+      assertEquals(0, grp.getMinValue().asInt4());
+      assertEquals(4, grp.getMaxValue().asInt4());
+
+      ColumnStats name = columnStats.get("name");
+      assertEquals(10, name.getNumNulls().longValue());
+      assertTrue(Math.abs(name.getNumDistValues() - 18) <= 1);
+      assertEquals(90, name.getHistogram().getTotalFrequency());
+    } finally {
+      executeString("DROP TABLE analyze_table1 PURGE").close();
+    }
+  }
+
+  @Test
+  public final void testAnalyzeTableColumns() throws Exception {
+    createTestTable("analyze_table2");
+    try {
+      executeString("ANALYZE TABLE analyze_table2 COLUMNS grp").close();
+
+      TableStats stats = catalog.getTableDesc(getCurrentDatabase(), "analyze_table2").getStats();
+      assertEquals(100, stats.getNumRows().longValue());
+
+      Map<String, ColumnStats> columnStats = getColumnStats(stats);
+      assertEquals(1, columnStats.size());
+      assertEquals(5, columnStats.get("grp").getNumDistValues().longValue());
+    } finally {
+      executeString("DROP TABLE analyze_table2 PURGE").close();
+    }
+  }
+}
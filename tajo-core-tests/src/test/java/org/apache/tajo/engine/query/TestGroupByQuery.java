@@ -107,6 +107,40 @@ public class TestGroupByQuery extends QueryTestCaseBase {
     cleanupQuery(res);
   }
 
+  @Test
+  public final void testGroupByWithSpill() throws Exception {
+    // select l_orderkey as gkey, count(1) as unique_key from lineitem group by lineitem.l_orderkey;
+    // A zero size limit makes the hash aggregation spill partitions recursively.
+    Map<String, String> variables = new HashMap<>();
+    variables.put(SessionVars.HASH_GROUPBY_SIZE_LIMIT.keyname(), "0");
+    variables.put(SessionVars.HASH_GROUPBY_SPILL_ENABLED.keyname(), "true");
+    client.updateSessionVariables(variables);
+
+    try {
+      ResultSet res = executeFile("testGroupBy4.sql");
+      assertResultSet(res, "testGroupBy4.result");
+      cleanupQuery(res);
+    } finally {
+      client.unsetSessionVariables(Arrays.asList(SessionVars.HASH_GROUPBY_SIZE_LIMIT.keyname(),
+          SessionVars.HASH_GROUPBY_SPILL_ENABLED.keyname()));
+    }
+  }
+
+  @Test
+  public final void testGroupByWithPushShuffle() throws Exception {
+    // select l_orderkey as gkey, count(1) as unique_key from lineitem group by lineitem.l_orderkey;
+    // The hash partitions of the first stage are pushed to the mergers and fetched from them.
+    client.updateSessionVariables(Collections.singletonMap(SessionVars.HASH_SHUFFLE_PUSH_ENABLED.keyname(), "true"));
+
+    try {
+      ResultSet res = executeFile("testGroupBy4.sql");
+      assertResultSet(res, "testGroupBy4.result");
+      cleanupQuery(res);
+    } finally {
+      client.unsetSessionVariables(Arrays.asList(SessionVars.HASH_SHUFFLE_PUSH_ENABLED.keyname()));
+    }
+  }
+
   @Test
   public final void testGroupByNested1() throws Exception {
     // select l_orderkey + l_partkey as unique_key from lineitem group by l_orderkey + l_partkey;
@@ -19,7 +19,21 @@
 package org.apache.tajo.engine.query;
 
 import org.apache.tajo.IntegrationTest;
+import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.NamedTest;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.ResourceProtos.FetchProto;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.engine.planner.global.ExecutionBlock;
+import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.logical.ScanNode;
+import org.apache.tajo.plan.util.PlannerUtil;
+import org.apache.tajo.querymaster.Query;
+import org.apache.tajo.querymaster.QueryMasterTask;
+import org.apache.tajo.querymaster.Repartitioner;
+import org.apache.tajo.querymaster.Stage;
+import org.apache.tajo.querymaster.Task;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -29,6 +43,17 @@ import org.junit.runners.Parameterized;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.tajo.plan.serder.PlanProto.ShuffleType.HASH_SHUFFLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 @Category(IntegrationTest.class)
 @RunWith(Parameterized.class)
@@ -63,6 +88,102 @@ public class TestInnerJoinQuery extends TestJoinQuery {
     runSimpleTests();
   }
 
+  @Test
+  public final void testWhereClauseJoin1WithAdaptiveExecution() throws Exception {
+    // Without a plan-time broadcast, region turns out to be small at runtime and is broadcast to nation's tasks.
+    Map<String, String> variables = new HashMap<>();
+    variables.put(SessionVars.ADAPTIVE_EXECUTION_ENABLED.keyname(), "true");
+    variables.put(SessionVars.TEST_BROADCAST_JOIN_ENABLED.keyname(), "false");
+    client.updateSessionVariables(variables);
+
+    try {
+      ResultSet res = executeString("select n_name, r_name, n_regionkey, r_regionkey from nation, region " +
+          "where n_regionkey = r_regionkey order by n_name");
+      assertResultSet(res, "testWhereClauseJoin1.result");
+      QueryId queryId = getQueryId(res);
+      cleanupQuery(res);
+
+      QueryMasterTask queryMasterTask = testingCluster.getQueryMasterTask(queryId);
+      MasterPlan plan = queryMasterTask.getQuery().getPlan();
+      Stage joinStage = null;
+      for (Stage stage : queryMasterTask.getQuery().getStages()) {
+        if (stage.getBlock().hasJoin()) {
+          joinStage = stage;
+        }
+      }
+      assertNotNull(joinStage);
+
+      // both sides are planned to be repartitioned
+      List<ExecutionBlock> children = plan.getChilds(joinStage.getBlock());
+      assertEquals(2, children.size());
+      for (ExecutionBlock child : children) {
+        assertEquals(HASH_SHUFFLE, plan.getChannel(child, joinStage.getBlock()).getShuffleType());
+      }
+
+      // but region is broadcast at runtime
+      ExecutionBlockId broadcastId = Repartitioner.getRuntimeBroadcastSide(plan,
+          queryMasterTask.getQueryTaskContext(), joinStage.getBlock());
+      assertNotNull(broadcastId);
+      ScanNode scan = PlannerUtil.findTopNode(plan.getExecBlock(broadcastId).getPlan(), NodeType.SCAN);
+      assertTrue(scan.getTableName().endsWith("region"));
+
+      // every task of the join fetches all partitions of region
+      Set<Integer> broadcastPartitions = null;
+      for (Task task : joinStage.getTasks()) {
+        Set<Integer> partitions = new HashSet<>();
+        for (FetchProto fetch : task.getFetchMap().get(broadcastId.toString())) {
+          partitions.add(fetch.getPartitionId());
+        }
+        if (broadcastPartitions == null) {
+          broadcastPartitions = partitions;
+        }
+        assertEquals(broadcastPartitions, partitions);
+      }
+      assertNotNull(broadcastPartitions);
+    } finally {
+      client.unsetSessionVariables(Arrays.asList(SessionVars.ADAPTIVE_EXECUTION_ENABLED.keyname(),
+          SessionVars.TEST_BROADCAST_JOIN_ENABLED.keyname()));
+    }
+  }
+
+  @Test
+  public final void testJoinWithRuntimeJoinFilter() throws Exception {
+    // Only the nations of ASIA and ASIA itself match. Without broadcast, both sides are repartitioned,
+    // and the filter built from one side drops the rows of the other side which do not match.
+    Map<String, String> variables = new HashMap<>();
+    variables.put(SessionVars.RUNTIME_JOIN_FILTER_ENABLED.keyname(), "true");
+    variables.put(SessionVars.BROADCAST_NON_CROSS_JOIN_THRESHOLD.keyname(), "0");
+    variables.put(SessionVars.BROADCAST_CROSS_JOIN_THRESHOLD.keyname(), "0");
+    client.updateSessionVariables(variables);
+
+    try {
+      ResultSet res = executeString("select n_name, r_name from nation, region " +
+          "where n_regionkey = r_regionkey and n_regionkey < 3 and r_regionkey > 1 order by n_name");
+      assertResultSet(res, "testJoinWithRuntimeJoinFilter.result");
+      QueryId queryId = getQueryId(res);
+      cleanupQuery(res);
+
+      Query query = testingCluster.getQueryMasterTask(queryId).getQuery();
+      Stage filtered = null;
+      for (Stage stage : query.getStages()) {
+        if (stage.getBlock().hasRuntimeJoinFilterSource()) {
+          filtered = stage;
+        }
+      }
+      assertNotNull(filtered);
+
+      // 15 nations (regions 0-2) or 3 regions (2-4) are selected by the scan,
+      // but only the rows of region 2 are shuffled to the join.
+      ScanNode scan = PlannerUtil.findTopNode(filtered.getBlock().getPlan(), NodeType.SCAN);
+      long expected = scan.getTableName().endsWith("nation") ? 5 : 1;
+      assertEquals(expected, filtered.getResultStats().getNumRows().longValue());
+    } finally {
+      client.unsetSessionVariables(Arrays.asList(SessionVars.RUNTIME_JOIN_FILTER_ENABLED.keyname(),
+          SessionVars.BROADCAST_NON_CROSS_JOIN_THRESHOLD.keyname(),
+          SessionVars.BROADCAST_CROSS_JOIN_THRESHOLD.keyname()));
+    }
+  }
+
   @Test
   @Option(withExplain = true, withExplainGlobal = true, parameterized = true)
   @SimpleTest()
@@ -18,6 +18,7 @@
 
 package org.apache.tajo.master;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.tajo.ExecutionBlockId;
@@ -497,6 +498,84 @@ public class TestRepartitioner {
     assertNotEquals(expected, fetch2);
   }
 
+  @Test
+  public void testSplitSkewedJoinPartition() {
+    QueryId queryId = LocalTajoTestingUtility.newQueryId();
+    ExecutionBlockId leftId = new ExecutionBlockId(queryId, 1);
+    ExecutionBlockId rightId = new ExecutionBlockId(queryId, 2);
+    int pageLength = 10 * StorageUnit.MB;
+
+    // the left side has 80MB on two hosts, and the right side has 1MB.
+    List<IntermediateEntry> leftEntries = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      List<Pair<Long, Integer>> pages = new ArrayList<>();
+      for (int j = 0; j < 4; j++) {
+        pages.add(new Pair<>((long) j * pageLength, pageLength));
+      }
+      IntermediateEntry interm = new IntermediateEntry(i, 0, 0, new Task.PullHost("host" + i, i));
+      interm.setEbId(leftId);
+      interm.setPages(pages);
+      interm.setVolume(4L * pageLength);
+      leftEntries.add(interm);
+    }
+    IntermediateEntry rightEntry = new IntermediateEntry(0, 0, 0, new Task.PullHost("host0", 0));
+    rightEntry.setEbId(rightId);
+    rightEntry.setVolume(StorageUnit.MB);
+
+    Map<ExecutionBlockId, List<IntermediateEntry>> partition = new HashMap<>();
+    partition.put(leftId, leftEntries);
+    partition.put(rightId, Lists.newArrayList(rightEntry));
+
+    long splitVolume = 2L * pageLength;
+    List<Map<String, List<FetchProto>>> splits = Repartitioner.splitSkewedJoinPartition(0, partition,
+        new Pair<>(leftId, rightId), 40L * StorageUnit.MB, splitVolume, pageLength);
+    assertTrue(splits.size() > 1);
+
+    long totalLength = 0;
+    for (Map<String, List<FetchProto>> eachTask : splits) {
+      // the whole right partition is replicated to every task
+      assertEquals(1, eachTask.get(rightId.toString()).size());
+      long taskLength = 0;
+      for (FetchProto eachFetch : eachTask.get(leftId.toString())) {
+        assertEquals(HASH_SHUFFLE, eachFetch.getType());
+        taskLength += eachFetch.getLength();
+      }
+      assertTrue(taskLength <= splitVolume);
+      totalLength += taskLength;
+    }
+    assertEquals(8L * pageLength, totalLength);
+
+    // the left side of a right outer join cannot be split
+    assertTrue(Repartitioner.splitSkewedJoinPartition(0, partition, new Pair<>(null, rightId),
+        40L * StorageUnit.MB, splitVolume, pageLength).isEmpty());
+
+    // a partition smaller than the threshold is not split
+    assertTrue(Repartitioner.splitSkewedJoinPartition(0, partition, new Pair<>(leftId, rightId),
+        100L * StorageUnit.MB, splitVolume, pageLength).isEmpty());
+  }
+
+  @Test
+  public void testCoalescePartitions() {
+    SortedMap<Integer, Long> partitionVolumes = new TreeMap<>();
+    partitionVolumes.put(0, 10L);
+    partitionVolumes.put(1, 20L);
+    partitionVolumes.put(2, 30L);
+    partitionVolumes.put(3, 100L);
+    partitionVolumes.put(5, 0L);
+    partitionVolumes.put(6, 40L);
+
+    // contiguous partitions are packed up to the target volume, and a large partition forms a group by itself
+    List<List<Integer>> groups = Repartitioner.coalescePartitions(partitionVolumes, 60);
+    assertEquals(3, groups.size());
+    assertEquals(Lists.newArrayList(0, 1, 2), groups.get(0));
+    assertEquals(Lists.newArrayList(3), groups.get(1));
+    assertEquals(Lists.newArrayList(5, 6), groups.get(2));
+
+    // no partition is coalesced if the target volume is zero
+    groups = Repartitioner.coalescePartitions(partitionVolumes, 0);
+    assertEquals(partitionVolumes.size(), groups.size());
+  }
+
   private static void assertFetchProto(FetchProto [] expected, Map<String, List<FetchProto>>[] result) {
     Set<FetchProto> expectedURLs = Sets.newHashSet();
 
@@ -0,0 +1,247 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master.scheduler;
+
+import com.google.common.collect.Maps;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.service.CompositeService;
+import org.apache.hadoop.yarn.event.AsyncDispatcher;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.annotation.NotThreadSafe;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.master.QueryInfo;
+import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.master.rm.*;
+import org.apache.tajo.master.scheduler.event.SchedulerEvent;
+import org.apache.tajo.master.scheduler.event.SchedulerEventType;
+import org.apache.tajo.resource.NodeResource;
+import org.apache.tajo.resource.NodeResources;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import static org.apache.tajo.ResourceProtos.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@NotThreadSafe
+public class TestFairScheduler {
+  private CompositeService service;
+  private FairScheduler scheduler;
+  private TajoRMContext rmContext;
+  private AsyncDispatcher dispatcher;
+  private TajoConf conf;
+  private int workerNum = 3;
+  private NodeResource nodeResource;
+  private Semaphore barrier;
+
+  @Before
+  public void setup() {
+    conf = new TajoConf();
+    conf.setVar(TajoConf.ConfVars.RESOURCE_SCHEDULER_QUEUES, "etl,dashboard");
+    conf.setFloat(FairScheduler.QUEUE_CONF_PREFIX + "etl.query-max-share", 0.5f);
+    conf.setInt(FairScheduler.QUEUE_CONF_PREFIX + "dashboard.user-limit", 1);
+    conf.setIntVar(TajoConf.ConfVars.RESOURCE_SCHEDULER_PREEMPTION_TIMEOUT, 0);
+
+    nodeResource = NodeResource.createResource(2000, 3);
+    service = new CompositeService(TestFairScheduler.class.getSimpleName()) {
+
+      @Override
+      protected void serviceInit(Configuration conf) throws Exception {
+        dispatcher = new AsyncDispatcher();
+        addService(dispatcher);
+
+        rmContext = new TajoRMContext(dispatcher);
+        rmContext.getDispatcher().register(NodeEventType.class,
+            new TajoResourceManager.WorkerEventDispatcher(rmContext));
+
+        barrier = new Semaphore(0);
+        scheduler = new MyFairScheduler(rmContext, barrier);
+        addService(scheduler);
+        rmContext.getDispatcher().register(SchedulerEventType.class, scheduler);
+
+        for (int i = 0; i < workerNum; i++) {
+          WorkerConnectionInfo conn = new WorkerConnectionInfo("host" + i, 28091 + i, 28092, 21000, 28093, 28080);
+          rmContext.getNodes().putIfAbsent(conn.getId(),
+              new NodeStatus(rmContext, NodeResources.clone(nodeResource), conn));
+          rmContext.getDispatcher().getEventHandler().handle(new NodeEvent(conn.getId(), NodeEventType.STARTED));
+        }
+        super.serviceInit(conf);
+      }
+    };
+    service.init(conf);
+    service.start();
+  }
+
+  @After
+  public void tearDown() {
+    service.stop();
+  }
+
+  private QuerySchedulingInfo submitQuery(String queue, String user) {
+    QuerySchedulingInfo schedulingInfo = new QuerySchedulingInfo(queue, user,
+        QueryIdFactory.newQueryId(System.nanoTime(), 0), 1, System.currentTimeMillis());
+    scheduler.submitQuery(schedulingInfo);
+    return schedulingInfo;
+  }
+
+  @Test(timeout = 10000)
+  public void testUserLimit() {
+    SchedulerQueue queue = scheduler.getQueue("dashboard");
+    for (int i = 0; i < 3; i++) {
+      submitQuery("dashboard", "user1");
+    }
+    assertEquals(1, queue.getRunningQueryNum());
+    assertEquals(2, queue.getPendingQueryNum());
+
+    submitQuery("dashboard", "user2");
+    assertEquals(2, queue.getRunningQueryNum());
+    assertEquals(2, queue.getPendingQueryNum());
+  }
+
+  @Test(timeout = 10000)
+  public void testUnknownQueue() {
+    submitQuery("unknown", "user1");
+    assertEquals(1, scheduler.getQueue("etl").getRunningQueryNum());
+  }
+
+  @Test(timeout = 10000)
+  public void testFairAdmission() {
+    SchedulerQueue etl = scheduler.getQueue("etl");
+    SchedulerQueue dashboard = scheduler.getQueue("dashboard");
+    int maxRunning = scheduler.getMaximumRunningQueryMasters();
+    assertTrue(maxRunning > 0);
+
+    QuerySchedulingInfo first = submitQuery("etl", "user1");
+    for (int i = 1; i < maxRunning + 2; i++) {
+      submitQuery("etl", "user1");
+    }
+    submitQuery("dashboard", "user2");
+    assertEquals(maxRunning, etl.getRunningQueryNum());
+    assertEquals(2, etl.getPendingQueryNum());
+    assertEquals(1, dashboard.getPendingQueryNum());
+
+    // the dashboard query should be admitted before the etl queries submitted earlier
+    scheduler.stopQuery(first.getQueryId());
+    assertEquals(1, dashboard.getRunningQueryNum());
+    assertEquals(2, etl.getPendingQueryNum());
+  }
+
+  @Test(timeout = 10000)
+  public void testMaximumQueryShare() throws InterruptedException {
+    QuerySchedulingInfo query = submitQuery("etl", "user1");
+    barrier.acquire();
+
+    int containers = scheduler.getResourceCalculator().computeAvailableContainers(
+        scheduler.getMaximumResourceCapability(), scheduler.getMinimumResourceCapability());
+    List<AllocationResourceProto> allocations =
+        scheduler.reserve(query.getQueryId(), createResourceRequest(query.getQueryId(), containers, 0));
+    // etl query can use half of the cluster
+    assertEquals(containers / 2, allocations.size());
+  }
+
+  @Test(timeout = 10000)
+  public void testStarvedQueue() throws InterruptedException {
+    QuerySchedulingInfo etlQuery1 = submitQuery("etl", "user1");
+    QuerySchedulingInfo etlQuery2 = submitQuery("etl", "user1");
+    QuerySchedulingInfo dashboardQuery = submitQuery("dashboard", "user2");
+    barrier.acquire(3);
+
+    int containers = scheduler.getResourceCalculator().computeAvailableContainers(
+        scheduler.getMaximumResourceCapability(), scheduler.getMinimumResourceCapability());
+    List<AllocationResourceProto> etlAllocations = new ArrayList<>();
+    etlAllocations.addAll(scheduler.reserve(etlQuery1.getQueryId(),
+        createResourceRequest(etlQuery1.getQueryId(), containers, 0)));
+    List<AllocationResourceProto> etlAllocations2 = scheduler.reserve(etlQuery2.getQueryId(),
+        createResourceRequest(etlQuery2.getQueryId(), containers, 0));
+    etlAllocations.addAll(etlAllocations2);
+    assertTrue(etlAllocations.size() > 0);
+
+    // the cluster is full of etl tasks
+    assertEquals(0, scheduler.reserve(dashboardQuery.getQueryId(),
+        createResourceRequest(dashboardQuery.getQueryId(), 1, 0)).size());
+
+    // the etl tasks are finished, but the etl queue should leave the resources to the starved dashboard queue
+    for (AllocationResourceProto allocation : etlAllocations) {
+      NodeResources.addTo(rmContext.getNodes().get(allocation.getWorkerId()).getReservedResource(),
+          new NodeResource(allocation.getResource()));
+    }
+    scheduler.handle(new SchedulerEvent(SchedulerEventType.RESOURCE_UPDATE));
+    assertEquals(0, scheduler.reserve(etlQuery2.getQueryId(),
+        createResourceRequest(etlQuery2.getQueryId(), 1, etlAllocations2.size())).size());
+    assertEquals(1, scheduler.reserve(dashboardQuery.getQueryId(),
+        createResourceRequest(dashboardQuery.getQueryId(), 1, 0)).size());
+  }
+
+  private NodeResourceRequest createResourceRequest(QueryId queryId, int containerNum, int runningTasks) {
+    NodeResourceRequest.Builder request = NodeResourceRequest.newBuilder();
+    request.setCapacity(scheduler.getMinimumResourceCapability().getProto())
+        .setNumContainers(containerNum)
+        .setPriority(1)
+        .setQueryId(queryId.getProto())
+        .setType(ResourceType.LEAF)
+        .setUserId("test user")
+        .setRunningTasks(runningTasks);
+    return request.build();
+  }
+
+  class MyFairScheduler extends FairScheduler {
+    Semaphore barrier;
+    Map<QueryId, QueryInfo> queryInfoMap = Maps.newConcurrentMap();
+
+    public MyFairScheduler(TajoRMContext rmContext, Semaphore barrier) {
+      super(null, rmContext);
+      this.barrier = barrier;
+    }
+
+    @Override
+    public void submitQuery(QuerySchedulingInfo schedulingInfo) {
+      queryInfoMap.put(schedulingInfo.getQueryId(), new QueryInfo(schedulingInfo.getQueryId()) {
+        QueryContext context;
+        @Override
+        public QueryContext getQueryContext() {
+          if(context == null) {
+            context = new QueryContext(conf);
+            context.setUser("user");
+          }
+          return context;
+        }
+      });
+      super.submitQuery(schedulingInfo);
+    }
+
+    @Override
+    protected boolean startQuery(QueryId queryId, AllocationResourceProto allocation) {
+      barrier.release();
+      return true;
+    }
+
+    @Override
+    protected QueryInfo getQueryInfo(QueryId queryId) {
+      return queryInfoMap.get(queryId);
+    }
+  }
+}
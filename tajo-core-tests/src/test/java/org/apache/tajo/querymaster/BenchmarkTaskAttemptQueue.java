@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.querymaster;
+
+import com.google.common.collect.Lists;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.storage.DataLocation;
+import org.apache.tajo.util.Pair;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Assigns 100k leaf tasks having 3 replicas over 100 hosts with 10 disks in 10 racks,
+ * as <code>DefaultTaskScheduler</code> does for the task requests of the workers.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkTaskAttemptQueue {
+  private static final int NUM_TASKS = 100000;
+  private static final int NUM_HOSTS = 100;
+  private static final int NUM_VOLUMES = 10;
+  private static final int NUM_RACKS = 10;
+  private static final int NUM_REPLICAS = 3;
+
+  private final List<TaskAttemptId> attemptIds = new ArrayList<>(NUM_TASKS);
+  private final List<List<DataLocation>> locations = new ArrayList<>(NUM_TASKS);
+  private TaskAttemptQueue queue;
+
+  private static String host(int i) {
+    return "host" + i;
+  }
+
+  private static String rackOf(String host) {
+    return "/rack" + Integer.parseInt(host.substring(4)) % NUM_RACKS;
+  }
+
+  @Setup
+  public void setup() {
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(LocalTajoTestingUtility.newQueryId());
+    Random rnd = new Random(0);
+    for (int i = 0; i < NUM_TASKS; i++) {
+      attemptIds.add(QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId, i), 0));
+      List<DataLocation> replicas = Lists.newArrayList();
+      int firstHost = rnd.nextInt(NUM_HOSTS);
+      for (int j = 0; j < NUM_REPLICAS; j++) {
+        replicas.add(new DataLocation(host((firstHost + j * 7) % NUM_HOSTS), rnd.nextInt(NUM_VOLUMES)));
+      }
+      locations.add(replicas);
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void fill() {
+    queue = new TaskAttemptQueue(BenchmarkTaskAttemptQueue::rackOf);
+    for (int i = 0; i < NUM_TASKS; i++) {
+      queue.add(attemptIds.get(i), locations.get(i));
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  public int assignAll() {
+    int assigned = 0;
+    int hostIdx = 0;
+    while (!queue.isEmpty()) {
+      String host = host(hostIdx++ % NUM_HOSTS);
+      Pair<TaskAttemptId, Integer> local = queue.pollLocal(host);
+      TaskAttemptId attemptId = local != null ? local.getFirst() : queue.pollRack(rackOf(host));
+      if (attemptId == null) {
+        attemptId = queue.pollAny();
+      }
+      if (attemptId != null) {
+        assigned++;
+        queue.release(host, attemptId);
+      }
+    }
+    return assigned;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(BenchmarkTaskAttemptQueue.class.getSimpleName())
+        .warmupIterations(3)
+        .measurementIterations(10)
+        .forks(1)
+        .build();
+
+    new Runner(opt).run();
+  }
+}
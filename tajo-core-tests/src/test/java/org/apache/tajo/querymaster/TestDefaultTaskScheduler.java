@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.querymaster;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.yarn.event.Event;
+import org.apache.hadoop.yarn.event.EventHandler;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.TajoProtos.TaskAttemptState;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.TaskId;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.master.TaskState;
+import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.master.event.TaskAttemptEvent;
+import org.apache.tajo.master.event.TaskAttemptEventType;
+import org.apache.tajo.master.event.TaskAttemptToSchedulerEvent.TaskAttemptScheduleContext;
+import org.apache.tajo.master.event.TaskEvent;
+import org.apache.tajo.master.event.TaskEventType;
+import org.apache.tajo.master.event.TaskTAttemptEvent;
+import org.apache.tajo.storage.DataLocation;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class TestDefaultTaskScheduler {
+  private final ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(LocalTajoTestingUtility.newQueryId());
+
+  private DefaultTaskScheduler newScheduler(TajoConf conf, Stage stage) {
+    when(stage.getMasterPlan()).thenReturn(mock(MasterPlan.class));
+    DefaultTaskScheduler scheduler = new DefaultTaskScheduler(mock(TaskSchedulerContext.class), stage);
+    scheduler.init(conf);
+    return scheduler;
+  }
+
+  private static Task mockTask(TaskId taskId, TaskState state, long runningTime) {
+    Task task = mock(Task.class);
+    when(task.getId()).thenReturn(taskId);
+    when(task.getState()).thenReturn(state);
+    when(task.getRunningTime()).thenReturn(runningTime);
+    return task;
+  }
+
+  private static TaskAttempt mockAttempt(TaskAttemptId attemptId, Task task, long launchTime, float progress,
+                                         WorkerConnectionInfo worker) {
+    TaskAttempt attempt = mock(TaskAttempt.class);
+    when(attempt.getId()).thenReturn(attemptId);
+    when(attempt.getTask()).thenReturn(task);
+    when(attempt.getState()).thenReturn(TaskAttemptState.TA_RUNNING);
+    when(attempt.getLaunchTime()).thenReturn(launchTime);
+    when(attempt.getProgress()).thenReturn(progress);
+    when(attempt.getWorkerConnectionInfo()).thenReturn(worker);
+    return attempt;
+  }
+
+  @Test
+  public void testLocalityDelay() {
+    TajoConf conf = new TajoConf();
+    conf.setIntVar(TajoConf.ConfVars.QUERYMASTER_TASK_SCHEDULER_LOCALITY_DELAY, 3000);
+    DefaultTaskScheduler scheduler = newScheduler(conf, mock(Stage.class));
+
+    long now = System.currentTimeMillis();
+    scheduler.setLastLocalAssignedTime(now);
+    // a non-local request is held back while the local tasks remain
+    assertTrue(scheduler.isRemoteAssignmentDelayed(true, now + 1000));
+    assertFalse(scheduler.isRemoteAssignmentDelayed(false, now + 1000));
+    // until the delay passes since the last local assignment
+    assertFalse(scheduler.isRemoteAssignmentDelayed(true, now + 3000));
+
+    // a local assignment postpones the non-local ones again
+    scheduler.setLastLocalAssignedTime(now + 3000);
+    assertTrue(scheduler.isRemoteAssignmentDelayed(true, now + 4000));
+
+    // the delay scheduling is disabled by default
+    scheduler = newScheduler(new TajoConf(), mock(Stage.class));
+    scheduler.setLastLocalAssignedTime(now);
+    assertFalse(scheduler.isRemoteAssignmentDelayed(true, now));
+  }
+
+  @Test
+  public void testSpeculateStraggler() {
+    long now = System.currentTimeMillis();
+    Stage stage = mock(Stage.class);
+    EventHandler<Event> eventHandler = mock(EventHandler.class);
+    when(stage.getEventHandler()).thenReturn(eventHandler);
+    when(stage.isSpeculativeExecutionEnabled()).thenReturn(true);
+
+    // 6 of 10 tasks took 1 sec.
+    Task[] tasks = new Task[10];
+    for (int i = 0; i < 6; i++) {
+      tasks[i] = mockTask(QueryIdFactory.newTaskId(ebId, i), TaskState.SUCCEEDED, 1000);
+    }
+    // 3 tasks are running as fast as the succeeded ones
+    for (int i = 6; i < 9; i++) {
+      tasks[i] = mockTask(QueryIdFactory.newTaskId(ebId, i), TaskState.RUNNING, 500);
+      TaskAttempt attempt = mockAttempt(QueryIdFactory.newTaskAttemptId(tasks[i].getId(), 0), tasks[i],
+          now - 500, 0.5f, null);
+      when(tasks[i].getLastAttempt()).thenReturn(attempt);
+    }
+    // a straggler made 20% progress in 5 sec.
+    WorkerConnectionInfo worker1 = new WorkerConnectionInfo("host1", 28091, 28092, 21000, 28093, 28080);
+    WorkerConnectionInfo worker2 = new WorkerConnectionInfo("host2", 28091, 28092, 21000, 28093, 28080);
+    Task straggler = mockTask(QueryIdFactory.newTaskId(ebId, 9), TaskState.RUNNING, 5000);
+    TaskAttempt original = mockAttempt(QueryIdFactory.newTaskAttemptId(straggler.getId(), 0), straggler,
+        now - 5000, 0.2f, worker1);
+    when(straggler.getLastAttempt()).thenReturn(original);
+    tasks[9] = straggler;
+    when(stage.getTasks()).thenReturn(tasks);
+    when(stage.getTask(straggler.getId())).thenReturn(straggler);
+
+    DefaultTaskScheduler scheduler = newScheduler(new TajoConf(), stage);
+    assertEquals(1, scheduler.speculate());
+
+    ArgumentCaptor<TaskEvent> captor = ArgumentCaptor.forClass(TaskEvent.class);
+    verify(eventHandler, times(1)).handle(captor.capture());
+    assertEquals(straggler.getId(), captor.getValue().getTaskId());
+    assertEquals(TaskEventType.T_SPECULATE, captor.getValue().getType());
+
+    // the speculative attempt is placed on another worker than the original attempt
+    TaskAttempt speculative = mockAttempt(QueryIdFactory.newTaskAttemptId(straggler.getId(), 1), straggler,
+        0, 0, null);
+    when(speculative.getState()).thenReturn(TaskAttemptState.TA_UNASSIGNED);
+    when(straggler.isSpeculated()).thenReturn(true);
+    when(straggler.getAttempts()).thenReturn(Lists.newArrayList(original, speculative));
+    when(straggler.getDataLocations()).thenReturn(
+        Lists.newArrayList(new DataLocation("host1", 0), new DataLocation("host2", 1)));
+
+    List<DataLocation> locations = DefaultTaskScheduler.getDataLocations(speculative);
+    assertEquals(1, locations.size());
+    assertEquals("host2", locations.get(0).getHost());
+    assertTrue(scheduler.isAssignedToWorker(speculative.getId(), worker1));
+    assertFalse(scheduler.isAssignedToWorker(speculative.getId(), worker2));
+
+    // no more attempts are speculated while the speculative one is running
+    assertEquals(0, scheduler.speculate());
+  }
+
+  @Test
+  public void testOriginalAttemptWins() {
+    final List<Event> events = new ArrayList<>();
+    EventHandler<Event> eventHandler = events::add;
+    TaskId taskId = QueryIdFactory.newTaskId(ebId, 0);
+    Task task = new Task(new TajoConf(), new TaskAttemptScheduleContext(), taskId, true, eventHandler);
+
+    task.handle(new TaskEvent(taskId, TaskEventType.T_SCHEDULE));
+    TaskAttemptId original = task.getLastAttempt().getId();
+    task.handle(new TaskTAttemptEvent(original, TaskEventType.T_ATTEMPT_LAUNCHED));
+    assertEquals(TaskState.RUNNING, task.getState());
+
+    task.handle(new TaskEvent(taskId, TaskEventType.T_SPECULATE));
+    assertTrue(task.isSpeculated());
+    TaskAttemptId speculative = task.getLastAttempt().getId();
+    assertNotEquals(original, speculative);
+    assertEquals(2, task.getAttempts().size());
+
+    events.clear();
+    task.handle(new TaskTAttemptEvent(original, TaskEventType.T_ATTEMPT_SUCCEEDED));
+    assertEquals(TaskState.SUCCEEDED, task.getState());
+    assertEquals(original, task.getSuccessfulAttempt().getId());
+    assertEquals(original, task.getLastAttempt().getId());
+
+    // the speculative attempt is killed, and the stage is notified of the success
+    List<TaskAttemptId> killed = Lists.newArrayList();
+    for (Event event : events) {
+      if (event instanceof TaskAttemptEvent && event.getType() == TaskAttemptEventType.TA_KILL) {
+        killed.add(((TaskAttemptEvent) event).getTaskAttemptId());
+      }
+    }
+    assertEquals(Lists.newArrayList(speculative), killed);
+
+    // the late events of the speculative attempt are ignored
+    events.clear();
+    task.handle(new TaskTAttemptEvent(speculative, TaskEventType.T_ATTEMPT_LAUNCHED));
+    task.handle(new TaskTAttemptEvent(speculative, TaskEventType.T_ATTEMPT_KILLED));
+    task.handle(new TaskEvent(taskId, TaskEventType.T_SCHEDULE));
+    assertEquals(TaskState.SUCCEEDED, task.getState());
+    assertTrue(events.isEmpty());
+  }
+}
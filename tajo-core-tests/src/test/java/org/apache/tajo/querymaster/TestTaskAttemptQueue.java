@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.querymaster;
+
+import com.google.common.collect.Lists;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.storage.DataLocation;
+import org.apache.tajo.util.Pair;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TestTaskAttemptQueue {
+  private final ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(LocalTajoTestingUtility.newQueryId());
+
+  private TaskAttemptId newAttemptId(int taskId) {
+    return QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId, taskId), 0);
+  }
+
+  private static String rackOf(String host) {
+    return host.startsWith("a") ? "/rack-a" : "/rack-b";
+  }
+
+  @Test
+  public void testLocality() {
+    TaskAttemptQueue queue = new TaskAttemptQueue(TestTaskAttemptQueue::rackOf);
+    TaskAttemptId attempt1 = newAttemptId(1);
+    TaskAttemptId attempt2 = newAttemptId(2);
+    TaskAttemptId attempt3 = newAttemptId(3);
+    queue.add(attempt1, Lists.newArrayList(new DataLocation("a1", 0), new DataLocation("b1", 0)));
+    queue.add(attempt2, Lists.newArrayList(new DataLocation("a1", 1)));
+    queue.add(attempt3, Lists.newArrayList(new DataLocation("b2", 0)));
+    assertEquals(3, queue.size());
+
+    // the attempt shared by a1 and b1 is assigned to b1, and it is removed from a1
+    Pair<TaskAttemptId, Integer> local = queue.pollLocal("b1");
+    assertEquals(attempt1, local.getFirst());
+    assertEquals(0, (int) local.getSecond());
+    assertEquals(1, queue.getRemainingLocalTaskSize("a1"));
+    assertNull(queue.pollLocal("b1"));
+
+    // b1 takes the remaining attempt of its rack
+    assertEquals(attempt3, queue.pollRack("/rack-b"));
+    assertEquals(0, queue.getRemainingLocalTaskSize("b2"));
+
+    queue.assignRemote("b1", attempt3);
+    assertEquals(1, queue.getRemoteConcurrency("b1"));
+    queue.release("b1", attempt3);
+    assertEquals(0, queue.getRemoteConcurrency("b1"));
+
+    assertNull(queue.pollRack("/rack-b"));
+    assertEquals(attempt2, queue.pollAny());
+    assertTrue(queue.isEmpty());
+    assertNull(queue.pollAny());
+  }
+
+  @Test
+  public void testLeastLoadedVolume() {
+    TaskAttemptQueue queue = new TaskAttemptQueue(TestTaskAttemptQueue::rackOf);
+    for (int i = 0; i < 6; i++) {
+      queue.add(newAttemptId(i), Lists.newArrayList(new DataLocation("a1", i % 2)));
+    }
+
+    // the running attempts are spread over the volumes
+    assertEquals(0, (int) queue.pollLocal("a1").getSecond());
+    assertEquals(1, (int) queue.pollLocal("a1").getSecond());
+    Pair<TaskAttemptId, Integer> third = queue.pollLocal("a1");
+    queue.release("a1", third.getFirst());
+    assertEquals(third.getSecond(), queue.pollLocal("a1").getSecond());
+  }
+
+  @Test
+  public void testConcurrentAssignment() throws InterruptedException {
+    final TaskAttemptQueue queue = new TaskAttemptQueue(TestTaskAttemptQueue::rackOf);
+    final int numTasks = 10000;
+    for (int i = 0; i < numTasks; i++) {
+      queue.add(newAttemptId(i), Lists.newArrayList(
+          new DataLocation("a" + (i % 4), i % 3), new DataLocation("b" + (i % 5), i % 2)));
+    }
+
+    final Set<TaskAttemptId> assigned = new HashSet<>();
+    final AtomicInteger assignedNum = new AtomicInteger();
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      final String host = (i % 2 == 0 ? "a" : "b") + i;
+      threads[i] = new Thread() {
+        public void run() {
+          TaskAttemptId attemptId;
+          while (true) {
+            Pair<TaskAttemptId, Integer> local = queue.pollLocal(host);
+            attemptId = local != null ? local.getFirst() : queue.pollAny();
+            if (attemptId == null) {
+              break;
+            }
+            assignedNum.incrementAndGet();
+            synchronized (assigned) {
+              assigned.add(attemptId);
+            }
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    // every attempt is assigned exactly once
+    assertEquals(numTasks, assignedNum.get());
+    assertEquals(numTasks, assigned.size());
+    assertTrue(queue.isEmpty());
+  }
+}
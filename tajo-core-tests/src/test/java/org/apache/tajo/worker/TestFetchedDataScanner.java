@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.BuiltinStorages;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaBuilder;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.pullserver.retriever.FileChunk;
+import org.apache.tajo.storage.Appender;
+import org.apache.tajo.storage.FileTablespace;
+import org.apache.tajo.storage.TablespaceManager;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class TestFetchedDataScanner {
+  private static final int TUPLE_NUM = 1000;
+
+  private TajoConf conf;
+  private Schema schema;
+  private TableMeta meta;
+  private File dataFile;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    Path testDir = CommonTestingUtil.getTestDir();
+    schema = SchemaBuilder.builder()
+        .add("id", Type.INT4)
+        .add("name", Type.TEXT)
+        .build();
+    meta = CatalogUtil.newTableMeta(BuiltinStorages.RAW, conf);
+
+    Path dataPath = new Path(testDir, "fetched.raw");
+    Appender appender = ((FileTablespace) TablespaceManager.getLocalFs()).getAppender(meta, schema, dataPath);
+    appender.init();
+    VTuple tuple = new VTuple(schema.size());
+    for (int i = 0; i < TUPLE_NUM; i++) {
+      tuple.put(0, DatumFactory.createInt4(i));
+      tuple.put(1, DatumFactory.createText("name_" + i));
+      appender.addTuple(tuple);
+    }
+    appender.close();
+    dataFile = new File(dataPath.toUri());
+  }
+
+  @Test
+  public void testScanWhileFetching() throws Exception {
+    TaskMemoryContext memoryContext = new TaskMemoryContext(null, LocalTajoTestingUtility.newTaskAttemptId());
+    final FetchedDataQueue queue = new FetchedDataQueue("fetched", memoryContext, dataFile.length());
+    queue.registerFetcher();
+    queue.registerFetcher();
+
+    // the first fetch is buffered in memory
+    byte[] bytes = Files.readAllBytes(dataFile.toPath());
+    assertTrue(queue.reserve(bytes.length));
+    queue.add(ByteBuffer.wrap(bytes));
+    queue.fetcherFinished();
+
+    // the second fetch exceeds the capacity, so it is landed on a file
+    assertFalse(queue.reserve(bytes.length));
+    Thread fetcher = new Thread(() -> {
+      queue.add(new FileChunk(dataFile, 0, dataFile.length()));
+      queue.fetcherFinished();
+    });
+
+    FetchedDataScanner scanner = new FetchedDataScanner(conf, schema, meta, queue);
+    scanner.init();
+    fetcher.start();
+
+    int count = 0;
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      assertEquals(count % TUPLE_NUM, tuple.getInt4(0));
+      count++;
+    }
+    scanner.close();
+    fetcher.join();
+
+    assertEquals(TUPLE_NUM * 2, count);
+    assertEquals(TUPLE_NUM * 2, scanner.getInputStats().getNumRows().longValue());
+    assertEquals(1.0f, scanner.getProgress(), 0.0f);
+    assertEquals(0, memoryContext.getUsed());
+    assertEquals(bytes.length, memoryContext.getPeakUsed());
+  }
+
+  @Test(expected = IOException.class)
+  public void testFetchFailure() throws Exception {
+    FetchedDataQueue queue = new FetchedDataQueue("fetched",
+        new TaskMemoryContext(null, LocalTajoTestingUtility.newTaskAttemptId()), dataFile.length());
+    queue.registerFetcher();
+    queue.fetcherFailed();
+
+    FetchedDataScanner scanner = new FetchedDataScanner(conf, schema, meta, queue);
+    scanner.init();
+    try {
+      scanner.next();
+    } finally {
+      scanner.close();
+    }
+  }
+}
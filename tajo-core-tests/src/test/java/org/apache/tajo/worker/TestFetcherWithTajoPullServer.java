@@ -48,6 +48,7 @@ import org.apache.tajo.util.CommonTestingUtil;
 import org.apache.tajo.worker.FetchImpl.RangeParam;
 import org.junit.After;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -183,6 +184,164 @@ public class TestFetcherWithTajoPullServer {
     assertEquals(FetcherState.FETCH_DATA_FINISHED, fetcher.getState());
   }
 
+  @Test
+  public void testLocalFetcherFallback() throws IOException {
+    Assume.assumeTrue(fetchType.equals(FetchType.LOCAL));
+    QueryId queryId = QueryIdFactory.NULL_QUERY_ID;
+    String sid = "1";
+    String partId = "1";
+
+    Path queryBaseDir = PullServerUtil.getBaseOutputDir(queryId.toString(), sid);
+    final int partParentId = HashShuffleAppenderManager.getPartParentId(Integer.parseInt(partId), conf);
+    final Path dataPath = StorageUtil.concatPath(queryBaseDir, "hash-shuffle", String.valueOf(partParentId), partId);
+
+    Path inputPath = new Path(INPUT_DIR, dataPath);
+    FSDataOutputStream stream = FileSystem.getLocal(conf).create(inputPath, true);
+    for (int i = 0; i < 100; i++) {
+      stream.write(("" + i).getBytes());
+    }
+    stream.flush();
+    stream.close();
+
+    PullServerRequestURIBuilder builder = new PullServerRequestURIBuilder("127.0.0.1", pullserverPort,
+        maxUrlLength);
+    builder.setRequestType(PullServerConstants.CHUNK_REQUEST_PARAM_STRING)
+        .setQueryId(queryId.toString())
+        .setEbId(sid)
+        .setPartId(partId)
+        .setShuffleType(PullServerConstants.HASH_SHUFFLE_PARAM_STRING);
+    final URI uri = builder.build(false).get(0);
+    final File data = new File(OUTPUT_DIR + "data");
+    final List<AbstractFetcher> fallbackFetchers = new ArrayList<>();
+
+    // the local file is readable, so no fallback fetcher is created.
+    LocalFetcher localFetcher = new LocalFetcher(conf, uri, TEST_TABLE_NAME);
+    localFetcher.setFallbackFetcherFactory(() -> {
+      FileChunk storeChunk = new FileChunk(data, 0, -1);
+      storeChunk.setFromRemote(true);
+      AbstractFetcher fetcher = new RemoteFetcher(conf, uri, storeChunk);
+      fallbackFetchers.add(fetcher);
+      return fetcher;
+    });
+    assertFalse(localFetcher.get().get(0).fromRemote());
+    assertTrue(fallbackFetchers.isEmpty());
+
+    // the fetcher looks for the file in other local directories than the pull server does.
+    TajoConf otherConf = new TajoConf(conf);
+    otherConf.setVar(ConfVars.WORKER_TEMPORAL_DIR, CommonTestingUtil.getTestDir(TEST_DATA + "/other").toString());
+    localFetcher = new LocalFetcher(otherConf, uri, TEST_TABLE_NAME);
+    localFetcher.setFallbackFetcherFactory(() -> {
+      FileChunk storeChunk = new FileChunk(data, 0, -1);
+      storeChunk.setFromRemote(true);
+      AbstractFetcher fetcher = new RemoteFetcher(conf, uri, storeChunk);
+      fallbackFetchers.add(fetcher);
+      return fetcher;
+    });
+
+    FileChunk chunk = localFetcher.get().get(0);
+    assertEquals(1, fallbackFetchers.size());
+    assertTrue(chunk.fromRemote());
+    assertEquals(FileSystem.getLocal(conf).getFileStatus(inputPath).getLen(), chunk.getFile().length());
+    assertEquals(FetcherState.FETCH_DATA_FINISHED, localFetcher.getState());
+  }
+
+  @Test
+  public void testSharedFileHandle() throws IOException {
+    Assume.assumeTrue(fetchType.equals(FetchType.REMOTE) && pullServerType.equals(PullServerType.TAJO));
+    QueryId queryId = QueryIdFactory.NULL_QUERY_ID;
+    String sid = "1";
+    String partId = "1";
+
+    Path queryBaseDir = PullServerUtil.getBaseOutputDir(queryId.toString(), sid);
+    final int partParentId = HashShuffleAppenderManager.getPartParentId(Integer.parseInt(partId), conf);
+    final Path dataPath = StorageUtil.concatPath(queryBaseDir, "hash-shuffle", String.valueOf(partParentId), partId);
+
+    Path inputPath = new Path(INPUT_DIR, dataPath);
+    FSDataOutputStream stream = FileSystem.getLocal(conf).create(inputPath, true);
+    for (int i = 0; i < 100; i++) {
+      stream.write(String.valueOf(i).getBytes());
+    }
+    stream.close();
+
+    PullServerRequestURIBuilder builder = new PullServerRequestURIBuilder("127.0.0.1", pullserverPort,
+        maxUrlLength);
+    builder.setRequestType(PullServerConstants.CHUNK_REQUEST_PARAM_STRING)
+        .setQueryId(queryId.toString())
+        .setEbId(sid)
+        .setPartId(partId)
+        .setShuffleType(PullServerConstants.HASH_SHUFFLE_PARAM_STRING);
+    URI uri = builder.build(false).get(0);
+
+    TajoPullServerService tajoPullServer = (TajoPullServerService) pullServerService;
+    long inLength = FileSystem.getLocal(conf).getFileStatus(inputPath).getLen();
+    for (int i = 0; i < 2; i++) {
+      FileChunk chunk = getFetcher(uri, new File(OUTPUT_DIR + "data" + i)).get().get(0);
+      assertEquals(inLength, chunk.getFile().length());
+    }
+
+    // the second fetch reuses the file opened by the first one
+    assertEquals(1, tajoPullServer.getFileCacheStats().missCount());
+    assertEquals(1, tajoPullServer.getFileCacheStats().hitCount());
+  }
+
+  @Test
+  public void testGetBatchedHashShuffle() throws IOException {
+    Assume.assumeTrue(fetchType.equals(FetchType.REMOTE));
+
+    Random rnd = new Random();
+    QueryId queryId = QueryIdFactory.NULL_QUERY_ID;
+    String sid = "1";
+    FileSystem fs = FileSystem.getLocal(conf);
+    Path queryBaseDir = PullServerUtil.getBaseOutputDir(queryId.toString(), sid);
+
+    List<URI> batch = new ArrayList<>();
+    List<Long> expectedLengths = new ArrayList<>();
+    for (int partId = 1; partId <= 4; partId++) {
+      PullServerRequestURIBuilder builder = new PullServerRequestURIBuilder("127.0.0.1", pullserverPort,
+          maxUrlLength);
+      builder.setRequestType(PullServerConstants.CHUNK_REQUEST_PARAM_STRING)
+          .setQueryId(queryId.toString())
+          .setEbId(sid)
+          .setPartId(String.valueOf(partId))
+          .setShuffleType(PullServerConstants.HASH_SHUFFLE_PARAM_STRING);
+      batch.add(builder.build(false).get(0));
+
+      final int partParentId = HashShuffleAppenderManager.getPartParentId(partId, conf);
+      Path inputPath = new Path(INPUT_DIR, StorageUtil.concatPath(queryBaseDir, "hash-shuffle",
+          String.valueOf(partParentId), String.valueOf(partId)));
+      // the third partition has no data
+      if (partId == 3) {
+        fs.delete(inputPath, false);
+        continue;
+      }
+
+      FSDataOutputStream stream = fs.create(inputPath, true);
+      for (int i = 0; i < 100 * partId; i++) {
+        stream.write(String.valueOf(rnd.nextInt()).getBytes());
+      }
+      stream.close();
+      expectedLengths.add(fs.getFileStatus(inputPath).getLen());
+    }
+
+    File data = new File(OUTPUT_DIR + "data");
+    FileChunk storeChunk = new FileChunk(data, 0, data.length());
+    storeChunk.setFromRemote(true);
+    final RemoteFetcher fetcher = new RemoteFetcher(conf, batch, storeChunk);
+    assertTrue(fetcher.isBatch());
+
+    List<FileChunk> chunks = fetcher.get();
+    assertEquals(FetcherState.FETCH_DATA_FINISHED, fetcher.getState());
+    assertEquals(expectedLengths.size(), chunks.size());
+
+    long start = 0;
+    for (int i = 0; i < chunks.size(); i++) {
+      assertEquals(start, chunks.get(i).startOffset());
+      assertEquals(expectedLengths.get(i).longValue(), chunks.get(i).length());
+      start += chunks.get(i).length();
+    }
+    assertEquals(start, data.length());
+  }
+
   @Test
   public void testGetRangeShuffle() throws IOException {
     Random rnd = new Random();
@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.TaskAttemptId;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class TestMemoryManager {
+
+  private static class MockConsumer implements MemoryConsumer {
+    private final TaskMemoryContext context;
+    private final boolean spillable;
+    private long reserved;
+    private int spillCount;
+
+    MockConsumer(TaskMemoryContext context, boolean spillable) {
+      this.context = context;
+      this.spillable = spillable;
+    }
+
+    boolean reserve(long bytes) throws IOException {
+      if (context.reserve(this, bytes, false)) {
+        reserved += bytes;
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public long getReservedMemory() {
+      return reserved;
+    }
+
+    @Override
+    public long spill() throws IOException {
+      if (!spillable) {
+        return 0;
+      }
+      spillCount++;
+      long released = reserved;
+      context.release(this, released);
+      reserved = 0;
+      return released;
+    }
+  }
+
+  @Test
+  public void testFairShare() {
+    MemoryManager manager = new MemoryManager(100);
+    TaskAttemptId task1 = LocalTajoTestingUtility.newTaskAttemptId();
+    TaskAttemptId task2 = LocalTajoTestingUtility.newTaskAttemptId();
+
+    manager.registerTask(task1);
+    assertTrue(manager.reserve(task1, 80, false));
+    assertFalse(manager.reserve(task1, 30, false));
+
+    // the second task can reserve up to the remaining memory
+    manager.registerTask(task2);
+    assertFalse(manager.reserve(task2, 30, false));
+    assertTrue(manager.reserve(task2, 20, false));
+    assertEquals(100, manager.getUsed());
+
+    // the first task exceeds its share after the second task is registered
+    manager.release(task1, 40);
+    assertFalse(manager.reserve(task1, 20, false));
+    assertTrue(manager.reserve(task1, 10, false));
+
+    // a forced reservation is always granted
+    assertTrue(manager.reserve(task2, 50, true));
+    assertTrue(manager.isOvercommitted());
+    assertEquals(120, manager.getPeakUsed());
+
+    assertEquals(70, manager.unregisterTask(task2));
+    assertFalse(manager.isOvercommitted());
+    assertEquals(50, manager.unregisterTask(task1));
+    assertEquals(0, manager.getUsed());
+    assertEquals(0, manager.getTaskNum());
+
+    // a late reservation after the end of a task is rejected instead of registering the task again
+    assertFalse(manager.reserve(task1, 10, true));
+    assertEquals(0, manager.getUsed());
+    assertEquals(0, manager.getTaskNum());
+  }
+
+  @Test
+  public void testSpillOtherConsumers() throws IOException {
+    MemoryManager manager = new MemoryManager(100);
+    TaskAttemptId taskId = LocalTajoTestingUtility.newTaskAttemptId();
+    manager.registerTask(taskId);
+    TaskMemoryContext context = new TaskMemoryContext(manager, taskId);
+
+    MockConsumer unspillable = new MockConsumer(context, false);
+    MockConsumer spillable = new MockConsumer(context, true);
+    MockConsumer requester = new MockConsumer(context, true);
+
+    assertTrue(unspillable.reserve(30));
+    assertTrue(spillable.reserve(50));
+    assertTrue(requester.reserve(10));
+
+    // only the spillable consumer releases its memory
+    assertTrue(requester.reserve(40));
+    assertEquals(1, spillable.spillCount);
+    assertEquals(0, requester.spillCount);
+    assertEquals(0, spillable.getReservedMemory());
+    assertEquals(80, context.getUsed());
+    assertEquals(80, manager.getUsed());
+
+    assertFalse(requester.reserve(30));
+    assertEquals(90, context.getPeakUsed());
+
+    assertEquals(80, context.releaseAll());
+    assertEquals(0, context.getUsed());
+    assertEquals(0, manager.getUsed());
+  }
+
+  @Test
+  public void testWithoutMemoryManager() throws IOException {
+    TaskMemoryContext context = new TaskMemoryContext(null, LocalTajoTestingUtility.newTaskAttemptId());
+    MockConsumer consumer = new MockConsumer(context, false);
+    assertTrue(consumer.reserve(Long.MAX_VALUE / 2));
+    context.release(consumer, Long.MAX_VALUE / 2);
+    assertEquals(0, context.getUsed());
+    assertEquals(Long.MAX_VALUE / 2, context.getPeakUsed());
+  }
+
+  @Test(timeout = 60000)
+  public void testFetchDuringSpill() throws Exception {
+    MemoryManager manager = new MemoryManager(100);
+    TaskAttemptId taskId = LocalTajoTestingUtility.newTaskAttemptId();
+    manager.registerTask(taskId);
+    final TaskMemoryContext context = new TaskMemoryContext(manager, taskId);
+    final FetchedDataQueue queue = new FetchedDataQueue("test", context, 100);
+    final CountDownLatch spilling = new CountDownLatch(1);
+    final CountDownLatch fetched = new CountDownLatch(1);
+    final AtomicBoolean fetchedDuringSpill = new AtomicBoolean();
+
+    // a spill waits for a fetcher which reserves and releases the memory of the queue in another thread
+    MockConsumer slowSpillable = new MockConsumer(context, true) {
+      @Override
+      public long spill() throws IOException {
+        spilling.countDown();
+        try {
+          fetchedDuringSpill.set(fetched.await(30, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+        return super.spill();
+      }
+    };
+    MockConsumer requester = new MockConsumer(context, false);
+    assertTrue(slowSpillable.reserve(50));
+    assertTrue(queue.reserve(10));
+
+    Thread fetcher = new Thread() {
+      @Override
+      public void run() {
+        try {
+          spilling.await();
+          if (queue.reserve(10)) {
+            queue.release(10);
+            fetched.countDown();
+          }
+        } catch (InterruptedException e) {
+          // the spill will time out
+        }
+      }
+    };
+    fetcher.start();
+
+    assertTrue(requester.reserve(60));
+    fetcher.join();
+
+    assertTrue(fetchedDuringSpill.get());
+    assertEquals(0, slowSpillable.getReservedMemory());
+    assertEquals(10, queue.getReservedMemory());
+    assertEquals(70, context.getUsed());
+
+    queue.close();
+    assertEquals(0, queue.getReservedMemory());
+    assertEquals(60, context.getUsed());
+  }
+}
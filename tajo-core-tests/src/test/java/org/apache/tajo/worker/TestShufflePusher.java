@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import com.google.common.collect.Lists;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.conf.TajoConf;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TestShufflePusher {
+  private static final int PARTITION_NUM = 1000;
+  private static final String QUERY_MASTER = "localhost:28093";
+
+  private final TajoConf conf = new TajoConf();
+
+  @Test
+  public void testMergerSelection() {
+    List<String> mergers = Lists.newArrayList("host1:28091", "host2:28091", "host3:28091", "host4:28091");
+    ShufflePusher pusher1 = new ShufflePusher(conf, LocalTajoTestingUtility.newTaskAttemptId(), QUERY_MASTER,
+        "host1:28091", mergers);
+    ShufflePusher pusher2 = new ShufflePusher(conf, LocalTajoTestingUtility.newTaskAttemptId(), QUERY_MASTER,
+        "host2:28091", Lists.reverse(mergers));
+
+    Map<String, Integer> assigned = new HashMap<>();
+    for (int partId = 0; partId < PARTITION_NUM; partId++) {
+      String merger = pusher1.getMerger(partId);
+      // every task must push a partition to the same merger
+      assertEquals(merger, pusher2.getMerger(partId));
+      assertEquals(merger.equals("host1:28091"), pusher1.isLocal(partId));
+
+      Integer num = assigned.get(merger);
+      assigned.put(merger, num == null ? 1 : num + 1);
+    }
+
+    assertEquals(mergers.size(), assigned.size());
+    for (int num : assigned.values()) {
+      assertTrue(num > PARTITION_NUM / mergers.size() / 2);
+    }
+  }
+
+  @Test
+  public void testMergerRemoval() {
+    List<String> mergers = Lists.newArrayList("host1:28091", "host2:28091", "host3:28091");
+    ShufflePusher pusher = new ShufflePusher(conf, LocalTajoTestingUtility.newTaskAttemptId(), QUERY_MASTER,
+        "host1:28091", mergers);
+    ShufflePusher reduced = new ShufflePusher(conf, LocalTajoTestingUtility.newTaskAttemptId(), QUERY_MASTER,
+        "host1:28091", mergers.subList(0, 2));
+
+    // only the partitions of the removed merger move to the others
+    for (int partId = 0; partId < PARTITION_NUM; partId++) {
+      String merger = pusher.getMerger(partId);
+      if (!merger.equals("host3:28091")) {
+        assertEquals(merger, reduced.getMerger(partId));
+      }
+    }
+  }
+}
@@ -0,0 +1 @@
+ANALYZE TABLE db1.table1 COLUMNS col1, col2
\ No newline at end of file
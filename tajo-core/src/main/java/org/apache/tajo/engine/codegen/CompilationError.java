@@ -28,4 +28,9 @@ public class CompilationError extends RuntimeException {
   public CompilationError(EvalNode evalNode, Throwable t, byte [] clazz) {
     super("Compilation Error: " + evalNode.toString() + "\n\nBYTES CODE DUMP:\n" + CodeGenUtils.disassemble(clazz), t);
   }
+
+  public CompilationError(PipelineFragment fragment, Throwable t, byte [] clazz) {
+    super("Compilation Error: " + fragment.toString() +
+        (clazz == null ? "" : "\n\nBYTES CODE DUMP:\n" + CodeGenUtils.disassemble(clazz)), t);
+  }
 }
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+
+/**
+ * The base class of pipeline fragments compiled by {@link PipelineCodeGenerator}.
+ *
+ * A generated subclass pulls tuples from the source of a fragment and evaluates all filters and projections
+ * of the fragment inline in a single loop. Result tuples are returned one by one to a row-at-a-time parent
+ * via {@link #next()}, or pushed into a pipeline breaker via {@link #consume(Consumer)}.
+ */
+public abstract class CompiledPipeline {
+  private final TaskAttemptContext context;
+
+  public CompiledPipeline(TaskAttemptContext context) {
+    this.context = context;
+  }
+
+  /**
+   * It is called by the loop of {@link #consume(Consumer)} for each tuple.
+   *
+   * @return true if the task is stopped
+   */
+  public final boolean isStopped() {
+    return context.isStopped();
+  }
+
+  /**
+   * @return the next result tuple of this fragment, or null if the source is exhausted
+   */
+  public abstract Tuple next() throws IOException;
+
+  /**
+   * Push all remaining result tuples of this fragment into the consumer.
+   */
+  public abstract void consume(Consumer consumer) throws IOException;
+
+  /**
+   * A pipeline breaker which consumes the result tuples of a fragment, such as a hash aggregation.
+   */
+  public interface Consumer {
+    void consume(Tuple tuple) throws IOException;
+  }
+}
@@ -0,0 +1,254 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.engine.planner.Projector;
+import org.apache.tajo.org.objectweb.asm.ClassWriter;
+import org.apache.tajo.org.objectweb.asm.Label;
+import org.apache.tajo.org.objectweb.asm.MethodVisitor;
+import org.apache.tajo.org.objectweb.asm.Opcodes;
+import org.apache.tajo.org.objectweb.asm.Type;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * It compiles a {@link PipelineFragment} into a single {@link CompiledPipeline} class.
+ *
+ * The generated class keeps the source and each stage in a field typed with its concrete class. So, calls to
+ * precompiled evals are monomorphic, and the whole fragment runs in one loop without calling next() of
+ * the fused operators. Generated classes are shared by the fragments of the same shape.
+ */
+public class PipelineCodeGenerator {
+  private static final String SUPER_NAME = Type.getInternalName(CompiledPipeline.class);
+  private static final String TUPLE_NAME = Type.getInternalName(Tuple.class);
+  private static final String CONSUMER_NAME = Type.getInternalName(CompiledPipeline.Consumer.class);
+  private static final String NEXT_DESC = "()" + Type.getDescriptor(Tuple.class);
+  private static final String CONSTRUCTOR_DESC = "(" + Type.getDescriptor(TaskAttemptContext.class)
+      + Type.getDescriptor(Object.class) + Type.getDescriptor(Object[].class) + ")V";
+
+  private final TajoClassLoader classLoader;
+  /** generated constructors keyed by the shape of fragments */
+  private final Map<String, Constructor<?>> constructors = new ConcurrentHashMap<>();
+
+  public PipelineCodeGenerator(TajoClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  public CompiledPipeline compile(TaskAttemptContext context, PipelineFragment fragment) throws CompilationError {
+    List<Object> stages = fragment.getStages();
+    Class<?>[] stageTypes = new Class<?>[stages.size()];
+    StringBuilder signature = new StringBuilder(fragment.getSourceType().getName());
+    for (int i = 0; i < stageTypes.length; i++) {
+      stageTypes[i] = getStageType(stages.get(i));
+      signature.append(',').append(stageTypes[i].getName());
+    }
+
+    Constructor<?> constructor = constructors.get(signature.toString());
+    if (constructor == null) {
+      constructor = generate(fragment, stageTypes);
+      constructors.put(signature.toString(), constructor);
+    }
+
+    try {
+      return (CompiledPipeline) constructor.newInstance(context, fragment.getSource(), stages.toArray());
+    } catch (Throwable t) {
+      throw new CompilationError(fragment, t, null);
+    }
+  }
+
+  /**
+   * A stage field is declared with the concrete class of the stage only if the generated class can access it.
+   */
+  private Class<?> getStageType(Object stage) {
+    if (stage instanceof Projector) {
+      return Projector.class;
+    }
+
+    Class<?> clazz = stage.getClass();
+    if (Modifier.isPublic(clazz.getModifiers())) {
+      try {
+        if (Class.forName(clazz.getName(), false, classLoader) == clazz) {
+          return clazz;
+        }
+      } catch (ClassNotFoundException e) {
+        // not visible from the class loader
+      }
+    }
+    return EvalNode.class;
+  }
+
+  private Constructor<?> generate(PipelineFragment fragment, Class<?>[] stageTypes) {
+    String className = PipelineCodeGenerator.class.getPackage().getName() + ".FusedPipeline"
+        + EvalCodeGenerator.getAndIncrementClassSeq();
+    String owner = TajoGeneratorAdapter.getInternalName(className);
+
+    ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    classWriter.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC, owner, null, SUPER_NAME, null);
+    classWriter.visitField(Opcodes.ACC_PRIVATE, "source", Type.getDescriptor(fragment.getSourceType()), null, null)
+        .visitEnd();
+    for (int i = 0; i < stageTypes.length; i++) {
+      classWriter.visitField(Opcodes.ACC_PRIVATE, "stage" + i, Type.getDescriptor(stageTypes[i]), null, null)
+          .visitEnd();
+    }
+
+    emitConstructor(classWriter, owner, fragment.getSourceType(), stageTypes);
+    emitLoop(classWriter, owner, fragment.getSourceType(), stageTypes, false);
+    emitLoop(classWriter, owner, fragment.getSourceType(), stageTypes, true);
+    classWriter.visitEnd();
+
+    byte[] bytes = classWriter.toByteArray();
+    try {
+      classLoader.defineClass(className, bytes);
+      // linking verifies the generated code
+      Class<?> clazz = Class.forName(className, true, classLoader);
+      return clazz.getConstructor(TaskAttemptContext.class, Object.class, Object[].class);
+    } catch (Throwable t) {
+      throw new CompilationError(fragment, t, bytes);
+    }
+  }
+
+  private static void emitConstructor(ClassWriter classWriter, String owner, Class<?> sourceType,
+                                      Class<?>[] stageTypes) {
+    MethodVisitor mv = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", CONSTRUCTOR_DESC, null, null);
+    mv.visitCode();
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitVarInsn(Opcodes.ALOAD, 1);
+    mv.visitMethodInsn(Opcodes.INVOKESPECIAL, SUPER_NAME, "<init>",
+        "(" + Type.getDescriptor(TaskAttemptContext.class) + ")V");
+
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitVarInsn(Opcodes.ALOAD, 2);
+    mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(sourceType));
+    mv.visitFieldInsn(Opcodes.PUTFIELD, owner, "source", Type.getDescriptor(sourceType));
+
+    for (int i = 0; i < stageTypes.length; i++) {
+      mv.visitVarInsn(Opcodes.ALOAD, 0);
+      mv.visitVarInsn(Opcodes.ALOAD, 3);
+      mv.visitLdcInsn(i);
+      mv.visitInsn(Opcodes.AALOAD);
+      mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(stageTypes[i]));
+      mv.visitFieldInsn(Opcodes.PUTFIELD, owner, "stage" + i, Type.getDescriptor(stageTypes[i]));
+    }
+
+    mv.visitInsn(Opcodes.RETURN);
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+
+  /**
+   * Emit next() if consume is false. Otherwise, emit consume(Consumer). Both methods have the same loop:
+   *
+   * <pre>
+   *   while ((tuple = source.next()) != null) {
+   *     if (!stage0.eval(tuple).isTrue()) continue;   // a filter
+   *     projected = stage1.eval(tuple);               // a projection
+   *     projected.setOffset(tuple.getOffset());
+   *     tuple = projected;
+   *     ...
+   *     return tuple; or consumer.consume(tuple);
+   *   }
+   * </pre>
+   */
+  private static void emitLoop(ClassWriter classWriter, String owner, Class<?> sourceType, Class<?>[] stageTypes,
+                               boolean consume) {
+    MethodVisitor mv;
+    int tupleVar;
+    if (consume) {
+      mv = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "consume",
+          "(" + Type.getDescriptor(CompiledPipeline.Consumer.class) + ")V", null, null);
+      tupleVar = 2;
+    } else {
+      mv = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "next", NEXT_DESC, null, null);
+      tupleVar = 1;
+    }
+    int projectedVar = tupleVar + 1;
+    mv.visitCode();
+
+    Label loop = new Label();
+    Label end = new Label();
+    mv.visitLabel(loop);
+
+    if (consume) {
+      mv.visitVarInsn(Opcodes.ALOAD, 0);
+      mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, owner, "isStopped", "()Z");
+      mv.visitJumpInsn(Opcodes.IFNE, end);
+    }
+
+    mv.visitVarInsn(Opcodes.ALOAD, 0);
+    mv.visitFieldInsn(Opcodes.GETFIELD, owner, "source", Type.getDescriptor(sourceType));
+    mv.visitMethodInsn(sourceType.isInterface() ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL,
+        Type.getInternalName(sourceType), "next", NEXT_DESC);
+    mv.visitVarInsn(Opcodes.ASTORE, tupleVar);
+    mv.visitVarInsn(Opcodes.ALOAD, tupleVar);
+    mv.visitJumpInsn(Opcodes.IFNULL, end);
+
+    for (int i = 0; i < stageTypes.length; i++) {
+      String stageName = Type.getInternalName(stageTypes[i]);
+      mv.visitVarInsn(Opcodes.ALOAD, 0);
+      mv.visitFieldInsn(Opcodes.GETFIELD, owner, "stage" + i, Type.getDescriptor(stageTypes[i]));
+      mv.visitVarInsn(Opcodes.ALOAD, tupleVar);
+
+      if (stageTypes[i] == Projector.class) {
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, stageName, "eval",
+            "(" + Type.getDescriptor(Tuple.class) + ")" + Type.getDescriptor(Tuple.class));
+        mv.visitVarInsn(Opcodes.ASTORE, projectedVar);
+        mv.visitVarInsn(Opcodes.ALOAD, projectedVar);
+        mv.visitVarInsn(Opcodes.ALOAD, tupleVar);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, TUPLE_NAME, "getOffset", "()J");
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, TUPLE_NAME, "setOffset", "(J)V");
+        mv.visitVarInsn(Opcodes.ALOAD, projectedVar);
+        mv.visitVarInsn(Opcodes.ASTORE, tupleVar);
+      } else {
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, stageName, "eval",
+            "(" + Type.getDescriptor(Tuple.class) + ")" + Type.getDescriptor(Datum.class));
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(Datum.class), "isTrue", "()Z");
+        mv.visitJumpInsn(Opcodes.IFEQ, loop);
+      }
+    }
+
+    if (consume) {
+      mv.visitVarInsn(Opcodes.ALOAD, 1);
+      mv.visitVarInsn(Opcodes.ALOAD, tupleVar);
+      mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, CONSUMER_NAME, "consume",
+          "(" + Type.getDescriptor(Tuple.class) + ")V");
+      mv.visitJumpInsn(Opcodes.GOTO, loop);
+
+      mv.visitLabel(end);
+      mv.visitInsn(Opcodes.RETURN);
+    } else {
+      mv.visitVarInsn(Opcodes.ALOAD, tupleVar);
+      mv.visitInsn(Opcodes.ARETURN);
+
+      mv.visitLabel(end);
+      mv.visitInsn(Opcodes.ACONST_NULL);
+      mv.visitInsn(Opcodes.ARETURN);
+    }
+
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.engine.planner.Projector;
+import org.apache.tajo.engine.planner.physical.PhysicalExec;
+import org.apache.tajo.plan.expr.EvalNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * It describes a pipeline fragment to be compiled by {@link PipelineCodeGenerator}. A fragment consists of
+ * a source {@link PhysicalExec} and a sequence of stages applied to each tuple of the source in order.
+ * A stage is either a filter ({@link EvalNode}) or a projection ({@link Projector}).
+ */
+public class PipelineFragment {
+  private final Object source;
+  private final Class<?> sourceType;
+  private final List<Object> stages = new ArrayList<>();
+
+  private PipelineFragment(Object source, Class<?> sourceType) {
+    this.source = source;
+    this.sourceType = sourceType;
+  }
+
+  public static PipelineFragment fromExec(PhysicalExec exec) {
+    return new PipelineFragment(exec, PhysicalExec.class);
+  }
+
+  public PipelineFragment filter(EvalNode qual) {
+    stages.add(qual);
+    return this;
+  }
+
+  public PipelineFragment project(Projector projector) {
+    stages.add(projector);
+    return this;
+  }
+
+  public Object getSource() {
+    return source;
+  }
+
+  public Class<?> getSourceType() {
+    return sourceType;
+  }
+
+  public List<Object> getStages() {
+    return Collections.unmodifiableList(stages);
+  }
+
+  public boolean hasStages() {
+    return !stages.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(source.getClass().getSimpleName());
+    for (Object stage : stages) {
+      if (stage instanceof EvalNode) {
+        sb.append(" -> filter(").append(stage).append(")");
+      } else {
+        sb.append(" -> project");
+      }
+    }
+    return sb.toString();
+  }
+}
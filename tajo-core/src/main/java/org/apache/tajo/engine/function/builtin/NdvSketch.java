@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tajo.engine.function.builtin;
+
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.statistics.HyperLogLog;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.function.annotation.Description;
+import org.apache.tajo.engine.function.annotation.ParamTypes;
+import org.apache.tajo.plan.function.AggFunction;
+import org.apache.tajo.plan.function.FunctionContext;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * Function definition
+ *
+ * BLOB ndv_sketch(expr ANY)
+ *
+ * It returns a serialized HyperLogLog sketch of non-null values. It is used by ANALYZE TABLE to estimate
+ * the number of distinct values of each column.
+ */
+@Description(
+  functionName = "ndv_sketch",
+  description = "a HyperLogLog sketch estimating the number of distinct non-null values",
+  example = "> SELECT ndv_sketch(expr);",
+  returnType = Type.BLOB,
+  paramTypes = {@ParamTypes(paramTypes = {Type.ANY})}
+)
+public class NdvSketch extends AggFunction<Datum> {
+
+  public NdvSketch() {
+    super(new Column[] {
+        new Column("expr", Type.ANY)
+    });
+  }
+
+  @Override
+  public FunctionContext newContext() {
+    return new SketchContext();
+  }
+
+  @Override
+  public void eval(FunctionContext ctx, Tuple params) {
+    if (!params.isBlankOrNull(0)) {
+      ((SketchContext) ctx).sketch.offer(params.asDatum(0));
+    }
+  }
+
+  @Override
+  public void merge(FunctionContext ctx, Tuple part) {
+    if (!part.isBlankOrNull(0)) {
+      ((SketchContext) ctx).sketch.merge(HyperLogLog.fromBytes(part.getBytes(0)));
+    }
+  }
+
+  @Override
+  public Datum getPartialResult(FunctionContext ctx) {
+    return DatumFactory.createBlob(((SketchContext) ctx).sketch.toBytes());
+  }
+
+  @Override
+  public DataType getPartialResultType() {
+    return CatalogUtil.newSimpleDataType(Type.BLOB);
+  }
+
+  @Override
+  public Datum terminate(FunctionContext ctx) {
+    return DatumFactory.createBlob(((SketchContext) ctx).sketch.toBytes());
+  }
+
+  protected static class SketchContext implements FunctionContext {
+    HyperLogLog sketch = new HyperLogLog();
+  }
+}
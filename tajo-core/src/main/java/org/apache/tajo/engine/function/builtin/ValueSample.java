@@ -0,0 +1,168 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.tajo.engine.function.builtin;
+
+import com.google.protobuf.ByteString;
+import org.apache.tajo.InternalTypes.ValueSampleProto;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.datum.ProtobufDatum;
+import org.apache.tajo.engine.function.annotation.Description;
+import org.apache.tajo.engine.function.annotation.ParamTypes;
+import org.apache.tajo.plan.function.AggFunction;
+import org.apache.tajo.plan.function.FunctionContext;
+import org.apache.tajo.storage.Tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Function definition
+ *
+ * BLOB value_sample(expr ANY)
+ *
+ * It returns a serialized uniform random sample of non-null values together with the number of non-null values.
+ * Each task keeps a reservoir sample, and partial samples are merged in proportion to the number of rows
+ * they represent. It is used by ANALYZE TABLE to build column histograms.
+ */
+@Description(
+  functionName = "value_sample",
+  description = "a uniform random sample of non-null values",
+  example = "> SELECT value_sample(expr);",
+  returnType = Type.BLOB,
+  paramTypes = {@ParamTypes(paramTypes = {Type.ANY})}
+)
+public class ValueSample extends AggFunction<Datum> {
+  public static final int SAMPLE_SIZE = 1024;
+
+  public ValueSample() {
+    super(new Column[] {
+        new Column("expr", Type.ANY)
+    });
+  }
+
+  @Override
+  public FunctionContext newContext() {
+    return new SampleContext();
+  }
+
+  @Override
+  public void eval(FunctionContext ctx, Tuple params) {
+    if (!params.isBlankOrNull(0)) {
+      ((SampleContext) ctx).offer(ByteString.copyFrom(params.asDatum(0).asByteArray()));
+    }
+  }
+
+  @Override
+  public void merge(FunctionContext ctx, Tuple part) {
+    if (part.isBlankOrNull(0)) {
+      return;
+    }
+    ProtobufDatum datum = (ProtobufDatum) part.getProtobufDatum(0);
+    ValueSampleProto proto = (ValueSampleProto) datum.get();
+    ((SampleContext) ctx).merge(proto.getCount(), proto.getValuesList());
+  }
+
+  @Override
+  public Datum getPartialResult(FunctionContext ctx) {
+    SampleContext sampleCtx = (SampleContext) ctx;
+    if (sampleCtx.count == 0) {
+      return NullDatum.get();
+    }
+    return new ProtobufDatum(sampleCtx.toProto());
+  }
+
+  @Override
+  public DataType getPartialResultType() {
+    return CatalogUtil.newDataType(Type.PROTOBUF, ValueSampleProto.class.getName());
+  }
+
+  @Override
+  public Datum terminate(FunctionContext ctx) {
+    SampleContext sampleCtx = (SampleContext) ctx;
+    if (sampleCtx.count == 0) {
+      return NullDatum.get();
+    }
+    return DatumFactory.createBlob(sampleCtx.toProto().toByteArray());
+  }
+
+  protected static class SampleContext implements FunctionContext {
+    final Random random = new Random();
+    long count = 0;
+    List<ByteString> values = new ArrayList<>();
+
+    void offer(ByteString value) {
+      count++;
+      if (values.size() < SAMPLE_SIZE) {
+        values.add(value);
+      } else {
+        long index = (long) (random.nextDouble() * count);
+        if (index < SAMPLE_SIZE) {
+          values.set((int) index, value);
+        }
+      }
+    }
+
+    void merge(long otherCount, List<ByteString> otherValues) {
+      if (otherCount == 0) {
+        return;
+      }
+      if (count == 0) {
+        count = otherCount;
+        values = new ArrayList<>(otherValues);
+        return;
+      }
+
+      List<ByteString> mine = new ArrayList<>(values);
+      List<ByteString> theirs = new ArrayList<>(otherValues);
+      Collections.shuffle(mine, random);
+      Collections.shuffle(theirs, random);
+
+      // each draw picks a side with the probability proportional to the number of rows it represents
+      long total = count + otherCount;
+      int size = Math.min(SAMPLE_SIZE, mine.size() + theirs.size());
+      List<ByteString> merged = new ArrayList<>(size);
+      int i = 0, j = 0;
+      while (merged.size() < size) {
+        boolean fromMine;
+        if (i == mine.size()) {
+          fromMine = false;
+        } else if (j == theirs.size()) {
+          fromMine = true;
+        } else {
+          fromMine = random.nextDouble() * total < count;
+        }
+        merged.add(fromMine ? mine.get(i++) : theirs.get(j++));
+      }
+
+      values = merged;
+      count = total;
+    }
+
+    ValueSampleProto toProto() {
+      return ValueSampleProto.newBuilder().setCount(count).addAllValues(values).build();
+    }
+  }
+}
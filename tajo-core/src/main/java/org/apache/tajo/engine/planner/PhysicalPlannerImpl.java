@@ -429,8 +429,12 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       inMemoryHashJoin = true;
     }
 
-    if (inMemoryHashJoin) {
-      LOG.info("Join (" + plan.getPID() +") chooses [In-memory Hash Join]");
+    // hash join spills partitions which do not fit in memory, so it is cheaper than sorting both relations.
+    boolean hybridHashJoin = !inMemoryHashJoin
+        && context.getQueryContext().getBool(SessionVars.HASH_JOIN_SPILL_ENABLED);
+
+    if (inMemoryHashJoin || hybridHashJoin) {
+      LOG.info("Join (" + plan.getPID() +") chooses [" + (inMemoryHashJoin ? "In-memory" : "Hybrid") + " Hash Join]");
       // returns two PhysicalExec. smaller one is 0, and larger one is 1.
       PhysicalExec [] orderedChilds = switchJoinSidesIfNecessary(context, plan, leftExec, rightExec);
       return new HashJoinExec(context, plan, orderedChilds[1], orderedChilds[0]);
@@ -485,6 +489,11 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
   }
 
   private static boolean isHashOuterJoinFeasible(TaskAttemptContext context, LogicalNode innerRelation) {
+    if (context.getQueryContext().getBool(SessionVars.HASH_JOIN_SPILL_ENABLED)) {
+      // hash outer joins spill partitions which do not fit in memory.
+      return true;
+    }
+
     String [] rightLineage = PlannerUtil.getRelationLineage(innerRelation);
     long estimatedVolume = estimateSizeRecursive(context, rightLineage);
 
@@ -1012,6 +1021,11 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       return createInMemoryHashAggregation(context, groupbyNode, subOp);
     }
 
+    // the hash aggregation spills partitions when it exceeds the threshold, so its memory usage is bounded.
+    if (context.getQueryContext().getBool(SessionVars.HASH_GROUPBY_SPILL_ENABLED)) {
+      return createInMemoryHashAggregation(context, groupbyNode, subOp);
+    }
+
     String [] outerLineage = PlannerUtil.getRelationLineage(groupbyNode.getChild());
     long estimatedSize = estimateSizeRecursive(context, outerLineage);
     final long threshold = context.getQueryContext().getLong(SessionVars.HASH_GROUPBY_SIZE_LIMIT) * StorageUnit.MB;
@@ -18,10 +18,12 @@
 
 package org.apache.tajo.engine.planner.enforce;
 
+import com.google.protobuf.ByteString;
 import org.apache.tajo.annotation.Nullable;
 import org.apache.tajo.catalog.SortSpec;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.common.ProtoObject;
+import org.apache.tajo.util.BloomFilter;
 import org.apache.tajo.util.TUtil;
 
 import java.util.ArrayList;
@@ -198,6 +200,33 @@ public class Enforcer implements ProtoObject<EnforcerProto> {
     }
   }
 
+  /**
+   * Build a Bloom filter over the shuffle keys of the output.
+   */
+  public void enforceRuntimeJoinFilterBuild(int numBits, int numHashes) {
+    EnforceProperty.Builder builder = newProperty();
+    RuntimeJoinFilterEnforce.Builder enforce = RuntimeJoinFilterEnforce.newBuilder();
+    enforce.setNumBits(numBits);
+    enforce.setNumHashes(numHashes);
+    builder.setType(EnforceType.RUNTIME_JOIN_FILTER);
+    builder.setRuntimeJoinFilter(enforce.build());
+    TUtil.putToNestedList(properties, builder.getType(), builder.build());
+  }
+
+  /**
+   * Drop output rows whose shuffle keys are not contained in the Bloom filter.
+   */
+  public void enforceRuntimeJoinFilter(BloomFilter filter) {
+    EnforceProperty.Builder builder = newProperty();
+    RuntimeJoinFilterEnforce.Builder enforce = RuntimeJoinFilterEnforce.newBuilder();
+    enforce.setNumBits(filter.getNumBits());
+    enforce.setNumHashes(filter.getNumHashes());
+    enforce.setBloomFilter(ByteString.copyFrom(filter.toByteArray()));
+    builder.setType(EnforceType.RUNTIME_JOIN_FILTER);
+    builder.setRuntimeJoinFilter(enforce.build());
+    TUtil.putToNestedList(properties, builder.getType(), builder.build());
+  }
+
   public void enforceColumnPartitionAlgorithm(int pid, ColumnPartitionAlgorithm algorithm) {
     EnforceProperty.Builder builder = newProperty();
     ColumnPartitionEnforcer.Builder enforce = ColumnPartitionEnforcer.newBuilder();
@@ -320,6 +349,12 @@ public class Enforcer implements ProtoObject<EnforcerProto> {
     case SORTED_INPUT:
       SortedInputEnforce sortedInput = property.getSortedInput();
       sb.append("sorted input=" + sortedInput.getTableName());
+      break;
+    case RUNTIME_JOIN_FILTER:
+      RuntimeJoinFilterEnforce runtimeJoinFilter = property.getRuntimeJoinFilter();
+      sb.append("type=RuntimeJoinFilter,");
+      sb.append(runtimeJoinFilter.hasBloomFilter() ? "apply" : "build");
+      sb.append(",bits=").append(runtimeJoinFilter.getNumBits());
     }
 
     return sb.toString();
@@ -88,6 +88,12 @@ public class ExecutionBlock {
   protected boolean nullSuppllying = false;
   protected boolean preservedRow = false;
 
+  /*
+   * The sibling execution block building a runtime join filter which is applied to the output of this block.
+   * The sibling should be executed before this block.
+   */
+  private ExecutionBlockId runtimeJoinFilterSource;
+
   public ExecutionBlock(ExecutionBlockId executionBlockId) {
     this.executionBlockId = executionBlockId;
   }
@@ -202,6 +208,18 @@ public class ExecutionBlock {
     return preservedRow;
   }
 
+  public void setRuntimeJoinFilterSource(ExecutionBlockId sourceId) {
+    this.runtimeJoinFilterSource = sourceId;
+  }
+
+  public boolean hasRuntimeJoinFilterSource() {
+    return runtimeJoinFilterSource != null;
+  }
+
+  public ExecutionBlockId getRuntimeJoinFilterSource() {
+    return runtimeJoinFilterSource;
+  }
+
   private class PlanContext {
     StoreTableNode store = null;
 
@@ -43,6 +43,7 @@ public class ExecutionBlockCursor implements Iterable<ExecutionBlock> {
     } else {
       buildDepthFirstOrder(plan.getRoot());
     }
+    orderRuntimeJoinFilterSources();
   }
 
   @Override
@@ -148,6 +149,24 @@ public class ExecutionBlockCursor implements Iterable<ExecutionBlock> {
     }
   }
 
+  /**
+   * A block which applies a runtime join filter must be executed after the sibling block building the filter.
+   * Such a block is moved right behind its filter source. It is always safe because their parent follows both.
+   */
+  private void orderRuntimeJoinFilterSources() {
+    for (int i = 0; i < orderedBlocks.size(); i++) {
+      ExecutionBlock block = orderedBlocks.get(i);
+      if (block.hasRuntimeJoinFilterSource()) {
+        int sourceIdx = orderedBlocks.indexOf(masterPlan.getExecBlock(block.getRuntimeJoinFilterSource()));
+        if (sourceIdx > i) {
+          orderedBlocks.remove(i);
+          orderedBlocks.add(sourceIdx, block);
+          i--;
+        }
+      }
+    }
+  }
+
   private void preExecutionOrder(BuildOrderItem current) {
     Stack<BuildOrderItem> stack = new Stack<>();
     if (!masterPlan.isLeaf(current.eb.getId())) {
@@ -49,6 +49,7 @@ import org.apache.tajo.plan.rewrite.rules.ProjectionPushDownRule;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.plan.visitor.BasicLogicalPlanVisitor;
 import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.KeyValueSet;
 import org.apache.tajo.util.ReflectionUtil;
 import org.apache.tajo.util.TUtil;
@@ -66,6 +67,8 @@ import static org.apache.tajo.plan.serder.PlanProto.ShuffleType.*;
  */
 public class GlobalPlanner {
   private static Log LOG = LogFactory.getLog(GlobalPlanner.class);
+  /** the number of hash functions of runtime join filters */
+  private static final int RUNTIME_JOIN_FILTER_HASH_NUM = 3;
 
   private final TajoConf conf;
   private final String dataFormat;
@@ -285,10 +288,27 @@ public class GlobalPlanner {
       masterPlan.addConnect(leftChannel);
       masterPlan.addConnect(rightChannel);
 
+      if (isRuntimeJoinFilterApplicable(masterPlan.getContext(), joinNode, leftChannel)) {
+        // The right block builds a Bloom filter on its join keys, and the left block drops rows not matched to it.
+        int numBits = masterPlan.getContext().getInt(SessionVars.RUNTIME_JOIN_FILTER_SIZE) * StorageUnit.KB * 8;
+        rightBlock.getEnforcer().enforceRuntimeJoinFilterBuild(numBits, RUNTIME_JOIN_FILTER_HASH_NUM);
+        leftBlock.setRuntimeJoinFilterSource(rightBlock.getId());
+      }
+
       return currentBlock;
     }
   }
 
+  /**
+   * Left rows which do not match any right row can be dropped before shuffle only in inner and left semi joins.
+   */
+  private static boolean isRuntimeJoinFilterApplicable(QueryContext queryContext, JoinNode joinNode,
+                                                       DataChannel leftChannel) {
+    return queryContext.getBool(SessionVars.RUNTIME_JOIN_FILTER_ENABLED)
+        && (joinNode.getJoinType() == JoinType.INNER || joinNode.getJoinType() == JoinType.LEFT_SEMI)
+        && leftChannel.hasShuffleKeys() && leftChannel.getShuffleKeys().length > 0;
+  }
+
   private void buildJoinPlanWithUnionChannel(GlobalPlanContext context, JoinNode joinNode,
                                              ExecutionBlock targetBlock,
                                              ExecutionBlock sourceBlock,
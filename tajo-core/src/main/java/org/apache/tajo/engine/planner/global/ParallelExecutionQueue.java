@@ -107,6 +107,11 @@ public class ParallelExecutionQueue implements ExecutionQueue, Iterable<Executio
         return false;   // there's something should be done before this
       }
     }
+    if (current.hasRuntimeJoinFilterSource()) {
+      ExecutionBlockId source = current.getRuntimeJoinFilterSource();
+      // wait for the sibling block which builds the runtime join filter
+      return masterPlan.getExecBlock(source) == null || executed.contains(source);
+    }
     return true;
   }
 
@@ -18,27 +18,57 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.tajo.BuiltinStorages;
 import org.apache.tajo.SessionVars;
 import org.apache.tajo.algebra.JoinType;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.datum.Datum;
+import org.apache.tajo.engine.codegen.CompiledPipeline;
+import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.engine.utils.CacheHolder;
 import org.apache.tajo.engine.utils.TableCacheKey;
 import org.apache.tajo.plan.logical.JoinNode;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.TablespaceManager;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.rawfile.DirectRawFileWriter;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.FileUtil;
 import org.apache.tajo.worker.ExecutionBlockSharedResource;
 import org.apache.tajo.worker.TaskAttemptContext;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Iterator;
+import java.util.*;
 
 /**
  * common exec for all hash join execs
  *
+ * If spilling is enabled and the build (right) relation exceeds the hash join size limit, this exec works as
+ * a hybrid hash join. Build tuples are partitioned by the hash of their join keys, and the largest partitions are
+ * spilled into the worker temporal directory until the rest fit in memory. While probing, left tuples belonging to
+ * spilled partitions are spilled as well. After the in-memory partitions are joined, each pair of spilled
+ * partitions is loaded and joined one at a time.
+ *
  * @param <T> Tuple collection type to load small relation onto in-memory
  */
 public abstract class CommonHashJoinExec<T> extends CommonJoinExec {
+  private static final Log LOG = LogFactory.getLog(CommonHashJoinExec.class);
+
+  /** rough memory overhead of a hashed tuple, including its list entry and a VTuple object */
+  private static final int TUPLE_OVERHEAD = 64;
+  /** rough memory overhead of each field of a hashed tuple */
+  private static final int FIELD_OVERHEAD = 16;
 
   // temporal tuples and states for nested loop join
   protected boolean first = true;
@@ -49,8 +79,124 @@ public abstract class CommonHashJoinExec<T> extends CommonJoinExec {
 
   protected TableStats tableStatsOfCachedRightChild = null;
 
+  /** If true, partitions of both relations are spilled into a disk when the build relation exceeds the limit */
+  private final boolean spillEnabled;
+  private final long memoryLimit;
+  /** the number of partitions used when the build relation is spilled */
+  private final int spillPartitionNum;
+  /** the data format of spilled files */
+  private final TableMeta intermediateMeta;
+  private final LocalDirAllocator localDirAllocator;
+  private final RawLocalFileSystem localFS;
+  private Path spillTmpDir;
+
+  /** true while the build relation is hashed with the accounting for spilling */
+  private boolean spillable;
+  /** estimated memory size of each in-memory partition */
+  private long[] partitionSizes;
+  private long memoryUsed;
+  /** the hash table being built. It is only available while the build relation is hashed. */
+  private TupleMap<TupleList> buildingMap;
+  /** spilled partitions indexed by partition id. It is null if nothing is spilled. */
+  private SpillPartition[] spilledPartitions;
+  /** spilled partitions which are not joined yet */
+  private final Deque<SpillPartition> pendingPartitions = new ArrayDeque<>();
+  /** the spilled partition being joined now */
+  private SpillPartition currentPartition;
+  private Scanner probeScanner;
+  /** the fused pipeline of the left child executors. It is null if code generation is disabled. */
+  private CompiledPipeline leftPipeline;
+  /** all spilled files which are used for cleaning */
+  private final List<Path> spillFiles = new ArrayList<>();
+
   public CommonHashJoinExec(TaskAttemptContext context, JoinNode plan, PhysicalExec outer, PhysicalExec inner) {
     super(context, plan, outer, inner);
+
+    QueryContext queryContext = context.getQueryContext();
+    this.spillEnabled = queryContext.getBool(SessionVars.HASH_JOIN_SPILL_ENABLED);
+    this.memoryLimit = getMemoryLimit(queryContext, plan.getJoinType());
+    this.spillPartitionNum = Math.max(2, context.getConf().getIntVar(ConfVars.EXECUTOR_JOIN_SPILL_PARTITION_NUM));
+    this.intermediateMeta = CatalogUtil.newTableMeta(BuiltinStorages.DRAW, context.getConf());
+    this.localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+    this.localFS = new RawLocalFileSystem();
+  }
+
+  private static long getMemoryLimit(QueryContext queryContext, JoinType joinType) {
+    SessionVars limitVar = joinType == JoinType.INNER ?
+        SessionVars.INNER_HASH_JOIN_SIZE_LIMIT : SessionVars.OUTER_HASH_JOIN_SIZE_LIMIT;
+    if (!queryContext.containsKey(limitVar)) {
+      limitVar = SessionVars.HASH_JOIN_SIZE_LIMIT;
+    }
+    return queryContext.getLong(limitVar) * StorageUnit.MB;
+  }
+
+  @Override
+  public void init() throws IOException {
+    super.init();
+    if (context.getQueryContext().getBool(SessionVars.CODEGEN)) {
+      leftPipeline = PhysicalPlanUtil.compilePipeline(context, leftChild);
+    }
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    if (first) {
+      loadRightToHashTable();
+    }
+
+    while (!context.isStopped()) {
+      Tuple tuple = probe();
+      if (tuple != null || !finished || !loadNextSpilledPartition()) {
+        return tuple;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Join left tuples with the hash table. It should get left tuples only through {@link #nextLeftTuple()},
+   * and set <code>finished</code> when there are no more left tuples.
+   *
+   * @return The next joined tuple, or null if the join of the current hash table is completed.
+   */
+  protected abstract Tuple probe() throws IOException;
+
+  /**
+   * Reset the states of a probe so that the next spilled partition can be joined.
+   */
+  protected void resetProbe() {
+    finished = false;
+    iterator = null;
+  }
+
+  /**
+   * @return The next left tuple which should be joined with the current hash table.
+   */
+  protected Tuple nextLeftTuple() throws IOException {
+    if (currentPartition != null) {
+      return probeScanner == null ? null : probeScanner.next();
+    }
+
+    Tuple tuple;
+    while ((tuple = leftPipeline != null ? leftPipeline.next() : leftChild.next()) != null) {
+      if (spilledPartitions == null) {
+        return tuple;
+      }
+      SpillPartition partition = spilledPartitions[getPartitionId(leftKeyExtractor.project(tuple))];
+      if (partition == null) {
+        return tuple;
+      }
+      partition.addProbeTuple(tuple);
+    }
+
+    if (spilledPartitions != null) {
+      for (SpillPartition partition : spilledPartitions) {
+        if (partition != null) {
+          partition.closeProbe();
+        }
+      }
+    }
+    return null;
   }
 
   protected void loadRightToHashTable() throws IOException {
@@ -60,7 +206,13 @@ public abstract class CommonHashJoinExec<T> extends CommonJoinExec {
       TableCacheKey key = CacheHolder.BroadcastCacheHolder.getCacheKey(context, scanExec);
       loadRightFromCache(key);
     } else {
-      this.tupleSlots = convert(buildRightToHashTable(), false);
+      // the broadcast cache is shared by tasks, so only a hash table owned by this exec can be spilled.
+      spillable = spillEnabled && !plan.getJoinType().equals(JoinType.CROSS);
+      try {
+        this.tupleSlots = convert(buildRightToHashTable(), false);
+      } finally {
+        spillable = false;
+      }
     }
 
     first = false;
@@ -106,21 +258,226 @@ public abstract class CommonHashJoinExec<T> extends CommonJoinExec {
   protected TupleMap<TupleList> buildRightToHashTableForNonCrossJoin() throws IOException {
     Tuple tuple;
     TupleMap<TupleList> map = new TupleMap<>(context.getQueryContext().getInt(SessionVars.JOIN_HASH_TABLE_SIZE));
+    if (spillable) {
+      partitionSizes = new long[spillPartitionNum];
+      memoryUsed = 0;
+      buildingMap = map;
+    }
 
     while (!context.isStopped() && (tuple = rightChild.next()) != null) {
       KeyTuple keyTuple = rightKeyExtractor.project(tuple);
       if (isLoadable(plan, keyTuple)) { // filter out null values
+        if (spillable) {
+          int partitionId = getPartitionId(keyTuple);
+          if (spilledPartitions != null && spilledPartitions[partitionId] != null) {
+            spilledPartitions[partitionId].addBuildTuple(tuple);
+            continue;
+          }
+          long size = estimateSize(tuple);
+          partitionSizes[partitionId] += size;
+          memoryUsed += size;
+        }
+
         TupleList newValue = map.get(keyTuple);
         if (newValue == null) {
           map.put(keyTuple, newValue = new TupleList());
         }
         // if source is scan or groupby, it needs not to be cloned
         newValue.add(tuple);
+
+        if (spillable) {
+          spillIfNecessary(map);
+        }
+      }
+    }
+    buildingMap = null;
+
+    if (spilledPartitions != null) {
+      for (SpillPartition partition : spilledPartitions) {
+        if (partition != null) {
+          partition.closeBuild();
+          pendingPartitions.add(partition);
+        }
       }
     }
     return map;
   }
 
+  private int getPartitionId(KeyTuple keyTuple) {
+    return (keyTuple.hashCode() & Integer.MAX_VALUE) % spillPartitionNum;
+  }
+
+  private static long estimateSize(Tuple tuple) {
+    long size = TUPLE_OVERHEAD;
+    for (int i = 0; i < tuple.size(); i++) {
+      size += FIELD_OVERHEAD;
+      if (!tuple.isBlankOrNull(i)) {
+        size += tuple.asDatum(i).size();
+      }
+    }
+    return size;
+  }
+
+  private void spillIfNecessary(TupleMap<TupleList> map) throws IOException {
+    while ((memoryUsed > memoryLimit || !reserveMemory(memoryUsed)) && spillLargestPartition(map)) {
+      // spill partitions from the largest one until the rest of the hash table fits in the memory limit
+    }
+  }
+
+  /**
+   * The largest in-memory partition can be spilled only while the build relation is hashed.
+   */
+  @Override
+  public long spill() throws IOException {
+    if (!spillable || buildingMap == null) {
+      return 0;
+    }
+    long before = memoryUsed;
+    if (spillLargestPartition(buildingMap)) {
+      long released = before - memoryUsed;
+      releaseMemory(released);
+      return released;
+    }
+    return 0;
+  }
+
+  /**
+   * Move the largest in-memory partition of the hash table into a disk.
+   *
+   * @return false if there is no in-memory partition to be spilled
+   */
+  private boolean spillLargestPartition(TupleMap<TupleList> map) throws IOException {
+    int victim = -1;
+    for (int i = 0; i < spillPartitionNum; i++) {
+      if ((spilledPartitions == null || spilledPartitions[i] == null) && partitionSizes[i] > 0
+          && (victim < 0 || partitionSizes[i] > partitionSizes[victim])) {
+        victim = i;
+      }
+    }
+    if (victim < 0) {
+      return false;
+    }
+
+    if (spilledPartitions == null) {
+      spilledPartitions = new SpillPartition[spillPartitionNum];
+      spillTmpDir = getExecutorTmpDir();
+    }
+    SpillPartition partition = new SpillPartition(victim);
+    spilledPartitions[victim] = partition;
+
+    Iterator<Map.Entry<KeyTuple, TupleList>> it = map.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<KeyTuple, TupleList> entry = it.next();
+      if (getPartitionId(entry.getKey()) == victim) {
+        for (Tuple tuple : entry.getValue()) {
+          partition.addBuildTuple(tuple);
+        }
+        it.remove();
+      }
+    }
+
+    info(LOG, "Hash table (" + FileUtil.humanReadableByteCount(memoryUsed, false) + ") exceeds the memory. Partition "
+        + victim + " (" + FileUtil.humanReadableByteCount(partitionSizes[victim], false) + ") is spilled");
+    memoryUsed -= partitionSizes[victim];
+    partitionSizes[victim] = 0;
+    return true;
+  }
+
+  /**
+   * Replace the hash table with the build tuples of the next spilled partition.
+   *
+   * @return false if there are no more spilled partitions
+   */
+  private boolean loadNextSpilledPartition() throws IOException {
+    closeCurrentPartition();
+
+    // a spilled partition without probe tuples produces no result unless build tuples are preserved
+    while (!pendingPartitions.isEmpty() && pendingPartitions.peek().probeRowNum == 0
+        && !plan.getJoinType().equals(JoinType.FULL_OUTER)) {
+      pendingPartitions.poll().delete();
+    }
+    if (pendingPartitions.isEmpty()) {
+      return false;
+    }
+
+    long startTime = System.currentTimeMillis();
+    currentPartition = pendingPartitions.poll();
+
+    TupleMap<TupleList> map = new TupleMap<>(
+        (int) Math.min(currentPartition.buildRowNum, context.getQueryContext().getInt(SessionVars.JOIN_HASH_TABLE_SIZE)));
+    Scanner scanner = openScanner(currentPartition.buildPath, rightChild.getSchema());
+    try {
+      Tuple tuple;
+      while (!context.isStopped() && (tuple = scanner.next()) != null) {
+        KeyTuple keyTuple = rightKeyExtractor.project(tuple);
+        TupleList newValue = map.get(keyTuple);
+        if (newValue == null) {
+          map.put(keyTuple, newValue = new TupleList());
+        }
+        newValue.add(tuple);
+      }
+    } finally {
+      scanner.close();
+    }
+
+    if (tupleSlots != null) {
+      tupleSlots.clear();
+    }
+    tupleSlots = convert(map, false);
+    if (currentPartition.probeRowNum > 0) {
+      probeScanner = openScanner(currentPartition.probePath, leftChild.getSchema());
+    }
+    resetProbe();
+
+    info(LOG, "Spilled partition " + currentPartition.id + " (" + currentPartition.buildRowNum + " build rows, "
+        + currentPartition.probeRowNum + " probe rows) is loaded (" + (System.currentTimeMillis() - startTime)
+        + " msec)");
+    return true;
+  }
+
+  private Scanner openScanner(Path path, Schema schema) throws IOException {
+    File file = new File(localFS.makeQualified(path).toUri());
+    FileFragment fragment = new FileFragment("", path, 0, file.length());
+    Scanner scanner = TablespaceManager.getLocalFs().getScanner(intermediateMeta, schema, fragment, schema);
+    scanner.init();
+    return scanner;
+  }
+
+  private void closeCurrentPartition() throws IOException {
+    if (probeScanner != null) {
+      probeScanner.close();
+      probeScanner = null;
+    }
+    if (currentPartition != null) {
+      currentPartition.delete();
+      currentPartition = null;
+    }
+  }
+
+  private void cleanupSpill() throws IOException {
+    if (probeScanner != null) {
+      probeScanner.close();
+      probeScanner = null;
+    }
+    if (spilledPartitions != null) {
+      for (SpillPartition partition : spilledPartitions) {
+        if (partition != null) {
+          partition.closeBuild();
+          partition.closeProbe();
+        }
+      }
+      spilledPartitions = null;
+    }
+    currentPartition = null;
+    pendingPartitions.clear();
+
+    for (Path path : spillFiles) {
+      localFS.delete(path, false);
+    }
+    spillFiles.clear();
+    partitionSizes = null;
+  }
+
   /**
    * Check the given tuple is able to be loaded into the hash table or not.
    * When the plan is full outer join, every tuple including null values should be loaded
@@ -148,11 +505,20 @@ public abstract class CommonHashJoinExec<T> extends CommonJoinExec {
     super.rescan();
     finished = false;
     iterator = null;
+    if (!spillFiles.isEmpty()) {
+      // the hash table only keeps the last spilled partition, so the build relation should be hashed again.
+      cleanupSpill();
+      tupleSlots.clear();
+      first = true;
+    }
   }
 
   @Override
   public void close() throws IOException {
     super.close();
+    leftPipeline = null;
+    cleanupSpill();
+    releaseMemory();
     iterator = null;
     if (tupleSlots != null) {
       tupleSlots.clear();
@@ -186,4 +552,64 @@ public abstract class CommonHashJoinExec<T> extends CommonJoinExec {
 
     return inputStats;
   }
+
+  private class SpillPartition {
+    private final int id;
+    private final Path buildPath;
+    private final Path probePath;
+    private DirectRawFileWriter buildWriter;
+    private DirectRawFileWriter probeWriter;
+    private long buildRowNum;
+    private long probeRowNum;
+
+    SpillPartition(int id) throws IOException {
+      this.id = id;
+      this.buildPath = newSpillPath("build_" + id);
+      this.probePath = newSpillPath("probe_" + id);
+      this.buildWriter = new DirectRawFileWriter(context.getConf(), null, rightChild.getSchema(), intermediateMeta,
+          buildPath);
+      this.buildWriter.init();
+    }
+
+    private Path newSpillPath(String name) throws IOException {
+      Path path = localFS.makeQualified(localDirAllocator.getLocalPathForWrite(
+          spillTmpDir + "/" + name, context.getConf()));
+      spillFiles.add(path);
+      return path;
+    }
+
+    void addBuildTuple(Tuple tuple) throws IOException {
+      buildWriter.addTuple(tuple);
+      buildRowNum++;
+    }
+
+    void addProbeTuple(Tuple tuple) throws IOException {
+      if (probeWriter == null) {
+        probeWriter = new DirectRawFileWriter(context.getConf(), null, leftChild.getSchema(), intermediateMeta,
+            probePath);
+        probeWriter.init();
+      }
+      probeWriter.addTuple(tuple);
+      probeRowNum++;
+    }
+
+    void closeBuild() throws IOException {
+      if (buildWriter != null) {
+        buildWriter.close();
+        buildWriter = null;
+      }
+    }
+
+    void closeProbe() throws IOException {
+      if (probeWriter != null) {
+        probeWriter.close();
+        probeWriter = null;
+      }
+    }
+
+    void delete() throws IOException {
+      localFS.delete(buildPath, false);
+      localFS.delete(probePath, false);
+    }
+  }
 }
@@ -18,6 +18,7 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.primitives.*;
 import com.google.common.util.concurrent.SettableFuture;
@@ -45,6 +46,7 @@ import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.Scanner;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
+import org.apache.tajo.storage.rawfile.DirectRawFileScanner;
 import org.apache.tajo.storage.rawfile.DirectRawFileWriter;
 import org.apache.tajo.tuple.memory.OffHeapRowBlockUtils;
 import org.apache.tajo.tuple.memory.UnSafeTuple;
@@ -67,6 +69,8 @@ import java.util.concurrent.Future;
  * <ul>
  *   <li>in-memory sort if input data size fits a sort buffer</li>
  *   <li>k-way merge sort if input data size exceeds the size of sort buffer</li>
+ *   <li>loser tree merge without copying tuples</li>
+ *   <li>adaptive fanout according to the size of sort buffer</li>
  *   <li>parallel merge</li>
  *   <li>final merge avoidance</li>
  *   <li>Unbalance merge if needed</li>
@@ -87,8 +91,12 @@ public class ExternalSortExec extends SortExec {
   private SortNode plan;
   /** the data format of intermediate file*/
   private TableMeta intermediateMeta;
-  /** the defaultFanout of external sort */
+  /** the minimum fanout of external sort */
   private final int defaultFanout;
+  /** the maximum fanout of external sort */
+  private final int maxFanout;
+  /** the fanout actually used in the merge phase, which is decided by the available memory */
+  private int mergeFanout;
   /** It's the size of in-memory table. If memory consumption exceeds it, store the memory table into a disk. */
   private final long sortBufferBytesNum;
   /** the number of available cores */
@@ -101,6 +109,8 @@ public class ExternalSortExec extends SortExec {
   private Comparator<UnSafeTuple> unSafeComparator;
   /** for other type tuple comparison */
   private Comparator<Tuple> primitiveComparator;
+  /** for tuple comparison in merge phase */
+  private Comparator<Tuple> mergeComparator;
   /** temporal dir */
   private Path sortTmpDir;
   /** It enables round-robin disks allocation */
@@ -121,6 +131,10 @@ public class ExternalSortExec extends SortExec {
   private Scanner result;
   /** total bytes of input data */
   private long inputBytes;
+  /** sorted chunks stored while loading input tuples */
+  private final List<Chunk> storedChunks = new ArrayList<>();
+  /** true while input tuples are loaded into the in-memory table */
+  private boolean loading = false;
 
   private final SortAlgorithm sortAlgorithm;
 
@@ -133,6 +147,8 @@ public class ExternalSortExec extends SortExec {
     if (defaultFanout < 2) {
       throw new PhysicalPlanningException(ConfVars.EXECUTOR_EXTERNAL_SORT_FANOUT.varname + " cannot be lower than 2");
     }
+    this.maxFanout = Math.max(defaultFanout, context.getConf().getIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_MAX_FANOUT));
+    this.mergeFanout = defaultFanout;
     // TODO - sort buffer and core num should be changed to use the allocated container resource.
     this.sortBufferBytesNum = context.getQueryContext().getInt(SessionVars.EXTSORT_BUFFER_SIZE) * StorageUnit.MB;
     this.allocatedCoreNum = context.getConf().getIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_THREAD_NUM);
@@ -193,6 +209,7 @@ public class ExternalSortExec extends SortExec {
     this.inMemoryTable = new UnSafeTupleList(SchemaUtil.toDataTypes(inSchema), initialArraySize);
     this.unSafeComparator = new UnSafeComparator(inSchema, sortSpecs);
     this.primitiveComparator = new PrimitiveComparator(inSchema, sortSpecs);
+    this.mergeComparator = new MergeComparator(unSafeComparator, primitiveComparator);
 
     super.init();
   }
@@ -253,40 +270,29 @@ public class ExternalSortExec extends SortExec {
    */
   private List<Chunk> sortAndStoreAllChunks() throws IOException {
     Tuple tuple;
-    List<Chunk> chunkPaths = new ArrayList<>();
-
-    int chunkId = 0;
     long runStartTime = System.currentTimeMillis();
 
-    while (!context.isStopped() && (tuple = child.next()) != null) { // partition sort start
-      inMemoryTable.addTuple(tuple);
-
-      if (inMemoryTable.usedMem() > sortBufferBytesNum) { // if input data exceeds main-memory at least once
-        long runEndTime = System.currentTimeMillis();
-        info(LOG, "Chunk #" + chunkId + " run loading time: " + (runEndTime - runStartTime) + " msec");
-        runStartTime = runEndTime;
-
-        info(LOG, "Memory consumption exceeds " + FileUtil.humanReadableByteCount(inMemoryTable.usedMem(), false));
-
-        chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
-        inMemoryTable.clear();
-        chunkId++;
-
-        // When the volume of sorting data once exceed the size of sort buffer,
-        // the total progress of this external sort is divided into two parts.
-        // In contrast, if the data fits in memory, the progress is only one part.
-        //
-        // When the progress is divided into two parts, the first part sorts tuples on memory and stores them
-        // into a chunk. The second part merges stored chunks into fewer chunks, and it continues until the number
-        // of merged chunks is fewer than the default fanout.
-        //
-        // The fact that the code reach here means that the first chunk has been just stored.
-        // That is, the progress was divided into two parts.
-        // So, it multiply the progress of the children operator and 0.5f.
-        progress = child.getProgress() * 0.5f;
+    loading = true;
+    try {
+      while (!context.isStopped() && (tuple = child.next()) != null) { // partition sort start
+        inMemoryTable.addTuple(tuple);
+
+        // if input data exceeds main-memory at least once
+        if (inMemoryTable.usedMem() > sortBufferBytesNum || !reserveMemory(inMemoryTable.usedMem())) {
+          long runEndTime = System.currentTimeMillis();
+          info(LOG, "Chunk #" + storedChunks.size() + " run loading time: " + (runEndTime - runStartTime) + " msec");
+          runStartTime = runEndTime;
+
+          info(LOG, "Memory consumption exceeds " + FileUtil.humanReadableByteCount(inMemoryTable.usedMem(), false));
+
+          storeInMemoryTable();
+        }
       }
+    } finally {
+      loading = false;
     }
 
+    List<Chunk> chunkPaths = new ArrayList<>(storedChunks);
     if(inMemoryTable.size() > 0) { //if there are at least one or more input tuples
       //store the remain data into a memory chunk.
       chunkPaths.add(new Chunk(inSchema, inMemoryTable, intermediateMeta));
@@ -300,6 +306,42 @@ public class ExternalSortExec extends SortExec {
     return chunkPaths;
   }
 
+  private void storeInMemoryTable() throws IOException {
+    storedChunks.add(sortAndStoreChunk(storedChunks.size(), inMemoryTable));
+    inMemoryTable.clear();
+
+    // When the volume of sorting data once exceed the size of sort buffer,
+    // the total progress of this external sort is divided into two parts.
+    // In contrast, if the data fits in memory, the progress is only one part.
+    //
+    // When the progress is divided into two parts, the first part sorts tuples on memory and stores them
+    // into a chunk. The second part merges stored chunks into fewer chunks, and it continues until the number
+    // of merged chunks is fewer than the default fanout.
+    //
+    // The fact that the code reach here means that the first chunk has been just stored.
+    // That is, the progress was divided into two parts.
+    // So, it multiply the progress of the children operator and 0.5f.
+    progress = child.getProgress() * 0.5f;
+  }
+
+  /**
+   * The in-memory table can be stored into a chunk only while input tuples are loaded.
+   * After that, it is being merged or scanned.
+   */
+  @Override
+  public long spill() throws IOException {
+    if (!loading || inMemoryTable.size() == 0) {
+      return 0;
+    }
+    info(LOG, "Chunk #" + storedChunks.size() + " is spilled by a memory request ("
+        + FileUtil.humanReadableByteCount(inMemoryTable.usedMem(), false) + ")");
+    storeInMemoryTable();
+
+    long released = getReservedMemory();
+    releaseMemory();
+    return released;
+  }
+
   /**
    * Get a local path from all temporal paths in round-robin manner.
    */
@@ -349,8 +391,22 @@ public class ExternalSortExec extends SortExec {
     return result.next();
   }
 
+  /**
+   * Decide the fanout of the merge phase. Each input of a merger holds its own read buffer, so the sort buffer
+   * which is not occupied by the remaining in-memory chunk is divided by the read buffer size of all concurrent
+   * mergers. A larger fanout reduces the number of merge passes, and the loser tree keeps the cost of
+   * each output tuple at log2(fanout) comparisons.
+   */
+  private int calculateMergeFanout() {
+    long readBufferBytes = context.getConf().getInt(DirectRawFileScanner.READ_BUFFER_SIZE,
+        DirectRawFileScanner.DEFAULT_BUFFER_SIZE);
+    long availableBytes = Math.max(0, sortBufferBytesNum - inMemoryTable.usedMem());
+    long memoryFanout = availableBytes / (readBufferBytes * Math.max(1, allocatedCoreNum));
+    return (int) Math.max(defaultFanout, Math.min(maxFanout, memoryFanout));
+  }
+
   private int calculateFanout(int remainInputChunks, int inputNum, int outputNum, int startIdx) {
-    int computedFanout = Math.min(remainInputChunks, defaultFanout);
+    int computedFanout = Math.min(remainInputChunks, mergeFanout);
 
     // Why should we detect an opportunity for unbalanced merge?
     //
@@ -381,8 +437,13 @@ public class ExternalSortExec extends SortExec {
 
     long mergeStart = System.currentTimeMillis();
 
-    // continue until the remain runs are larger than defaultFanout
-    while (remainRun > defaultFanout) {
+    mergeFanout = calculateMergeFanout();
+    if (remainRun > mergeFanout) {
+      info(LOG, "Merge fanout: " + mergeFanout + " (" + remainRun + " chunks)");
+    }
+
+    // continue until the remain runs are larger than mergeFanout
+    while (remainRun > mergeFanout) {
 
       // reset outChunkId
       int remainInputRuns = inputFiles.size();
@@ -415,7 +476,7 @@ public class ExternalSortExec extends SortExec {
         // If unbalanced merge is available, it finishes the merge phase earlier.
         if (checkIfCanBeUnbalancedMerged(remainInputRuns, outputFileNum)) {
           info(LOG, "Unbalanced merge possibility detected: number of remain input (" + remainInputRuns
-              + ") and output files (" + outputFileNum + ") <= " + defaultFanout);
+              + ") and output files (" + outputFileNum + ") <= " + mergeFanout);
 
           List<Chunk> switched = new ArrayList<>();
           // switch the remain inputs to the next outputs
@@ -549,7 +610,7 @@ public class ExternalSortExec extends SortExec {
    * It checks if unbalanced merge is possible.
    */
   private boolean checkIfCanBeUnbalancedMerged(int remainInputNum, int outputNum) {
-    return (remainInputNum + outputNum) <= defaultFanout;
+    return (remainInputNum + outputNum) <= mergeFanout;
   }
 
   /**
@@ -586,18 +647,10 @@ public class ExternalSortExec extends SortExec {
     for (int i = 0; i < num; i++) {
       sources[i] = getScanner(inputs.get(startChunkId + i));
     }
-    return createKWayMergerInternal(sources, 0, num);
-  }
-
-  private Scanner createKWayMergerInternal(final Scanner [] sources, final int startIdx, final int num)
-      throws IOException {
     if (num > 1) {
-      final int mid = (int) Math.ceil((float)num / 2);
-      Scanner left = createKWayMergerInternal(sources, startIdx, mid);
-      Scanner right = createKWayMergerInternal(sources, startIdx + mid, num - mid);
-      return new PairWiseMerger(inSchema, left, right, primitiveComparator);
+      return new LoserTreeMerger(inSchema, sources, mergeComparator);
     } else {
-      return sources[startIdx];
+      return sources[0];
     }
   }
 
@@ -676,34 +729,37 @@ public class ExternalSortExec extends SortExec {
   }
 
   /**
-   * Two-way merger scanner that reads two input sources and outputs one output tuples sorted in some order.
+   * K-way merger scanner that reads multiple sorted input sources and outputs one sorted tuple stream.
+   *
+   * It keeps the current tuple of each source in a tree of losers. Tuples are neither copied nor materialized;
+   * the current tuple of a source is only a pointer into the read buffer of the source, and the source is
+   * advanced right before the next output is chosen. So, each output tuple is valid until the next call of next().
    */
-  private static class PairWiseMerger extends AbstractScanner {
-
-    protected final Schema schema;
-    protected final Comparator<Tuple> comparator;
-
-    protected final Scanner leftScan;
-    protected final Scanner rightScan;
-
-    private Tuple leftTuple;
-    private Tuple rightTuple;
-    private boolean leftEOF;
-    private boolean rightEOF;
-
-    private Tuple outTuple;
+  @VisibleForTesting
+  static class LoserTreeMerger extends AbstractScanner {
+
+    private final Schema schema;
+    private final Comparator<Tuple> comparator;
+    private final Scanner [] sources;
+    /** the current tuple of each source. null means that the source is exhausted. */
+    private final Tuple [] heads;
+    /** tree[0] is the winner, and tree[1..k-1] keep the losers of internal nodes */
+    private final int [] tree;
+    /** the index of the source whose head tuple was returned last */
+    private int lastWinner = -1;
 
     private float mergerProgress;
     private TableStats mergerInputStats;
 
     private State state = State.NEW;
 
-    public PairWiseMerger(Schema schema, Scanner leftScanner, Scanner rightScanner, Comparator<Tuple> comparator)
-        throws IOException {
+    public LoserTreeMerger(Schema schema, Scanner [] sources, Comparator<Tuple> comparator) {
+      Preconditions.checkArgument(sources.length > 1, "At least two sources must be given.");
       this.schema = schema;
-      this.leftScan = leftScanner;
-      this.rightScan = rightScanner;
+      this.sources = sources;
       this.comparator = comparator;
+      this.heads = new Tuple[sources.length];
+      this.tree = new int[sources.length];
     }
 
     private void setState(State state) {
@@ -713,11 +769,12 @@ public class ExternalSortExec extends SortExec {
     @Override
     public void init() throws IOException {
       if (state == State.NEW) {
-        leftScan.init();
-        rightScan.init();
-
+        for (Scanner source : sources) {
+          source.init();
+        }
         mergerInputStats = new TableStats();
         mergerProgress = 0.0f;
+        buildTree();
 
         setState(State.INITED);
       } else {
@@ -725,62 +782,86 @@ public class ExternalSortExec extends SortExec {
       }
     }
 
-    protected int compare() {
-      return comparator.compare(leftTuple, rightTuple);
+    private void buildTree() throws IOException {
+      for (int i = 0; i < sources.length; i++) {
+        heads[i] = sources[i].next();
+      }
+      tree[0] = buildTree(1);
+      lastWinner = -1;
     }
 
-    @Override
-    public Tuple next() throws IOException {
-      if(!leftEOF && leftTuple == null) {
-        leftTuple = leftScan.next();
+    /**
+     * Build the subtree of a given node, and return the winner of the subtree.
+     * Leaves are placed at [k, 2k) so that the internal nodes are [1, k).
+     */
+    private int buildTree(int node) {
+      if (node >= sources.length) {
+        return node - sources.length;
       }
+      int left = buildTree(node * 2);
+      int right = buildTree(node * 2 + 1);
+      if (isLess(left, right)) {
+        tree[node] = right;
+        return left;
+      } else {
+        tree[node] = left;
+        return right;
+      }
+    }
 
-      if(!rightEOF && rightTuple == null) {
-        rightTuple = rightScan.next();
+    /**
+     * An exhausted source is regarded as larger than any other source.
+     * For the same tuples, the source of the lower index wins to keep the merge stable.
+     */
+    private boolean isLess(int source1, int source2) {
+      if (heads[source1] == null) {
+        return false;
+      }
+      if (heads[source2] == null) {
+        return true;
       }
+      int compare = comparator.compare(heads[source1], heads[source2]);
+      return compare < 0 || (compare == 0 && source1 < source2);
+    }
 
-      if (leftTuple != null && rightTuple != null) {
-        if (compare() < 0) {
-          outTuple = leftTuple;
-          leftTuple = null;
-        } else {
-          outTuple = rightTuple;
-          rightTuple = null;
+    /**
+     * Replay the matches from the leaf of a given source to the root.
+     */
+    private void adjust(int source) {
+      int winner = source;
+      for (int node = (source + sources.length) / 2; node > 0; node /= 2) {
+        if (isLess(tree[node], winner)) {
+          int loser = winner;
+          winner = tree[node];
+          tree[node] = loser;
         }
-        return outTuple;
       }
+      tree[0] = winner;
+    }
 
-      if (leftTuple == null) {
-        leftEOF = true;
+    @Override
+    public Tuple next() throws IOException {
+      if (lastWinner >= 0) {
+        heads[lastWinner] = sources[lastWinner].next();
+        adjust(lastWinner);
+        lastWinner = -1;
+      }
 
-        if (rightTuple != null) {
-          outTuple = rightTuple;
-          rightTuple = null;
-        } else {
-          rightEOF = true;
-          outTuple = null;
-        }
-      } else {
-        rightEOF = true;
-        outTuple = leftTuple;
-        leftTuple = null;
+      int winner = tree[0];
+      if (heads[winner] == null) {
+        return null;
       }
-      return outTuple;
+      lastWinner = winner;
+      return heads[winner];
     }
 
     @Override
     public void reset() throws IOException {
       if (state == State.INITED) {
-        leftScan.reset();
-        rightScan.reset();
-
-        leftTuple = null;
-        rightTuple = null;
-        outTuple = null;
-
-        leftEOF = false;
-        rightEOF = false;
-
+        for (Scanner source : sources) {
+          source.reset();
+        }
+        buildTree();
       } else {
         throw new IllegalStateException("Illegal State: init() is not allowed in " + state.name());
       }
@@ -788,11 +869,10 @@ public class ExternalSortExec extends SortExec {
 
     @Override
     public void close() throws IOException {
-      IOUtils.cleanup(LOG, leftScan, rightScan);
+      IOUtils.cleanup(LOG, sources);
       getInputStats();
       mergerProgress = 1.0f;
-      leftTuple = null;
-      rightTuple = null;
+      Arrays.fill(heads, null);
       setState(State.CLOSED);
     }
 
@@ -803,38 +883,35 @@ public class ExternalSortExec extends SortExec {
 
     @Override
     public float getProgress() {
-      if (leftScan == null) {
+      if (state == State.CLOSED) {
         return mergerProgress;
       }
-      return leftScan.getProgress() * 0.5f + rightScan.getProgress() * 0.5f;
+      float progress = 0.0f;
+      for (Scanner source : sources) {
+        progress += source.getProgress();
+      }
+      return progress / sources.length;
     }
 
     @Override
     public TableStats getInputStats() {
-      if (leftScan == null) {
-        return mergerInputStats;
-      }
-      TableStats leftInputStats = leftScan.getInputStats();
       if (mergerInputStats == null) {
         mergerInputStats = new TableStats();
       }
-      mergerInputStats.setNumBytes(0);
-      mergerInputStats.setReadBytes(0);
-      mergerInputStats.setNumRows(0);
-
-      if (leftInputStats != null) {
-        mergerInputStats.setNumBytes(leftInputStats.getNumBytes());
-        mergerInputStats.setReadBytes(leftInputStats.getReadBytes());
-        mergerInputStats.setNumRows(leftInputStats.getNumRows());
-      }
-
-      TableStats rightInputStats = rightScan.getInputStats();
-      if (rightInputStats != null) {
-        mergerInputStats.setNumBytes(mergerInputStats.getNumBytes() + rightInputStats.getNumBytes());
-        mergerInputStats.setReadBytes(mergerInputStats.getReadBytes() + rightInputStats.getReadBytes());
-        mergerInputStats.setNumRows(mergerInputStats.getNumRows() + rightInputStats.getNumRows());
+      long numBytes = 0;
+      long readBytes = 0;
+      long numRows = 0;
+      for (Scanner source : sources) {
+        TableStats sourceStats = source.getInputStats();
+        if (sourceStats != null) {
+          numBytes += sourceStats.getNumBytes();
+          readBytes += sourceStats.getReadBytes();
+          numRows += sourceStats.getNumRows();
+        }
       }
-
+      mergerInputStats.setNumBytes(numBytes);
+      mergerInputStats.setReadBytes(readBytes);
+      mergerInputStats.setNumRows(numRows);
       return mergerInputStats;
     }
   }
@@ -866,6 +943,7 @@ public class ExternalSortExec extends SortExec {
       inMemoryTable.release();
       inMemoryTable = null;
     }
+    releaseMemory();
 
     if(executorService != null){
       executorService.shutdown();
@@ -996,6 +1074,29 @@ public class ExternalSortExec extends SortExec {
     }
   }
 
+  /**
+   * The Comparator class for the merge phase. It compares UnSafeTuples directly on their memory,
+   * and falls back to the primitive comparison for other tuples.
+   */
+  static class MergeComparator implements Comparator<Tuple> {
+    private final Comparator<UnSafeTuple> unSafeComparator;
+    private final Comparator<Tuple> primitiveComparator;
+
+    public MergeComparator(Comparator<UnSafeTuple> unSafeComparator, Comparator<Tuple> primitiveComparator) {
+      this.unSafeComparator = unSafeComparator;
+      this.primitiveComparator = primitiveComparator;
+    }
+
+    @Override
+    public int compare(Tuple tuple1, Tuple tuple2) {
+      if (tuple1 instanceof UnSafeTuple && tuple2 instanceof UnSafeTuple) {
+        return unSafeComparator.compare((UnSafeTuple) tuple1, (UnSafeTuple) tuple2);
+      } else {
+        return primitiveComparator.compare(tuple1, tuple2);
+      }
+    }
+  }
+
   /**
    * The Comparator class for raw file
    */
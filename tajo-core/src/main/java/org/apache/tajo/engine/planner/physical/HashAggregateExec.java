@@ -18,106 +18,344 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.tajo.BuiltinStorages;
 import org.apache.tajo.SessionVars;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.codegen.CompiledPipeline;
 import org.apache.tajo.engine.planner.KeyProjector;
-import org.apache.tajo.plan.function.FunctionContext;
 import org.apache.tajo.plan.logical.GroupbyNode;
+import org.apache.tajo.storage.ColumnBatch;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.TablespaceManager;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.rawfile.DirectRawFileWriter;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.FileUtil;
 import org.apache.tajo.worker.TaskAttemptContext;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.Iterator;
-import java.util.Map.Entry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 
 /**
  * This is the hash-based GroupBy Operator.
+ *
+ * Groups are kept in {@link UnSafeAggregationTable}, which stores grouping keys and fixed-width aggregation
+ * states in off-heap memory.
+ *
+ * If the hash table exceeds HASH_GROUPBY_SIZE_LIMIT and spilling is enabled, this operator works as a hybrid
+ * hash aggregation. The groups already in the table keep being aggregated in memory, and input tuples of the
+ * other keys are partitioned by the hash of their keys and spilled into the worker temporal directory.
+ * After the in-memory groups are returned, each spilled partition is aggregated one at a time.
+ * A partition exceeding the limit again is partitioned recursively with a different hash seed.
  */
 public class HashAggregateExec extends AggregationExec {
+  private static final Log LOG = LogFactory.getLog(HashAggregateExec.class);
+  /** The maximum level of recursive partitioning. A partition at this level is aggregated only in memory. */
+  private static final int MAX_SPILL_LEVEL = 4;
+
   private Tuple tuple = null;
-  private TupleMap<FunctionContext[]> hashTable;
+  private final Column[] groupingColumns;
+  private UnSafeAggregationTable hashTable;
   private KeyProjector hashKeyProjector;
   private boolean computed = false;
-  private Iterator<Entry<KeyTuple, FunctionContext []>> iterator = null;
+  /** true while input tuples of the child are aggregated */
+  private boolean computing = false;
+  private int currentGroupId = 0;
+  /** the fused pipeline of the child executors. It is null if code generation is disabled. */
+  private CompiledPipeline pipeline;
+
+  private final int initialTableSize;
+  /** If true, spill partitions into a disk when the hash table exceeds the memory limit */
+  private final boolean spillEnabled;
+  /** the memory limit of the hash table */
+  private final long memoryLimit;
+  /** the number of partitions created by each spill */
+  private final int spillPartitionNum;
+  /** the data format of spilled files */
+  private final TableMeta intermediateMeta;
+  /** It enables round-robin disks allocation */
+  private final LocalDirAllocator localDirAllocator;
+  /** local file system */
+  private final RawLocalFileSystem localFS;
+  /** temporal dir */
+  private Path spillTmpDir;
+  /** writers of the partitions being spilled. It is null unless the current table is spilling. */
+  private DirectRawFileWriter[] spillWriters;
+  private Path[] spillPaths;
+  private long[] spilledRowNums;
+  /** spilled partitions which are not aggregated yet */
+  private final Deque<SpillPartition> pendingPartitions = new ArrayDeque<>();
+  /** all spilled files which are used for cleaning */
+  private final List<Path> spillFiles = new ArrayList<>();
 
   public HashAggregateExec(TaskAttemptContext ctx, GroupbyNode plan, PhysicalExec subOp) throws IOException {
     super(ctx, plan, subOp);
-    hashKeyProjector = new KeyProjector(inSchema, plan.getGroupingColumns());
-    hashTable = new TupleMap<>(ctx.getQueryContext().getInt(SessionVars.AGG_HASH_TABLE_SIZE));
+    groupingColumns = plan.getGroupingColumns();
+    hashKeyProjector = new KeyProjector(inSchema, groupingColumns);
+    initialTableSize = ctx.getQueryContext().getInt(SessionVars.AGG_HASH_TABLE_SIZE);
+    hashTable = newHashTable(0);
     this.tuple = new VTuple(plan.getOutSchema().size());
+
+    this.spillEnabled = ctx.getQueryContext().getBool(SessionVars.HASH_GROUPBY_SPILL_ENABLED);
+    this.memoryLimit = ctx.getQueryContext().getLong(SessionVars.HASH_GROUPBY_SIZE_LIMIT) * StorageUnit.MB;
+    this.spillPartitionNum = Math.max(2, ctx.getConf().getIntVar(ConfVars.EXECUTOR_GROUPBY_SPILL_PARTITION_NUM));
+    this.intermediateMeta = CatalogUtil.newTableMeta(BuiltinStorages.DRAW, ctx.getConf());
+    this.localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+    this.localFS = new RawLocalFileSystem();
+  }
+
+  private UnSafeAggregationTable newHashTable(int level) {
+    return new UnSafeAggregationTable(groupingColumns, aggFunctions, initialTableSize,
+        StorageUnit.MB, level + 1);
+  }
+
+  @Override
+  public void init() throws IOException {
+    super.init();
+    if (context.getQueryContext().getBool(SessionVars.CODEGEN)) {
+      pipeline = PhysicalPlanUtil.compilePipeline(context, child);
+    }
   }
 
   private void compute() throws IOException {
-    Tuple tuple;
-    KeyTuple keyTuple;
-    while(!context.isStopped() && (tuple = child.next()) != null) {
-      keyTuple = hashKeyProjector.project(tuple);
-
-      FunctionContext [] contexts = hashTable.get(keyTuple);
-      if(contexts != null) {
-        for(int i = 0; i < aggFunctions.size(); i++) {
-          aggFunctions.get(i).merge(contexts[i], tuple);
+    computing = true;
+    try {
+      if (child instanceof VectorizedExec && ((VectorizedExec) child).isBatchAvailable()) {
+        computeFromBatches((VectorizedExec) child);
+      } else if (pipeline != null) {
+        pipeline.consume(tuple -> aggregate(tuple, 0));
+      } else {
+        Tuple tuple;
+        while(!context.isStopped() && (tuple = child.next()) != null) {
+          aggregate(tuple, 0);
         }
-      } else { // if the key occurs firstly
-        contexts = new FunctionContext[aggFunctionsNum];
-        for(int i = 0; i < aggFunctionsNum; i++) {
-          contexts[i] = aggFunctions.get(i).newContext();
-          aggFunctions.get(i).merge(contexts[i], tuple);
-        }
-        hashTable.put(keyTuple, contexts);
       }
+    } finally {
+      computing = false;
     }
+    finishSpill(0);
 
     // If HashAggregateExec received NullDatum and didn't has any grouping keys,
     // it should return primitive values for NullLDatum.
-    if (groupingKeyNum == 0 && aggFunctionsNum > 0 && hashTable.entrySet().size() == 0) {
-      FunctionContext[] contexts = new FunctionContext[aggFunctionsNum];
-      for(int i = 0; i < aggFunctionsNum; i++) {
-        contexts[i] = aggFunctions.get(i).newContext();
+    if (groupingKeyNum == 0 && aggFunctionsNum > 0 && hashTable.size() == 0 && pendingPartitions.isEmpty()) {
+      hashTable.findOrAddGroup(new KeyTuple(0));
+    }
+  }
+
+  private void aggregate(Tuple tuple, int level) throws IOException {
+    KeyTuple keyTuple = hashKeyProjector.project(tuple);
+
+    if (spillWriters == null) {
+      hashTable.aggregate(hashTable.findOrAddGroup(keyTuple), tuple);
+
+      if (spillEnabled && level < MAX_SPILL_LEVEL) {
+        if (hashTable.usedMem() > memoryLimit || !reserveMemory(hashTable.usedMem())) {
+          startSpill(level);
+        }
+      } else {
+        reserveMemory(hashTable.usedMem(), true);
+      }
+    } else {
+      int groupId = hashTable.findGroup(keyTuple);
+      if (groupId < 0) {
+        int partitionId = (hashTable.getLastKeyHash() >>> 16) % spillPartitionNum;
+        spillWriters[partitionId].addTuple(tuple);
+        spilledRowNums[partitionId]++;
+      } else {
+        hashTable.aggregate(groupId, tuple);
+      }
+    }
+  }
+
+  /**
+   * Aggregate the valid rows of each batch without calling next() of the child for each row.
+   * The hash table aggregates tuples, so each valid row is still copied into a reused tuple.
+   */
+  private void computeFromBatches(VectorizedExec batchChild) throws IOException {
+    VTuple row = new VTuple(inSchema.size());
+    ColumnBatch batch;
+    while (!context.isStopped() && (batch = batchChild.nextBatch()) != null) {
+      int selectedNum = batch.getSelectedNum();
+      for (int i = 0; i < selectedNum; i++) {
+        batch.getRow(batch.getRowId(i), row);
+        aggregate(row, 0);
       }
-      hashTable.put(null, contexts);
     }
   }
 
+  private void startSpill(int level) throws IOException {
+    if (spillTmpDir == null) {
+      spillTmpDir = getExecutorTmpDir();
+    }
+
+    info(LOG, "Hash table (" + FileUtil.humanReadableByteCount(hashTable.usedMem(), false) + ") exceeds "
+        + FileUtil.humanReadableByteCount(Math.min(memoryLimit, getReservedMemory()), false) + " with "
+        + hashTable.size() + " groups. Tuples of new groups are spilled into " + spillPartitionNum
+        + " partitions (level: " + level + ")");
+
+    spillWriters = new DirectRawFileWriter[spillPartitionNum];
+    spillPaths = new Path[spillPartitionNum];
+    spilledRowNums = new long[spillPartitionNum];
+    for (int i = 0; i < spillPartitionNum; i++) {
+      Path path = localFS.makeQualified(localDirAllocator.getLocalPathForWrite(
+          spillTmpDir + "/" + level + "_" + spillFiles.size(), context.getConf()));
+      spillFiles.add(path);
+      spillPaths[i] = path;
+      spillWriters[i] = new DirectRawFileWriter(context.getConf(), null, inSchema, intermediateMeta, path);
+      spillWriters[i].init();
+    }
+  }
+
+  private void finishSpill(int level) throws IOException {
+    if (spillWriters == null) {
+      return;
+    }
+
+    for (int i = 0; i < spillPartitionNum; i++) {
+      spillWriters[i].close();
+      if (spilledRowNums[i] > 0) {
+        pendingPartitions.add(new SpillPartition(spillPaths[i], level + 1, spilledRowNums[i]));
+      } else {
+        localFS.delete(spillPaths[i], false);
+      }
+    }
+    spillWriters = null;
+    spillPaths = null;
+    spilledRowNums = null;
+  }
+
+  /**
+   * The groups already in the hash table cannot be released until they are returned. Instead, tuples of new groups
+   * are spilled from now on, so that the hash table does not grow any more. Only the memory reserved beyond
+   * the size of the hash table is released.
+   */
+  @Override
+  public long spill() throws IOException {
+    if (computing && spillEnabled && spillWriters == null) {
+      startSpill(0);
+    }
+    if (spillWriters == null) {
+      return 0;
+    }
+    long reserved = getReservedMemory();
+    releaseMemory(reserved - hashTable.usedMem());
+    return reserved - getReservedMemory();
+  }
+
+  /**
+   * Replace the hash table with the groups of a spilled partition.
+   */
+  private void aggregatePartition(SpillPartition partition) throws IOException {
+    long startTime = System.currentTimeMillis();
+    hashTable.release();
+    hashTable = newHashTable(partition.level);
+    currentGroupId = 0;
+
+    File file = new File(localFS.makeQualified(partition.path).toUri());
+    FileFragment fragment = new FileFragment("", partition.path, 0, file.length());
+    Scanner scanner = TablespaceManager.getLocalFs().getScanner(intermediateMeta, inSchema, fragment, inSchema);
+    scanner.init();
+    try {
+      Tuple tuple;
+      while (!context.isStopped() && (tuple = scanner.next()) != null) {
+        aggregate(tuple, partition.level);
+      }
+    } finally {
+      scanner.close();
+    }
+    finishSpill(partition.level);
+    localFS.delete(partition.path, false);
+
+    info(LOG, "Spilled partition (" + FileUtil.humanReadableByteCount(fragment.getLength(), false) + " bytes, "
+        + partition.rowNum + " rows) is aggregated into " + hashTable.size() + " groups ("
+        + (System.currentTimeMillis() - startTime) + " msec)");
+  }
+
   @Override
   public Tuple next() throws IOException {
     if(!computed) {
       compute();
-      iterator = hashTable.entrySet().iterator();
+      currentGroupId = 0;
       computed = true;
     }
 
-    FunctionContext [] contexts;
-
-    if (iterator.hasNext()) {
-      Entry<KeyTuple, FunctionContext []> entry = iterator.next();
-      Tuple keyTuple = entry.getKey();
-      contexts =  entry.getValue();
-
-      int tupleIdx = 0;
-      for (; tupleIdx < groupingKeyNum; tupleIdx++) {
-        tuple.put(tupleIdx, keyTuple.asDatum(tupleIdx));
+    while (true) {
+      if (currentGroupId < hashTable.size()) {
+        hashTable.getGroup(currentGroupId++, tuple);
+        return tuple;
+      } else if (!pendingPartitions.isEmpty() && !context.isStopped()) {
+        aggregatePartition(pendingPartitions.poll());
+      } else {
+        return null;
       }
-      for (int funcIdx = 0; funcIdx < aggFunctionsNum; funcIdx++, tupleIdx++) {
-        tuple.put(tupleIdx, aggFunctions.get(funcIdx).terminate(contexts[funcIdx]));
-      }
-
-      return tuple;
-    } else {
-      return null;
     }
   }
 
   @Override
   public void rescan() throws IOException {
-    iterator = hashTable.entrySet().iterator();
+    if (spillFiles.isEmpty()) {
+      currentGroupId = 0;
+    } else {
+      // the groups of spilled partitions are already consumed, so all groups should be computed again.
+      cleanupSpill();
+      hashTable.release();
+      hashTable = newHashTable(0);
+      child.rescan();
+      computed = false;
+    }
+  }
+
+  private void cleanupSpill() throws IOException {
+    if (spillWriters != null) {
+      for (DirectRawFileWriter writer : spillWriters) {
+        writer.close();
+      }
+      spillWriters = null;
+      spillPaths = null;
+    }
+    pendingPartitions.clear();
+
+    for (Path path : spillFiles) {
+      localFS.delete(path, false);
+    }
+    spillFiles.clear();
   }
 
   @Override
   public void close() throws IOException {
     super.close();
-    hashTable.clear();
-    hashTable = null;
-    iterator = null;
+    pipeline = null;
+    cleanupSpill();
+    if (hashTable != null) {
+      hashTable.release();
+      hashTable = null;
+    }
+    releaseMemory();
+  }
+
+  private static class SpillPartition {
+    private final Path path;
+    private final int level;
+    private final long rowNum;
+
+    SpillPartition(Path path, int level, long rowNum) {
+      this.path = path;
+      this.level = level;
+      this.rowNum = rowNum;
+    }
   }
 }
@@ -80,11 +80,8 @@ public class HashFullOuterJoinExec extends CommonHashJoinExec<Pair<Boolean, Tupl
     };
   }
 
-  public Tuple next() throws IOException {
-    if (first) {
-      loadRightToHashTable();
-    }
-
+  @Override
+  protected Tuple probe() throws IOException {
     while (!context.isStopped() && !finished) {
       if (iterator != null && iterator.hasNext()) {
         frameTuple.setRight(iterator.next());
@@ -94,7 +91,7 @@ public class HashFullOuterJoinExec extends CommonHashJoinExec<Pair<Boolean, Tupl
         finished = true;
         return null;
       }
-      Tuple leftTuple = leftChild.next();
+      Tuple leftTuple = nextLeftTuple();
       if (leftTuple == null) {
         // if no more tuples in left tuples, a join is completed.
         // in this stage we can begin outputing tuples from the right operand (which were before in tupleSlots) null padded on the left side
@@ -151,6 +148,12 @@ public class HashFullOuterJoinExec extends CommonHashJoinExec<Pair<Boolean, Tupl
     return tuples;
   }
 
+  @Override
+  protected void resetProbe() {
+    super.resetProbe();
+    finalLoop = false;
+  }
+
   @Override
   public void rescan() throws IOException {
     super.rescan();
@@ -37,17 +37,13 @@ public class HashLeftOuterJoinExec extends HashJoinExec {
   }
 
   @Override
-  public Tuple next() throws IOException {
-    if (first) {
-      loadRightToHashTable();
-    }
-
+  protected Tuple probe() throws IOException {
     while (!context.isStopped() && !finished) {
       if (iterator != null && iterator.hasNext()) {
         frameTuple.setRight(iterator.next());
         return projector.eval(frameTuple);
       }
-      Tuple leftTuple = leftChild.next(); // it comes from a disk
+      Tuple leftTuple = nextLeftTuple(); // it comes from a disk
       if (leftTuple == null) { // if no more tuples in left tuples on disk, a join is completed.
         finished = true;
         return null;
@@ -41,30 +41,26 @@ public class HashLeftSemiJoinExec extends HashJoinExec {
 
   /**
    * The End of Tuple (EOT) condition is true only when no more tuple in the left relation (on disk).
-   * next() method finds the first unmatched tuple from both tables.
+   * probe() method finds the first unmatched tuple from both tables.
    *
-   * For each left tuple on the disk, next() tries to find at least one matched tuple from the hash table.
+   * For each left tuple on the disk, probe() tries to find at least one matched tuple from the hash table.
    *
    * In more detail, until there is a hash bucket matched to the left tuple in the hash table, it continues to traverse
-   * the left tuples. If next() finds the matched bucket in the hash table, it finds any matched tuple in the bucket.
+   * the left tuples. If probe() finds the matched bucket in the hash table, it finds any matched tuple in the bucket.
    * If found, it returns the composite tuple immediately without finding more matched tuple in the bucket.
    *
    * @return The tuple which is firstly matched to a given join condition.
    * @throws java.io.IOException
    */
   @Override
-  public Tuple next() throws IOException {
-    if (first) {
-      loadRightToHashTable();
-    }
-
+  protected Tuple probe() throws IOException {
     while(!context.isStopped() && !finished) {
       if (iterator != null && iterator.hasNext()) {
         frameTuple.setRight(iterator.next());
         return projector.eval(frameTuple);
       }
       // getting new outer
-      Tuple leftTuple = leftChild.next(); // it comes from a disk
+      Tuple leftTuple = nextLeftTuple(); // it comes from a disk
       if (leftTuple == null || leftFiltered(leftTuple)) { // if no more tuples in left tuples on disk, a join is completed.
         finished = leftTuple == null;
         continue;
@@ -19,8 +19,8 @@
 package org.apache.tajo.engine.planner.physical;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.SessionVars;
@@ -30,20 +30,31 @@ import org.apache.tajo.catalog.SchemaUtil;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.exception.TajoRuntimeException;
 import org.apache.tajo.exception.UnsupportedException;
 import org.apache.tajo.plan.logical.ShuffleFileWriteNode;
+import org.apache.tajo.plan.serder.PlanProto.EnforceProperty;
+import org.apache.tajo.plan.serder.PlanProto.EnforceProperty.EnforceType;
+import org.apache.tajo.plan.serder.PlanProto.RuntimeJoinFilterEnforce;
 import org.apache.tajo.storage.HashShuffleAppenderManager;
+import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
 import org.apache.tajo.tuple.memory.MemoryRowBlock;
 import org.apache.tajo.tuple.memory.RowBlock;
 import org.apache.tajo.tuple.memory.RowWriter;
 import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.BloomFilter;
 import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.worker.ShufflePusher;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -52,6 +63,10 @@ import java.util.concurrent.Future;
 /**
  * <code>HashShuffleFileWriteExec</code> is a physical executor to store intermediate data into a number of
  * file outputs associated with shuffle keys. The file outputs are stored on local disks.
+ *
+ * The buffers are double-buffered. While the row blocks of a flush are written by the writers of the volumes,
+ * the next tuples are buffered into blocks reused from the previous flushes. A flush waits for the previous one
+ * before it is submitted, so at most one flush is in flight.
  */
 public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   private static final Log LOG = LogFactory.getLog(HashShuffleFileWriteExec.class);
@@ -66,12 +81,26 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   private final int numShuffleOutputs;
   private final int[] shuffleKeyIds;
   private final HashShuffleAppenderManager hashShuffleAppenderManager;
+  // null if all partitions are written locally
+  private final ShufflePusher shufflePusher;
   private final int maxBufferSize;
   private final int bufferThreshold;
   private final int initialBufferSize;
   private final DataType[] dataTypes;
 
+  // runtime join filter over the shuffle keys. It is either built from the output or applied to the output.
+  private final Tuple keyTuple;
+  private BloomFilter runtimeJoinFilter;
+  private boolean buildRuntimeJoinFilter;
+
   private final Map<Integer, MemoryRowBlock> partitionMemoryMap;
+  // cleared row blocks to be reused by the next partitions
+  private final Deque<MemoryRowBlock> freeBlocks = new ArrayDeque<>();
+  // the writes of the last flush, their row blocks, and whether the blocks are released after being written.
+  // The blocks are kept until the writes complete, so that they are released even if the writes fail.
+  private final List<Future<List<MemoryRowBlock>>> pendingWrites = new ArrayList<>();
+  private final List<MemoryRowBlock> pendingBlocks = new ArrayList<>();
+  private boolean pendingRelease;
   private long writtenBytes = 0;
   private long usedBufferSize = 0;
   private long totalBufferCapacity = 0;
@@ -86,6 +115,11 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     } else {
       this.meta = CatalogUtil.newTableMeta(plan.getStorageType(), context.getConf());
     }
+    // The consumer tasks decompress the shuffle data by the same session variable. See TaskImpl.
+    String compressionCodec = context.getQueryContext().getTrimmed(SessionVars.HASH_SHUFFLE_COMPRESSION_CODEC);
+    if (!StringUtils.isEmpty(compressionCodec)) {
+      this.meta.putProperty(StorageConstants.COMPRESSION_CODEC, compressionCodec);
+    }
     // about the shuffle
     this.numShuffleOutputs = this.plan.getNumOutputs();
     int i = 0;
@@ -96,9 +130,13 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     }
     this.partitioner = new HashPartitioner(shuffleKeyIds, numShuffleOutputs);
     this.hashShuffleAppenderManager = context.getHashShuffleAppenderManager();
+    this.shufflePusher = context.getShufflePusher();
     this.maxBufferSize = context.getQueryContext().getInt(SessionVars.HASH_SHUFFLE_BUFFER_SIZE) * StorageUnit.MB;
     this.bufferThreshold = (int) (maxBufferSize * BUFFER_THRESHOLD_FACTOR);
     this.dataTypes = SchemaUtil.toDataTypes(outSchema);
+    if (shufflePusher != null) {
+      shufflePusher.init(meta, outSchema);
+    }
 
     if(numShuffleOutputs > 0){
       //calculate initial buffer by total partition. a buffer size will be 4Kb ~ 1MB
@@ -109,6 +147,34 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     }
 
     this.partitionMemoryMap = Maps.newHashMap();
+    this.keyTuple = new VTuple(shuffleKeyIds.length);
+    initRuntimeJoinFilter(context.getEnforcer());
+  }
+
+  private void initRuntimeJoinFilter(Enforcer enforcer) {
+    if (enforcer == null || !enforcer.hasEnforceProperty(EnforceType.RUNTIME_JOIN_FILTER)) {
+      return;
+    }
+    List<EnforceProperty> properties = enforcer.getEnforceProperties(EnforceType.RUNTIME_JOIN_FILTER);
+    RuntimeJoinFilterEnforce enforce = properties.get(0).getRuntimeJoinFilter();
+    if (enforce.hasBloomFilter()) {
+      runtimeJoinFilter = new BloomFilter(enforce.getBloomFilter().toByteArray(), enforce.getNumHashes());
+      buildRuntimeJoinFilter = false;
+    } else {
+      runtimeJoinFilter = new BloomFilter(enforce.getNumBits(), enforce.getNumHashes());
+      buildRuntimeJoinFilter = true;
+    }
+  }
+
+  /**
+   * It must be the same hash of shuffle keys as {@link HashPartitioner} so that
+   * the join keys of both sides are compared in the same way.
+   */
+  private int getShuffleKeyHash(Tuple tuple) {
+    for (int i = 0; i < shuffleKeyIds.length; i++) {
+      keyTuple.put(i, tuple.asDatum(shuffleKeyIds[i]));
+    }
+    return keyTuple.hashCode();
   }
 
   @Override
@@ -124,12 +190,23 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
       long numRows = 0;
       while (!context.isStopped() && (tuple = child.next()) != null) {
 
+        if (runtimeJoinFilter != null) {
+          if (buildRuntimeJoinFilter) {
+            runtimeJoinFilter.add(getShuffleKeyHash(tuple));
+          } else if (!runtimeJoinFilter.mightContain(getShuffleKeyHash(tuple))) {
+            continue;
+          }
+        }
+
         partId = partitioner.getPartition(tuple);
         MemoryRowBlock rowBlock = partitionMemoryMap.get(partId);
         if (rowBlock == null) {
-          rowBlock = new MemoryRowBlock(dataTypes, initialBufferSize, true, plan.getStorageType());
+          rowBlock = freeBlocks.pollFirst();
+          if (rowBlock == null) {
+            rowBlock = new MemoryRowBlock(dataTypes, initialBufferSize, true, plan.getStorageType());
+            totalBufferCapacity += rowBlock.capacity();
+          }
           partitionMemoryMap.put(partId, rowBlock);
-          totalBufferCapacity += rowBlock.capacity();
         }
 
         RowWriter writer = rowBlock.getWriter();
@@ -167,6 +244,7 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
 
       // flush remaining buffers
       flushBuffer(partitionMemoryMap, true);
+      waitForPendingWrites();
 
       writtenBytes += usedBufferSize;
       usedBufferSize = totalBufferCapacity = 0;
@@ -174,6 +252,9 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
       aggregated.setNumBytes(writtenBytes);
       aggregated.setNumRows(numRows);
       context.setResultStats(aggregated);
+      if (buildRuntimeJoinFilter) {
+        context.setRuntimeJoinFilter(runtimeJoinFilter);
+      }
 
       return null;
     } catch (RuntimeException e) {
@@ -186,44 +267,92 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   }
 
   /**
-   * flush all buffer to local storage
+   * flush all buffer to local storage, or push them to the merger workers of the partitions.
+   * The local writes are not waited for. They are waited for by the next flush.
    */
   private void flushBuffer(Map<Integer, MemoryRowBlock> partitionMemoryMap, boolean releaseBuffer)
       throws IOException, ExecutionException, InterruptedException {
-    List<Future<MemoryRowBlock>> resultList = Lists.newArrayList();
-    ArrayList<Integer> unusedBuffer = Lists.newArrayList();
+    // back-pressure: the blocks of the previous flush must be written before the next flush
+    waitForPendingWrites();
 
-    for (Map.Entry<Integer, MemoryRowBlock> entry : partitionMemoryMap.entrySet()) {
+    Map<Integer, MemoryRowBlock> localBlocks = Maps.newHashMap();
+    Iterator<Map.Entry<Integer, MemoryRowBlock>> it = partitionMemoryMap.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Integer, MemoryRowBlock> entry = it.next();
       int appendPartId = entry.getKey();
 
       MemoryRowBlock memoryRowBlock = entry.getValue();
       if (memoryRowBlock.getMemory().isReadable()) {
-        //flush and release buffer
-        resultList.add(hashShuffleAppenderManager.
-            writePartitions(meta, outSchema, context.getTaskId(), appendPartId, memoryRowBlock, releaseBuffer));
-      } else {
-        if (releaseBuffer) {
-          memoryRowBlock.release();
-        } else {
-          unusedBuffer.add(appendPartId);
+        if (shufflePusher != null && !shufflePusher.isLocal(appendPartId)) {
+          shufflePusher.add(appendPartId, memoryRowBlock, releaseBuffer);
+          continue;
         }
+        localBlocks.put(appendPartId, memoryRowBlock);
+        totalBufferCapacity -= memoryRowBlock.capacity();
+      } else if (releaseBuffer) {
+        memoryRowBlock.release();
+      } else {
+        // reuse the unused buffer for other partitions
+        freeBlocks.addLast(memoryRowBlock);
       }
+      it.remove();
+    }
+
+    // write all local partitions by a request per volume
+    if (!localBlocks.isEmpty()) {
+      pendingBlocks.addAll(localBlocks.values());
+      pendingRelease = releaseBuffer;
+      pendingWrites.addAll(hashShuffleAppenderManager.
+          writePartitions(meta, outSchema, context.getTaskId(), localBlocks, false));
     }
 
-    // wait for flush to storage
-    for (Future<MemoryRowBlock> future : resultList) {
-      future.get();
+    // wait for the mergers
+    if (shufflePusher != null) {
+      shufflePusher.flush();
     }
 
     if (releaseBuffer) {
+      for (MemoryRowBlock rowBlock : freeBlocks) {
+        rowBlock.release();
+      }
+      freeBlocks.clear();
       partitionMemoryMap.clear();
-    } else {
-      // release the unused partition
-      for (Integer id : unusedBuffer) {
-        MemoryRowBlock memoryRowBlock = partitionMemoryMap.remove(id);
-        memoryRowBlock.release();
+    }
+  }
+
+  /**
+   * Wait for the writes of the last flush. The written blocks are released or returned to the free blocks.
+   * If any write fails, all blocks of the flush are released after the other writes complete.
+   * If interrupted, the writes are kept pending so that {@link #close()} waits for them again.
+   */
+  private void waitForPendingWrites() throws ExecutionException, InterruptedException {
+    ExecutionException failure = null;
+    for (Future<List<MemoryRowBlock>> future : pendingWrites) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
       }
     }
+
+    for (MemoryRowBlock rowBlock : pendingBlocks) {
+      if (pendingRelease || failure != null) {
+        rowBlock.release();
+      } else {
+        freeBlocks.addLast(rowBlock);
+        totalBufferCapacity += rowBlock.capacity();
+      }
+    }
+    pendingBlocks.clear();
+    pendingWrites.clear();
+
+    if (failure != null) {
+      throw failure;
+    }
   }
 
   @Override
@@ -233,6 +362,16 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
 
   @Override
   public void close() throws IOException{
+    try {
+      waitForPendingWrites();
+    } catch (Throwable e) {
+      LOG.warn("Failed to write the shuffle data: " + e.getMessage(), e);
+    }
+    for (RowBlock rowBlock : freeBlocks) {
+      rowBlock.release();
+    }
+    freeBlocks.clear();
+
     if (partitionMemoryMap.size() > 0) {
       for (RowBlock rowBlock : partitionMemoryMap.values()) {
         rowBlock.release();
@@ -26,16 +26,23 @@ import org.apache.tajo.catalog.SchemaObject;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.engine.codegen.CompilationError;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.worker.MemoryConsumer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
 import java.util.UUID;
 
-public abstract class PhysicalExec implements SchemaObject {
+public abstract class PhysicalExec implements SchemaObject, MemoryConsumer {
+  /** the minimum size of each memory reservation, which avoids a reservation per tuple */
+  protected static final long MEMORY_RESERVATION_UNIT = 4 * StorageUnit.MB;
+
   protected final TaskAttemptContext context;
   protected Schema inSchema;
   protected Schema outSchema;
   protected int outColumnNum;
+  /** the memory reserved from the task memory context */
+  private long reservedMemory;
 
   public PhysicalExec(final TaskAttemptContext context, final Schema inSchema,
                       final Schema outSchema) {
@@ -90,4 +97,64 @@ public abstract class PhysicalExec implements SchemaObject {
   public TableStats getInputStats() {
     return null;
   }
+
+  @Override
+  public long getReservedMemory() {
+    return reservedMemory;
+  }
+
+  /**
+   * An operator keeping a lot of data in memory should override it if it can spill the data while running.
+   */
+  @Override
+  public long spill() throws IOException {
+    return 0;
+  }
+
+  /**
+   * Make the memory reserved by this operator cover the given size. The memory is reserved by
+   * {@link #MEMORY_RESERVATION_UNIT} at least, so it is cheap to call it whenever the data size grows.
+   *
+   * @param usedBytes The memory size which this operator is using
+   * @return False if the memory is not available. Then, the operator should spill its data.
+   */
+  protected boolean reserveMemory(long usedBytes) throws IOException {
+    // too small data is kept in memory rather than spilled into many tiny files
+    return reserveMemory(usedBytes, usedBytes < MEMORY_RESERVATION_UNIT);
+  }
+
+  /**
+   * @param usedBytes The memory size which this operator is using
+   * @param force If true, the memory is reserved even if the worker memory is exhausted.
+   *              It is used by an operator which cannot spill its data.
+   * @return False if the memory is not available
+   */
+  protected boolean reserveMemory(long usedBytes, boolean force) throws IOException {
+    if (usedBytes <= reservedMemory) {
+      return true;
+    }
+    long request = Math.max(usedBytes - reservedMemory, MEMORY_RESERVATION_UNIT);
+    if (context.getMemoryContext().reserve(this, request, force)) {
+      reservedMemory += request;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Release the reserved memory.
+   *
+   * @param bytes The memory size to be released
+   */
+  protected void releaseMemory(long bytes) {
+    long released = Math.min(bytes, reservedMemory);
+    if (released > 0) {
+      context.getMemoryContext().release(this, released);
+      reservedMemory -= released;
+    }
+  }
+
+  protected void releaseMemory() {
+    releaseMemory(reservedMemory);
+  }
 }
@@ -18,6 +18,8 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -29,7 +31,10 @@ import org.apache.tajo.catalog.TableDesc;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.codegen.CompiledPipeline;
+import org.apache.tajo.engine.codegen.PipelineFragment;
 import org.apache.tajo.engine.planner.PhysicalPlanningException;
+import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.logical.NodeType;
@@ -42,20 +47,73 @@ import org.apache.tajo.storage.TupleComparator;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
+import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.Stack;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class PhysicalPlanUtil {
+  private static final Log LOG = LogFactory.getLog(PhysicalPlanUtil.class);
+
   public static <T extends PhysicalExec> T findExecutor(PhysicalExec plan, Class<? extends PhysicalExec> clazz)
       throws PhysicalPlanningException {
     return (T) new FindVisitor().visit(plan, new Stack<>(), clazz);
   }
 
+  /**
+   * Compile the chain of {@link SelectionExec} and {@link ProjectionExec} under a pipeline breaker into a single
+   * {@link CompiledPipeline}. The executors should be initialized in advance, and they are still responsible for
+   * rescan, close and statistics. The source of the chain, such as {@link SeqScanExec}, is called through its
+   * next(). So, it still applies its own qual, projection and limit, and it keeps reporting the progress.
+   *
+   * @param context task attempt context
+   * @param exec the child executor of a pipeline breaker
+   * @return a compiled pipeline, or null if there is nothing to fuse or the compilation fails
+   */
+  public static CompiledPipeline compilePipeline(TaskAttemptContext context, PhysicalExec exec) {
+    // stages are found from the top, but they are applied from the bottom.
+    Deque<Object> stages = new ArrayDeque<>();
+    PhysicalExec current = exec;
+    PipelineFragment fragment = null;
+
+    while (fragment == null) {
+      if (current instanceof SelectionExec) {
+        stages.push(((SelectionExec) current).getQual());
+        current = ((SelectionExec) current).getChild();
+      } else if (current instanceof ProjectionExec) {
+        stages.push(((ProjectionExec) current).getProjector());
+        current = ((ProjectionExec) current).getChild();
+      } else {
+        fragment = PipelineFragment.fromExec(current);
+      }
+    }
+
+    for (Object stage : stages) {
+      if (stage instanceof EvalNode) {
+        fragment.filter((EvalNode) stage);
+      } else {
+        fragment.project((Projector) stage);
+      }
+    }
+
+    if (!fragment.hasStages()) {
+      return null;
+    }
+
+    try {
+      return context.compilePipeline(fragment);
+    } catch (Throwable t) {
+      LOG.warn("Pipeline compilation is failed, so it will be interpreted: " + fragment, t);
+      return null;
+    }
+  }
+
   public static TupleComparator [] getComparatorsFromJoinQual(EvalNode joinQual, Schema leftSchema, Schema rightSchema) {
     SortSpec[][] sortSpecs = PlannerUtil.getSortKeysFromJoinQual(joinQual, leftSchema, rightSchema);
     BaseTupleComparator[] comparators = new BaseTupleComparator[2];
@@ -22,17 +22,25 @@
 package org.apache.tajo.engine.planner.physical;
 
 import org.apache.tajo.engine.planner.Projector;
+import org.apache.tajo.plan.Target;
+import org.apache.tajo.plan.expr.EvalType;
 import org.apache.tajo.plan.logical.Projectable;
+import org.apache.tajo.storage.ColumnBatch;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
 
-public class ProjectionExec extends UnaryPhysicalExec {
+public class ProjectionExec extends UnaryPhysicalExec implements VectorizedExec {
   private Projectable plan;
 
   // for projection
   private Projector projector;
+
+  // for vectorized execution. Only column references are projected over batches.
+  private int[] projectedColumnIds;
+  private ColumnBatch childBatch;
+  private ColumnBatch outBatch;
   
   public ProjectionExec(TaskAttemptContext context, Projectable plan,
       PhysicalExec child) {
@@ -44,6 +52,50 @@ public class ProjectionExec extends UnaryPhysicalExec {
     super.init();
 
     this.projector = new Projector(context, inSchema, outSchema, this.plan.getTargets());
+
+    if (child instanceof VectorizedExec && ((VectorizedExec) child).isBatchAvailable()) {
+      projectedColumnIds = getProjectedColumnIds();
+    }
+  }
+
+  /**
+   * @return the column indexes of targets if all targets are column references. Otherwise, null.
+   */
+  private int[] getProjectedColumnIds() {
+    int[] columnIds = new int[plan.getTargets().size()];
+    for (int i = 0; i < columnIds.length; i++) {
+      Target target = plan.getTargets().get(i);
+      if (target.getEvalTree().getType() != EvalType.FIELD
+          || (columnIds[i] = VectorizedFilter.getColumnId(inSchema, target.getEvalTree())) < 0) {
+        return null;
+      }
+    }
+    return columnIds;
+  }
+
+  public Projector getProjector() {
+    return projector;
+  }
+
+  @Override
+  public boolean isBatchAvailable() {
+    return projectedColumnIds != null;
+  }
+
+  @Override
+  public ColumnBatch nextBatch() throws IOException {
+    ColumnBatch batch = ((VectorizedExec) child).nextBatch();
+    if (batch == null) {
+      return null;
+    }
+
+    // a child usually reuses the same batch, so the projected batch sharing its vectors is also reused.
+    if (batch != childBatch) {
+      childBatch = batch;
+      outBatch = batch.project(outSchema, projectedColumnIds);
+    }
+    batch.copySelectionTo(outBatch);
+    return outBatch;
   }
 
   @Override
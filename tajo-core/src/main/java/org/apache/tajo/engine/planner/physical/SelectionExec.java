@@ -21,13 +21,15 @@ package org.apache.tajo.engine.planner.physical;
 import org.apache.tajo.engine.codegen.CompilationError;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.logical.SelectionNode;
+import org.apache.tajo.storage.ColumnBatch;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
 
-public class SelectionExec extends UnaryPhysicalExec  {
+public class SelectionExec extends UnaryPhysicalExec implements VectorizedExec {
   private EvalNode qual;
+  private VectorizedFilter batchFilter;
 
   public SelectionExec(TaskAttemptContext context,
                        SelectionNode plan,
@@ -47,6 +49,31 @@ public class SelectionExec extends UnaryPhysicalExec  {
     qual = context.getPrecompiledEval(inSchema, qual);
   }
 
+  public EvalNode getQual() {
+    return qual;
+  }
+
+  @Override
+  public boolean isBatchAvailable() {
+    return child instanceof VectorizedExec && ((VectorizedExec) child).isBatchAvailable();
+  }
+
+  @Override
+  public ColumnBatch nextBatch() throws IOException {
+    ColumnBatch batch;
+    while (!context.isStopped() && (batch = ((VectorizedExec) child).nextBatch()) != null) {
+      if (batchFilter == null) {
+        batchFilter = new VectorizedFilter(qual, inSchema, batch.getCapacity());
+      }
+      batchFilter.filter(batch);
+      if (batch.getSelectedNum() > 0) {
+        return batch;
+      }
+    }
+
+    return null;
+  }
+
   @Override
   public Tuple next() throws IOException {
     Tuple tuple;
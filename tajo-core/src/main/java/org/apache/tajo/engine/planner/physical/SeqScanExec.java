@@ -19,6 +19,7 @@
 package org.apache.tajo.engine.planner.physical;
 
 import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.*;
 import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
@@ -31,6 +32,7 @@ import org.apache.tajo.plan.Target;
 import org.apache.tajo.plan.expr.ConstEval;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.expr.EvalTreeUtil;
+import org.apache.tajo.plan.expr.EvalType;
 import org.apache.tajo.plan.expr.FieldEval;
 import org.apache.tajo.plan.logical.ScanNode;
 import org.apache.tajo.plan.rewrite.rules.PartitionedTableRewriter;
@@ -39,13 +41,15 @@ import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.Scanner;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
+import org.apache.tajo.worker.FetchedDataQueue;
+import org.apache.tajo.worker.FetchedDataScanner;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
 import java.util.*;
 
 
-public class SeqScanExec extends ScanExec {
+public class SeqScanExec extends ScanExec implements VectorizedExec {
   private ScanNode plan;
 
   private Scanner scanner = null;
@@ -63,6 +67,18 @@ public class SeqScanExec extends ScanExec {
 
   private boolean needProjection;
 
+  // for vectorized execution
+  /**
+   * true only if the scanner fills batches directly. Filling batches with the tuples of next() would only
+   * add a copy per row, so the other scanners are consumed through next().
+   */
+  private boolean batchAvailable;
+  private ColumnBatch scanBatch;
+  private ColumnBatch outBatch;
+  private VectorizedFilter batchFilter;
+
+  private FetchedDataQueue fetchedDataQueue;
+
   public SeqScanExec(TaskAttemptContext context, ScanNode plan,
                      CatalogProtos.FragmentProto [] fragments) throws IOException {
     super(context, plan.getInSchema(), plan.getOutSchema());
@@ -183,7 +199,10 @@ public class SeqScanExec extends ScanExec {
 
     // Why we should check nullity? See https://issues.apache.org/jira/browse/TAJO-1422
 
-    if (fragments == null) {
+    // the fetched data are streamed into this scan instead of being localized as fragments
+    fetchedDataQueue = context.getFetchedDataQueue(plan.getCanonicalName());
+
+    if (fragments == null && fetchedDataQueue == null) {
       scanIt = new EmptyScanIterator();
 
     } else {
@@ -210,11 +229,48 @@ public class SeqScanExec extends ScanExec {
       }
 
       initScanIterator();
+
+      if (context.getQueryContext().getBool(SessionVars.VECTORIZED_EXECUTION_ENABLED)) {
+        initBatch(actualInSchema);
+      }
     }
 
     super.init();
   }
 
+  private void initBatch(Schema actualInSchema) {
+    int batchSize = context.getQueryContext().getInt(SessionVars.VECTORIZED_BATCH_SIZE);
+    int[] projectedColumnIds = needProjection ? getProjectedColumnIds(actualInSchema) : null;
+
+    batchAvailable = scanner instanceof BatchScanner && !scanner.isSelectable()
+        && (!needProjection || projectedColumnIds != null);
+    if (batchAvailable) {
+      scanBatch = new ColumnBatch(actualInSchema, batchSize);
+      outBatch = needProjection ? scanBatch.project(outSchema, projectedColumnIds) : scanBatch;
+      if (plan.hasQual()) {
+        batchFilter = new VectorizedFilter(qual, actualInSchema, batchSize);
+      }
+    }
+  }
+
+  /**
+   * @return the column indexes of targets if all targets are column references. Otherwise, null.
+   */
+  private int[] getProjectedColumnIds(Schema actualInSchema) {
+    if (plan.getTargets() == null || plan.getTargets().size() != outSchema.size()) {
+      return null;
+    }
+    int[] columnIds = new int[outSchema.size()];
+    for (int i = 0; i < columnIds.length; i++) {
+      EvalNode eval = plan.getTargets().get(i).getEvalTree();
+      if (eval.getType() != EvalType.FIELD
+          || (columnIds[i] = VectorizedFilter.getColumnId(actualInSchema, eval)) < 0) {
+        return null;
+      }
+    }
+    return columnIds;
+  }
+
   protected void initializeProjector(Schema actualInSchema){
     List<Target> realTargets;
     if (plan.getTargets() == null) {
@@ -253,7 +309,10 @@ public class SeqScanExec extends ScanExec {
 
   @Override
   protected void compile() throws CompilationError {
-    if (plan.hasQual()) {
+    // A selectable scanner, such as the text scanner with late materialization, was already given the
+    // interpreted qual in initScanner() and evaluates it against its output tuples. The precompiled qual,
+    // which is compiled against the input schema, would never be used for it.
+    if (plan.hasQual() && (scanner == null || !scanner.isSelectable())) {
       qual = context.getPrecompiledEval(inSchema, qual);
     }
   }
@@ -262,7 +321,11 @@ public class SeqScanExec extends ScanExec {
     TableDesc table = plan.getTableDesc();
     TableMeta meta = table.getMeta();
 
-    if (fragments.length > 1) {
+    if (fetchedDataQueue != null) {
+
+      this.scanner = new FetchedDataScanner(context.getConf(), plan.getPhysicalSchema(), meta, fetchedDataQueue);
+
+    } else if (fragments.length > 1) {
 
       this.scanner = new MergeScanner(
           context.getConf(),
@@ -283,6 +346,9 @@ public class SeqScanExec extends ScanExec {
 
     if (scanner.isSelectable()) { // TODO - isSelectable should be moved to FormatProperty
       scanner.setFilter(qual);
+    } else if (plan.hasQual() && scanner instanceof BlockSkippingScanner) {
+      // the original qual is given because a precompiled one cannot be inspected
+      ((BlockSkippingScanner) scanner).setSkippingFilter(plan.getQual());
     }
 
     if (plan.hasLimit()) {
@@ -306,6 +372,28 @@ public class SeqScanExec extends ScanExec {
     return null;
   }
 
+  @Override
+  public boolean isBatchAvailable() {
+    return batchAvailable;
+  }
+
+  @Override
+  public ColumnBatch nextBatch() throws IOException {
+    BatchScanner batchScanner = (BatchScanner) scanner;
+    while (batchScanner.nextBatch(scanBatch)) {
+      if (batchFilter != null) {
+        batchFilter.filter(scanBatch);
+      }
+      if (scanBatch.getSelectedNum() > 0) {
+        if (outBatch != scanBatch) {
+          scanBatch.copySelectionTo(outBatch);
+        }
+        return outBatch;
+      }
+    }
+    return null;
+  }
+
   @Override
   public void rescan() throws IOException {
     scanner.reset();
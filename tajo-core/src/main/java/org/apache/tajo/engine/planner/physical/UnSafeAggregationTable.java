@@ -0,0 +1,605 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.datum.ProtobufDatum;
+import org.apache.tajo.engine.function.builtin.*;
+import org.apache.tajo.function.Function;
+import org.apache.tajo.plan.expr.AggregationFunctionCallEval;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.function.FunctionContext;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.tuple.memory.*;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.Deallocatable;
+import org.apache.tajo.util.SizeOf;
+import org.apache.tajo.util.UnsafeUtil;
+import sun.misc.Unsafe;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.tajo.InternalTypes.AvgDoubleProto;
+import static org.apache.tajo.InternalTypes.AvgLongProto;
+
+/**
+ * UnSafeAggregationTable is an open-addressing hash table for hash aggregation.
+ *
+ * Unlike {@link TupleMap}, it does not keep a cloned {@link KeyTuple} and an array of {@link FunctionContext}
+ * per group. Grouping keys are serialized into off-heap {@link MemoryRowBlock} pages, and the buckets only keep
+ * primitive group ids. The states of count, sum, min, max and avg are laid out in place as fixed-width slots
+ * of off-heap state pages, so that those functions are aggregated without any per-group object allocation.
+ * The other aggregation functions fall back to {@link FunctionContext}.
+ *
+ * This instance must be released.
+ */
+public class UnSafeAggregationTable implements Deallocatable {
+  private static final Unsafe UNSAFE = UnsafeUtil.unsafe;
+
+  private static final int EMPTY_BUCKET = -1;
+  private static final float LOAD_FACTOR = 0.75f;
+  /** a fixed-width state consists of a value (8 bytes) and a count or non-null flag (8 bytes) */
+  private static final int STATE_SLOT_SIZE = SizeOf.SIZE_OF_LONG * 2;
+
+  enum StateKind {
+    COUNT_ROWS,
+    COUNT_VALUE,
+    SUM_LONG,
+    SUM_DOUBLE,
+    MIN_LONG,
+    MIN_DOUBLE,
+    MAX_LONG,
+    MAX_DOUBLE,
+    AVG_LONG,
+    AVG_DOUBLE
+  }
+
+  private static final Map<Class<? extends Function>, StateKind> FIXED_WIDTH_FUNCTIONS =
+      ImmutableMap.<Class<? extends Function>, StateKind>builder()
+          .put(CountRows.class, StateKind.COUNT_ROWS)
+          .put(CountValue.class, StateKind.COUNT_VALUE)
+          .put(SumInt.class, StateKind.SUM_LONG)
+          .put(SumLong.class, StateKind.SUM_LONG)
+          .put(SumFloat.class, StateKind.SUM_DOUBLE)
+          .put(SumDouble.class, StateKind.SUM_DOUBLE)
+          .put(MinInt.class, StateKind.MIN_LONG)
+          .put(MinLong.class, StateKind.MIN_LONG)
+          .put(MinDate.class, StateKind.MIN_LONG)
+          .put(MinTime.class, StateKind.MIN_LONG)
+          .put(MinTimestamp.class, StateKind.MIN_LONG)
+          .put(MinFloat.class, StateKind.MIN_DOUBLE)
+          .put(MinDouble.class, StateKind.MIN_DOUBLE)
+          .put(MaxInt.class, StateKind.MAX_LONG)
+          .put(MaxLong.class, StateKind.MAX_LONG)
+          .put(MaxDate.class, StateKind.MAX_LONG)
+          .put(MaxTime.class, StateKind.MAX_LONG)
+          .put(MaxTimestamp.class, StateKind.MAX_LONG)
+          .put(MaxFloat.class, StateKind.MAX_DOUBLE)
+          .put(MaxDouble.class, StateKind.MAX_DOUBLE)
+          .put(AvgInt.class, StateKind.AVG_LONG)
+          .put(AvgLong.class, StateKind.AVG_LONG)
+          .put(AvgFloat.class, StateKind.AVG_DOUBLE)
+          .put(AvgDouble.class, StateKind.AVG_DOUBLE)
+          .build();
+
+  private final DataType[] keyTypes;
+  private final int keyNum;
+  private final List<AggregationFunctionCallEval> aggFunctions;
+  private final int aggFunctionsNum;
+  private final int pageSize;
+  private final int hashSeed;
+
+  // fixed-width states (a null kind means that the function uses a FunctionContext)
+  private final StateKind[] stateKinds;
+  private final int[] stateOffsets;
+  private final int stateWidth;
+  private final int groupsPerStatePage;
+  private final boolean hasContextStates;
+
+  // memory pages
+  private final MemoryRowBlock keyBuffer;
+  private final List<MemoryRowBlock> keyPages = Lists.newArrayList();
+  private MemoryRowBlock currentKeyPage;
+  private final List<MemoryBlock> statePages = Lists.newArrayList();
+  private final List<FunctionContext[]> contextStates = Lists.newArrayList();
+
+  // buckets and per-group metadata
+  private int[] buckets;
+  private int bucketMask;
+  private int resizeThreshold;
+  private int[] groupHashes;
+  private int[] keyPageIds;
+  private int[] keyOffsets;
+  private int groupNum;
+  private int lastKeyHash;
+
+  private final UnSafeTuple keyTuple = new UnSafeTuple();
+
+  public UnSafeAggregationTable(Column[] keyColumns, List<AggregationFunctionCallEval> aggFunctions,
+                                int initialCapacity) {
+    this(keyColumns, aggFunctions, initialCapacity, StorageUnit.MB, 1);
+  }
+
+  /**
+   * @param hashSeed The seed of the key hash. Tables having different seeds distribute the same keys differently.
+   */
+  public UnSafeAggregationTable(Column[] keyColumns, List<AggregationFunctionCallEval> aggFunctions,
+                                int initialCapacity, int pageSize, int hashSeed) {
+    this.keyNum = keyColumns.length;
+    this.keyTypes = new DataType[keyNum];
+    for (int i = 0; i < keyNum; i++) {
+      keyTypes[i] = keyColumns[i].getDataType();
+    }
+    this.aggFunctions = aggFunctions;
+    this.aggFunctionsNum = aggFunctions.size();
+    this.pageSize = pageSize;
+    this.hashSeed = hashSeed;
+
+    this.stateKinds = new StateKind[aggFunctionsNum];
+    this.stateOffsets = new int[aggFunctionsNum];
+    int width = 0;
+    boolean contextStateExists = false;
+    for (int i = 0; i < aggFunctionsNum; i++) {
+      stateKinds[i] = getFixedWidthStateKind(aggFunctions.get(i));
+      if (stateKinds[i] != null) {
+        stateOffsets[i] = width;
+        width += STATE_SLOT_SIZE;
+      } else {
+        stateOffsets[i] = -1;
+        contextStateExists = true;
+      }
+    }
+    this.stateWidth = width;
+    this.groupsPerStatePage = width > 0 ? Math.max(1, pageSize / width) : 0;
+    this.hasContextStates = contextStateExists;
+
+    this.keyBuffer = new MemoryRowBlock(keyTypes);
+    this.currentKeyPage = newKeyPage(pageSize);
+
+    int capacity = Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 1;
+    initBuckets(capacity);
+    this.groupHashes = new int[capacity];
+    this.keyPageIds = new int[capacity];
+    this.keyOffsets = new int[capacity];
+  }
+
+  /**
+   * Return the kind of fixed-width state if the function can be aggregated in place.
+   *
+   * @return a state kind or null if the function requires its own FunctionContext
+   */
+  static StateKind getFixedWidthStateKind(AggregationFunctionCallEval aggFunction) {
+    if (aggFunction.isDistinct() || !aggFunction.getFuncDesc().getInvocation().hasLegacy()) {
+      return null;
+    }
+    StateKind kind = FIXED_WIDTH_FUNCTIONS.get(aggFunction.getFuncDesc().getLegacyFuncClass());
+    if (kind == null || (kind != StateKind.COUNT_ROWS && aggFunction.getArgs().length != 1)) {
+      return null;
+    }
+    return kind;
+  }
+
+  /**
+   * @return true if every function of this table is aggregated in fixed-width states.
+   */
+  public boolean isFixedWidthOnly() {
+    return !hasContextStates;
+  }
+
+  public int size() {
+    return groupNum;
+  }
+
+  /**
+   * Approximated bytes of memory held by this table. The memory of function contexts used for
+   * non-fixed-width states is not included.
+   */
+  public long usedMem() {
+    long used = (long) keyPages.size() * pageSize + (long) statePages.size() * groupsPerStatePage * stateWidth;
+    used += (long) buckets.length * SizeOf.SIZE_OF_INT + (long) groupHashes.length * SizeOf.SIZE_OF_INT * 3;
+    return used;
+  }
+
+  /**
+   * Find the group of the given key. If the key occurs firstly, a new group is added with initial states.
+   *
+   * @param key The grouping key
+   * @return The id of the group
+   */
+  public int findOrAddGroup(Tuple key) {
+    return lookup(key, true);
+  }
+
+  /**
+   * Find the group of the given key without adding a new group.
+   *
+   * @param key The grouping key
+   * @return The id of the group, or -1 if the key does not exist in this table
+   */
+  public int findGroup(Tuple key) {
+    return lookup(key, false);
+  }
+
+  /**
+   * @return The hash value of the key most recently looked up
+   */
+  public int getLastKeyHash() {
+    return lastKeyHash;
+  }
+
+  private int lookup(Tuple key, boolean addIfAbsent) {
+    keyBuffer.clear();
+    keyBuffer.getWriter().addTuple(key);
+    long keyAddr = keyBuffer.getMemory().address();
+    int keyLength = keyBuffer.getMemory().writerPosition();
+    int hash = hashBytes(keyAddr, keyLength, hashSeed);
+    lastKeyHash = hash;
+
+    int bucket = hash & bucketMask;
+    while (true) {
+      int groupId = buckets[bucket];
+      if (groupId == EMPTY_BUCKET) {
+        if (!addIfAbsent) {
+          return -1;
+        }
+        groupId = addGroup(keyAddr, keyLength, hash);
+        buckets[bucket] = groupId;
+        if (groupNum > resizeThreshold) {
+          rehash(buckets.length << 1);
+        }
+        return groupId;
+      }
+
+      if (groupHashes[groupId] == hash && equalBytes(getKeyAddress(groupId), keyAddr, keyLength)) {
+        return groupId;
+      }
+      bucket = (bucket + 1) & bucketMask;
+    }
+  }
+
+  /**
+   * Merge an input tuple into the states of the given group.
+   */
+  public void aggregate(int groupId, Tuple tuple) {
+    long stateAddr = getStateAddress(groupId);
+    FunctionContext[] contexts = hasContextStates ? contextStates.get(groupId) : null;
+
+    for (int i = 0; i < aggFunctionsNum; i++) {
+      if (stateKinds[i] == null) {
+        aggFunctions.get(i).merge(contexts[i], tuple);
+      } else {
+        mergeFixedWidthState(aggFunctions.get(i), stateKinds[i], stateAddr + stateOffsets[i], tuple);
+      }
+    }
+  }
+
+  /**
+   * Write the grouping key and the aggregation results of the given group into an output tuple.
+   * The grouping key comes first, and the results follow it.
+   */
+  public void getGroup(int groupId, Tuple outTuple) {
+    keyTuple.set(keyPages.get(keyPageIds[groupId]).getMemory(), keyOffsets[groupId], keyTypes);
+
+    int tupleIdx = 0;
+    for (; tupleIdx < keyNum; tupleIdx++) {
+      outTuple.put(tupleIdx, keyTuple.asDatum(tupleIdx));
+    }
+
+    long stateAddr = getStateAddress(groupId);
+    FunctionContext[] contexts = hasContextStates ? contextStates.get(groupId) : null;
+    for (int i = 0; i < aggFunctionsNum; i++, tupleIdx++) {
+      if (stateKinds[i] == null) {
+        outTuple.put(tupleIdx, aggFunctions.get(i).terminate(contexts[i]));
+      } else {
+        outTuple.put(tupleIdx, terminateFixedWidthState(aggFunctions.get(i), stateKinds[i],
+            stateAddr + stateOffsets[i]));
+      }
+    }
+  }
+
+  private int addGroup(long keyAddr, int keyLength, int hash) {
+    if (groupNum == groupHashes.length) {
+      int newLength = groupHashes.length << 1;
+      groupHashes = Arrays.copyOf(groupHashes, newLength);
+      keyPageIds = Arrays.copyOf(keyPageIds, newLength);
+      keyOffsets = Arrays.copyOf(keyOffsets, newLength);
+    }
+
+    // copy the serialized key into a key page
+    if (currentKeyPage.getMemory().writableBytes() < keyLength) {
+      currentKeyPage = newKeyPage(Math.max(pageSize, keyLength));
+    }
+    MemoryBlock keyMemory = currentKeyPage.getMemory();
+    int offset = keyMemory.writerPosition();
+    UNSAFE.copyMemory(keyAddr, keyMemory.address() + offset, keyLength);
+    keyMemory.writerPosition(offset + keyLength);
+    currentKeyPage.setRows(currentKeyPage.rows() + 1);
+
+    int groupId = groupNum++;
+    groupHashes[groupId] = hash;
+    keyPageIds[groupId] = keyPages.size() - 1;
+    keyOffsets[groupId] = offset;
+
+    // initialize states
+    if (stateWidth > 0) {
+      if (groupId / groupsPerStatePage == statePages.size()) {
+        statePages.add(new ResizableMemoryBlock(new FixedSizeLimitSpec(groupsPerStatePage * stateWidth), true));
+      }
+      UNSAFE.setMemory(getStateAddress(groupId), stateWidth, (byte) 0);
+    }
+    if (hasContextStates) {
+      FunctionContext[] contexts = new FunctionContext[aggFunctionsNum];
+      for (int i = 0; i < aggFunctionsNum; i++) {
+        if (stateKinds[i] == null) {
+          contexts[i] = aggFunctions.get(i).newContext();
+        }
+      }
+      contextStates.add(contexts);
+    }
+    return groupId;
+  }
+
+  private MemoryRowBlock newKeyPage(int size) {
+    MemoryRowBlock page = new MemoryRowBlock(keyTypes, new FixedSizeLimitSpec(size), true);
+    keyPages.add(page);
+    return page;
+  }
+
+  private long getKeyAddress(int groupId) {
+    return keyPages.get(keyPageIds[groupId]).getMemory().address() + keyOffsets[groupId];
+  }
+
+  private long getStateAddress(int groupId) {
+    if (stateWidth == 0) {
+      return 0;
+    }
+    return statePages.get(groupId / groupsPerStatePage).address()
+        + (long) (groupId % groupsPerStatePage) * stateWidth;
+  }
+
+  private void initBuckets(int capacity) {
+    buckets = new int[capacity];
+    Arrays.fill(buckets, EMPTY_BUCKET);
+    bucketMask = capacity - 1;
+    resizeThreshold = (int) (capacity * LOAD_FACTOR);
+  }
+
+  private void rehash(int newCapacity) {
+    initBuckets(newCapacity);
+    for (int groupId = 0; groupId < groupNum; groupId++) {
+      int bucket = groupHashes[groupId] & bucketMask;
+      while (buckets[bucket] != EMPTY_BUCKET) {
+        bucket = (bucket + 1) & bucketMask;
+      }
+      buckets[bucket] = groupId;
+    }
+  }
+
+  private static void mergeFixedWidthState(AggregationFunctionCallEval func, StateKind kind, long addr,
+                                           Tuple tuple) {
+    if (kind == StateKind.COUNT_ROWS && func.isFirstPhase()) {
+      UNSAFE.putLong(addr, UNSAFE.getLong(addr) + 1);
+      return;
+    }
+
+    EvalNode param = func.getArgs()[0];
+    Datum value = param.eval(tuple);
+    if (value.isNull()) {
+      return;
+    }
+
+    switch (kind) {
+    case COUNT_ROWS:
+    case COUNT_VALUE:
+      UNSAFE.putLong(addr, UNSAFE.getLong(addr) + (func.isFirstPhase() ? 1 : value.asInt8()));
+      break;
+    case SUM_LONG:
+      UNSAFE.putLong(addr, UNSAFE.getLong(addr) + value.asInt8());
+      UNSAFE.putLong(addr + SizeOf.SIZE_OF_LONG, 1);
+      break;
+    case SUM_DOUBLE:
+      UNSAFE.putDouble(addr, UNSAFE.getDouble(addr) + value.asFloat8());
+      UNSAFE.putLong(addr + SizeOf.SIZE_OF_LONG, 1);
+      break;
+    case MIN_LONG:
+    case MAX_LONG: {
+      long val = value.asInt8();
+      if (UNSAFE.getLong(addr + SizeOf.SIZE_OF_LONG) == 0
+          || (kind == StateKind.MIN_LONG ? val < UNSAFE.getLong(addr) : val > UNSAFE.getLong(addr))) {
+        UNSAFE.putLong(addr, val);
+        UNSAFE.putLong(addr + SizeOf.SIZE_OF_LONG, 1);
+      }
+      break;
+    }
+    case MIN_DOUBLE:
+    case MAX_DOUBLE: {
+      double val = value.asFloat8();
+      if (UNSAFE.getLong(addr + SizeOf.SIZE_OF_LONG) == 0
+          || (kind == StateKind.MIN_DOUBLE ? val < UNSAFE.getDouble(addr) : val > UNSAFE.getDouble(addr))) {
+        UNSAFE.putDouble(addr, val);
+        UNSAFE.putLong(addr + SizeOf.SIZE_OF_LONG, 1);
+      }
+      break;
+    }
+    case AVG_LONG:
+      if (func.isFirstPhase()) {
+        UNSAFE.putLong(addr, UNSAFE.getLong(addr) + value.asInt8());
+        UNSAFE.putLong(addr + SizeOf.SIZE_OF_LONG, UNSAFE.getLong(addr + SizeOf.SIZE_OF_LONG) + 1);
+      } else {
+        AvgLongProto proto = (AvgLongProto) ((ProtobufDatum) value).get();
+        UNSAFE.putLong(addr, UNSAFE.getLong(addr) + proto.getSum());
+        UNSAFE.putLong(addr + SizeOf.SIZE_OF_LONG, UNSAFE.getLong(addr + SizeOf.SIZE_OF_LONG) + proto.getCount());
+      }
+      break;
+    case AVG_DOUBLE:
+      if (func.isFirstPhase()) {
+        UNSAFE.putDouble(addr, UNSAFE.getDouble(addr) + value.asFloat8());
+        UNSAFE.putLong(addr + SizeOf.SIZE_OF_LONG, UNSAFE.getLong(addr + SizeOf.SIZE_OF_LONG) + 1);
+      } else {
+        AvgDoubleProto proto = (AvgDoubleProto) ((ProtobufDatum) value).get();
+        UNSAFE.putDouble(addr, UNSAFE.getDouble(addr) + proto.getSum());
+        UNSAFE.putLong(addr + SizeOf.SIZE_OF_LONG, UNSAFE.getLong(addr + SizeOf.SIZE_OF_LONG) + proto.getCount());
+      }
+      break;
+    default:
+      throw new IllegalStateException("Unknown state kind: " + kind);
+    }
+  }
+
+  private static Datum terminateFixedWidthState(AggregationFunctionCallEval func, StateKind kind, long addr) {
+    long value = UNSAFE.getLong(addr);
+    long aux = UNSAFE.getLong(addr + SizeOf.SIZE_OF_LONG);
+
+    switch (kind) {
+    case COUNT_ROWS:
+    case COUNT_VALUE:
+      return DatumFactory.createInt8(value);
+    case SUM_LONG:
+      return aux != 0 ? DatumFactory.createInt8(value) : NullDatum.get();
+    case SUM_DOUBLE:
+      return aux != 0 ? DatumFactory.createFloat8(UNSAFE.getDouble(addr)) : NullDatum.get();
+    case MIN_LONG:
+    case MAX_LONG:
+      if (aux == 0) {
+        return NullDatum.get();
+      }
+      switch (func.getFuncDesc().getReturnType().getType()) {
+      case INT4:
+        return DatumFactory.createInt4((int) value);
+      case DATE:
+        return DatumFactory.createDate((int) value);
+      case TIME:
+        return DatumFactory.createTime(value);
+      case TIMESTAMP:
+        return DatumFactory.createTimestamp(value);
+      default:
+        return DatumFactory.createInt8(value);
+      }
+    case MIN_DOUBLE:
+    case MAX_DOUBLE:
+      if (aux == 0) {
+        return NullDatum.get();
+      }
+      switch (func.getFuncDesc().getReturnType().getType()) {
+      case FLOAT4:
+        return DatumFactory.createFloat4((float) UNSAFE.getDouble(addr));
+      default:
+        return DatumFactory.createFloat8(UNSAFE.getDouble(addr));
+      }
+    case AVG_LONG:
+      if (aux == 0) {
+        return NullDatum.get();
+      } else if (func.isLastPhase()) {
+        return DatumFactory.createFloat8((double) value / aux);
+      } else {
+        return new ProtobufDatum(AvgLongProto.newBuilder().setSum(value).setCount(aux).build());
+      }
+    case AVG_DOUBLE:
+      if (aux == 0) {
+        return NullDatum.get();
+      } else if (func.isLastPhase()) {
+        return DatumFactory.createFloat8(UNSAFE.getDouble(addr) / aux);
+      } else {
+        return new ProtobufDatum(AvgDoubleProto.newBuilder().setSum(UNSAFE.getDouble(addr)).setCount(aux).build());
+      }
+    default:
+      throw new IllegalStateException("Unknown state kind: " + kind);
+    }
+  }
+
+  private static int hashBytes(long addr, int length, int seed) {
+    int hash = seed;
+    int i = 0;
+    for (; i + SizeOf.SIZE_OF_LONG <= length; i += SizeOf.SIZE_OF_LONG) {
+      long word = UNSAFE.getLong(addr + i);
+      hash = 31 * hash + (int) (word ^ (word >>> 32));
+    }
+    for (; i < length; i++) {
+      hash = 31 * hash + UNSAFE.getByte(addr + i);
+    }
+
+    // finalization mix of murmur3 to spread the lower bits used for bucket indexes
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return hash;
+  }
+
+  private static boolean equalBytes(long addr1, long addr2, int length) {
+    // the first 4 bytes of a row are its length
+    if (UNSAFE.getInt(addr1) != length) {
+      return false;
+    }
+    int i = 0;
+    for (; i + SizeOf.SIZE_OF_LONG <= length; i += SizeOf.SIZE_OF_LONG) {
+      if (UNSAFE.getLong(addr1 + i) != UNSAFE.getLong(addr2 + i)) {
+        return false;
+      }
+    }
+    for (; i < length; i++) {
+      if (UNSAFE.getByte(addr1 + i) != UNSAFE.getByte(addr2 + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Remove all groups and release their memory pages. The buckets are kept to be reused.
+   */
+  public void clear() {
+    for (MemoryRowBlock page : keyPages) {
+      page.release();
+    }
+    keyPages.clear();
+    for (MemoryBlock page : statePages) {
+      page.release();
+    }
+    statePages.clear();
+    contextStates.clear();
+    currentKeyPage = newKeyPage(pageSize);
+    Arrays.fill(buckets, EMPTY_BUCKET);
+    groupNum = 0;
+  }
+
+  @Override
+  public void release() {
+    for (MemoryRowBlock page : keyPages) {
+      page.release();
+    }
+    keyPages.clear();
+    for (MemoryBlock page : statePages) {
+      page.release();
+    }
+    statePages.clear();
+    contextStates.clear();
+    keyBuffer.release();
+    groupNum = 0;
+  }
+}
@@ -0,0 +1,42 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.storage.ColumnBatch;
+
+import java.io.IOException;
+
+/**
+ * A physical executor which is able to return its results as column batches.
+ * A parent executor should consume the results through either next() or nextBatch(), not both.
+ */
+public interface VectorizedExec {
+
+  /**
+   * @return true if {@link #nextBatch()} can be used. It is valid after init() is called.
+   */
+  boolean isBatchAvailable();
+
+  /**
+   * The returned batch is reused by the next call.
+   *
+   * @return the next batch which has at least one valid row, or null if there are no more rows.
+   */
+  ColumnBatch nextBatch() throws IOException;
+}
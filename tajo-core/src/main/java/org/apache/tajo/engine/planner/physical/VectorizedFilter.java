@@ -0,0 +1,439 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.TextDatum;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.storage.ColumnBatch;
+import org.apache.tajo.storage.ColumnBatch.ColumnVector;
+import org.apache.tajo.storage.ColumnBatch.VectorType;
+import org.apache.tajo.storage.VTuple;
+
+/**
+ * Evaluate a search condition against a {@link ColumnBatch} and update its selection vector.
+ *
+ * Comparisons between a column and a constant, IS NULL, AND and OR are evaluated over column vectors.
+ * The other predicates are evaluated row by row with the bound {@link EvalNode}.
+ */
+public class VectorizedFilter {
+  private final Predicate root;
+  private final int[] buffer;
+
+  /**
+   * @param qual The search condition which is already bound to the schema of batches
+   * @param schema The schema of batches
+   * @param capacity The capacity of batches
+   */
+  public VectorizedFilter(EvalNode qual, Schema schema, int capacity) {
+    this.root = createPredicate(qual, schema, capacity);
+    this.buffer = new int[capacity];
+  }
+
+  /**
+   * @return true if the whole search condition is evaluated over column vectors
+   */
+  public boolean isFullyVectorized() {
+    return root.isVectorized();
+  }
+
+  /**
+   * Select rows satisfying the search condition among the valid rows of the batch.
+   */
+  public void filter(ColumnBatch batch) {
+    int[] in;
+    int inNum = batch.getSelectedNum();
+    if (batch.isSelectionInUse()) {
+      in = batch.getSelected();
+    } else {
+      in = buffer;
+      for (int i = 0; i < inNum; i++) {
+        in[i] = i;
+      }
+    }
+    int outNum = root.filter(batch, in, inNum, batch.getSelected());
+    batch.setSelectedNum(outNum);
+  }
+
+  private static Predicate createPredicate(EvalNode eval, Schema schema, int capacity) {
+    switch (eval.getType()) {
+      case AND: {
+        BinaryEval binaryEval = (BinaryEval) eval;
+        return new AndPredicate(createPredicate(binaryEval.getLeftExpr(), schema, capacity),
+            createPredicate(binaryEval.getRightExpr(), schema, capacity));
+      }
+      case OR: {
+        BinaryEval binaryEval = (BinaryEval) eval;
+        return new OrPredicate(createPredicate(binaryEval.getLeftExpr(), schema, capacity),
+            createPredicate(binaryEval.getRightExpr(), schema, capacity), capacity);
+      }
+      case IS_NULL: {
+        IsNullEval isNullEval = (IsNullEval) eval;
+        if (isNullEval.getChild().getType() == EvalType.FIELD) {
+          int columnId = getColumnId(schema, isNullEval.getChild());
+          if (columnId >= 0) {
+            return new IsNullPredicate(columnId, isNullEval.isNot());
+          }
+        }
+        break;
+      }
+      case EQUAL:
+      case NOT_EQUAL:
+      case LTH:
+      case LEQ:
+      case GTH:
+      case GEQ: {
+        Predicate predicate = createComparePredicate((BinaryEval) eval, schema);
+        if (predicate != null) {
+          return predicate;
+        }
+        break;
+      }
+      default:
+        break;
+    }
+    return new RowPredicate(eval, schema.size());
+  }
+
+  private static Predicate createComparePredicate(BinaryEval eval, Schema schema) {
+    EvalNode left = eval.getLeftExpr();
+    EvalNode right = eval.getRightExpr();
+    EvalType op = eval.getType();
+
+    if (left.getType() == EvalType.CONST && right.getType() == EvalType.FIELD) {
+      EvalNode tmp = left;
+      left = right;
+      right = tmp;
+      op = flip(op);
+    }
+    if (left.getType() != EvalType.FIELD || right.getType() != EvalType.CONST) {
+      return null;
+    }
+
+    int columnId = getColumnId(schema, left);
+    Datum constant = ((ConstEval) right).getValue();
+    if (columnId < 0 || constant.isNull()) {
+      return null;
+    }
+
+    Type columnType = schema.getColumn(columnId).getDataType().getType();
+    Type constantType = constant.kind();
+    switch (ColumnBatch.getVectorType(columnType)) {
+      case LONG:
+        if (isInteger(columnType) && isInteger(constantType)) {
+          return new LongComparePredicate(columnId, op, constant.asInt8());
+        } else if (columnType == constantType && columnType == Type.DATE) {
+          return new LongComparePredicate(columnId, op, constant.asInt4());
+        } else if (columnType == constantType) {
+          return new LongComparePredicate(columnId, op, constant.asInt8());
+        }
+        return null;
+      case DOUBLE:
+        if (isInteger(constantType) || constantType == Type.FLOAT4 || constantType == Type.FLOAT8) {
+          return new DoubleComparePredicate(columnId, op, constant.asFloat8());
+        }
+        return null;
+      case BYTES:
+        if (columnType == Type.TEXT && constantType == Type.TEXT) {
+          return new BytesComparePredicate(columnId, op, constant.asByteArray());
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isInteger(Type type) {
+    return type == Type.INT1 || type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  private static EvalType flip(EvalType op) {
+    switch (op) {
+      case LTH: return EvalType.GTH;
+      case LEQ: return EvalType.GEQ;
+      case GTH: return EvalType.LTH;
+      case GEQ: return EvalType.LEQ;
+      default: return op;
+    }
+  }
+
+  /**
+   * @return the index of the referenced column in the schema, or -1 if not found
+   */
+  static int getColumnId(Schema schema, EvalNode field) {
+    Column column = ((FieldEval) field).getColumnRef();
+    int columnId = schema.getColumnId(column.getQualifiedName());
+    if (columnId == -1) {
+      columnId = schema.getColumnIdByName(column.getSimpleName());
+    }
+    return columnId;
+  }
+
+  private static boolean compare(EvalType op, int compare) {
+    switch (op) {
+      case EQUAL: return compare == 0;
+      case NOT_EQUAL: return compare != 0;
+      case LTH: return compare < 0;
+      case LEQ: return compare <= 0;
+      case GTH: return compare > 0;
+      case GEQ: return compare >= 0;
+      default:
+        throw new IllegalArgumentException(op.name());
+    }
+  }
+
+  /**
+   * Unlike Double.compare(), -0.0 is equal to 0.0 as the comparison of datums.
+   */
+  private static int compareDouble(double v1, double v2) {
+    return v1 < v2 ? -1 : (v1 == v2 ? 0 : 1);
+  }
+
+  /**
+   * A predicate which selects rows among the given row ids.
+   */
+  private interface Predicate {
+    /**
+     * @param in row ids to be evaluated in ascending order
+     * @param out row ids satisfying the predicate. It can be the same array as <code>in</code>.
+     * @return the number of selected rows
+     */
+    int filter(ColumnBatch batch, int[] in, int inNum, int[] out);
+
+    boolean isVectorized();
+  }
+
+  private static class AndPredicate implements Predicate {
+    private final Predicate left;
+    private final Predicate right;
+
+    AndPredicate(Predicate left, Predicate right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public int filter(ColumnBatch batch, int[] in, int inNum, int[] out) {
+      int num = left.filter(batch, in, inNum, out);
+      return right.filter(batch, out, num, out);
+    }
+
+    @Override
+    public boolean isVectorized() {
+      return left.isVectorized() && right.isVectorized();
+    }
+  }
+
+  private static class OrPredicate implements Predicate {
+    private final Predicate left;
+    private final Predicate right;
+    private final int[] leftSelected;
+    private final int[] rest;
+
+    OrPredicate(Predicate left, Predicate right, int capacity) {
+      this.left = left;
+      this.right = right;
+      this.leftSelected = new int[capacity];
+      this.rest = new int[capacity];
+    }
+
+    @Override
+    public int filter(ColumnBatch batch, int[] in, int inNum, int[] out) {
+      int leftNum = left.filter(batch, in, inNum, leftSelected);
+
+      // only rows not selected by the left predicate are evaluated by the right one
+      int restNum = 0;
+      for (int i = 0, j = 0; i < inNum; i++) {
+        if (j < leftNum && leftSelected[j] == in[i]) {
+          j++;
+        } else {
+          rest[restNum++] = in[i];
+        }
+      }
+      int rightNum = right.filter(batch, rest, restNum, rest);
+
+      // merge two ascending row ids
+      int outNum = 0;
+      int i = 0, j = 0;
+      while (i < leftNum || j < rightNum) {
+        if (j == rightNum || (i < leftNum && leftSelected[i] < rest[j])) {
+          out[outNum++] = leftSelected[i++];
+        } else {
+          out[outNum++] = rest[j++];
+        }
+      }
+      return outNum;
+    }
+
+    @Override
+    public boolean isVectorized() {
+      return left.isVectorized() && right.isVectorized();
+    }
+  }
+
+  private static class IsNullPredicate implements Predicate {
+    private final int columnId;
+    private final boolean not;
+
+    IsNullPredicate(int columnId, boolean not) {
+      this.columnId = columnId;
+      this.not = not;
+    }
+
+    @Override
+    public int filter(ColumnBatch batch, int[] in, int inNum, int[] out) {
+      ColumnVector vector = batch.getVector(columnId);
+      int outNum = 0;
+      for (int i = 0; i < inNum; i++) {
+        if (vector.isNull(in[i]) != not) {
+          out[outNum++] = in[i];
+        }
+      }
+      return outNum;
+    }
+
+    @Override
+    public boolean isVectorized() {
+      return true;
+    }
+  }
+
+  private static class LongComparePredicate implements Predicate {
+    private final int columnId;
+    private final EvalType op;
+    private final long value;
+
+    LongComparePredicate(int columnId, EvalType op, long value) {
+      this.columnId = columnId;
+      this.op = op;
+      this.value = value;
+    }
+
+    @Override
+    public int filter(ColumnBatch batch, int[] in, int inNum, int[] out) {
+      ColumnVector vector = batch.getVector(columnId);
+      int outNum = 0;
+      for (int i = 0; i < inNum; i++) {
+        int rowId = in[i];
+        if (!vector.isNull(rowId) && compare(op, Long.compare(vector.getLong(rowId), value))) {
+          out[outNum++] = rowId;
+        }
+      }
+      return outNum;
+    }
+
+    @Override
+    public boolean isVectorized() {
+      return true;
+    }
+  }
+
+  private static class DoubleComparePredicate implements Predicate {
+    private final int columnId;
+    private final EvalType op;
+    private final double value;
+
+    DoubleComparePredicate(int columnId, EvalType op, double value) {
+      this.columnId = columnId;
+      this.op = op;
+      this.value = value;
+    }
+
+    @Override
+    public int filter(ColumnBatch batch, int[] in, int inNum, int[] out) {
+      ColumnVector vector = batch.getVector(columnId);
+      int outNum = 0;
+      for (int i = 0; i < inNum; i++) {
+        int rowId = in[i];
+        if (!vector.isNull(rowId) && compare(op, compareDouble(vector.getDouble(rowId), value))) {
+          out[outNum++] = rowId;
+        }
+      }
+      return outNum;
+    }
+
+    @Override
+    public boolean isVectorized() {
+      return true;
+    }
+  }
+
+  private static class BytesComparePredicate implements Predicate {
+    private final int columnId;
+    private final EvalType op;
+    private final byte[] value;
+
+    BytesComparePredicate(int columnId, EvalType op, byte[] value) {
+      this.columnId = columnId;
+      this.op = op;
+      this.value = value;
+    }
+
+    @Override
+    public int filter(ColumnBatch batch, int[] in, int inNum, int[] out) {
+      ColumnVector vector = batch.getVector(columnId);
+      int outNum = 0;
+      for (int i = 0; i < inNum; i++) {
+        int rowId = in[i];
+        if (!vector.isNull(rowId) && compare(op, TextDatum.COMPARATOR.compare(vector.getBytes(rowId), value))) {
+          out[outNum++] = rowId;
+        }
+      }
+      return outNum;
+    }
+
+    @Override
+    public boolean isVectorized() {
+      return true;
+    }
+  }
+
+  /**
+   * Evaluate a predicate with a tuple materialized from each row.
+   */
+  private static class RowPredicate implements Predicate {
+    private final EvalNode eval;
+    private final VTuple tuple;
+
+    RowPredicate(EvalNode eval, int columnNum) {
+      this.eval = eval;
+      this.tuple = new VTuple(columnNum);
+    }
+
+    @Override
+    public int filter(ColumnBatch batch, int[] in, int inNum, int[] out) {
+      int outNum = 0;
+      for (int i = 0; i < inNum; i++) {
+        batch.getRow(in[i], tuple);
+        if (eval.eval(tuple).isTrue()) {
+          out[outNum++] = in[i];
+        }
+      }
+      return outNum;
+    }
+
+    @Override
+    public boolean isVectorized() {
+      return false;
+    }
+  }
+}
@@ -199,6 +199,23 @@ public class QueryContext extends OverridableConf {
     return strVal != null ? NodeType.valueOf(strVal) : null;
   }
 
+  /**
+   * Mark this query as ANALYZE TABLE. The statistics computed by the query are stored into the given table.
+   *
+   * @param tableName The qualified name of the analyzed table
+   */
+  public void setAnalyzeTable(String tableName) {
+    put(QueryVars.ANALYZE_TABLE_NAME, tableName);
+  }
+
+  public boolean isAnalyzeTable() {
+    return containsKey(QueryVars.ANALYZE_TABLE_NAME);
+  }
+
+  public String getAnalyzeTableName() {
+    return get(QueryVars.ANALYZE_TABLE_NAME);
+  }
+
   public void setCreateTable() {
     setCommandType(NodeType.CREATE_TABLE);
   }
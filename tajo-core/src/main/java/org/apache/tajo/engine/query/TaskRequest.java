@@ -41,7 +41,10 @@ public interface TaskRequest extends ProtoObject<TaskRequestProto> {
 	void setInterQuery();
 	void addFetch(FetchProto fetch);
 	List<FetchProto> getFetches();
+  void addShuffleMerger(String hostAndPort);
+  List<String> getShuffleMergers();
   QueryContext getQueryContext(TajoConf conf);
   DataChannel getDataChannel();
   Enforcer getEnforcer();
+  String getQueryMasterHostAndPort();
 }
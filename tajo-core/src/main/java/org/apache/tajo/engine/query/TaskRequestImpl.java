@@ -42,6 +42,7 @@ public class TaskRequestImpl implements TaskRequest {
 	private PlanProto.LogicalNodeTree plan;     // logical node
 	private Boolean interQuery;
 	private List<FetchProto> fetches;
+	private List<String> shuffleMergers;
 	private QueryContext queryContext;
 	private DataChannel dataChannel;
 	private Enforcer enforcer;
@@ -162,6 +163,27 @@ public class TaskRequestImpl implements TaskRequest {
     fetches.add(fetch);
   }
 
+  @Override
+  public void addShuffleMerger(String hostAndPort) {
+    maybeInitBuilder();
+    initShuffleMergers();
+    shuffleMergers.add(hostAndPort);
+  }
+
+  @Override
+  public List<String> getShuffleMergers() {
+    initShuffleMergers();
+    return this.shuffleMergers;
+  }
+
+  private void initShuffleMergers() {
+    if (this.shuffleMergers != null) {
+      return;
+    }
+    TaskRequestProtoOrBuilder p = viaProto ? proto : builder;
+    this.shuffleMergers = new ArrayList<>(p.getShuffleMergersList());
+  }
+
   public QueryContext getQueryContext(TajoConf conf) {
     TaskRequestProtoOrBuilder p = viaProto ? proto : builder;
     if (queryContext != null) {
@@ -210,6 +232,19 @@ public class TaskRequestImpl implements TaskRequest {
     return this.enforcer;
   }
 
+  @Override
+  public String getQueryMasterHostAndPort() {
+    TaskRequestProtoOrBuilder p = viaProto ? proto : builder;
+    if (queryMasterHostAndPort != null) {
+      return queryMasterHostAndPort;
+    }
+    if (!p.hasQueryMasterHostAndPort()) {
+      return null;
+    }
+    this.queryMasterHostAndPort = p.getQueryMasterHostAndPort();
+    return this.queryMasterHostAndPort;
+  }
+
   @Override
   public List<FetchProto> getFetches() {
 	  initFetches();
@@ -260,6 +295,10 @@ public class TaskRequestImpl implements TaskRequest {
         builder.addFetches(fetch);
       }
     }
+    if (this.shuffleMergers != null) {
+      builder.clearShuffleMergers();
+      builder.addAllShuffleMergers(shuffleMergers);
+    }
     if (this.queryMasterHostAndPort != null) {
       builder.setQueryMasterHostAndPort(this.queryMasterHostAndPort);
     }
@@ -30,8 +30,10 @@ import org.apache.tajo.QueryId;
 import org.apache.tajo.QueryIdFactory;
 import org.apache.tajo.SessionVars;
 import org.apache.tajo.TajoConstants;
+import org.apache.tajo.algebra.AnalyzeTable;
 import org.apache.tajo.algebra.Expr;
 import org.apache.tajo.algebra.JsonHelper;
+import org.apache.tajo.algebra.OpType;
 import org.apache.tajo.catalog.CatalogService;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableDesc;
@@ -39,6 +41,7 @@ import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.exception.*;
 import org.apache.tajo.master.TajoMaster.MasterContext;
+import org.apache.tajo.master.exec.AnalyzeTableExecutor;
 import org.apache.tajo.master.exec.DDLExecutor;
 import org.apache.tajo.master.exec.QueryExecutor;
 import org.apache.tajo.metrics.Master;
@@ -78,6 +81,7 @@ public class GlobalEngine extends AbstractService {
 
   private QueryExecutor queryExecutor;
   private DDLExecutor ddlExecutor;
+  private AnalyzeTableExecutor analyzeTableExecutor;
 
   public GlobalEngine(final MasterContext context) {
     super(GlobalEngine.class.getName());
@@ -86,6 +90,7 @@ public class GlobalEngine extends AbstractService {
 
     this.ddlExecutor = new DDLExecutor(context);
     this.queryExecutor = new QueryExecutor(context, ddlExecutor);
+    this.analyzeTableExecutor = new AnalyzeTableExecutor(catalog);
   }
 
   public void start() {
@@ -187,6 +192,11 @@ public class GlobalEngine extends AbstractService {
         planningContext = buildExpressionFromSql(query, session);
       }
 
+      // ANALYZE TABLE is executed as an aggregation query computing the statistics
+      if (planningContext.getType() == OpType.AnalyzeTable) {
+        planningContext = analyzeTableExecutor.rewrite(queryContext, analyzer, (AnalyzeTable) planningContext);
+      }
+
       String jsonExpr = planningContext.toJson();
       LogicalPlan plan = createLogicalPlan(queryContext, planningContext);
       SubmitQueryResponse response = queryExecutor.execute(queryContext, session, query, jsonExpr, plan);
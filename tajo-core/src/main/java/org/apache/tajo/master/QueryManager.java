@@ -33,6 +33,7 @@ import org.apache.tajo.ResourceProtos;
 import org.apache.tajo.ResourceProtos.AllocationResourceProto;
 import org.apache.tajo.ResourceProtos.TajoHeartbeatRequest;
 import org.apache.tajo.ResourceProtos.TajoHeartbeatResponse;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.TajoProtos;
 import org.apache.tajo.catalog.TableDesc;
 import org.apache.tajo.conf.TajoConf;
@@ -215,9 +216,8 @@ public class QueryManager extends CompositeService {
 
     queryInProgress.getQueryInfo().setQueryMaster(EMPTY_QM_HOSTNAME);
     submittedQueries.put(queryInProgress.getQueryId(), queryInProgress);
-    //TODO implement scheduler queue
-    QuerySchedulingInfo querySchedulingInfo = new QuerySchedulingInfo("default", queryContext.getUser(),
-        queryInProgress.getQueryId(), 1, queryInProgress.getQueryInfo().getStartTime());
+    QuerySchedulingInfo querySchedulingInfo = new QuerySchedulingInfo(queryContext.get(SessionVars.QUERY_QUEUE),
+        queryContext.getUser(), queryInProgress.getQueryId(), 1, queryInProgress.getQueryInfo().getStartTime());
 
     masterContext.getResourceManager().submitQuery(querySchedulingInfo);
     return queryInProgress.getQueryInfo();
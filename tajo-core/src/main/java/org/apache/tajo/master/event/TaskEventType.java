@@ -29,6 +29,9 @@ public enum TaskEventType {
   //Producer:Stage
   T_SCHEDULE,
 
+  //Producer:TaskScheduler
+  T_SPECULATE,
+
   //Producer:TaskAttempt
   T_ATTEMPT_LAUNCHED,
   T_ATTEMPT_COMMIT_PENDING,
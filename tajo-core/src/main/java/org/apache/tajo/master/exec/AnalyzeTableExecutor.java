@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master.exec;
+
+import com.google.common.collect.Sets;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.apache.tajo.InternalTypes.ValueSampleProto;
+import org.apache.tajo.algebra.AnalyzeTable;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.catalog.CatalogService;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableDesc;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.Histogram;
+import org.apache.tajo.catalog.statistics.HyperLogLog;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.exception.TajoException;
+import org.apache.tajo.exception.TajoInternalError;
+import org.apache.tajo.exception.UndefinedColumnException;
+import org.apache.tajo.exception.UnsupportedDataTypeException;
+import org.apache.tajo.parser.sql.SQLAnalyzer;
+import org.apache.tajo.schema.IdentifierUtil;
+import org.apache.tajo.storage.Tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An executor for ANALYZE TABLE command.
+ *
+ * The command is rewritten into an aggregation query over the table, so the statistics are computed
+ * by a distributed query. Each task builds partial sketches of its fragments, and they are merged into
+ * a single row whose columns are named after the ordinal position of each analyzed column. When the query
+ * is finished, {@link #buildTableStats(TableDesc, Schema, Tuple)} converts the row into the table statistics.
+ */
+public class AnalyzeTableExecutor {
+  private static final String NUM_ROWS = "num_rows";
+  private static final String COUNT = "count";
+  private static final String MIN = "min";
+  private static final String MAX = "max";
+  private static final String NDV = "ndv";
+  private static final String SAMPLE = "sample";
+
+  /** Types of which the number of distinct values can be estimated */
+  private static final Set<Type> ANALYZABLE_TYPES = Sets.newHashSet(
+      Type.BOOLEAN, Type.BIT, Type.INT2, Type.INT4, Type.INT8, Type.FLOAT4, Type.FLOAT8, Type.CHAR, Type.TEXT,
+      Type.DATE, Type.TIME, Type.TIMESTAMP, Type.BLOB);
+
+  /** Types which have min/max functions, so they also can have histograms */
+  private static final Set<Type> ORDERED_TYPES = Sets.newHashSet(
+      Type.INT4, Type.INT8, Type.FLOAT4, Type.FLOAT8, Type.TEXT, Type.DATE, Type.TIME, Type.TIMESTAMP);
+
+  private final CatalogService catalog;
+
+  public AnalyzeTableExecutor(CatalogService catalog) {
+    this.catalog = catalog;
+  }
+
+  /**
+   * Rewrite ANALYZE TABLE into an aggregation query, and mark the query context with the analyzed table.
+   *
+   * @param queryContext The query context
+   * @param analyzer SQL analyzer to parse the aggregation query
+   * @param analyzeTable ANALYZE TABLE expression
+   * @return The aggregation query computing the statistics
+   */
+  public Expr rewrite(QueryContext queryContext, SQLAnalyzer analyzer, AnalyzeTable analyzeTable)
+      throws TajoException {
+
+    String tableName = IdentifierUtil.normalizeIdentifier(analyzeTable.getTableName());
+    String databaseName;
+    String simpleTableName;
+    if (IdentifierUtil.isFQTableName(tableName)) {
+      String[] split = IdentifierUtil.splitFQTableName(tableName);
+      databaseName = split[0];
+      simpleTableName = split[1];
+    } else {
+      databaseName = queryContext.getCurrentDatabase();
+      simpleTableName = tableName;
+    }
+
+    TableDesc table = catalog.getTableDesc(databaseName, simpleTableName);
+    Schema schema = table.getLogicalSchema();
+
+    List<Integer> columnIds = new ArrayList<>();
+    if (analyzeTable.hasColumnNames()) {
+      for (String columnName : analyzeTable.getColumnNames()) {
+        int id = schema.getColumnIdByName(IdentifierUtil.normalizeIdentifier(columnName));
+        if (id < 0) {
+          throw new UndefinedColumnException(columnName);
+        }
+        Type type = schema.getColumn(id).getDataType().getType();
+        if (!ANALYZABLE_TYPES.contains(type)) {
+          throw new UnsupportedDataTypeException(type.name());
+        }
+        if (!columnIds.contains(id)) {
+          columnIds.add(id);
+        }
+      }
+    } else {
+      for (int id = 0; id < schema.size(); id++) {
+        if (ANALYZABLE_TYPES.contains(schema.getColumn(id).getDataType().getType())) {
+          columnIds.add(id);
+        }
+      }
+    }
+
+    StringBuilder sb = new StringBuilder("SELECT count(*) AS ").append(NUM_ROWS);
+    for (int id : columnIds) {
+      Column column = schema.getColumn(id);
+      String quoted = quote(column.getSimpleName());
+      sb.append(", count(").append(quoted).append(") AS ").append(alias(id, COUNT));
+      if (ORDERED_TYPES.contains(column.getDataType().getType())) {
+        sb.append(", min(").append(quoted).append(") AS ").append(alias(id, MIN));
+        sb.append(", max(").append(quoted).append(") AS ").append(alias(id, MAX));
+        sb.append(", value_sample(").append(quoted).append(") AS ").append(alias(id, SAMPLE));
+      }
+      sb.append(", ndv_sketch(").append(quoted).append(") AS ").append(alias(id, NDV));
+    }
+    sb.append(" FROM ").append(quote(databaseName)).append(".").append(quote(simpleTableName));
+
+    queryContext.setAnalyzeTable(IdentifierUtil.buildFQName(databaseName, simpleTableName));
+    return analyzer.parse(sb.toString());
+  }
+
+  /**
+   * Build the table statistics from the result row of the aggregation query made by
+   * {@link #rewrite(QueryContext, SQLAnalyzer, AnalyzeTable)}.
+   *
+   * @param table The analyzed table
+   * @param resultSchema The schema of the aggregation result
+   * @param result The single row of the aggregation result
+   * @return The table statistics including column statistics. The number of bytes is not set.
+   */
+  public static TableStats buildTableStats(TableDesc table, Schema resultSchema, Tuple result) {
+    Schema schema = table.getLogicalSchema();
+    long numRows = result.getInt8(resultSchema.getColumnIdByName(NUM_ROWS));
+
+    TableStats stats = new TableStats();
+    stats.setNumRows(numRows);
+
+    for (int id = 0; id < schema.size(); id++) {
+      int countIdx = resultSchema.getColumnIdByName(alias(id, COUNT));
+      if (countIdx < 0) {
+        continue;
+      }
+
+      Column column = schema.getColumn(id);
+      long numValues = result.getInt8(countIdx);
+      ColumnStats columnStats = new ColumnStats(column);
+      columnStats.setNumNulls(numRows - numValues);
+
+      int minIdx = resultSchema.getColumnIdByName(alias(id, MIN));
+      if (minIdx >= 0 && !result.isBlankOrNull(minIdx)) {
+        columnStats.setMinValue(result.asDatum(minIdx));
+        columnStats.setMaxValue(result.asDatum(resultSchema.getColumnIdByName(alias(id, MAX))));
+      }
+
+      HyperLogLog sketch = HyperLogLog.fromBytes(result.getBytes(resultSchema.getColumnIdByName(alias(id, NDV))));
+      columnStats.setNdvSketch(sketch);
+      columnStats.setNumDistVals(Math.min(sketch.cardinality(), numValues));
+
+      int sampleIdx = resultSchema.getColumnIdByName(alias(id, SAMPLE));
+      if (sampleIdx >= 0 && !result.isBlankOrNull(sampleIdx)) {
+        columnStats.setHistogram(buildHistogram(column, result.getBytes(sampleIdx)));
+      }
+
+      stats.addColumnStat(columnStats);
+    }
+
+    return stats;
+  }
+
+  private static Histogram buildHistogram(Column column, byte[] serializedSample) {
+    ValueSampleProto sample;
+    try {
+      sample = ValueSampleProto.parseFrom(serializedSample);
+    } catch (InvalidProtocolBufferException e) {
+      throw new TajoInternalError(e);
+    }
+
+    List<Datum> values = new ArrayList<>(sample.getValuesCount());
+    for (ByteString value : sample.getValuesList()) {
+      values.add(DatumFactory.createFromBytes(column.getDataType(), value.toByteArray()));
+    }
+    Collections.sort(values);
+
+    // the frequencies of the sample are scaled up to the number of non-null values
+    Histogram sampled = Histogram.build(values, Histogram.DEFAULT_BUCKET_NUM);
+    double scale = (double) sample.getCount() / values.size();
+    Histogram histogram = new Histogram();
+    for (Histogram.Bucket bucket : sampled.getBuckets()) {
+      histogram.addBucket(new Histogram.Bucket(bucket.getLower(), bucket.getUpper(),
+          Math.round(bucket.getFrequency() * scale), bucket.getNumDistVals()));
+    }
+    return histogram;
+  }
+
+  private static String alias(int columnId, String stat) {
+    return "c" + columnId + "_" + stat;
+  }
+
+  private static String quote(String identifier) {
+    return "\"" + identifier + "\"";
+  }
+}
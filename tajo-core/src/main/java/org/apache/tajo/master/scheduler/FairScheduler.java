@@ -0,0 +1,279 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master.scheduler;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.master.TajoMaster;
+import org.apache.tajo.master.rm.TajoRMContext;
+import org.apache.tajo.master.scheduler.event.SchedulerEvent;
+import org.apache.tajo.master.scheduler.event.SchedulerEventType;
+import org.apache.tajo.resource.NodeResource;
+import org.apache.tajo.util.TUtil;
+
+import java.util.*;
+
+import static org.apache.tajo.ResourceProtos.*;
+
+/**
+ * FairScheduler shares the cluster among multiple weighted queues.
+ *
+ * Queries are admitted from the queue which is the most under its fair share, and the number of running queries
+ * per user is limited in each queue. The task resources of a queue are bounded by its maximum share, and a query
+ * can use up to the maximum query share of its queue. While a queue has been starved under its fair share for the
+ * preemption timeout, the other queues over their fair shares get no more resources, so the resources released by
+ * their finished tasks go to the starved queue.
+ *
+ * Queues are configured in tajo-site.xml as follows:
+ * <pre>
+ *   tajo.resource.scheduler.queues = default,adhoc
+ *   tajo.resource.scheduler.queue.adhoc.weight = 2.0
+ *   tajo.resource.scheduler.queue.adhoc.min-share = 0.3
+ *   tajo.resource.scheduler.queue.adhoc.max-share = 1.0
+ *   tajo.resource.scheduler.queue.adhoc.query-max-share = 0.5
+ *   tajo.resource.scheduler.queue.adhoc.user-limit = 2
+ * </pre>
+ */
+public class FairScheduler extends SimpleScheduler {
+
+  private static final Log LOG = LogFactory.getLog(FairScheduler.class);
+  public static final String QUEUE_CONF_PREFIX = "tajo.resource.scheduler.queue.";
+  public static final String DEFAULT_QUEUE = "default";
+  private static final Comparator<SchedulerQueue> COMPARATOR = new SchedulingAlgorithms.FairShareComparator();
+
+  private final Map<String, SchedulerQueue> queues = Maps.newLinkedHashMap();
+  private final Map<QueryId, SchedulerQueue> queryQueueMap = Maps.newHashMap();
+  private SchedulerQueue defaultQueue;
+  private long preemptionTimeout;
+
+  @VisibleForTesting
+  public FairScheduler(TajoMaster.MasterContext context, TajoRMContext rmContext) {
+    super(context, rmContext);
+  }
+
+  public FairScheduler(TajoMaster.MasterContext context) {
+    super(context);
+  }
+
+  @Override
+  public void serviceInit(Configuration conf) throws Exception {
+    TajoConf tajoConf = TUtil.checkTypeAndGet(conf, TajoConf.class);
+    initQueues(tajoConf);
+    preemptionTimeout = tajoConf.getIntVar(TajoConf.ConfVars.RESOURCE_SCHEDULER_PREEMPTION_TIMEOUT);
+    super.serviceInit(conf);
+  }
+
+  private void initQueues(TajoConf conf) {
+    for (String name : conf.getVar(TajoConf.ConfVars.RESOURCE_SCHEDULER_QUEUES).split(",")) {
+      name = name.trim();
+      if (name.isEmpty()) {
+        continue;
+      }
+      String prefix = QUEUE_CONF_PREFIX + name;
+      float weight = conf.getFloat(prefix + ".weight", 1.0f);
+      float minShare = conf.getFloat(prefix + ".min-share", 0.0f);
+      float maxShare = conf.getFloat(prefix + ".max-share", 1.0f);
+      float queryMaxShare = conf.getFloat(prefix + ".query-max-share", 1.0f);
+      int userLimit = conf.getInt(prefix + ".user-limit", 0);
+
+      Preconditions.checkArgument(weight > 0, prefix + ".weight must be positive");
+      Preconditions.checkArgument(0 <= minShare && minShare <= maxShare && maxShare <= 1,
+          prefix + ".min-share and max-share must be 0 <= min-share <= max-share <= 1");
+      Preconditions.checkArgument(0 < queryMaxShare && queryMaxShare <= 1,
+          prefix + ".query-max-share must be in (0, 1]");
+
+      SchedulerQueue queue = new SchedulerQueue(name, weight, minShare, maxShare, queryMaxShare, userLimit);
+      queues.put(name, queue);
+      LOG.info("Added queue: " + queue);
+    }
+    Preconditions.checkArgument(!queues.isEmpty(), "No queue is configured");
+
+    defaultQueue = queues.containsKey(DEFAULT_QUEUE) ? queues.get(DEFAULT_QUEUE) : queues.values().iterator().next();
+  }
+
+  public synchronized Collection<SchedulerQueue> getQueues() {
+    return Collections.unmodifiableCollection(queues.values());
+  }
+
+  public synchronized SchedulerQueue getQueue(String name) {
+    return queues.get(name);
+  }
+
+  @Override
+  public void handle(SchedulerEvent event) {
+    super.handle(event);
+    if (event.getType() == SchedulerEventType.RESOURCE_UPDATE) {
+      // the cluster capacity or the query masters might be changed
+      dispatchQueries();
+    }
+  }
+
+  /**
+   * Submit a query to its queue. The query is passed to the query processor when the queue is chosen.
+   */
+  @Override
+  public void submitQuery(QuerySchedulingInfo schedulingInfo) {
+    synchronized (this) {
+      SchedulerQueue queue = queues.get(schedulingInfo.getQueue());
+      if (queue == null) {
+        LOG.warn("Unknown queue '" + schedulingInfo.getQueue() + "' for " + schedulingInfo.getQueryId()
+            + ". It is submitted to '" + defaultQueue.getQueueName() + "'");
+        queue = defaultQueue;
+      }
+      queue.addQuery(schedulingInfo);
+      queryQueueMap.put(schedulingInfo.getQueryId(), queue);
+    }
+    dispatchQueries();
+  }
+
+  @Override
+  public void stopQuery(QueryId queryId) {
+    super.stopQuery(queryId);
+    synchronized (this) {
+      SchedulerQueue queue = queryQueueMap.remove(queryId);
+      if (queue != null) {
+        queue.removeQuery(queryId);
+      }
+    }
+    dispatchQueries();
+  }
+
+  /**
+   * Pass the queries of the most starved queues to the query processor as long as query masters can be launched.
+   */
+  private synchronized void dispatchQueries() {
+    long now = System.currentTimeMillis();
+    int running = 0;
+    for (SchedulerQueue queue : queues.values()) {
+      running += queue.getRunningQueryNum();
+    }
+
+    int maxRunning = getMaximumRunningQueryMasters();
+    while (running < maxRunning) {
+      List<SchedulerQueue> candidates = Lists.newArrayList();
+      for (SchedulerQueue queue : queues.values()) {
+        if (queue.hasRunnableQuery()) {
+          candidates.add(queue);
+        }
+      }
+      if (candidates.isEmpty()) {
+        break;
+      }
+
+      updateCurrentCapacity(now);
+      SchedulerQueue queue = Collections.min(candidates, COMPARATOR);
+      QuerySchedulingInfo query = queue.pollRunnableQuery();
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Dispatch " + query.getQueryId() + " from " + queue);
+      }
+      super.submitQuery(query);
+      running++;
+    }
+  }
+
+  private void updateCurrentCapacity(long now) {
+    float total = Math.max(1, getMaximumResourceCapability().getMemory());
+    for (SchedulerQueue queue : queues.values()) {
+      queue.setCurrentCapacity(queue.getUsedMemory(now) / total);
+    }
+  }
+
+  /**
+   * The fair share of a queue is its weighted share of the cluster among the queues running queries,
+   * bounded by its minimum and maximum shares.
+   *
+   * @return the fair share of the queue in memory
+   */
+  private long getFairShare(SchedulerQueue queue, long totalMemory) {
+    float totalWeight = 0;
+    for (SchedulerQueue each : queues.values()) {
+      if (each.getRunningQueryNum() > 0 || each == queue) {
+        totalWeight += each.getWeight();
+      }
+    }
+
+    float share = totalMemory * queue.getWeight() / totalWeight;
+    share = Math.max(share, totalMemory * queue.getCapacity());
+    return (long) Math.min(share, totalMemory * queue.getMaximumCapacity());
+  }
+
+  /**
+   * Reserve task resources within the shares of the query and its queue.
+   * The resources for query masters are controlled by the query admission.
+   */
+  @Override
+  public List<AllocationResourceProto> reserve(QueryId queryId, NodeResourceRequest request) {
+    if (request.getType() == ResourceType.QUERYMASTER) {
+      return super.reserve(queryId, request);
+    }
+
+    synchronized (this) {
+      SchedulerQueue queue = queryQueueMap.get(queryId);
+      if (queue == null || !queue.isRunning(queryId)) {
+        return super.reserve(queryId, request);
+      }
+
+      long now = System.currentTimeMillis();
+      long totalMemory = getMaximumResourceCapability().getMemory();
+      long containerMemory = Math.max(1, new NodeResource(request.getCapacity()).getMemory());
+      queue.updateUsage(queryId, request.getPriority(), request.getRunningTasks() * containerMemory, now);
+
+      long queueUsed = queue.getUsedMemory(now);
+      long fairShare = getFairShare(queue, totalMemory);
+      long queueLimit = (long) (totalMemory * queue.getMaximumCapacity()) - queueUsed;
+      long queryLimit = (long) (totalMemory * queue.getMaximumCapacity() * queue.getMaximumQueryCapacity())
+          - queue.getUsedMemory(queryId, now);
+      int allowed = (int) Math.max(0,
+          Math.min(request.getNumContainers(), Math.min(queueLimit, queryLimit) / containerMemory));
+
+      if (allowed > 0 && queueUsed >= fairShare) {
+        for (SchedulerQueue other : queues.values()) {
+          if (other != queue && other.isStarved(now, preemptionTimeout)
+              && other.getUsedMemory(now) < getFairShare(other, totalMemory)) {
+            // leave the resources to the starved queue
+            if (LOG.isDebugEnabled()) {
+              LOG.debug("Queue " + queue.getQueueName() + " is over its fair share. Starved queue: " + other);
+            }
+            allowed = 0;
+            break;
+          }
+        }
+      }
+
+      List<AllocationResourceProto> reserved;
+      if (allowed > 0) {
+        reserved = super.reserve(queryId, request.toBuilder().setNumContainers(allowed).build());
+      } else {
+        reserved = Lists.newArrayList();
+      }
+
+      queue.updateUsage(queryId, request.getPriority(),
+          (request.getRunningTasks() + reserved.size()) * containerMemory, now);
+      queue.setStarved(reserved.size() < request.getNumContainers() && queue.getUsedMemory(now) < fairShare, now);
+      return reserved;
+    }
+  }
+}
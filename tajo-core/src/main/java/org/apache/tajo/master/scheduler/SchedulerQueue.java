@@ -0,0 +1,344 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master.scheduler;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.util.Pair;
+
+import java.util.*;
+
+/**
+ * A queue of {@link FairScheduler}. It keeps the pending and running queries of the queue,
+ * and estimates the memory held by the running queries from their resource requests.
+ * It is not thread-safe. The scheduler should guard it.
+ */
+public class SchedulerQueue extends QueueInfo {
+  private static final Log LOG = LogFactory.getLog(SchedulerQueue.class);
+
+  /** The memory reported by a stage is expired if the stage does not request resources during this time */
+  static final long USAGE_EXPIRY_TIME = 10 * 1000;
+
+  private String queueName;
+  private float weight;
+  private float capacity;
+  private float maximumCapacity;
+  private float maximumQueryCapacity;
+  private float currentCapacity;
+  private int userLimit;
+  private QueueState queueState = QueueState.RUNNING;
+
+  private final NavigableSet<QuerySchedulingInfo> pendingQueries =
+      Sets.newTreeSet(new SchedulingAlgorithms.FifoComparator());
+  private final Map<QueryId, QuerySchedulingInfo> pendingQueryMap = Maps.newHashMap();
+  private final Map<QueryId, QuerySchedulingInfo> runningQueries = Maps.newHashMap();
+  private final Map<String, Integer> runningQueriesPerUser = Maps.newHashMap();
+  /**
+   * The memory held by the stages of each running query and the time it is updated.
+   * The stages are identified by their priorities.
+   */
+  private final Map<QueryId, Map<Integer, Pair<Long, Long>>> usages = Maps.newHashMap();
+
+  private long starvedSince;
+  private long lastDemandTime;
+
+  public SchedulerQueue(String queueName, float weight, float capacity, float maximumCapacity,
+                        float maximumQueryCapacity, int userLimit) {
+    this.queueName = queueName;
+    this.weight = weight;
+    this.capacity = capacity;
+    this.maximumCapacity = maximumCapacity;
+    this.maximumQueryCapacity = maximumQueryCapacity;
+    this.userLimit = userLimit;
+  }
+
+  @Override
+  public String getQueueName() {
+    return queueName;
+  }
+
+  @Override
+  public void setQueueName(String queueName) {
+    this.queueName = queueName;
+  }
+
+  /**
+   * Get the <em>weight</em> of the queue. The fair share of the queue is proportional to its weight.
+   * @return <em>weight</em> of the queue
+   */
+  public float getWeight() {
+    return weight;
+  }
+
+  public void setWeight(float weight) {
+    this.weight = weight;
+  }
+
+  /**
+   * It is the minimum share of the cluster guaranteed to the queue.
+   */
+  @Override
+  public float getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public void setCapacity(float capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * It is the maximum share of the cluster which the queue can use.
+   */
+  @Override
+  public float getMaximumCapacity() {
+    return maximumCapacity;
+  }
+
+  @Override
+  public void setMaximumCapacity(float maximumCapacity) {
+    this.maximumCapacity = maximumCapacity;
+  }
+
+  /**
+   * It is the maximum share of the queue which a query can use.
+   */
+  @Override
+  public float getMaximumQueryCapacity() {
+    return maximumQueryCapacity;
+  }
+
+  @Override
+  public void setMaximumQueryCapacity(float maximumQueryCapacity) {
+    this.maximumQueryCapacity = maximumQueryCapacity;
+  }
+
+  /**
+   * It is the share of the cluster used by the queue, which is updated by the scheduler.
+   */
+  @Override
+  public float getCurrentCapacity() {
+    return currentCapacity;
+  }
+
+  @Override
+  public void setCurrentCapacity(float currentCapacity) {
+    this.currentCapacity = currentCapacity;
+  }
+
+  @Override
+  public List<QueueInfo> getChildQueues() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Hierarchical queues are not supported, so child queues are ignored.
+   */
+  @Override
+  public void setChildQueues(List<QueueInfo> childQueues) {
+    if (childQueues != null && !childQueues.isEmpty()) {
+      LOG.warn("Child queues of " + queueName + " are ignored because hierarchical queues are not supported");
+    }
+  }
+
+  @Override
+  public QueueState getQueueState() {
+    return queueState;
+  }
+
+  @Override
+  public void setQueueState(QueueState queueState) {
+    this.queueState = queueState;
+  }
+
+  /**
+   * Get the maximum number of running queries per user. 0 means no limit.
+   * @return the maximum number of running queries per user
+   */
+  public int getUserLimit() {
+    return userLimit;
+  }
+
+  public void setUserLimit(int userLimit) {
+    this.userLimit = userLimit;
+  }
+
+  public void addQuery(QuerySchedulingInfo query) {
+    pendingQueries.add(query);
+    pendingQueryMap.put(query.getQueryId(), query);
+  }
+
+  public void removeQuery(QueryId queryId) {
+    QuerySchedulingInfo query = pendingQueryMap.remove(queryId);
+    if (query != null) {
+      pendingQueries.remove(query);
+      return;
+    }
+
+    query = runningQueries.remove(queryId);
+    if (query != null) {
+      int running = runningQueriesPerUser.get(query.getUser()) - 1;
+      if (running > 0) {
+        runningQueriesPerUser.put(query.getUser(), running);
+      } else {
+        runningQueriesPerUser.remove(query.getUser());
+      }
+      usages.remove(queryId);
+    }
+  }
+
+  private boolean isRunnable(QuerySchedulingInfo query) {
+    return userLimit <= 0 || !runningQueriesPerUser.containsKey(query.getUser())
+        || runningQueriesPerUser.get(query.getUser()) < userLimit;
+  }
+
+  /**
+   * @return true if the queue has a pending query whose user is under the user limit
+   */
+  public boolean hasRunnableQuery() {
+    if (queueState != QueueState.RUNNING) {
+      return false;
+    }
+    for (QuerySchedulingInfo query : pendingQueries) {
+      if (isRunnable(query)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Take the first pending query whose user is under the user limit, and make it running.
+   *
+   * @return the query to be run, or null if there is no runnable query
+   */
+  public QuerySchedulingInfo pollRunnableQuery() {
+    Iterator<QuerySchedulingInfo> iterator = pendingQueries.iterator();
+    while (iterator.hasNext()) {
+      QuerySchedulingInfo query = iterator.next();
+      if (isRunnable(query)) {
+        iterator.remove();
+        pendingQueryMap.remove(query.getQueryId());
+        runningQueries.put(query.getQueryId(), query);
+        Integer running = runningQueriesPerUser.get(query.getUser());
+        runningQueriesPerUser.put(query.getUser(), running == null ? 1 : running + 1);
+        return query;
+      }
+    }
+    return null;
+  }
+
+  public boolean isRunning(QueryId queryId) {
+    return runningQueries.containsKey(queryId);
+  }
+
+  public int getPendingQueryNum() {
+    return pendingQueries.size();
+  }
+
+  public int getRunningQueryNum() {
+    return runningQueries.size();
+  }
+
+  /**
+   * Update the memory held by a stage of a running query.
+   *
+   * @param queryId query id
+   * @param priority the priority of the stage, which is unique in a query
+   * @param memory the memory held by the stage
+   * @param now current time
+   */
+  public void updateUsage(QueryId queryId, int priority, long memory, long now) {
+    if (!runningQueries.containsKey(queryId)) {
+      return;
+    }
+
+    Map<Integer, Pair<Long, Long>> stageUsages = usages.get(queryId);
+    if (stageUsages == null) {
+      stageUsages = Maps.newHashMap();
+      usages.put(queryId, stageUsages);
+    }
+    stageUsages.put(priority, new Pair<>(memory, now));
+  }
+
+  /**
+   * @return the memory held by the query
+   */
+  public long getUsedMemory(QueryId queryId, long now) {
+    Map<Integer, Pair<Long, Long>> stageUsages = usages.get(queryId);
+    if (stageUsages == null) {
+      return 0;
+    }
+
+    long used = 0;
+    Iterator<Pair<Long, Long>> iterator = stageUsages.values().iterator();
+    while (iterator.hasNext()) {
+      Pair<Long, Long> usage = iterator.next();
+      if (now - usage.getSecond() > USAGE_EXPIRY_TIME) {
+        // the stage might be finished
+        iterator.remove();
+      } else {
+        used += usage.getFirst();
+      }
+    }
+    return used;
+  }
+
+  /**
+   * @return the memory held by the queue
+   */
+  public long getUsedMemory(long now) {
+    long used = 0;
+    for (QueryId queryId : usages.keySet()) {
+      used += getUsedMemory(queryId, now);
+    }
+    return used;
+  }
+
+  /**
+   * Record whether the last resource request of the queue was not satisfied while the queue is under its fair share.
+   */
+  public void setStarved(boolean starved, long now) {
+    if (starved) {
+      if (starvedSince == 0) {
+        starvedSince = now;
+      }
+      lastDemandTime = now;
+    } else {
+      starvedSince = 0;
+    }
+  }
+
+  /**
+   * @return true if the queue has been starved during the timeout and it still demands resources
+   */
+  public boolean isStarved(long now, long timeout) {
+    return starvedSince > 0 && now - starvedSince >= timeout && now - lastDemandTime <= USAGE_EXPIRY_TIME;
+  }
+
+  @Override
+  public String toString() {
+    return queueName + " (weight: " + weight + ", min: " + capacity + ", max: " + maximumCapacity
+        + ", current: " + currentCapacity + ", running: " + runningQueries.size()
+        + ", pending: " + pendingQueries.size() + ")";
+  }
+}
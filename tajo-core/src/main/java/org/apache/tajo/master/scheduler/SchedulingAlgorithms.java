@@ -46,4 +46,36 @@ public class SchedulingAlgorithms  {
       return res;
     }
   }
+
+  /**
+   * Compare queues in order of starvation and then usage to weight ratio, as in the fair scheduler of Hadoop.
+   * A queue under its minimum share comes first, and such queues are compared by the ratio of usage to minimum share.
+   */
+  public static class FairShareComparator implements Comparator<SchedulerQueue> {
+    @Override
+    public int compare(SchedulerQueue q1, SchedulerQueue q2) {
+      boolean needy1 = q1.getCurrentCapacity() < q1.getCapacity();
+      boolean needy2 = q2.getCurrentCapacity() < q2.getCapacity();
+      if (needy1 && !needy2) {
+        return -1;
+      } else if (!needy1 && needy2) {
+        return 1;
+      }
+
+      int res;
+      if (needy1) {
+        res = Float.compare(q1.getCurrentCapacity() / q1.getCapacity(), q2.getCurrentCapacity() / q2.getCapacity());
+      } else {
+        res = Float.compare(q1.getCurrentCapacity() / q1.getWeight(), q2.getCurrentCapacity() / q2.getWeight());
+      }
+      if (res == 0) {
+        // query masters hold little resources, so the running queries also should be shared by weights
+        res = Float.compare(q1.getRunningQueryNum() / q1.getWeight(), q2.getRunningQueryNum() / q2.getWeight());
+      }
+      if (res == 0) {
+        res = q1.getQueueName().compareTo(q2.getQueueName());
+      }
+      return res;
+    }
+  }
 }
@@ -26,6 +26,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.tajo.QueryId;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.master.QueryInfo;
 import org.apache.tajo.master.TajoMaster;
@@ -137,6 +138,15 @@ public class SimpleScheduler extends AbstractQueryScheduler {
     return resourceCalculator;
   }
 
+  /**
+   * @return the maximum number of query masters running in parallel. It allows 50% of the available containers.
+   */
+  protected int getMaximumRunningQueryMasters() {
+    int maxAvailable = getResourceCalculator().computeAvailableContainers(
+        getMaximumResourceCapability(), getQMMinimumResourceCapability());
+    return (int) Math.floor(maxAvailable * MAXIMUM_RUNNING_QM_RATE);
+  }
+
   private NodeResourceRequest createQMResourceRequest(QueryInfo queryInfo) {
     NodeResource qmResource = getQMMinimumResourceCapability();
 
@@ -163,8 +173,8 @@ public class SimpleScheduler extends AbstractQueryScheduler {
         .setNumContainers(containers)
         .setRunningTasks(1)
         .addAllCandidateNodes(idleNode)
-        .setUserId(queryInfo.getQueryContext().getUser());
-    //TODO .setQueue(queryInfo.getQueue());
+        .setUserId(queryInfo.getQueryContext().getUser())
+        .setQueue(queryInfo.getQueryContext().get(SessionVars.QUERY_QUEUE));
     return builder.build();
   }
 
@@ -334,12 +344,8 @@ public class SimpleScheduler extends AbstractQueryScheduler {
           LOG.warn(e.getMessage(), e);
           break;
         }
-        //TODO get by assigned queue
-        int maxAvailable = getResourceCalculator().computeAvailableContainers(
-            getMaximumResourceCapability(), getQMMinimumResourceCapability());
-
-        // check maximum parallel running QM. allow 50% parallel running
-        if (assignedQueryMasterMap.size() >= Math.floor(maxAvailable * MAXIMUM_RUNNING_QM_RATE)) {
+        // check maximum parallel running QM
+        if (assignedQueryMasterMap.size() >= getMaximumRunningQueryMasters()) {
           queryQueue.add(query);
           synchronized (this) {
             try {
@@ -1363,6 +1363,22 @@ public class SQLAnalyzer extends SQLParserBaseVisitor<Expr> {
     return new TruncateTable(tableNames);
   }
 
+  @Override
+  public Expr visitAnalyze_table_statement(@NotNull Analyze_table_statementContext ctx) {
+    AnalyzeTable analyzeTable = new AnalyzeTable(buildIdentifierChain(ctx.table_name().identifier()));
+
+    if (checkIfExist(ctx.column_name_list())) {
+      List<IdentifierContext> identifiers = ctx.column_name_list().identifier();
+      String[] columnNames = new String[identifiers.size()];
+      for (int i = 0; i < columnNames.length; i++) {
+        columnNames[i] = buildIdentifier(identifiers.get(i));
+      }
+      analyzeTable.setColumnNames(columnNames);
+    }
+
+    return analyzeTable;
+  }
+
   private ColumnDefinition[] getDefinitions(Table_elementsContext ctx) {
     int size = ctx.field_element().size();
     ColumnDefinition[] elements = new ColumnDefinition[size];
@@ -18,15 +18,16 @@
 
 package org.apache.tajo.querymaster;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.yarn.api.records.ContainerId;
 import org.apache.hadoop.yarn.util.RackResolver;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.TajoProtos.TaskAttemptState;
 import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.planner.global.ExecutionBlock;
@@ -37,6 +38,7 @@ import org.apache.tajo.exception.TajoInternalError;
 import org.apache.tajo.ipc.QueryCoordinatorProtocol;
 import org.apache.tajo.ipc.QueryCoordinatorProtocol.QueryCoordinatorProtocolService;
 import org.apache.tajo.ipc.TajoWorkerProtocol;
+import org.apache.tajo.master.TaskState;
 import org.apache.tajo.master.cluster.WorkerConnectionInfo;
 import org.apache.tajo.master.event.*;
 import org.apache.tajo.master.event.TaskAttemptToSchedulerEvent.TaskAttemptScheduleContext;
@@ -52,6 +54,7 @@ import org.apache.tajo.service.ServiceTracker;
 import org.apache.tajo.storage.DataLocation;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.util.NetUtils;
+import org.apache.tajo.util.Pair;
 import org.apache.tajo.util.RpcParameterFactory;
 import org.apache.tajo.util.TUtil;
 
@@ -62,7 +65,6 @@ import java.util.Map.Entry;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.tajo.ResourceProtos.*;
 
@@ -87,9 +89,21 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
   private int schedulerDelay;
   private int maximumRequestContainer;
 
+  // delay scheduling: a non-local assignment is postponed up to this delay since the last local assignment
+  private long localityDelay;
+  private long lastLocalAssignedTime;
+
+  // speculative execution of straggler tasks
+  private float slowTaskFactor;
+  private float minCompletedRatio;
+  private float maxSpeculativeRatio;
+
   // candidate workers for locality of high priority
   private Set<Integer> candidateWorkers = Sets.newHashSet();
 
+  // the mergers of push shuffle. All tasks of this stage are given the same mergers.
+  private List<String> shuffleMergers = Collections.emptyList();
+
   public DefaultTaskScheduler(TaskSchedulerContext context, Stage stage) {
     super(DefaultTaskScheduler.class.getName());
     this.context = context;
@@ -104,6 +118,10 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     scheduledRequests = new ScheduledRequests();
     minTaskMemory = tajoConf.getIntVar(TajoConf.ConfVars.TASK_RESOURCE_MINIMUM_MEMORY);
     schedulerDelay= tajoConf.getIntVar(TajoConf.ConfVars.QUERYMASTER_TASK_SCHEDULER_DELAY);
+    localityDelay = tajoConf.getIntVar(TajoConf.ConfVars.QUERYMASTER_TASK_SCHEDULER_LOCALITY_DELAY);
+    slowTaskFactor = tajoConf.getFloatVar(TajoConf.ConfVars.QUERYMASTER_SPECULATIVE_SLOW_TASK_FACTOR);
+    minCompletedRatio = tajoConf.getFloatVar(TajoConf.ConfVars.QUERYMASTER_SPECULATIVE_MIN_COMPLETED_RATIO);
+    maxSpeculativeRatio = tajoConf.getFloatVar(TajoConf.ConfVars.QUERYMASTER_SPECULATIVE_MAX_TASK_RATIO);
     isLeaf = stage.getMasterPlan().isLeaf(stage.getBlock());
 
     this.schedulingThread = new Thread() {
@@ -149,6 +167,12 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
       }
     }
 
+    if (stage.isShufflePushEnabled()) {
+      shuffleMergers = getShuffleMergers();
+      info(LOG, "Shuffle mergers: " + shuffleMergers);
+    }
+
+    lastLocalAssignedTime = System.currentTimeMillis();
     this.schedulingThread.start();
     super.start();
   }
@@ -184,6 +208,8 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
       final int incompleteTaskNum = scheduledRequests.leafTaskNum() + scheduledRequests.nonLeafTaskNum();
       if (incompleteTaskNum == 0) {
         needWakeup.set(true);
+        // the speculative attempts wake up the scheduler thread after scheduled
+        speculate();
         // all task is done or tasks is not scheduled
         synchronized (schedulingThread) {
           schedulingThread.wait(1000);
@@ -192,6 +218,7 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         LinkedList<TaskRequestEvent> taskRequests = createTaskRequest(incompleteTaskNum);
 
         if (taskRequests.size() == 0) {
+          // wait for the resources released by the running tasks, or retry after the delay
           synchronized (schedulingThread) {
             schedulingThread.wait(schedulerDelay);
           }
@@ -268,9 +295,7 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
 
         if (needWakeup.getAndSet(false)) {
           //wake up scheduler thread after scheduled
-          synchronized (schedulingThread) {
-            schedulingThread.notifyAll();
-          }
+          wakeUp();
         }
       }
     } else if (event.getType() == EventType.T_SCHEDULE_CANCEL) {
@@ -278,12 +303,165 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
       // This event is triggered by TaskAttempt.
       TaskAttemptToSchedulerEvent castedEvent = (TaskAttemptToSchedulerEvent) event;
       scheduledRequests.leafTasks.remove(castedEvent.getTaskAttempt().getId());
+      scheduledRequests.nonLeafTasks.remove(castedEvent.getTaskAttempt().getId());
       LOG.info(castedEvent.getTaskAttempt().getId() + " is canceled from " + this.getClass().getSimpleName());
       ((TaskAttemptToSchedulerEvent) event).getTaskAttempt().handle(
           new TaskAttemptEvent(castedEvent.getTaskAttempt().getId(), TaskAttemptEventType.TA_SCHEDULE_CANCELED));
     }
   }
 
+  /**
+   * Launch a speculative attempt for the stragglers of this stage. A running task is a straggler if both of its
+   * elapsed time and its total time estimated by the progress exceed the median running time of the succeeded
+   * tasks by the slow task factor. The stragglers expected to finish last are speculated first.
+   *
+   * @return the number of the speculated tasks
+   */
+  @VisibleForTesting
+  int speculate() {
+    if (!stage.isSpeculativeExecutionEnabled()) {
+      return 0;
+    }
+
+    Task[] tasks = stage.getTasks();
+    List<Long> succeededTimes = Lists.newArrayList();
+    int speculating = 0;
+    for (Task task : tasks) {
+      if (task.getState() == TaskState.SUCCEEDED) {
+        succeededTimes.add(task.getRunningTime());
+      } else if (task.isSpeculated()) {
+        speculating++;
+      }
+    }
+
+    int maxSpeculating = Math.max(1, (int) Math.ceil(tasks.length * maxSpeculativeRatio));
+    if (succeededTimes.isEmpty() || succeededTimes.size() < tasks.length * minCompletedRatio
+        || speculating >= maxSpeculating) {
+      return 0;
+    }
+
+    Collections.sort(succeededTimes);
+    long threshold = (long) (succeededTimes.get(succeededTimes.size() / 2) * slowTaskFactor);
+    long now = System.currentTimeMillis();
+
+    List<Pair<Long, Task>> stragglers = Lists.newArrayList();
+    for (Task task : tasks) {
+      TaskAttempt attempt = task.getLastAttempt();
+      if (task.getState() != TaskState.RUNNING || task.isSpeculated() || attempt == null
+          || attempt.getState() != TaskAttemptState.TA_RUNNING) {
+        continue;
+      }
+
+      long elapsed = now - attempt.getLaunchTime();
+      long estimated = attempt.getProgress() > 0 ? (long) (elapsed / attempt.getProgress()) : Long.MAX_VALUE;
+      if (elapsed > threshold && estimated > threshold) {
+        stragglers.add(new Pair<>(estimated - elapsed, task));
+      }
+    }
+    // descending estimated remaining time
+    stragglers.sort((s1, s2) -> Long.compare(s2.getFirst(), s1.getFirst()));
+
+    int speculated = 0;
+    for (Pair<Long, Task> straggler : stragglers) {
+      if (speculating + speculated >= maxSpeculating) {
+        break;
+      }
+      info(LOG, "Speculate a straggler " + straggler.getSecond().getId() + ", running time: "
+          + straggler.getSecond().getRunningTime() + " ms, median: " + succeededTimes.get(succeededTimes.size() / 2)
+          + " ms");
+      stage.getEventHandler().handle(new TaskEvent(straggler.getSecond().getId(), TaskEventType.T_SPECULATE));
+      speculated++;
+    }
+    return speculated;
+  }
+
+  /**
+   * @return true if another attempt of the same task is assigned to the worker
+   */
+  @VisibleForTesting
+  boolean isAssignedToWorker(TaskAttemptId attemptId, WorkerConnectionInfo worker) {
+    Task task = stage.getTask(attemptId.getTaskId());
+    if (!task.isSpeculated()) {
+      return false;
+    }
+
+    for (TaskAttempt eachAttempt : task.getAttempts()) {
+      if (!eachAttempt.getId().equals(attemptId) && !eachAttempt.isFinished()
+          && eachAttempt.getWorkerConnectionInfo() != null
+          && eachAttempt.getWorkerConnectionInfo().getId() == worker.getId()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A speculative attempt is placed on the other replicas of the data than the running attempt.
+   */
+  @VisibleForTesting
+  static List<DataLocation> getDataLocations(TaskAttempt taskAttempt) {
+    List<DataLocation> locations = taskAttempt.getTask().getDataLocations();
+    if (!taskAttempt.getTask().isSpeculated()) {
+      return locations;
+    }
+
+    Set<String> runningHosts = Sets.newHashSet();
+    for (TaskAttempt eachAttempt : taskAttempt.getTask().getAttempts()) {
+      if (eachAttempt != taskAttempt && eachAttempt.getWorkerConnectionInfo() != null) {
+        runningHosts.add(eachAttempt.getWorkerConnectionInfo().getHost());
+      }
+    }
+
+    List<DataLocation> otherLocations = Lists.newArrayList();
+    for (DataLocation location : locations) {
+      if (!runningHosts.contains(location.getHost())) {
+        otherLocations.add(location);
+      }
+    }
+    return otherLocations;
+  }
+
+  /**
+   * Delay scheduling: a non-local assignment is postponed while the local tasks remain, until the locality delay
+   * passes since the last local assignment.
+   *
+   * @return true if a non-local assignment should be postponed at the given time
+   */
+  @VisibleForTesting
+  boolean isRemoteAssignmentDelayed(boolean localTasksRemain, long now) {
+    return localTasksRemain && localityDelay > 0 && now - lastLocalAssignedTime < localityDelay;
+  }
+
+  @VisibleForTesting
+  void setLastLocalAssignedTime(long lastLocalAssignedTime) {
+    this.lastLocalAssignedTime = lastLocalAssignedTime;
+  }
+
+  private static String resolveRack(String host) {
+    return RackResolver.resolve(host).getNetworkLocation();
+  }
+
+  /**
+   * Returns the mergers of push shuffle. They are decided once before any task is assigned, because the tasks pick
+   * the merger of a partition from their mergers, and all tasks must push the same partition to the same merger.
+   * The candidate workers of locality are preferred because most tasks of this stage are expected to run on them.
+   */
+  private List<String> getShuffleMergers() {
+    Collection<Integer> workerIds = candidateWorkers;
+    if (workerIds.isEmpty()) {
+      workerIds = stage.getContext().getWorkerMap().keySet();
+    }
+
+    Set<String> mergers = new TreeSet<>();
+    for (Integer workerId : workerIds) {
+      WorkerConnectionInfo worker = stage.getContext().getWorkerMap().get(workerId);
+      if (worker != null) {
+        mergers.add(worker.getHostAndPeerRpcPort());
+      }
+    }
+    return new ArrayList<>(mergers);
+  }
+
   private Set<Integer> getWorkerIds(Collection<String> hosts){
     Set<Integer> workerIds = Sets.newHashSet();
     if(hosts.isEmpty()) return workerIds;
@@ -321,9 +499,11 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         .setQueryId(context.getMasterContext().getQueryId().getProto())
         .setType(isLeaf ? ResourceType.LEAF : ResourceType.INTERMEDIATE)
         .setUserId(context.getMasterContext().getQueryContext().getUser())
-        .setRunningTasks(stage.getTotalScheduledObjectsCount() - stage.getCompletedTaskCount())
+        // incomplete tasks except ones waiting for assignment, that is the tasks holding resources
+        .setRunningTasks(Math.max(0,
+            stage.getTotalScheduledObjectsCount() - stage.getCompletedTaskCount() - scheduledObjectNum))
         .addAllCandidateNodes(candidateWorkers)
-        .setQueue(context.getMasterContext().getQueryContext().get("queue", "default")); //TODO set queue
+        .setQueue(context.getMasterContext().getQueryContext().get(SessionVars.QUERY_QUEUE));
 
     masterClientService.reserveNodeResources(callBack.getController(), request.build(), callBack);
     NodeResourceResponse response = callBack.get();
@@ -342,264 +522,15 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
 
   public void releaseTaskAttempt(TaskAttempt taskAttempt) {
     if (taskAttempt != null && taskAttempt.isLeafTask() && taskAttempt.getWorkerConnectionInfo() != null) {
-
-      HostVolumeMapping mapping =
-          scheduledRequests.leafTaskHostMapping.get(taskAttempt.getWorkerConnectionInfo().getHost());
-      if (mapping != null && mapping.lastAssignedVolumeId.containsKey(taskAttempt.getId())) {
-        mapping.decreaseConcurrency(mapping.lastAssignedVolumeId.remove(taskAttempt.getId()));
-      }
+      scheduledRequests.leafTasks.release(taskAttempt.getWorkerConnectionInfo().getHost(), taskAttempt.getId());
     }
+    // the resources of the attempt may be available for the remaining tasks
+    wakeUp();
   }
-  /**
-   * One worker can have multiple running task runners. <code>HostVolumeMapping</code>
-   * describes various information for one worker, including :
-   * <ul>
-   *  <li>host name</li>
-   *  <li>rack name</li>
-   *  <li>unassigned tasks for each disk volume</li>
-   *  <li>last assigned volume id - it can be used for assigning task in a round-robin manner</li>
-   *  <li>the number of running tasks for each volume</li>
-   * </ul>, each task runner and the concurrency number of running tasks for volumes.
-   *
-   * Here, we identifier a task runner by {@link ContainerId}, and we use volume ids to identify
-   * all disks in this node. Actually, each volume is only used to distinguish disks, and we don't
-   * know a certain volume id indicates a certain disk. If you want to know volume id, please read the below section.
-   *
-   * <h3>Volume id</h3>
-   * Volume id is an integer. Each volume id identifies each disk volume.
-   *
-   * This volume id can be obtained from org.apache.hadoop.fs.BlockStorageLocation#getVolumeIds()}.   *
-   * HDFS cannot give any volume id due to unknown reason and disabled config 'dfs.client.file-block-locations.enabled'.
-   * In this case, the volume id will be -1 or other native integer.
-   *
-   * <h3>See Also</h3>
-   * <ul>
-   *   <li>HDFS-3672 (https://issues.apache.org/jira/browse/HDFS-3672).</li>
-   * </ul>
-   */
-  public class HostVolumeMapping {
-    private final String host;
-    private final String rack;
-    /** A key is disk volume, and a value is a list of tasks to be scheduled. */
-    private Map<Integer, LinkedHashSet<TaskAttempt>> unassignedTaskForEachVolume =
-        Collections.synchronizedMap(new HashMap<>());
-    /** A value is last assigned volume id for each task runner */
-    private HashMap<TaskAttemptId, Integer> lastAssignedVolumeId = Maps.newHashMap();
-    /**
-     * A key is disk volume id, and a value is the load of this volume.
-     * This load is measured by counting how many number of tasks are running.
-     *
-     * These disk volumes are kept in an order of ascending order of the volume id.
-     * In other words, the head volume ids are likely to -1, meaning no given volume id.
-     */
-    private SortedMap<Integer, Integer> diskVolumeLoads = new TreeMap<>();
-    /** The total number of remain tasks in this host */
-    private AtomicInteger remainTasksNum = new AtomicInteger(0);
-
-    public HostVolumeMapping(String host, String rack){
-      this.host = host;
-      this.rack = rack;
-    }
-
-    public synchronized void addTaskAttempt(int volumeId, TaskAttempt attemptId){
-      synchronized (unassignedTaskForEachVolume){
-        LinkedHashSet<TaskAttempt> list = unassignedTaskForEachVolume.get(volumeId);
-        if (list == null) {
-          list = new LinkedHashSet<>();
-          unassignedTaskForEachVolume.put(volumeId, list);
-        }
-        list.add(attemptId);
-      }
-
-      remainTasksNum.incrementAndGet();
-
-      if(!diskVolumeLoads.containsKey(volumeId)) diskVolumeLoads.put(volumeId, 0);
-    }
-
-    /**
-     *  Priorities
-     *  1. a task list in a volume of host
-     *  2. unknown block or Non-splittable task in host
-     *  3. remote tasks. unassignedTaskForEachVolume is only contained local task. so it will be null
-     */
-    public synchronized TaskAttemptId getLocalTask() {
-      int volumeId = getLowestVolumeId();
-      TaskAttemptId taskAttemptId = null;
-
-      if (unassignedTaskForEachVolume.size() >  0) {
-        int retry = diskVolumeLoads.size();
-        do {
-          //clean and get a remaining local task
-          taskAttemptId = getAndRemove(volumeId);
-
-          if (taskAttemptId == null) {
-            //reassign next volume
-            volumeId = getLowestVolumeId();
-            retry--;
-          } else {
-            lastAssignedVolumeId.put(taskAttemptId, volumeId);
-            break;
-          }
-        } while (retry > 0);
-      } else {
-        this.remainTasksNum.set(0);
-      }
-
-      return taskAttemptId;
-    }
-
-    public synchronized TaskAttemptId getTaskAttemptIdByRack(String rack) {
-      TaskAttemptId taskAttemptId = null;
-
-      if (unassignedTaskForEachVolume.size() > 0 && this.rack.equals(rack)) {
-        int retry = unassignedTaskForEachVolume.size();
-        do {
-          //clean and get a remaining task
-          int volumeId = getLowestVolumeId();
-          taskAttemptId = getAndRemove(volumeId);
-          if (taskAttemptId == null) {
-            retry--;
-          } else {
-            break;
-          }
-        } while (retry > 0);
-      }
-      return taskAttemptId;
-    }
-
-    private synchronized TaskAttemptId getAndRemove(int volumeId){
-      TaskAttemptId taskAttemptId = null;
-      if(!unassignedTaskForEachVolume.containsKey(volumeId)) {
-        if (volumeId > DataLocation.REMOTE_VOLUME_ID) {
-          diskVolumeLoads.remove(volumeId);
-        }
-        return taskAttemptId;
-      }
-
-      LinkedHashSet<TaskAttempt> list = unassignedTaskForEachVolume.get(volumeId);
-      if (list != null && !list.isEmpty()) {
-        TaskAttempt taskAttempt;
-        synchronized (unassignedTaskForEachVolume) {
-          Iterator<TaskAttempt> iterator = list.iterator();
-          taskAttempt = iterator.next();
-          iterator.remove();
-          remainTasksNum.decrementAndGet();
-        }
-
-        taskAttemptId = taskAttempt.getId();
-        for (DataLocation location : taskAttempt.getTask().getDataLocations()) {
-          HostVolumeMapping volumeMapping = scheduledRequests.leafTaskHostMapping.get(location.getHost());
-          if (volumeMapping != null) {
-            volumeMapping.removeTaskAttempt(location.getVolumeId(), taskAttempt);
-          }
-        }
-
-        increaseConcurrency(volumeId);
-      } else {
-        unassignedTaskForEachVolume.remove(volumeId);
-      }
-
-      return taskAttemptId;
-    }
 
-    private synchronized void removeTaskAttempt(int volumeId, TaskAttempt taskAttempt){
-      if(!unassignedTaskForEachVolume.containsKey(volumeId)) return;
-
-      LinkedHashSet<TaskAttempt> tasks  = unassignedTaskForEachVolume.get(volumeId);
-      if(tasks.remove(taskAttempt)) {
-        remainTasksNum.getAndDecrement();
-      }
-
-      if(tasks.isEmpty()){
-        unassignedTaskForEachVolume.remove(volumeId);
-        if (volumeId > DataLocation.REMOTE_VOLUME_ID) {
-          diskVolumeLoads.remove(volumeId);
-        }
-      }
-    }
-
-    /**
-     * Increase the count of running tasks and disk loads for a certain task runner.
-     *
-     * @param volumeId Volume identifier
-     * @return the volume load (i.e., how many running tasks use this volume)
-     */
-    private synchronized int increaseConcurrency(int volumeId) {
-
-      int concurrency = 1;
-      if (diskVolumeLoads.containsKey(volumeId)) {
-        concurrency = diskVolumeLoads.get(volumeId) + 1;
-      }
-
-      if (volumeId > DataLocation.UNKNOWN_VOLUME_ID) {
-        info(LOG, "Assigned host : " + host + ", Volume : " + volumeId + ", Concurrency : " + concurrency);
-      } else if (volumeId == DataLocation.UNKNOWN_VOLUME_ID) {
-        // this case is disabled namenode block meta or compressed text file or amazon s3
-        info(LOG, "Assigned host : " + host + ", Unknown Volume : " + volumeId + ", Concurrency : " + concurrency);
-      } else if (volumeId == DataLocation.REMOTE_VOLUME_ID) {
-        // this case has processed all block on host and it will be assigned to remote
-        info(LOG, "Assigned host : " + host + ", Remaining local tasks : " + getRemainingLocalTaskSize()
-            + ", Remote Concurrency : " + concurrency + ", Unassigned volumes: " + unassignedTaskForEachVolume.size());
-      }
-      diskVolumeLoads.put(volumeId, concurrency);
-      return concurrency;
-    }
-
-    /**
-     * Decrease the count of running tasks of a certain task runner
-     */
-    private synchronized void decreaseConcurrency(int volumeId){
-      if(diskVolumeLoads.containsKey(volumeId)){
-        int concurrency = diskVolumeLoads.get(volumeId);
-        if(concurrency > 0){
-          diskVolumeLoads.put(volumeId, concurrency - 1);
-        }
-      }
-    }
-
-    /**
-     *  volume of a host : 0 ~ n
-     *  compressed task, amazon s3, unKnown volume : -1
-     *  remote task : -2
-     */
-    public int getLowestVolumeId(){
-      Map.Entry<Integer, Integer> volumeEntry = null;
-
-      for (Map.Entry<Integer, Integer> entry : diskVolumeLoads.entrySet()) {
-        if(volumeEntry == null) volumeEntry = entry;
-
-        if (entry.getKey() != DataLocation.REMOTE_VOLUME_ID && volumeEntry.getValue() >= entry.getValue()) {
-          volumeEntry = entry;
-        }
-      }
-
-      if(volumeEntry != null){
-        return volumeEntry.getKey();
-      } else {
-        return DataLocation.REMOTE_VOLUME_ID;
-      }
-    }
-
-    public int getRemoteConcurrency(){
-      return getVolumeConcurrency(DataLocation.REMOTE_VOLUME_ID);
-    }
-
-    public int getVolumeConcurrency(int volumeId){
-      Integer size = diskVolumeLoads.get(volumeId);
-      if(size == null) return 0;
-      else return size;
-    }
-
-    public int getRemainingLocalTaskSize(){
-      return remainTasksNum.get();
-    }
-
-    public String getHost() {
-      return host;
-    }
-
-    public String getRack() {
-      return rack;
+  private void wakeUp() {
+    synchronized (schedulingThread) {
+      schedulingThread.notifyAll();
     }
   }
 
@@ -631,56 +562,54 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
     return canceled;
   }
 
+  /**
+   * The task attempts assigned to a worker, which are sent by a single request.
+   */
+  private class TaskAllocationBatch {
+    private final WorkerConnectionInfo connectionInfo;
+    private final InetSocketAddress addr;
+    private final BatchAllocationRequest.Builder requestProto = BatchAllocationRequest.newBuilder();
+    private final CallFuture<BatchAllocationResponse> callFuture = new CallFuture<>();
+    private final Set<TaskAttemptId> localAttempts = Sets.newHashSet();
+    private final Set<TaskAttemptId> rackAttempts = Sets.newHashSet();
+
+    TaskAllocationBatch(WorkerConnectionInfo connectionInfo) {
+      this.connectionInfo = connectionInfo;
+      InetSocketAddress assignedAddr = stage.getAssignedWorkerMap().get(connectionInfo.getId());
+      this.addr = assignedAddr != null ? assignedAddr :
+          new InetSocketAddress(connectionInfo.getHost(), connectionInfo.getPeerRpcPort());
+      this.requestProto.setExecutionBlockId(stage.getId().getProto());
+    }
+
+    void add(TaskAttemptId attemptId, TaskAllocationProto allocation) {
+      requestProto.addTaskRequest(allocation);
+      context.getMasterContext().getEventHandler().handle(new TaskAttemptAssignedEvent(attemptId, connectionInfo));
+    }
+  }
+
   private class ScheduledRequests {
-    // two list leafTasks and nonLeafTasks keep all tasks to be scheduled. Even though some task is included in
-    // leafTaskHostMapping or leafTasksRackMapping, some task T will not be sent to a task runner
-    // if the task is not included in leafTasks and nonLeafTasks.
-    private final Set<TaskAttemptId> leafTasks = Collections.synchronizedSet(new HashSet<>());
-    private final Set<TaskAttemptId> nonLeafTasks = Collections.synchronizedSet(new HashSet<>());
-    private Map<String, HostVolumeMapping> leafTaskHostMapping = Maps.newConcurrentMap();
-    private final Map<String, HashSet<TaskAttemptId>> leafTasksRackMapping = Maps.newConcurrentMap();
+    // leafTasks and nonLeafTasks keep all task attempts to be scheduled. A leaf task attempt is indexed by
+    // the hosts, the volumes and the rack of its data, and it is claimed by one of them at most once.
+    private final TaskAttemptQueue leafTasks = new TaskAttemptQueue(DefaultTaskScheduler::resolveRack);
+    private final TaskAttemptQueue nonLeafTasks = new TaskAttemptQueue(DefaultTaskScheduler::resolveRack);
 
     protected void clear() {
       leafTasks.clear();
       nonLeafTasks.clear();
-      leafTaskHostMapping.clear();
-      leafTasksRackMapping.clear();
     }
 
     private void addLeafTask(TaskAttemptToSchedulerEvent event) {
       TaskAttempt taskAttempt = event.getTaskAttempt();
-      List<DataLocation> locations = taskAttempt.getTask().getDataLocations();
+      List<DataLocation> locations = getDataLocations(taskAttempt);
 
       for (DataLocation location : locations) {
-        String host = location.getHost();
-        leafTaskHosts.add(host);
-
-        HostVolumeMapping hostVolumeMapping = leafTaskHostMapping.get(host);
-        if (hostVolumeMapping == null) {
-          String rack = RackResolver.resolve(host).getNetworkLocation();
-          hostVolumeMapping = new HostVolumeMapping(host, rack);
-          leafTaskHostMapping.put(host, hostVolumeMapping);
-        }
-        hostVolumeMapping.addTaskAttempt(location.getVolumeId(), taskAttempt);
-
-        if (LOG.isDebugEnabled()) {
-          LOG.debug("Added attempt req to host " + host);
-        }
-
-        HashSet<TaskAttemptId> list = leafTasksRackMapping.get(hostVolumeMapping.getRack());
-        if (list == null) {
-          list = new HashSet<>();
-          leafTasksRackMapping.put(hostVolumeMapping.getRack(), list);
-        }
-
-        list.add(taskAttempt.getId());
-
-        if (LOG.isDebugEnabled()) {
-          LOG.debug("Added attempt req to rack " + hostVolumeMapping.getRack());
-        }
+        leafTaskHosts.add(location.getHost());
       }
+      leafTasks.add(taskAttempt.getId(), locations);
 
-      leafTasks.add(taskAttempt.getId());
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Added attempt req to hosts " + locations);
+      }
     }
 
     private void addNonLeafTask(TaskAttemptToSchedulerEvent event) {
@@ -695,96 +624,28 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
       return nonLeafTasks.size();
     }
 
-    private TaskAttemptId allocateLocalTask(String host){
-      HostVolumeMapping hostVolumeMapping = leafTaskHostMapping.get(host);
-
-      if (hostVolumeMapping != null) { //tajo host is located in hadoop datanode
-        for (int i = 0; i < hostVolumeMapping.getRemainingLocalTaskSize(); i++) {
-          TaskAttemptId attemptId = hostVolumeMapping.getLocalTask();
-
-          if(attemptId == null) break;
-          //find remaining local task
-          if (leafTasks.contains(attemptId)) {
-            leafTasks.remove(attemptId);
-            return attemptId;
-          }
-        }
-      }
-      return null;
-    }
-
-    private TaskAttemptId allocateRackTask(String host) {
-
-      List<HostVolumeMapping> remainingTasks = Lists.newArrayList(leafTaskHostMapping.values());
-      String rack = RackResolver.resolve(host).getNetworkLocation();
-      TaskAttemptId attemptId = null;
-
-      if (remainingTasks.size() > 0) {
-        synchronized (scheduledRequests) {
-          //find largest remaining task of other host in rack
-          Collections.sort(remainingTasks, new Comparator<HostVolumeMapping>() {
-            @Override
-            public int compare(HostVolumeMapping v1, HostVolumeMapping v2) {
-              // descending remaining tasks
-              if (v2.remainTasksNum.get() > v1.remainTasksNum.get()) {
-                return 1;
-              } else if (v2.remainTasksNum.get() == v1.remainTasksNum.get()) {
-                return 0;
-              } else {
-                return -1;
-              }
-            }
-          });
-        }
-
-        for (HostVolumeMapping tasks : remainingTasks) {
-          for (int i = 0; i < tasks.getRemainingLocalTaskSize(); i++) {
-            TaskAttemptId tId = tasks.getTaskAttemptIdByRack(rack);
-
-            if (tId == null) break;
-
-            if (leafTasks.contains(tId)) {
-              leafTasks.remove(tId);
-              attemptId = tId;
-              break;
-            }
-          }
-          if(attemptId != null) break;
-        }
-      }
-
-      //find task in rack
-      if (attemptId == null) {
-        HashSet<TaskAttemptId> list = leafTasksRackMapping.get(rack);
-        if (list != null) {
-          synchronized (list) {
-            Iterator<TaskAttemptId> iterator = list.iterator();
-            while (iterator.hasNext()) {
-              TaskAttemptId tId = iterator.next();
-              iterator.remove();
-              if (leafTasks.contains(tId)) {
-                leafTasks.remove(tId);
-                attemptId = tId;
-                break;
-              }
-            }
-          }
+    /**
+     * @return true if some remaining leaf tasks can be assigned to the workers holding their data
+     */
+    private boolean hasLocalTasks() {
+      for (WorkerConnectionInfo worker : context.getMasterContext().getWorkerMap().values()) {
+        if (leafTasks.getRemainingLocalTaskSize(worker.getHost()) > 0) {
+          return true;
         }
       }
-
-      return attemptId;
+      return false;
     }
 
     public void assignToLeafTasks(LinkedList<TaskRequestEvent> taskRequests) throws InterruptedException {
       Collections.shuffle(taskRequests);
       LinkedList<TaskRequestEvent> remoteTaskRequests = new LinkedList<>();
+      Map<Integer, TaskAllocationBatch> batches = new LinkedHashMap<>();
       String queryMasterHostAndPort = context.getMasterContext().getQueryMasterContext().getWorkerContext().
           getConnectionInfo().getHostAndQMPort();
+      boolean localTasksRemain = localityDelay > 0 && hasLocalTasks();
 
       TaskRequestEvent taskRequest;
-      while (leafTasks.size() > 0 && (!taskRequests.isEmpty() || !remoteTaskRequests.isEmpty())) {
-        int localAssign = 0;
-        int rackAssign = 0;
+      while (!leafTasks.isEmpty() && (!taskRequests.isEmpty() || !remoteTaskRequests.isEmpty())) {
 
         taskRequest = taskRequests.pollFirst();
         if(taskRequest == null) { // if there are only remote task requests
@@ -800,10 +661,10 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         String host = connectionInfo.getHost();
 
         // if there are no worker matched to the hostname a task request
-        if (!leafTaskHostMapping.containsKey(host) && !taskRequests.isEmpty()) {
+        if (!leafTasks.hasHost(host) && !taskRequests.isEmpty()) {
           String normalizedHost = NetUtils.normalizeHost(host);
 
-          if (!leafTaskHostMapping.containsKey(normalizedHost)) {
+          if (!leafTasks.hasHost(normalizedHost)) {
             // this case means one of either cases:
             // * there are no blocks which reside in this node.
             // * all blocks which reside in this node are consumed, and this task runner requests a remote task.
@@ -823,143 +684,183 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         //////////////////////////////////////////////////////////////////////
         // disk or host-local allocation
         //////////////////////////////////////////////////////////////////////
-        TaskAttemptId attemptId = allocateLocalTask(host);
-        int assignedVolume = DataLocation.REMOTE_VOLUME_ID;
-        HostVolumeMapping hostVolumeMapping = leafTaskHostMapping.get(host);
+        Pair<TaskAttemptId, Integer> localTask = leafTasks.pollLocal(host);
+        TaskAttemptId attemptId;
+        int assignedVolume;
 
-        if (attemptId == null) { // if a local task cannot be found
+        if (localTask == null) { // if a local task cannot be found
 
           if(!taskRequests.isEmpty()) { //if other requests remains, move to remote list for better locality
             remoteTaskRequests.add(taskRequest);
             candidateWorkers.remove(connectionInfo.getId());
             continue;
 
-          } else {
-            if(hostVolumeMapping != null) {
-              int nodes = context.getMasterContext().getWorkerMap().size();
-              //this part is to control the assignment of tail and remote task balancing per node
-              int tailLimit = 1;
-              if (remainingScheduledObjectNum() > 0 && nodes > 0) {
-                tailLimit = Math.max(remainingScheduledObjectNum() / nodes, 1);
-              }
-
-              //remote task throttling per node
-              if (nodes > 1 && hostVolumeMapping.getRemoteConcurrency() >= tailLimit) {
-                continue;
-              } else {
-                // assign to remote volume
-                hostVolumeMapping.increaseConcurrency(assignedVolume);
-              }
+          } else if (leafTasks.hasHost(host)) {
+            int nodes = context.getMasterContext().getWorkerMap().size();
+            //this part is to control the assignment of tail and remote task balancing per node
+            int tailLimit = 1;
+            if (remainingScheduledObjectNum() > 0 && nodes > 0) {
+              tailLimit = Math.max(remainingScheduledObjectNum() / nodes, 1);
+            }
+
+            //remote task throttling per node
+            if (nodes > 1 && leafTasks.getRemoteConcurrency(host) >= tailLimit) {
+              continue;
             }
           }
 
+          // delay scheduling: wait for the workers holding the remaining data for a while
+          if (isRemoteAssignmentDelayed(localTasksRemain, System.currentTimeMillis())) {
+            continue;
+          }
+
           //////////////////////////////////////////////////////////////////////
           // rack-local allocation
           //////////////////////////////////////////////////////////////////////
-          attemptId = allocateRackTask(host);
+          attemptId = leafTasks.pollRack(resolveRack(host));
 
           //////////////////////////////////////////////////////////////////////
           // random node allocation
           //////////////////////////////////////////////////////////////////////
-          if (attemptId == null && leafTaskNum() > 0) {
-            synchronized (leafTasks){
-              attemptId = leafTasks.iterator().next();
-              leafTasks.remove(attemptId);
-            }
+          if (attemptId == null) {
+            attemptId = leafTasks.pollAny();
           }
 
-          if (attemptId != null && hostVolumeMapping != null) {
-            hostVolumeMapping.lastAssignedVolumeId.put(attemptId, assignedVolume);
+          if (attemptId == null) {
+            // the remaining attempts are canceled
+            continue;
           }
-          rackAssign++;
+          assignedVolume = DataLocation.REMOTE_VOLUME_ID;
+          leafTasks.assignRemote(host, attemptId);
         } else {
-          if(hostVolumeMapping != null){
-            //Set to real volume id
-            assignedVolume = hostVolumeMapping.lastAssignedVolumeId.get(attemptId);
-          }
-
-          localAssign++;
+          attemptId = localTask.getFirst();
+          assignedVolume = localTask.getSecond();
+          setLastLocalAssignedTime(System.currentTimeMillis());
         }
 
-        if (attemptId != null) {
-          Task task = stage.getTask(attemptId.getTaskId());
-          TaskRequest taskAssign = new TaskRequestImpl(
-              attemptId,
-                  new ArrayList<>(task.getAllFragments()),
-              "",
-              false,
-              LogicalNodeSerializer.serialize(task.getLogicalPlan()),
-              context.getMasterContext().getQueryContext(),
-              stage.getDataChannel(), stage.getBlock().getEnforcer(),
-              queryMasterHostAndPort);
-
-          NodeResource resource = new NodeResource(taskRequest.getResponseProto().getResource());
-
-          if (checkIfInterQuery(stage.getMasterPlan(), stage.getBlock())) {
-            taskAssign.setInterQuery();
-          }
+        if (isAssignedToWorker(attemptId, connectionInfo)) {
+          // a speculative attempt must run on another worker
+          leafTasks.release(host, attemptId);
+          leafTasks.add(attemptId, getDataLocations(stage.getTask(attemptId.getTaskId()).getAttempt(attemptId)));
+          continue;
+        }
 
-          //TODO send batch request
-          BatchAllocationRequest.Builder requestProto = BatchAllocationRequest.newBuilder();
-          requestProto.addTaskRequest(TaskAllocationProto.newBuilder()
-              .setResource(resource.getProto()).setVolumeId(assignedVolume)
-              .setTaskRequest(taskAssign.getProto()).build());
+        Task task = stage.getTask(attemptId.getTaskId());
+        TaskRequest taskAssign = new TaskRequestImpl(
+            attemptId,
+                new ArrayList<>(task.getAllFragments()),
+            "",
+            false,
+            LogicalNodeSerializer.serialize(task.getLogicalPlan()),
+            context.getMasterContext().getQueryContext(),
+            stage.getDataChannel(), stage.getBlock().getEnforcer(),
+            queryMasterHostAndPort);
+
+        NodeResource resource = new NodeResource(taskRequest.getResponseProto().getResource());
+
+        if (checkIfInterQuery(stage.getMasterPlan(), stage.getBlock())) {
+          taskAssign.setInterQuery();
+        }
+        addShuffleMergers(taskAssign);
 
-          requestProto.setExecutionBlockId(attemptId.getTaskId().getExecutionBlockId().getProto());
-          context.getMasterContext().getEventHandler().handle(new TaskAttemptAssignedEvent(attemptId, connectionInfo));
+        TaskAllocationBatch batch =
+            batches.computeIfAbsent(connectionInfo.getId(), id -> new TaskAllocationBatch(connectionInfo));
+        batch.add(attemptId, TaskAllocationProto.newBuilder()
+            .setResource(resource.getProto()).setVolumeId(assignedVolume)
+            .setTaskRequest(taskAssign.getProto()).build());
 
-          InetSocketAddress addr = stage.getAssignedWorkerMap().get(connectionInfo.getId());
-          if (addr == null) addr = new InetSocketAddress(connectionInfo.getHost(), connectionInfo.getPeerRpcPort());
+        if (localTask != null) {
+          batch.localAttempts.add(attemptId);
+        } else {
+          batch.rackAttempts.add(attemptId);
+        }
+      }
 
-          AsyncRpcClient tajoWorkerRpc = null;
-          CallFuture<BatchAllocationResponse> callFuture = new CallFuture<>();
-          totalAttempts++;
-          try {
-            tajoWorkerRpc = RpcClientManager.getInstance().getClient(addr, TajoWorkerProtocol.class, true,
-                rpcParams);
+      sendTaskAllocations(batches.values());
+    }
 
-            TajoWorkerProtocol.TajoWorkerProtocolService tajoWorkerRpcClient = tajoWorkerRpc.getStub();
-            tajoWorkerRpcClient.allocateTasks(callFuture.getController(), requestProto.build(), callFuture);
+    /**
+     * Send the assigned task attempts to all workers at once, and then wait for their responses.
+     * The attempts rejected by a worker are canceled to be scheduled again.
+     */
+    private void sendTaskAllocations(Collection<TaskAllocationBatch> batches) throws InterruptedException {
+      List<TaskAllocationBatch> sentBatches = Lists.newArrayList();
+      for (TaskAllocationBatch batch : batches) {
+        totalAttempts += batch.requestProto.getTaskRequestCount();
+        try {
+          AsyncRpcClient tajoWorkerRpc = RpcClientManager.getInstance().getClient(batch.addr,
+              TajoWorkerProtocol.class, true, rpcParams);
+
+          TajoWorkerProtocol.TajoWorkerProtocolService tajoWorkerRpcClient = tajoWorkerRpc.getStub();
+          tajoWorkerRpcClient.allocateTasks(batch.callFuture.getController(), batch.requestProto.build(),
+              batch.callFuture);
+          sentBatches.add(batch);
+        } catch (ConnectException e) {
+          cancellation += cancel(batch.requestProto.getTaskRequestList());
+          warn(LOG, "Canceled requests: " + batch.requestProto.getTaskRequestCount()
+              + " by " + ExceptionUtils.getFullStackTrace(e));
+        } catch (Exception e) {
+          throw new TajoInternalError(e);
+        }
+      }
 
-            BatchAllocationResponse responseProto = callFuture.get();
+      for (TaskAllocationBatch batch : sentBatches) {
+        Set<TaskAttemptId> canceled = Sets.newHashSet();
+        try {
+          BatchAllocationResponse responseProto = batch.callFuture.get();
 
-            if (responseProto.getCancellationTaskCount() > 0) {
-              cancellation += cancel(responseProto.getCancellationTaskList());
-              info(LOG, "Canceled requests: " + responseProto.getCancellationTaskCount() + " from " +  addr);
-              continue;
+          if (responseProto.getCancellationTaskCount() > 0) {
+            cancellation += cancel(responseProto.getCancellationTaskList());
+            for (TaskAllocationProto proto : responseProto.getCancellationTaskList()) {
+              canceled.add(new TaskAttemptId(proto.getTaskRequest().getId()));
             }
-          } catch (ExecutionException | ConnectException e) {
-            cancellation += cancel(requestProto.getTaskRequestList());
+            info(LOG, "Canceled requests: " + responseProto.getCancellationTaskCount() + " from " + batch.addr);
+          }
+        } catch (ExecutionException e) {
+          cancellation += cancel(batch.requestProto.getTaskRequestList());
+          warn(LOG, "Canceled requests: " + batch.requestProto.getTaskRequestCount()
+              + " by " + ExceptionUtils.getFullStackTrace(e));
+          continue;
+        }
 
-            warn(LOG, "Canceled requests: " + requestProto.getTaskRequestCount()
-                + " by " + ExceptionUtils.getFullStackTrace(e));
+        int rackAssign = 0;
+        for (TaskAllocationProto proto : batch.requestProto.getTaskRequestList()) {
+          TaskAttemptId attemptId = new TaskAttemptId(proto.getTaskRequest().getId());
+          if (canceled.contains(attemptId)) {
             continue;
-          } catch (InterruptedException e) {
-            throw e;
-          } catch (Exception e) {
-            throw new TajoInternalError(e);
           }
 
           scheduledObjectNum--;
           totalAssigned++;
-          hostLocalAssigned += localAssign;
-          rackLocalAssigned += rackAssign;
-
-          if (rackAssign > 0) {
-            info(LOG, String.format("Assigned Local/Rack/Total: (%d/%d/%d), " +
-                    "Attempted Cancel/Assign/Total: (%d/%d/%d), " +
-                    "Locality: %.2f%%, Rack host: %s",
-                hostLocalAssigned, rackLocalAssigned, totalAssigned,
-                cancellation, totalAssigned, totalAttempts,
-                ((double) hostLocalAssigned / (double) totalAssigned) * 100, host));
+          if (batch.localAttempts.contains(attemptId)) {
+            hostLocalAssigned++;
+          } else if (batch.rackAttempts.contains(attemptId)) {
+            rackLocalAssigned++;
+            rackAssign++;
           }
+        }
 
-        } else {
-          throw new RuntimeException("Illegal State!!!!!!!!!!!!!!!!!!!!!");
+        if (rackAssign > 0) {
+          info(LOG, String.format("Assigned Local/Rack/Total: (%d/%d/%d), " +
+                  "Attempted Cancel/Assign/Total: (%d/%d/%d), " +
+                  "Locality: %.2f%%, Rack host: %s",
+              hostLocalAssigned, rackLocalAssigned, totalAssigned,
+              cancellation, totalAssigned, totalAttempts,
+              ((double) hostLocalAssigned / (double) totalAssigned) * 100, batch.connectionInfo.getHost()));
         }
       }
     }
 
+    /**
+     * Gives the mergers of this stage to a task. A merger not running any task of this stage joins the stage
+     * when the first partition is pushed to it, so it reports the merged partitions like the others.
+     */
+    private void addShuffleMergers(TaskRequest taskAssign) {
+      for (String merger : shuffleMergers) {
+        taskAssign.addShuffleMerger(merger);
+      }
+    }
+
     private boolean checkIfInterQuery(MasterPlan masterPlan, ExecutionBlock block) {
       if (masterPlan.isRoot(block)) {
         return false;
@@ -975,6 +876,7 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
 
     public void assignToNonLeafTasks(LinkedList<TaskRequestEvent> taskRequests) throws InterruptedException {
       Collections.shuffle(taskRequests);
+      Map<Integer, TaskAllocationBatch> batches = new LinkedHashMap<>();
       String queryMasterHostAndPort = context.getMasterContext().getQueryMasterContext().getWorkerContext().
           getConnectionInfo().getHostAndQMPort();
 
@@ -983,89 +885,57 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
         taskRequest = taskRequests.pollFirst();
         LOG.debug("assignToNonLeafTasks: " + taskRequest.getExecutionBlockId());
 
-        TaskAttemptId attemptId;
         // random allocation
-        if (nonLeafTasks.size() > 0) {
-          synchronized (nonLeafTasks){
-            attemptId = nonLeafTasks.iterator().next();
-            nonLeafTasks.remove(attemptId);
-          }
-          LOG.debug("Assigned based on * match");
-
-          Task task;
-          task = stage.getTask(attemptId.getTaskId());
-
-          TaskRequest taskAssign = new TaskRequestImpl(
-              attemptId,
-              Lists.newArrayList(task.getAllFragments()),
-              "",
-              false,
-              LogicalNodeSerializer.serialize(task.getLogicalPlan()),
-              context.getMasterContext().getQueryContext(),
-              stage.getDataChannel(),
-              stage.getBlock().getEnforcer(),
-              queryMasterHostAndPort);
-
-          if (checkIfInterQuery(stage.getMasterPlan(), stage.getBlock())) {
-            taskAssign.setInterQuery();
-          }
-          for(Map.Entry<String, Set<FetchProto>> entry: task.getFetchMap().entrySet()) {
-            Collection<FetchProto> fetches = entry.getValue();
-            if (fetches != null) {
-              for (FetchProto fetch : fetches) {
-                taskAssign.addFetch(fetch);
-              }
-            }
-          }
-
-          WorkerConnectionInfo connectionInfo =
-              context.getMasterContext().getWorkerMap().get(taskRequest.getWorkerId());
-
-          //TODO send batch request
-          BatchAllocationRequest.Builder requestProto = BatchAllocationRequest.newBuilder();
-          requestProto.addTaskRequest(TaskAllocationProto.newBuilder()
-              .setResource(taskRequest.getResponseProto().getResource())
-              .setTaskRequest(taskAssign.getProto()).build());
-
-          requestProto.setExecutionBlockId(attemptId.getTaskId().getExecutionBlockId().getProto());
-          context.getMasterContext().getEventHandler().handle(new TaskAttemptAssignedEvent(attemptId, connectionInfo));
-
-          CallFuture<BatchAllocationResponse> callFuture = new CallFuture<>();
-
-          InetSocketAddress addr = stage.getAssignedWorkerMap().get(connectionInfo.getId());
-          if (addr == null) addr = new InetSocketAddress(connectionInfo.getHost(), connectionInfo.getPeerRpcPort());
-
-          AsyncRpcClient tajoWorkerRpc;
-          try {
-            tajoWorkerRpc = RpcClientManager.getInstance().getClient(addr, TajoWorkerProtocol.class, true,
-                rpcParams);
-
-            TajoWorkerProtocol.TajoWorkerProtocolService tajoWorkerRpcClient = tajoWorkerRpc.getStub();
-            tajoWorkerRpcClient.allocateTasks(callFuture.getController(), requestProto.build(), callFuture);
-
-            BatchAllocationResponse responseProto = callFuture.get();
+        TaskAttemptId attemptId = nonLeafTasks.pollAny();
+        if (attemptId == null) {
+          break;
+        }
+        LOG.debug("Assigned based on * match");
+
+        WorkerConnectionInfo connectionInfo =
+            context.getMasterContext().getWorkerMap().get(taskRequest.getWorkerId());
+        if (connectionInfo == null || isAssignedToWorker(attemptId, connectionInfo)) {
+          // the worker is gone, or a speculative attempt must run on another worker
+          nonLeafTasks.add(attemptId);
+          continue;
+        }
 
-            if(responseProto.getCancellationTaskCount() > 0) {
-              cancellation += cancel(responseProto.getCancellationTaskList());
-              info(LOG, "Canceled requests: " + responseProto.getCancellationTaskCount() + " from " +  addr);
-              continue;
+        Task task;
+        task = stage.getTask(attemptId.getTaskId());
+
+        TaskRequest taskAssign = new TaskRequestImpl(
+            attemptId,
+            Lists.newArrayList(task.getAllFragments()),
+            "",
+            false,
+            LogicalNodeSerializer.serialize(task.getLogicalPlan()),
+            context.getMasterContext().getQueryContext(),
+            stage.getDataChannel(),
+            stage.getBlock().getEnforcer(),
+            queryMasterHostAndPort);
+
+        if (checkIfInterQuery(stage.getMasterPlan(), stage.getBlock())) {
+          taskAssign.setInterQuery();
+        }
+        for(Map.Entry<String, Set<FetchProto>> entry: task.getFetchMap().entrySet()) {
+          Collection<FetchProto> fetches = entry.getValue();
+          if (fetches != null) {
+            for (FetchProto fetch : fetches) {
+              taskAssign.addFetch(fetch);
             }
-
-          } catch (ExecutionException | ConnectException e) {
-            cancellation += cancel(requestProto.getTaskRequestList());
-            warn(LOG, "Canceled requests: " + requestProto.getTaskRequestCount()
-                + " by " + ExceptionUtils.getFullStackTrace(e));
-            continue;
-          } catch (InterruptedException e) {
-            throw e;
-          } catch (Exception e) {
-            throw new TajoInternalError(e);
           }
-
-          totalAssigned++;
-          scheduledObjectNum--;
         }
+
+        addShuffleMergers(taskAssign);
+
+        TaskAllocationBatch batch =
+            batches.computeIfAbsent(connectionInfo.getId(), id -> new TaskAllocationBatch(connectionInfo));
+        batch.add(attemptId, TaskAllocationProto.newBuilder()
+            .setResource(taskRequest.getResponseProto().getResource())
+            .setTaskRequest(taskAssign.getProto()).build());
       }
+
+      sendTaskAllocations(batches.values());
     }
   }
 }
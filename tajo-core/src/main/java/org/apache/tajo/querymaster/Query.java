@@ -48,12 +48,17 @@ import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.error.Errors.SerializedException;
 import org.apache.tajo.exception.ErrorUtil;
 import org.apache.tajo.master.event.*;
+import org.apache.tajo.master.exec.AnalyzeTableExecutor;
+import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.logical.*;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.schema.IdentifierUtil;
+import org.apache.tajo.storage.Scanner;
 import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.Tablespace;
 import org.apache.tajo.storage.TablespaceManager;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.util.history.QueryHistory;
 import org.apache.tajo.util.history.StageHistory;
 
@@ -600,6 +605,7 @@ public class Query implements EventHandler<QueryEvent> {
       public QueryHookExecutor(QueryMaster.QueryMasterContext context) {
         this.context = context;
         hookList.add(new MaterializedResultHook());
+        hookList.add(new AnalyzeTableHook());
         hookList.add(new CreateTableHook());
         hookList.add(new InsertTableHook());
         hookList.add(new CreateIndexHook());
@@ -696,6 +702,57 @@ public class Query implements EventHandler<QueryEvent> {
       }
     }
 
+    /**
+     * It stores the statistics computed by ANALYZE TABLE. It must be executed after {@link MaterializedResultHook}.
+     */
+    private static class AnalyzeTableHook implements QueryHook {
+
+      @Override
+      public boolean isEligible(QueryContext queryContext, Query query, ExecutionBlockId finalExecBlockId,
+                                Path finalOutputDir) {
+        return queryContext.isAnalyzeTable() && query.getResultDesc() != null;
+      }
+
+      @Override
+      public void execute(QueryMaster.QueryMasterContext context, QueryContext queryContext,
+                          Query query, ExecutionBlockId finalExecBlockId,
+                          Path finalOutputDir) throws Exception {
+        CatalogService catalog = context.getWorkerContext().getCatalog();
+        TableDesc table = catalog.getTableDesc(queryContext.getAnalyzeTableName());
+
+        TableDesc resultDesc = query.getResultDesc();
+        Tablespace resultSpace = TablespaceManager.get(resultDesc.getUri());
+        TableStats stats = null;
+        for (Fragment fragment : resultSpace.getSplits(query.getId().toString(), resultDesc, false, null)) {
+          Scanner scanner = resultSpace.getScanner(resultDesc.getMeta(), resultDesc.getSchema(), fragment, null);
+          try {
+            scanner.init();
+            Tuple tuple = scanner.next();
+            if (tuple != null) {
+              stats = AnalyzeTableExecutor.buildTableStats(table, resultDesc.getSchema(), tuple);
+              break;
+            }
+          } finally {
+            scanner.close();
+          }
+        }
+
+        if (stats == null) {
+          throw new IOException("Cannot find the result of ANALYZE TABLE " + table.getName());
+        }
+
+        Tablespace tablespace = TablespaceManager.get(table.getUri());
+        stats.setNumBytes(tablespace.getTableVolume(table, Optional.<EvalNode>empty()));
+
+        UpdateTableStatsProto.Builder builder = UpdateTableStatsProto.newBuilder();
+        builder.setTableName(table.getName());
+        builder.setStats(stats.getProto());
+        catalog.updateTableStats(builder.build());
+        LOG.info("Statistics of " + table.getName() + " are updated: " + stats.getNumRows() + " rows, "
+            + stats.getColumnStats().size() + " columns");
+      }
+    }
+
     private static class CreateTableHook implements QueryHook {
 
       @Override
@@ -404,14 +404,335 @@ public class Repartitioner {
     }
     Stage.scheduleFragment(stage, fragments[0], rightFragments);
 
-    // Assign partitions to tasks in a round robin manner.
+    // If one side turns out to be small enough at runtime, it is broadcast to the tasks of the other side.
+    ExecutionBlockId broadcastId = broadcastFragments == null ?
+        getRuntimeBroadcastSide(masterPlan, masterContext, execBlock) : null;
+    if (broadcastId != null) {
+      scheduleRuntimeBroadcastJoin(schedulerContext, stage, hashEntries, broadcastId, desireJoinTaskVolumn);
+      return;
+    }
+
+    // A partition larger than the average one by the skew factor is split into multiple tasks.
+    Pair<ExecutionBlockId, ExecutionBlockId> splittableSides = getSkewSplittableSides(stage);
+    long skewThreshold = (long) Math.max((double) desireJoinTaskVolumn * StorageUnit.MB,
+        bothFetchSize * (double) stage.getMasterPlan().getContext().getFloat(SessionVars.JOIN_SKEW_FACTOR));
+    long pageSize = (long) StorageUnit.MB *
+        stage.getContext().getConf().getIntVar(ConfVars.SHUFFLE_HASH_APPENDER_PAGE_VOLUME);
+    long splitVolume = Math.max(bothFetchSize, pageSize);
+    int splitTaskNum = 0;
+
+    // Contiguous small partitions are coalesced into a task up to the join task volume.
+    boolean coalesce = stage.getMasterPlan().getContext().getBool(SessionVars.SHUFFLE_COALESCE_PARTITIONS_ENABLED);
+    long coalesceVolume = coalesce ? (long) desireJoinTaskVolumn * StorageUnit.MB : 0;
+    SortedMap<Integer, Long> partitionVolumes = new TreeMap<>();
+
     for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> entry
         : hashEntries.entrySet()) {
-      addJoinShuffle(stage, entry.getKey(), entry.getValue());
+      List<Map<String, List<FetchProto>>> splitFetches = Collections.emptyList();
+      if (splittableSides != null) {
+        splitFetches = splitSkewedJoinPartition(entry.getKey(), entry.getValue(), splittableSides,
+            skewThreshold, splitVolume, pageSize);
+      }
+      if (splitFetches.isEmpty()) {
+        long volume = 0;
+        for (List<IntermediateEntry> eachSide : entry.getValue().values()) {
+          for (IntermediateEntry eachEntry : eachSide) {
+            volume += eachEntry.getVolume();
+          }
+        }
+        partitionVolumes.put(entry.getKey(), volume);
+      } else {
+        LOG.info(stage.getId() + "'s " + entry.getKey() + " partition is skewed, and it is split into " +
+            splitFetches.size() + " tasks");
+        for (Map<String, List<FetchProto>> eachFetches : splitFetches) {
+          Stage.scheduleFetches(stage, eachFetches);
+        }
+        splitTaskNum += splitFetches.size();
+      }
+    }
+
+    int coalescedTaskNum = 0;
+    for (List<Integer> eachGroup : coalescePartitions(partitionVolumes, coalesceVolume)) {
+      if (addJoinShuffle(stage, eachGroup, hashEntries)) {
+        coalescedTaskNum++;
+      }
+    }
+
+    if (splitTaskNum > 0) {
+      LOG.info(stage.getId() + ", " + splitTaskNum + " tasks are scheduled to split skewed partitions");
+    }
+    if (coalescedTaskNum < partitionVolumes.size()) {
+      LOG.info(stage.getId() + ", " + partitionVolumes.size() + " partitions are coalesced into " +
+          coalescedTaskNum + " tasks");
+    }
+    int taskNum = Math.max(1, coalescedTaskNum + splitTaskNum);
+    schedulerContext.setTaskSize((int) Math.ceil((double) bothFetchSize * hashEntries.size() / taskNum));
+    schedulerContext.setEstimatedTaskNum(taskNum);
+  }
+
+  /**
+   * Packs contiguous partitions into groups in the order of partition ids. A group is closed when adding the next
+   * partition makes its volume exceed targetVolume, so a partition larger than targetVolume forms a group by itself.
+   * Every partition forms a group by itself if targetVolume is zero.
+   *
+   * @param partitionVolumes the volume of each partition
+   * @param targetVolume the maximum volume of a group in bytes
+   * @return the partition ids of each group
+   */
+  public static List<List<Integer>> coalescePartitions(SortedMap<Integer, Long> partitionVolumes,
+                                                       long targetVolume) {
+    List<List<Integer>> groups = new ArrayList<>();
+    List<Integer> current = new ArrayList<>();
+    long currentVolume = 0;
+    for (Entry<Integer, Long> entry : partitionVolumes.entrySet()) {
+      if (!current.isEmpty() && (targetVolume <= 0 || currentVolume + entry.getValue() > targetVolume)) {
+        groups.add(current);
+        current = new ArrayList<>();
+        currentVolume = 0;
+      }
+      current.add(entry.getKey());
+      currentVolume += entry.getValue();
+    }
+    if (!current.isEmpty()) {
+      groups.add(current);
+    }
+    return groups;
+  }
+
+  /**
+   * Schedules a repartition join whose one side is small enough to be broadcast. The partitions of the large side are
+   * evenly distributed to tasks according to their actual volumes, so tiny partitions are coalesced into a task.
+   * Every task fetches all partitions of the broadcast side.
+   */
+  private static void scheduleRuntimeBroadcastJoin(TaskSchedulerContext schedulerContext, Stage stage,
+      Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> hashEntries, ExecutionBlockId broadcastId,
+      int desireJoinTaskVolume) {
+    String broadcastName = broadcastId.toString();
+    List<FetchProto> broadcastFetches = new ArrayList<>();
+    Map<Integer, FetchGroupMeta> partitions = new HashMap<>();
+    String largeName = null;
+    long largeVolume = 0;
+
+    for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> entry : hashEntries.entrySet()) {
+      for (Entry<ExecutionBlockId, List<IntermediateEntry>> eachSide : entry.getValue().entrySet()) {
+        if (eachSide.getKey().equals(broadcastId)) {
+          broadcastFetches.addAll(mergeShuffleRequest(broadcastName, entry.getKey(), HASH_SHUFFLE,
+              eachSide.getValue()));
+          continue;
+        }
+
+        largeName = eachSide.getKey().toString();
+        for (Entry<Task.PullHost, List<IntermediateEntry>> e : hashByHost(eachSide.getValue()).entrySet()) {
+          FetchImpl fetch = new FetchImpl(largeName, e.getKey(), HASH_SHUFFLE, eachSide.getKey(), entry.getKey(),
+              e.getValue());
+          long volumeSum = 0;
+          for (IntermediateEntry ie : e.getValue()) {
+            volumeSum += ie.getVolume();
+          }
+          largeVolume += volumeSum;
+
+          if (partitions.containsKey(entry.getKey())) {
+            partitions.get(entry.getKey()).addFetche(fetch).increaseVolume(volumeSum);
+          } else {
+            partitions.put(entry.getKey(), new FetchGroupMeta(volumeSum, fetch));
+          }
+        }
+      }
     }
 
-    schedulerContext.setTaskSize((int) Math.ceil((double) bothFetchSize / joinTaskNum));
-    schedulerContext.setEstimatedTaskNum(joinTaskNum);
+    if (partitions.isEmpty()) {
+      LOG.info(stage.getId() + ", the large side of the runtime broadcast join has empty result.");
+      schedulerContext.setEstimatedTaskNum(0);
+      return;
+    }
+
+    int mb = (int) Math.ceil((double) largeVolume / StorageUnit.MB);
+    int taskNum = Math.max(1, Math.min(partitions.size(), (int) Math.ceil((double) mb / desireJoinTaskVolume)));
+    LOG.info(String.format("[Distributed Join Strategy] : Runtime Broadcast Join, broadcast=%s, large=%s (%d MB, " +
+        "%d partitions), tasks=%d", broadcastName, largeName, mb, partitions.size(), taskNum));
+
+    int scheduled = 0;
+    for (Map<String, List<FetchProto>> eachFetches : makeEvenDistributedFetchImpl(partitions, largeName, taskNum)
+        .getSecond()) {
+      if (!eachFetches.isEmpty()) {
+        eachFetches.put(broadcastName, broadcastFetches);
+        Stage.scheduleFetches(stage, eachFetches);
+        scheduled++;
+      }
+    }
+    schedulerContext.setTaskSize((int) Math.ceil((double) largeVolume / scheduled));
+    schedulerContext.setEstimatedTaskNum(scheduled);
+  }
+
+  /**
+   * Finds a child block of the given repartition join block whose actual output is small enough to be broadcast.
+   * The other side does not need to be repartitioned to match with it, and the join can be executed by tasks
+   * which read arbitrary partitions of the other side together with the whole of the broadcast side.
+   *
+   * @return the id of the smallest child block which can be broadcast, or null if there is no such one.
+   * A child block is considered only if it has already succeeded.
+   */
+  public static ExecutionBlockId getRuntimeBroadcastSide(MasterPlan masterPlan,
+                                                         QueryMasterTask.QueryMasterTaskContext context,
+                                                         ExecutionBlock joinBlock) {
+    if (joinBlock == null || !joinBlock.hasJoin() ||
+        !masterPlan.getContext().getBool(SessionVars.ADAPTIVE_EXECUTION_ENABLED)) {
+      return null;
+    }
+
+    Pair<ExecutionBlockId, ExecutionBlockId> sides = getRepartitionJoinSides(masterPlan, joinBlock);
+    if (sides == null) {
+      return null;
+    }
+
+    JoinType joinType = PlannerUtil.<JoinNode>findTopNode(joinBlock.getPlan(), NodeType.JOIN).getJoinType();
+    long threshold = masterPlan.getContext().getLong(SessionVars.BROADCAST_NON_CROSS_JOIN_THRESHOLD) * StorageUnit.KB;
+    ExecutionBlockId broadcastId = null;
+    long broadcastVolume = Long.MAX_VALUE;
+    for (boolean left : new boolean[]{true, false}) {
+      ExecutionBlockId eachId = left ? sides.getFirst() : sides.getSecond();
+      Stage childStage = context.getStage(eachId);
+      if (isReplicableJoinSide(joinType, left) && childStage != null &&
+          childStage.getSynchronizedState() == StageState.SUCCEEDED && childStage.getResultStats() != null) {
+        long volume = childStage.getResultStats().getNumBytes();
+        if (volume <= threshold && volume < broadcastVolume) {
+          broadcastId = eachId;
+          broadcastVolume = volume;
+        }
+      }
+    }
+    return broadcastId;
+  }
+
+  /**
+   * Finds the child blocks of a repartition join whose partitions can be split across multiple tasks.
+   * When a partition of one side is split, the same partition of the other side is replicated to every split.
+   *
+   * @return a pair of the left and right child block ids. An id is null if its side cannot be split.
+   * It returns null if no side can be split.
+   */
+  private static Pair<ExecutionBlockId, ExecutionBlockId> getSkewSplittableSides(Stage stage) {
+    if (!stage.getMasterPlan().getContext().getBool(SessionVars.JOIN_SKEW_SPLIT_ENABLED)) {
+      return null;
+    }
+
+    Pair<ExecutionBlockId, ExecutionBlockId> sides = getRepartitionJoinSides(stage.getMasterPlan(), stage.getBlock());
+    if (sides == null) {
+      return null;
+    }
+
+    JoinType joinType = PlannerUtil.<JoinNode>findTopNode(stage.getBlock().getPlan(), NodeType.JOIN).getJoinType();
+    // A side can be split only if the other side can be replicated.
+    ExecutionBlockId leftId = isReplicableJoinSide(joinType, false) ? sides.getFirst() : null;
+    ExecutionBlockId rightId = isReplicableJoinSide(joinType, true) ? sides.getSecond() : null;
+    return leftId == null && rightId == null ? null : new Pair<>(leftId, rightId);
+  }
+
+  /**
+   * Returns the left and right child block ids of the join in the given block. It returns null if each input of the
+   * join is not the shuffle output of a single child block, e.g., the block has a union or a broadcast table.
+   */
+  private static Pair<ExecutionBlockId, ExecutionBlockId> getRepartitionJoinSides(MasterPlan masterPlan,
+                                                                                  ExecutionBlock joinBlock) {
+    JoinNode join = PlannerUtil.findTopNode(joinBlock.getPlan(), NodeType.JOIN);
+    if (join == null || join.getLeftChild().getType() != NodeType.SCAN ||
+        join.getRightChild().getType() != NodeType.SCAN) {
+      return null;
+    }
+
+    List<ExecutionBlock> childBlocks = masterPlan.getChilds(joinBlock);
+    if (childBlocks.size() != 2) {
+      return null;
+    }
+
+    ExecutionBlockId leftId = null;
+    ExecutionBlockId rightId = null;
+    String leftName = ((ScanNode) join.getLeftChild()).getTableName();
+    String rightName = ((ScanNode) join.getRightChild()).getTableName();
+    for (ExecutionBlock childBlock : childBlocks) {
+      if (childBlock.getId().toString().equals(leftName)) {
+        leftId = childBlock.getId();
+      } else if (childBlock.getId().toString().equals(rightName)) {
+        rightId = childBlock.getId();
+      }
+    }
+    return leftId == null || rightId == null ? null : new Pair<>(leftId, rightId);
+  }
+
+  /**
+   * Returns true if the relation of the given side can be replicated to multiple tasks of a join.
+   * It is correct only if the rows of the side are not preserved by the join. Otherwise,
+   * unmatched rows of the replicated side would be emitted by every task.
+   *
+   * @param joinType join type
+   * @param left true for the left side, false for the right side
+   */
+  public static boolean isReplicableJoinSide(JoinType joinType, boolean left) {
+    switch (joinType) {
+    case INNER:
+      return true;
+    case LEFT_OUTER:
+    case LEFT_SEMI:
+    case LEFT_ANTI:
+      return !left;
+    case RIGHT_OUTER:
+    case RIGHT_SEMI:
+    case RIGHT_ANTI:
+      return left;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * If a splittable side of the given partition is larger than skewThreshold, it splits the side into page-aligned
+   * ranges of about splitVolume. Each range is fetched by a task together with the whole partition of the other side.
+   *
+   * @return the fetches of each task. It is empty if the partition is not skewed or cannot be split.
+   */
+  public static List<Map<String, List<FetchProto>>> splitSkewedJoinPartition(int partitionId,
+      Map<ExecutionBlockId, List<IntermediateEntry>> grouppedPartitions,
+      Pair<ExecutionBlockId, ExecutionBlockId> splittableSides, long skewThreshold, long splitVolume, long pageSize) {
+    ExecutionBlockId splitId = null;
+    long splitSideVolume = 0;
+    for (ExecutionBlockId eachId : new ExecutionBlockId[]{splittableSides.getFirst(), splittableSides.getSecond()}) {
+      if (eachId != null && grouppedPartitions.containsKey(eachId)) {
+        long volume = 0;
+        for (IntermediateEntry eachEntry : grouppedPartitions.get(eachId)) {
+          volume += eachEntry.getVolume();
+        }
+        if (volume > skewThreshold && volume > splitSideVolume) {
+          splitId = eachId;
+          splitSideVolume = volume;
+        }
+      }
+    }
+    if (splitId == null) {
+      return Collections.emptyList();
+    }
+
+    String splitName = splitId.toString();
+    List<List<FetchProto>> splits = splitOrMergeIntermediates(splitName, splitId, grouppedPartitions.get(splitId),
+        splitVolume, pageSize, HASH_SHUFFLE);
+    if (splits == null || splits.size() < 2) {
+      return Collections.emptyList();
+    }
+
+    Map<String, List<FetchProto>> replicated = new HashMap<>();
+    for (Entry<ExecutionBlockId, List<IntermediateEntry>> eachSide : grouppedPartitions.entrySet()) {
+      if (!eachSide.getKey().equals(splitId)) {
+        String name = eachSide.getKey().toString();
+        replicated.put(name, mergeShuffleRequest(name, partitionId, HASH_SHUFFLE, eachSide.getValue()));
+      }
+    }
+
+    List<Map<String, List<FetchProto>>> fetchesList = new ArrayList<>();
+    for (List<FetchProto> eachSplit : splits) {
+      Map<String, List<FetchProto>> fetches = new HashMap<>(replicated);
+      fetches.put(splitName, eachSplit);
+      fetchesList.add(fetches);
+    }
+    return fetchesList;
   }
 
   /**
@@ -511,23 +832,32 @@ public class Repartitioner {
     schedulerContext.setEstimatedTaskNum(baseFragments.size());
   }
 
-  private static void addJoinShuffle(Stage stage, int partitionId,
-                                     Map<ExecutionBlockId, List<IntermediateEntry>> grouppedPartitions) {
+  /**
+   * Schedules a task which fetches the given partitions of all child blocks.
+   *
+   * @return true if a task is scheduled. False if the partitions have empty result.
+   */
+  private static boolean addJoinShuffle(Stage stage, List<Integer> partitionIds,
+                                        Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> hashEntries) {
     Map<String, List<FetchProto>> fetches = new HashMap<>();
-    for (ExecutionBlock execBlock : stage.getMasterPlan().getChilds(stage.getId())) {
-      if (grouppedPartitions.containsKey(execBlock.getId())) {
-        String name = execBlock.getId().toString();
-        List<FetchProto> requests = mergeShuffleRequest(name, partitionId, HASH_SHUFFLE,
-            grouppedPartitions.get(execBlock.getId()));
-        fetches.put(name, requests);
+    for (Integer partitionId : partitionIds) {
+      Map<ExecutionBlockId, List<IntermediateEntry>> grouppedPartitions = hashEntries.get(partitionId);
+      for (ExecutionBlock execBlock : stage.getMasterPlan().getChilds(stage.getId())) {
+        if (grouppedPartitions.containsKey(execBlock.getId())) {
+          String name = execBlock.getId().toString();
+          List<FetchProto> requests = mergeShuffleRequest(name, partitionId, HASH_SHUFFLE,
+              grouppedPartitions.get(execBlock.getId()));
+          TUtil.putCollectionToNestedList(fetches, name, requests);
+        }
       }
     }
 
     if (fetches.isEmpty()) {
-      LOG.info(stage.getId() + "'s " + partitionId + " partition has empty result.");
-      return;
+      LOG.info(stage.getId() + "'s " + partitionIds + " partitions have empty result.");
+      return false;
     }
     Stage.scheduleFetches(stage, fetches);
+    return true;
   }
 
   /**
@@ -1001,6 +1331,11 @@ public class Repartitioner {
    */
   public static List<List<FetchProto>> splitOrMergeIntermediates(@NotNull  String fetchName,
       ExecutionBlockId ebId, List<IntermediateEntry> entries, long splitVolume, long pageSize) {
+    return splitOrMergeIntermediates(fetchName, ebId, entries, splitVolume, pageSize, SCATTERED_HASH_SHUFFLE);
+  }
+
+  private static List<List<FetchProto>> splitOrMergeIntermediates(@NotNull  String fetchName,
+      ExecutionBlockId ebId, List<IntermediateEntry> entries, long splitVolume, long pageSize, ShuffleType type) {
     // Each List<FetchImpl> has splitVolume size.
     List<List<FetchProto>> fetches = new ArrayList<>();
 
@@ -1034,7 +1369,7 @@ public class Repartitioner {
           fetchListForSingleTask = new ArrayList<>();
           fetchListVolume = 0;
         }
-        FetchImpl fetch = new FetchImpl(fetchName, currentInterm.getPullHost(), SCATTERED_HASH_SHUFFLE,
+        FetchImpl fetch = new FetchImpl(fetchName, currentInterm.getPullHost(), type,
             ebId, currentInterm.getPartId(), Lists.newArrayList(currentInterm));
         fetch.setOffset(eachSplit.getFirst());
         fetch.setLength(eachSplit.getSecond());
@@ -54,6 +54,7 @@ import org.apache.tajo.master.event.TaskAttemptToSchedulerEvent.TaskAttemptSched
 import org.apache.tajo.plan.logical.*;
 import org.apache.tajo.plan.serder.PlanProto.DistinctGroupbyEnforcer.MultipleAggregationStage;
 import org.apache.tajo.plan.serder.PlanProto.EnforceProperty;
+import org.apache.tajo.plan.serder.PlanProto.EnforceProperty.EnforceType;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.querymaster.Task.IntermediateEntry;
 import org.apache.tajo.rpc.AsyncRpcClient;
@@ -63,6 +64,7 @@ import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos;
 import org.apache.tajo.storage.TablespaceManager;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.BloomFilter;
 import org.apache.tajo.util.KeyValueSet;
 import org.apache.tajo.util.RpcParameterFactory;
 import org.apache.tajo.util.SplitUtil;
@@ -297,9 +299,15 @@ public class Stage implements EventHandler<StageEvent> {
   private TaskSchedulerContext schedulerContext;
   private List<IntermediateEntry> hashShuffleIntermediateEntries = Lists.newArrayList();
   private AtomicInteger completedShuffleTasks = new AtomicInteger(0);
+  private AtomicInteger receivedShuffleReports = new AtomicInteger(0);
   private AtomicBoolean stopShuffleReceiver = new AtomicBoolean();
   private StageHistory finalStageHistory;
 
+  // A runtime join filter is not applied if too many bits are set, because it hardly drops any row.
+  private static final float MAX_RUNTIME_JOIN_FILTER_FILL_RATIO = 0.5f;
+  private BloomFilter runtimeJoinFilter;
+  private boolean runtimeJoinFilterIncomplete = false;
+
   public Stage(QueryMasterTask.QueryMasterTaskContext context, MasterPlan masterPlan, ExecutionBlock block) {
     this.context = context;
     this.masterPlan = masterPlan;
@@ -331,6 +339,24 @@ public class Stage implements EventHandler<StageEvent> {
     return masterPlan.getOutgoingChannels(getId()).iterator().next();
   }
 
+  /**
+   * Returns true if the tasks of this stage push their hash partitions to merger workers
+   * instead of keeping them for the pull server of their own worker.
+   */
+  public boolean isShufflePushEnabled() {
+    return getDataChannel().getShuffleType() == ShuffleType.HASH_SHUFFLE
+        && getContext().getQueryContext().getBool(SessionVars.HASH_SHUFFLE_PUSH_ENABLED);
+  }
+
+  /**
+   * Whether the straggler tasks of this stage can be speculatively executed. Only the outputs of range shuffle
+   * are kept separately for each attempt, so a killed attempt never leaves its output to the consumers.
+   */
+  public boolean isSpeculativeExecutionEnabled() {
+    return getDataChannel() != null && getDataChannel().getShuffleType() == ShuffleType.RANGE_SHUFFLE
+        && getContext().getQueryContext().getBool(SessionVars.SPECULATIVE_EXECUTION_ENABLED);
+  }
+
   public EventHandler<Event> getEventHandler() {
     return eventHandler;
   }
@@ -604,6 +630,37 @@ public class Stage implements EventHandler<StageEvent> {
     return resultStatistics;
   }
 
+  /**
+   * @return the runtime join filter merged from all succeeded tasks, or null if this stage does not build one
+   * or some task did not report its filter.
+   */
+  public BloomFilter getRuntimeJoinFilter() {
+    return runtimeJoinFilterIncomplete ? null : runtimeJoinFilter;
+  }
+
+  private void mergeRuntimeJoinFilter(TaskAttempt attempt) {
+    Enforcer enforcer = block.getEnforcer();
+    if (runtimeJoinFilterIncomplete || !enforcer.hasEnforceProperty(EnforceType.RUNTIME_JOIN_FILTER)) {
+      return;
+    }
+
+    byte[] bytes = attempt != null ? attempt.getRuntimeJoinFilter() : null;
+    if (bytes == null) {
+      runtimeJoinFilterIncomplete = true;
+      runtimeJoinFilter = null;
+      return;
+    }
+
+    int numHashes = enforcer.getEnforceProperties(EnforceType.RUNTIME_JOIN_FILTER).get(0)
+        .getRuntimeJoinFilter().getNumHashes();
+    BloomFilter filter = new BloomFilter(bytes, numHashes);
+    if (runtimeJoinFilter == null) {
+      runtimeJoinFilter = filter;
+    } else {
+      runtimeJoinFilter.merge(filter);
+    }
+  }
+
   public TableStats getInputStats() {
     return inputStatistics;
   }
@@ -856,6 +913,7 @@ public class Stage implements EventHandler<StageEvent> {
           ExecutionBlock parent = stage.getMasterPlan().getParent(stage.getBlock());
           DataChannel channel = stage.getMasterPlan().getChannel(stage.getId(), parent.getId());
           setShuffleIfNecessary(stage, channel);
+          setRuntimeJoinFilterIfPossible(stage);
           // TODO: verify changed shuffle plan
           initTaskScheduler(stage);
           // execute pre-processing asyncronously
@@ -917,6 +975,34 @@ public class Stage implements EventHandler<StageEvent> {
       LOG.info(stage.taskScheduler.getName() + " is chosen for the task scheduling for " + stage.getId());
     }
 
+    /**
+     * If a sibling block has built a runtime join filter, the method lets this stage drop rows
+     * which cannot be joined with the sibling's output.
+     */
+    private static void setRuntimeJoinFilterIfPossible(Stage stage) {
+      ExecutionBlock execBlock = stage.getBlock();
+      if (!execBlock.hasRuntimeJoinFilterSource()) {
+        return;
+      }
+
+      Stage source = stage.getContext().getStage(execBlock.getRuntimeJoinFilterSource());
+      if (source == null || source.getSynchronizedState() != StageState.SUCCEEDED) {
+        return;
+      }
+
+      BloomFilter filter = source.getRuntimeJoinFilter();
+      if (filter == null) {
+        LOG.info(stage.getId() + " runtime join filter of " + source.getId() + " is not available");
+      } else if (filter.getFillRatio() > MAX_RUNTIME_JOIN_FILTER_FILL_RATIO) {
+        LOG.info(String.format("%s skips the runtime join filter of %s (fill ratio: %.2f)",
+            stage.getId(), source.getId(), filter.getFillRatio()));
+      } else {
+        execBlock.getEnforcer().enforceRuntimeJoinFilter(filter);
+        LOG.info(String.format("%s applies the runtime join filter of %s (%d bits, fill ratio: %.2f)",
+            stage.getId(), source.getId(), filter.getNumBits(), filter.getFillRatio()));
+      }
+    }
+
     /**
      * If a parent block requires a repartition operation, the method sets proper repartition
      * methods and the number of partitions to a given Stage.
@@ -945,8 +1031,13 @@ public class Stage implements EventHandler<StageEvent> {
         return partitionNum;
       }
 
+      // If a sibling turns out to be small enough to be broadcast, the parent join does not require both sides
+      // to have the same number of partitions.
+      ExecutionBlockId broadcastSibling = Repartitioner.getRuntimeBroadcastSide(masterPlan, stage.getContext(),
+          masterPlan.getParent(stage.getBlock()));
+
       Optional<ShuffleContext> optional = masterPlan.getShuffleInfo(stage.getId());
-      if (optional.isPresent()) {
+      if (optional.isPresent() && broadcastSibling == null) {
         LOG.info("# of partitions is determined as " + optional.get().getPartitionNum() +
             "to match with sibling eb's partition number");
         return optional.get().getPartitionNum();
@@ -958,7 +1049,13 @@ public class Stage implements EventHandler<StageEvent> {
         if (parent != null) {
           // We assume this execution block the first stage of join if two or more tables are included in this block,
           if (parent.hasJoin()) {
-            if (parent.getNonBroadcastRelNum() > 1) {
+            if (broadcastSibling != null) {
+              // runtime broadcast join
+              // partition number is calculated using the volume of this stage only
+              partitionNum = calculatePartitionNumForRuntimeBroadcastJoin(stage);
+              LOG.info(stage.getId() + ", The determined number of partitions for runtime broadcast join with "
+                  + broadcastSibling + " is " + partitionNum);
+            } else if (parent.getNonBroadcastRelNum() > 1) {
               // repartition join
               partitionNum = calculatePartitionNumForRepartitionJoin(parent, stage);
               LOG.info(stage.getId() + ", The determined number of partitions for repartition join is " + partitionNum);
@@ -1027,6 +1124,15 @@ public class Stage implements EventHandler<StageEvent> {
           currentStage.masterPlan.getContext().getInt(SessionVars.JOIN_PER_SHUFFLE_SIZE));
     }
 
+    private static int calculatePartitionNumForRuntimeBroadcastJoin(Stage currentStage) {
+      long volume = getInputVolume(currentStage.masterPlan, currentStage.context, currentStage.getBlock());
+      int mb = (int) Math.ceil((double) volume / StorageUnit.MB);
+      LOG.info(currentStage.getId() + ", Table's volume is approximately " + mb + " MB");
+
+      return Math.max(1, (int) Math.ceil((double) mb /
+          currentStage.masterPlan.getContext().getInt(SessionVars.JOIN_PER_SHUFFLE_SIZE)));
+    }
+
     private static int calculatePartitionNumForAgg(ExecutionBlock parent, Stage stage) {
       int volumeByMB = getInputVolumeMB(parent, stage);
       LOG.info(stage.getId() + ", Table's volume is approximately " + volumeByMB + " MB");
@@ -1252,10 +1358,13 @@ public class Stage implements EventHandler<StageEvent> {
         stage.eventHandler.handle(new StageEvent(stage.getId(), StageEventType.SQ_FAILED));
       } else {
         stage.completedTaskCount++;
-        stage.getTaskScheduler().releaseTaskAttempt(task.getLastAttempt());
+        for (TaskAttempt eachAttempt : task.getAttempts()) {
+          stage.getTaskScheduler().releaseTaskAttempt(eachAttempt);
+        }
 
         if (taskEvent.getState() == TaskState.SUCCEEDED) {
           stage.succeededObjectCount++;
+          stage.mergeRuntimeJoinFilter(task.getSuccessfulAttempt());
         } else if (task.getState() == TaskState.KILLED) {
           stage.killedObjectCount++;
         } else if (task.getState() == TaskState.FAILED) {
@@ -1325,13 +1434,17 @@ public class Stage implements EventHandler<StageEvent> {
     }
 
     completedShuffleTasks.addAndGet(report.getSucceededTasks());
+    receivedShuffleReports.incrementAndGet();
     if (report.getIntermediateEntriesCount() > 0) {
       for (IntermediateEntryProto eachInterm : report.getIntermediateEntriesList()) {
         hashShuffleIntermediateEntries.add(new IntermediateEntry(eachInterm));
       }
     }
 
-    if (completedShuffleTasks.get() >= succeededObjectCount) {
+    // A merger may hold pushed partitions even if none of its own tasks succeeded.
+    // So, every worker must report when push shuffle is enabled.
+    boolean allReported = !isShufflePushEnabled() || receivedShuffleReports.get() >= workerMap.size();
+    if (completedShuffleTasks.get() >= succeededObjectCount && allReported) {
       LOG.info(getId() + ", Finalized " + type + " reports: " + completedShuffleTasks.get());
       getEventHandler().handle(new StageEvent(getId(), StageEventType.SQ_STAGE_COMPLETED));
       if (timeoutChecker != null) {
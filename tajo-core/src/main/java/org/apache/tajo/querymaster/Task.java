@@ -92,6 +92,8 @@ public class Task implements EventHandler<TaskEvent> {
 
   private int failedAttempts;
   private int finishedAttempts; // finish are total of success, failed and killed
+  // whether a speculative attempt is launched for this task
+  private volatile boolean speculated;
 
   private long launchTime;
   private long finishTime;
@@ -137,6 +139,9 @@ public class Task implements EventHandler<TaskEvent> {
               EnumSet.of(TaskState.RUNNING, TaskState.FAILED),
               TaskEventType.T_ATTEMPT_FAILED,
               new AttemptFailedOrRetryTransition())
+          .addTransition(TaskState.RUNNING, TaskState.RUNNING,
+              TaskEventType.T_SPECULATE,
+              new SpeculateTransition())
 
           // Transitions from KILL_WAIT state
           .addTransition(TaskState.KILL_WAIT, TaskState.KILLED,
@@ -155,19 +160,22 @@ public class Task implements EventHandler<TaskEvent> {
           .addTransition(TaskState.KILL_WAIT, TaskState.KILL_WAIT,
               EnumSet.of(
                   TaskEventType.T_KILL,
-                  TaskEventType.T_SCHEDULE))
+                  TaskEventType.T_SCHEDULE,
+                  TaskEventType.T_SPECULATE))
 
           // Transitions from SUCCEEDED state
           // Ignore-able transitions
           .addTransition(TaskState.SUCCEEDED, TaskState.SUCCEEDED,
-              EnumSet.of(TaskEventType.T_KILL,
-                  TaskEventType.T_ATTEMPT_KILLED, TaskEventType.T_ATTEMPT_SUCCEEDED, TaskEventType.T_ATTEMPT_FAILED))
+              EnumSet.of(TaskEventType.T_KILL, TaskEventType.T_SCHEDULE, TaskEventType.T_SPECULATE,
+                  TaskEventType.T_ATTEMPT_LAUNCHED, TaskEventType.T_ATTEMPT_KILLED,
+                  TaskEventType.T_ATTEMPT_SUCCEEDED, TaskEventType.T_ATTEMPT_FAILED))
 
           // Transitions from FAILED state
           // Ignore-able transitions
           .addTransition(TaskState.FAILED, TaskState.FAILED,
-              EnumSet.of(TaskEventType.T_KILL,
-                  TaskEventType.T_ATTEMPT_KILLED, TaskEventType.T_ATTEMPT_SUCCEEDED, TaskEventType.T_ATTEMPT_FAILED))
+              EnumSet.of(TaskEventType.T_KILL, TaskEventType.T_SCHEDULE, TaskEventType.T_SPECULATE,
+                  TaskEventType.T_ATTEMPT_LAUNCHED, TaskEventType.T_ATTEMPT_KILLED,
+                  TaskEventType.T_ATTEMPT_SUCCEEDED, TaskEventType.T_ATTEMPT_FAILED))
 
           // Transitions from KILLED state
           .addTransition(TaskState.KILLED, TaskState.KILLED, TaskEventType.T_ATTEMPT_KILLED, new KillTaskTransition())
@@ -176,6 +184,7 @@ public class Task implements EventHandler<TaskEvent> {
               EnumSet.of(
                   TaskEventType.T_KILL,
                   TaskEventType.T_SCHEDULE,
+                  TaskEventType.T_SPECULATE,
                   TaskEventType.T_ATTEMPT_LAUNCHED,
                   TaskEventType.T_ATTEMPT_SUCCEEDED,
                   TaskEventType.T_ATTEMPT_FAILED))
@@ -472,6 +481,34 @@ public class Task implements EventHandler<TaskEvent> {
     return getAttempt(this.lastAttemptId);
   }
 
+  public Collection<TaskAttempt> getAttempts() {
+    return Collections.unmodifiableCollection(attempts.values());
+  }
+
+  public boolean isSpeculated() {
+    return speculated;
+  }
+
+  /**
+   * @return true if an attempt except the given one is scheduled or running
+   */
+  private boolean hasAliveAttempt(TaskAttemptId except) {
+    for (TaskAttempt eachAttempt : attempts.values()) {
+      if (!eachAttempt.getId().equals(except) && !eachAttempt.isFinished()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void killAliveAttempts(TaskAttemptId except) {
+    for (TaskAttempt eachAttempt : attempts.values()) {
+      if (!eachAttempt.getId().equals(except) && !eachAttempt.isFinished()) {
+        eventHandler.handle(new TaskAttemptEvent(eachAttempt.getId(), TaskAttemptEventType.TA_KILL));
+      }
+    }
+  }
+
   public TaskAttempt getSuccessfulAttempt() {
     readLock.lock();
     try {
@@ -579,7 +616,11 @@ public class Task implements EventHandler<TaskEvent> {
     @Override
     public void transition(Task task, TaskEvent taskEvent) {
       task.finishTask();
-      task.eventHandler.handle(new TaskAttemptEvent(task.lastAttemptId, TaskAttemptEventType.TA_KILL));
+      if (task.speculated) {
+        task.killAliveAttempts(null);
+      } else {
+        task.eventHandler.handle(new TaskAttemptEvent(task.lastAttemptId, TaskAttemptEventType.TA_KILL));
+      }
     }
   }
 
@@ -606,6 +647,11 @@ public class Task implements EventHandler<TaskEvent> {
 
       task.successfulAttempt = attemptEvent.getTaskAttemptId();
       task.succeededWorker = attempt.getWorkerConnectionInfo();
+      if (task.speculated) {
+        // the statistics of the task are read from the last attempt
+        task.lastAttemptId = task.successfulAttempt;
+        task.killAliveAttempts(task.successfulAttempt);
+      }
 
       task.finishTask();
       task.eventHandler.handle(new StageTaskEvent(event.getTaskId(), TaskState.SUCCEEDED));
@@ -623,6 +669,17 @@ public class Task implements EventHandler<TaskEvent> {
     }
   }
 
+  private static class SpeculateTransition implements SingleArcTransition<Task, TaskEvent> {
+    @Override
+    public void transition(Task task, TaskEvent event) {
+      if (task.successfulAttempt == null && !task.speculated) {
+        task.speculated = true;
+        task.addAndScheduleAttempt();
+        LOG.info("Launched a speculative attempt " + task.lastAttemptId);
+      }
+    }
+  }
+
   private static class AttemptFailedTransition implements SingleArcTransition<Task, TaskEvent> {
     @Override
     public void transition(Task task, TaskEvent event) {
@@ -648,6 +705,11 @@ public class Task implements EventHandler<TaskEvent> {
 
       task.failedAttempts++;
       task.finishedAttempts++;
+      // the task goes on if another speculative attempt is still running
+      if (task.speculated && task.hasAliveAttempt(attemptEvent.getTaskAttemptId())) {
+        LOG.info(">>> Task Failed: " + attemptEvent.getTaskAttemptId() + ", another attempt is running <<<");
+        return task.getState();
+      }
       boolean retry = task.failedAttempts < task.maxAttempts;
 
       LOG.info("====================================================================================");
@@ -63,8 +63,12 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
   private final TaskAttemptScheduleContext scheduleContext;
 
   private float progress;
+  private long launchTime;
   private CatalogProtos.TableStatsProto inputStats;
   private CatalogProtos.TableStatsProto resultStats;
+  private byte[] runtimeJoinFilter;
+  /** the maximum memory size reserved by the operators of this attempt */
+  private long peakMemory;
 
   private Set<PartitionDescProto> partitions;
 
@@ -239,6 +243,19 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
     return progress;
   }
 
+  public long getLaunchTime() {
+    return launchTime;
+  }
+
+  /**
+   * @return true if this attempt is succeeded, failed or killed
+   */
+  public boolean isFinished() {
+    TaskAttemptState state = getState();
+    return state == TaskAttemptState.TA_SUCCEEDED || state == TaskAttemptState.TA_FAILED
+        || state == TaskAttemptState.TA_KILLED;
+  }
+
   public TableStats getInputStats() {
     if (inputStats == null) {
       return null;
@@ -254,6 +271,17 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
     return new TableStats(resultStats);
   }
 
+  /**
+   * @return the serialized runtime join filter built by this attempt, or null if it does not build one.
+   */
+  public byte[] getRuntimeJoinFilter() {
+    return runtimeJoinFilter;
+  }
+
+  public long getPeakMemory() {
+    return peakMemory;
+  }
+
   public Set<PartitionDescProto> getPartitions() {
     return partitions;
   }
@@ -286,6 +314,12 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
       this.resultStats = report.getResultStats();
       this.getTask().setStats(new TableStats(resultStats));
     }
+    if (report.hasRuntimeJoinFilter()) {
+      this.runtimeJoinFilter = report.getRuntimeJoinFilter().toByteArray();
+    }
+    if (report.hasPeakMemory()) {
+      this.peakMemory = report.getPeakMemory();
+    }
   }
 
   private static class TaskAttemptScheduleTransition implements
@@ -321,7 +355,8 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
       }
       TaskAttemptAssignedEvent castEvent = (TaskAttemptAssignedEvent) event;
       taskAttempt.workerConnectionInfo = castEvent.getWorkerConnectionInfo();
-      taskAttempt.getTask().setLaunchTime(System.currentTimeMillis());
+      taskAttempt.launchTime = System.currentTimeMillis();
+      taskAttempt.getTask().setLaunchTime(taskAttempt.launchTime);
       taskAttempt.eventHandler.handle(
           new TaskTAttemptEvent(taskAttempt.getId(),
               TaskEventType.T_ATTEMPT_LAUNCHED));
@@ -364,6 +399,9 @@ public class TaskAttempt implements EventHandler<TaskAttemptEvent> {
       taskAttempt.progress = updateEvent.getStatus().getProgress();
       taskAttempt.inputStats = updateEvent.getStatus().getInputStats();
       taskAttempt.resultStats = updateEvent.getStatus().getResultStats();
+      if (updateEvent.getStatus().hasPeakMemory()) {
+        taskAttempt.peakMemory = updateEvent.getStatus().getPeakMemory();
+      }
 
       return TaskAttemptState.TA_RUNNING;
     }
@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.querymaster;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.storage.DataLocation;
+import org.apache.tajo.util.Pair;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * <code>TaskAttemptQueue</code> keeps the task attempts to be scheduled, indexed by the hosts, the disk volumes
+ * and the racks of their data.
+ *
+ * A task attempt can be reached from every replica of its data. It is claimed atomically from the set of
+ * unassigned attempts, so that it is never assigned twice. Each host is guarded by its own lock and a host lock
+ * is never held while another host is accessed, so adding and assigning attempts on different hosts do not
+ * contend with each other. The attempts claimed through the other indexes are removed from the hosts eagerly,
+ * and from the rack and the global queues lazily.
+ */
+public class TaskAttemptQueue {
+  private static final Log LOG = LogFactory.getLog(TaskAttemptQueue.class);
+
+  private final Function<String, String> rackResolver;
+  private final Set<TaskAttemptId> unassigned = ConcurrentHashMap.newKeySet();
+  private final Map<TaskAttemptId, List<DataLocation>> locations = new ConcurrentHashMap<>();
+  private final Queue<TaskAttemptId> allAttempts = new ConcurrentLinkedQueue<>();
+  private final Map<String, HostQueue> hosts = new ConcurrentHashMap<>();
+  private final Map<String, Queue<TaskAttemptId>> racks = new ConcurrentHashMap<>();
+
+  /**
+   * @param rackResolver returns the rack of a host
+   */
+  public TaskAttemptQueue(Function<String, String> rackResolver) {
+    this.rackResolver = rackResolver;
+  }
+
+  public void add(TaskAttemptId attemptId) {
+    add(attemptId, Collections.<DataLocation>emptyList());
+  }
+
+  public void add(TaskAttemptId attemptId, List<DataLocation> dataLocations) {
+    // an attempt is claimable before it is indexed, so that it is not lost by a concurrent assignment
+    unassigned.add(attemptId);
+    if (!dataLocations.isEmpty()) {
+      locations.put(attemptId, dataLocations);
+    }
+
+    for (DataLocation location : dataLocations) {
+      HostQueue hostQueue = hosts.computeIfAbsent(location.getHost(),
+          host -> new HostQueue(host, rackResolver.apply(host)));
+      hostQueue.add(location.getVolumeId(), attemptId);
+      racks.computeIfAbsent(hostQueue.rack, rack -> new ConcurrentLinkedQueue<>()).add(attemptId);
+    }
+    allAttempts.add(attemptId);
+  }
+
+  /**
+   * Remove an attempt which is not assigned yet.
+   *
+   * @return true if the attempt is removed
+   */
+  public boolean remove(TaskAttemptId attemptId) {
+    return claim(attemptId);
+  }
+
+  public int size() {
+    return unassigned.size();
+  }
+
+  public boolean isEmpty() {
+    return unassigned.isEmpty();
+  }
+
+  public boolean hasHost(String host) {
+    return hosts.containsKey(host);
+  }
+
+  public Set<String> getHosts() {
+    return Collections.unmodifiableSet(hosts.keySet());
+  }
+
+  /**
+   * Assign an attempt whose data reside in a volume of the host. The least loaded volume is chosen first.
+   *
+   * @return the attempt and its volume id, or null if the host has no remaining data
+   */
+  public Pair<TaskAttemptId, Integer> pollLocal(String host) {
+    HostQueue hostQueue = hosts.get(host);
+    if (hostQueue == null) {
+      return null;
+    }
+
+    Pair<TaskAttemptId, Integer> candidate;
+    while ((candidate = hostQueue.poll()) != null) {
+      if (claim(candidate.getFirst())) {
+        hostQueue.assign(candidate.getFirst(), candidate.getSecond());
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Assign an attempt whose data reside in the rack. The hosts having more remaining data are chosen first.
+   */
+  public TaskAttemptId pollRack(String rack) {
+    List<Pair<Integer, HostQueue>> candidates = new ArrayList<>();
+    for (HostQueue hostQueue : hosts.values()) {
+      int remaining = hostQueue.remaining;
+      if (remaining > 0 && hostQueue.rack.equals(rack)) {
+        candidates.add(new Pair<>(remaining, hostQueue));
+      }
+    }
+    // descending remaining attempts
+    candidates.sort((c1, c2) -> Integer.compare(c2.getFirst(), c1.getFirst()));
+
+    for (Pair<Integer, HostQueue> eachCandidate : candidates) {
+      Pair<TaskAttemptId, Integer> candidate;
+      while ((candidate = eachCandidate.getSecond().poll()) != null) {
+        if (claim(candidate.getFirst())) {
+          return candidate.getFirst();
+        }
+      }
+    }
+
+    Queue<TaskAttemptId> rackAttempts = racks.get(rack);
+    return rackAttempts == null ? null : poll(rackAttempts);
+  }
+
+  /**
+   * Assign any attempt in the order that they are added.
+   */
+  public TaskAttemptId pollAny() {
+    return poll(allAttempts);
+  }
+
+  private TaskAttemptId poll(Queue<TaskAttemptId> attempts) {
+    TaskAttemptId attemptId;
+    while ((attemptId = attempts.poll()) != null) {
+      if (claim(attemptId)) {
+        return attemptId;
+      }
+    }
+    return null;
+  }
+
+  private boolean claim(TaskAttemptId attemptId) {
+    if (!unassigned.remove(attemptId)) {
+      return false;
+    }
+
+    List<DataLocation> dataLocations = locations.remove(attemptId);
+    if (dataLocations != null) {
+      for (DataLocation location : dataLocations) {
+        HostQueue hostQueue = hosts.get(location.getHost());
+        if (hostQueue != null) {
+          hostQueue.remove(location.getVolumeId(), attemptId);
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Account an attempt which is assigned to the host but does not read its data from the host.
+   */
+  public void assignRemote(String host, TaskAttemptId attemptId) {
+    HostQueue hostQueue = hosts.get(host);
+    if (hostQueue != null) {
+      hostQueue.assign(attemptId, DataLocation.REMOTE_VOLUME_ID);
+    }
+  }
+
+  /**
+   * Release the volume load of an attempt assigned to the host.
+   */
+  public void release(String host, TaskAttemptId attemptId) {
+    HostQueue hostQueue = hosts.get(host);
+    if (hostQueue != null) {
+      hostQueue.release(attemptId);
+    }
+  }
+
+  public int getRemoteConcurrency(String host) {
+    HostQueue hostQueue = hosts.get(host);
+    return hostQueue == null ? 0 : hostQueue.getVolumeConcurrency(DataLocation.REMOTE_VOLUME_ID);
+  }
+
+  public int getRemainingLocalTaskSize(String host) {
+    HostQueue hostQueue = hosts.get(host);
+    return hostQueue == null ? 0 : hostQueue.remaining;
+  }
+
+  public void clear() {
+    unassigned.clear();
+    locations.clear();
+    allAttempts.clear();
+    hosts.clear();
+    racks.clear();
+  }
+
+  /**
+   * The unassigned attempts of a host for each disk volume, and the number of running attempts of each volume.
+   *
+   * A volume id is only used to distinguish the disks of a host. If the volume of data is unknown
+   * (e.g., compressed text files or object stores), it is {@link DataLocation#UNKNOWN_VOLUME_ID}.
+   * The attempts assigned to this host without local data are accounted as {@link DataLocation#REMOTE_VOLUME_ID}.
+   */
+  private static class HostQueue {
+    private final String host;
+    private final String rack;
+    /** A key is disk volume, and a value is the attempts to be scheduled. */
+    private final Map<Integer, LinkedHashSet<TaskAttemptId>> unassignedForEachVolume = new HashMap<>();
+    /** A key is disk volume, and a value is the number of running attempts of the volume. */
+    private final Map<Integer, Integer> volumeLoads = new HashMap<>();
+    /** A value is the volume id assigned to each attempt */
+    private final Map<TaskAttemptId, Integer> assignedVolumes = new HashMap<>();
+    /** The number of remaining attempts in this host */
+    private volatile int remaining;
+
+    HostQueue(String host, String rack) {
+      this.host = host;
+      this.rack = rack;
+    }
+
+    synchronized void add(int volumeId, TaskAttemptId attemptId) {
+      if (unassignedForEachVolume.computeIfAbsent(volumeId, k -> new LinkedHashSet<>()).add(attemptId)) {
+        remaining++;
+      }
+    }
+
+    synchronized void remove(int volumeId, TaskAttemptId attemptId) {
+      LinkedHashSet<TaskAttemptId> attempts = unassignedForEachVolume.get(volumeId);
+      if (attempts != null && attempts.remove(attemptId)) {
+        remaining--;
+        if (attempts.isEmpty()) {
+          unassignedForEachVolume.remove(volumeId);
+        }
+      }
+    }
+
+    /**
+     * Remove the first attempt of the least loaded volume.
+     */
+    synchronized Pair<TaskAttemptId, Integer> poll() {
+      int lowestVolumeId = DataLocation.REMOTE_VOLUME_ID;
+      int lowestLoad = Integer.MAX_VALUE;
+      for (Integer volumeId : unassignedForEachVolume.keySet()) {
+        int load = getVolumeConcurrency(volumeId);
+        if (load < lowestLoad) {
+          lowestVolumeId = volumeId;
+          lowestLoad = load;
+        }
+      }
+
+      if (lowestLoad == Integer.MAX_VALUE) {
+        return null;
+      }
+
+      LinkedHashSet<TaskAttemptId> attempts = unassignedForEachVolume.get(lowestVolumeId);
+      Iterator<TaskAttemptId> iterator = attempts.iterator();
+      TaskAttemptId attemptId = iterator.next();
+      iterator.remove();
+      remaining--;
+      if (attempts.isEmpty()) {
+        unassignedForEachVolume.remove(lowestVolumeId);
+      }
+      return new Pair<>(attemptId, lowestVolumeId);
+    }
+
+    synchronized void assign(TaskAttemptId attemptId, int volumeId) {
+      int concurrency = getVolumeConcurrency(volumeId) + 1;
+      volumeLoads.put(volumeId, concurrency);
+      assignedVolumes.put(attemptId, volumeId);
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Assigned host : " + host + ", Volume : " + volumeId + ", Concurrency : " + concurrency
+            + ", Remaining local tasks : " + remaining);
+      }
+    }
+
+    synchronized void release(TaskAttemptId attemptId) {
+      Integer volumeId = assignedVolumes.remove(attemptId);
+      if (volumeId != null) {
+        int concurrency = getVolumeConcurrency(volumeId);
+        if (concurrency > 0) {
+          volumeLoads.put(volumeId, concurrency - 1);
+        }
+      }
+    }
+
+    synchronized int getVolumeConcurrency(int volumeId) {
+      Integer concurrency = volumeLoads.get(volumeId);
+      return concurrency == null ? 0 : concurrency;
+    }
+  }
+}
@@ -41,6 +41,9 @@ public abstract class AbstractFetcher {
   protected long fileLen;
   protected int messageReceiveCount;
 
+  /** The queue which the fetched data are handed over to. If null, the data are localized after all fetches. */
+  protected FetchedDataQueue fetchedDataQueue;
+
   public AbstractFetcher(TajoConf conf, URI uri) {
     this(conf, uri, null);
   }
@@ -80,6 +83,14 @@ public abstract class AbstractFetcher {
     return messageReceiveCount;
   }
 
+  public FetchedDataQueue getFetchedDataQueue() {
+    return fetchedDataQueue;
+  }
+
+  public void setFetchedDataQueue(FetchedDataQueue fetchedDataQueue) {
+    this.fetchedDataQueue = fetchedDataQueue;
+  }
+
   public abstract List<FileChunk> get() throws IOException;
 
   protected void endFetch(FetcherState state) {
@@ -34,6 +34,7 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.util.ReflectionUtils;
 import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.TajoProtos;
 import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.TaskId;
@@ -330,6 +331,11 @@ public class ExecutionBlockContext {
     }
   }
 
+  public boolean isShufflePushEnabled() {
+    return shuffleType == PlanProto.ShuffleType.HASH_SHUFFLE
+        && queryContext.getBool(SessionVars.HASH_SHUFFLE_PUSH_ENABLED);
+  }
+
   public TajoWorker.WorkerContext getWorkerContext(){
     return workerContext;
   }
@@ -352,8 +358,8 @@ public class ExecutionBlockContext {
   }
 
   private void sendHashShuffleReport(ExecutionBlockId ebId) throws Exception {
-    /* This case is that worker did not ran tasks */
-    if(completedTasksNum.get() == 0) return;
+    /* This case is that worker did not ran tasks. A merger of push shuffle always reports its merged partitions */
+    if(completedTasksNum.get() == 0 && !isShufflePushEnabled()) return;
 
     Interface stub = getStub();
 
@@ -25,7 +25,10 @@ import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.SessionVars;
 import org.apache.tajo.annotation.Nullable;
 import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.engine.codegen.CompiledPipeline;
 import org.apache.tajo.engine.codegen.ExecutorPreCompiler;
+import org.apache.tajo.engine.codegen.PipelineCodeGenerator;
+import org.apache.tajo.engine.codegen.PipelineFragment;
 import org.apache.tajo.engine.codegen.TajoClassLoader;
 import org.apache.tajo.engine.json.CoreGsonHelper;
 import org.apache.tajo.engine.query.QueryContext;
@@ -54,6 +57,7 @@ public class ExecutionBlockSharedResource {
   // Resources
   private TajoClassLoader classLoader;
   private ExecutorPreCompiler.CompilationContext compilationContext;
+  private PipelineCodeGenerator pipelineCompiler;
   private LogicalNode plan;
   private boolean codeGenEnabled = false;
   private final TajoPullServerService pullServerService;
@@ -90,6 +94,7 @@ public class ExecutionBlockSharedResource {
       classLoader = new TajoClassLoader();
       compilationContext = new ExecutorPreCompiler.CompilationContext(classLoader);
       ExecutorPreCompiler.compile(compilationContext, plan);
+      pipelineCompiler = new PipelineCodeGenerator(classLoader);
     }
   }
 
@@ -121,6 +126,14 @@ public class ExecutionBlockSharedResource {
     }
   }
 
+  public CompiledPipeline compilePipeline(TaskAttemptContext taskContext, PipelineFragment fragment) {
+    if (codeGenEnabled) {
+      return pipelineCompiler.compile(taskContext, fragment);
+    } else {
+      throw new IllegalStateException("CodeGen is disabled");
+    }
+  }
+
   /* This is guarantee a lock for a ExecutionBlock */
   public synchronized Object getLock() {
     return lock;
@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.tajo.pullserver.retriever.FileChunk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FetchedDataQueue hands the fetched data of an input table over to the scan of the table while
+ * the other fetches are still in progress.
+ *
+ * Fetchers buffer the received data in memory as long as both the capacity of this queue and
+ * the task memory allow. Otherwise, the data are landed on a local file as usual, and only
+ * the file chunks are enqueued. Thus, fetchers are never blocked by a slow consumer.
+ * The consumer takes the data in the arrival order and is blocked until all fetchers are finished.
+ *
+ * The memory of the task is always accounted out of the monitor of this queue, so this queue and
+ * the task memory context never wait for the lock of each other.
+ */
+public class FetchedDataQueue implements MemoryConsumer {
+  private static final long WAIT_INTERVAL_MS = 1000;
+
+  private final String tableName;
+  private final TaskMemoryContext memoryContext;
+  private final long capacity;
+  private final LinkedList<FetchedData> queue = new LinkedList<>();
+
+  private final AtomicLong reserved = new AtomicLong();
+  private int remainingFetchers;
+  private boolean failed;
+  private volatile boolean closed;
+
+  public FetchedDataQueue(String tableName, TaskMemoryContext memoryContext, long capacity) {
+    this.tableName = tableName;
+    this.memoryContext = memoryContext;
+    this.capacity = capacity;
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  /**
+   * It is called for each fetcher of the table before fetches start.
+   */
+  public synchronized void registerFetcher() {
+    remainingFetchers++;
+  }
+
+  /**
+   * Reserve memory to buffer the data of a fetch.
+   *
+   * @param bytes The size of the data
+   * @return True if the data can be buffered in memory. Otherwise, they should be stored into a file.
+   */
+  public boolean reserve(long bytes) {
+    long current;
+    do {
+      current = reserved.get();
+      if (closed || current + bytes > capacity) {
+        return false;
+      }
+    } while (!reserved.compareAndSet(current, current + bytes));
+
+    if (memoryContext != null && !memoryContext.reserveWithoutSpill(this, bytes)) {
+      reserved.addAndGet(-bytes);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Release the memory reserved by {@link #reserve(long)}.
+   */
+  public void release(long bytes) {
+    long current;
+    long released;
+    do {
+      current = reserved.get();
+      released = Math.min(current, bytes);
+    } while (!reserved.compareAndSet(current, current - released));
+
+    if (memoryContext != null && released > 0) {
+      memoryContext.release(this, released);
+    }
+  }
+
+  /**
+   * Add the data buffered in memory. Its memory must be reserved in advance.
+   */
+  public void add(ByteBuffer buffer) {
+    add(new FetchedData(buffer, null));
+  }
+
+  /**
+   * Add the data stored in a file.
+   */
+  public void add(FileChunk chunk) {
+    add(new FetchedData(null, chunk));
+  }
+
+  private void add(FetchedData data) {
+    synchronized (this) {
+      if (!closed) {
+        queue.add(data);
+        notifyAll();
+        return;
+      }
+    }
+    if (data.isInMemory()) {
+      release(data.length());
+    }
+  }
+
+  /**
+   * It is called when a fetcher completes.
+   */
+  public synchronized void fetcherFinished() {
+    remainingFetchers--;
+    notifyAll();
+  }
+
+  /**
+   * It is called when a fetcher finally fails. Then, the consumer fails too, because a part of the input
+   * may be already consumed.
+   */
+  public synchronized void fetcherFailed() {
+    failed = true;
+    notifyAll();
+  }
+
+  /**
+   * Take the next fetched data. If the data are in memory, the consumer should call {@link #release(long)}
+   * after consuming them.
+   *
+   * @return The next fetched data, or null if all fetchers are finished and all data are consumed.
+   * @throws IOException If a fetch failed or the queue is closed
+   */
+  public synchronized FetchedData take() throws IOException {
+    while (queue.isEmpty() && remainingFetchers > 0 && !failed && !closed) {
+      try {
+        wait(WAIT_INTERVAL_MS);
+      } catch (InterruptedException e) {
+        throw new IOException("Interrupted while waiting for the fetched data of " + tableName, e);
+      }
+    }
+
+    if (failed) {
+      throw new IOException("Failed to fetch the data of " + tableName);
+    } else if (closed) {
+      throw new IOException("The fetched data queue of " + tableName + " is already closed");
+    }
+    return queue.poll();
+  }
+
+  /**
+   * Discard all remaining data and release their memory. Data which are added later are discarded.
+   */
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      queue.clear();
+      notifyAll();
+    }
+    release(reserved.get());
+  }
+
+  @Override
+  public long getReservedMemory() {
+    return reserved.get();
+  }
+
+  @Override
+  public long spill() throws IOException {
+    // the buffered data are owned by the consumer once they are enqueued.
+    return 0;
+  }
+
+  /**
+   * The data of a fetch, which are buffered in memory or stored in a file.
+   */
+  public static class FetchedData {
+    private final ByteBuffer buffer;
+    private final FileChunk chunk;
+
+    FetchedData(ByteBuffer buffer, FileChunk chunk) {
+      this.buffer = buffer;
+      this.chunk = chunk;
+    }
+
+    public boolean isInMemory() {
+      return buffer != null;
+    }
+
+    public ByteBuffer getBuffer() {
+      return buffer;
+    }
+
+    public FileChunk getChunk() {
+      return chunk;
+    }
+
+    public long length() {
+      return buffer != null ? buffer.remaining() : chunk.length();
+    }
+  }
+}
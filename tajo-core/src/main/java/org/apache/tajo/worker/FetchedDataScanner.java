@@ -0,0 +1,219 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.BuiltinStorages;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.exception.TajoRuntimeException;
+import org.apache.tajo.exception.UnsupportedException;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.pullserver.retriever.FileChunk;
+import org.apache.tajo.storage.MemoryInputChannel;
+import org.apache.tajo.storage.RawFile;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.TablespaceManager;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.rawfile.DirectRawFileScanner;
+import org.apache.tajo.worker.FetchedDataQueue.FetchedData;
+
+import java.io.IOException;
+
+/**
+ * FetchedDataScanner scans the fetched data of an input table in the arrival order while they are being fetched.
+ * The data buffered in memory are read through {@link MemoryInputChannel} without being landed on a file.
+ * Like {@link org.apache.tajo.storage.MergeScanner}, the order of tuples among fetched data is not defined,
+ * and it cannot be rescanned because the consumed data are released.
+ */
+public class FetchedDataScanner implements Scanner {
+  private final Configuration conf;
+  private final Schema schema;
+  private final TableMeta meta;
+  private final FetchedDataQueue queue;
+  private final TableStats tableStats;
+
+  private FetchedData currentData;
+  private Scanner currentScanner;
+  private boolean finished;
+
+  public FetchedDataScanner(Configuration conf, Schema schema, TableMeta meta, FetchedDataQueue queue) {
+    this.conf = conf;
+    this.schema = schema;
+    this.meta = meta;
+    this.queue = queue;
+
+    tableStats = new TableStats();
+    for (Column eachColumn : schema.getRootColumns()) {
+      tableStats.addColumnStat(new ColumnStats(eachColumn));
+    }
+  }
+
+  /**
+   * @return True if the fetched data buffered in memory can be read by the given data format.
+   */
+  public static boolean isStreamable(String dataFormat) {
+    return BuiltinStorages.RAW.equalsIgnoreCase(dataFormat) || BuiltinStorages.DRAW.equalsIgnoreCase(dataFormat);
+  }
+
+  @Override
+  public void init() throws IOException {
+    finished = false;
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    while (!finished) {
+      if (currentScanner != null) {
+        Tuple tuple = currentScanner.next();
+        if (tuple != null) {
+          return tuple;
+        }
+        closeCurrentScanner();
+      }
+
+      currentData = queue.take();
+      if (currentData == null) {
+        finished = true;
+      } else if (currentData.length() > 0) {
+        currentScanner = getScanner(currentData);
+        currentScanner.init();
+        tableStats.setNumBytes(tableStats.getNumBytes() + currentData.length());
+        tableStats.setNumBlocks(tableStats.getNumBlocks() + 1);
+      } else {
+        releaseCurrentData();
+      }
+    }
+
+    return null;
+  }
+
+  private Scanner getScanner(FetchedData data) throws IOException {
+    if (data.isInMemory()) {
+      FileFragment fragment = new FileFragment(queue.getTableName(),
+          new Path("memory:///" + queue.getTableName()), 0, data.length());
+      MemoryInputChannel channel = new MemoryInputChannel(data.getBuffer());
+
+      if (BuiltinStorages.DRAW.equalsIgnoreCase(meta.getDataFormat())) {
+        return new DirectRawFileScanner(conf, schema, meta, fragment, channel);
+      } else if (BuiltinStorages.RAW.equalsIgnoreCase(meta.getDataFormat())) {
+        return new RawFile.RawFileScanner(conf, schema, meta, fragment, channel);
+      } else {
+        throw new TajoRuntimeException(new UnsupportedException("streaming fetch of " + meta.getDataFormat()));
+      }
+
+    } else {
+      FileChunk chunk = data.getChunk();
+      FileFragment fragment = new FileFragment(queue.getTableName(), new Path(chunk.getFile().toURI()),
+          chunk.startOffset(), chunk.length());
+      return TablespaceManager.getLocalFs().getScanner(meta, schema, fragment, schema);
+    }
+  }
+
+  private void closeCurrentScanner() throws IOException {
+    currentScanner.close();
+    TableStats scannerTableStats = currentScanner.getInputStats();
+    if (scannerTableStats != null) {
+      tableStats.setReadBytes(tableStats.getReadBytes() + scannerTableStats.getReadBytes());
+      tableStats.setNumRows(tableStats.getNumRows() + scannerTableStats.getNumRows());
+    }
+    currentScanner = null;
+    releaseCurrentData();
+  }
+
+  private void releaseCurrentData() {
+    if (currentData != null && currentData.isInMemory()) {
+      queue.release(currentData.length());
+    }
+    currentData = null;
+  }
+
+  @Override
+  public void reset() throws IOException {
+    throw new TajoRuntimeException(new UnsupportedException("rescan of streamed fetch data"));
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (currentScanner != null) {
+      closeCurrentScanner();
+    }
+    releaseCurrentData();
+    finished = true;
+  }
+
+  @Override
+  public void pushOperators(LogicalNode planPart) {
+    throw new TajoRuntimeException(new UnsupportedException());
+  }
+
+  @Override
+  public boolean isProjectable() {
+    return false;
+  }
+
+  @Override
+  public void setTarget(Column[] targets) {
+    throw new TajoRuntimeException(new UnsupportedException());
+  }
+
+  @Override
+  public boolean isSelectable() {
+    return false;
+  }
+
+  @Override
+  public void setFilter(EvalNode filter) {
+    throw new TajoRuntimeException(new UnsupportedException());
+  }
+
+  @Override
+  public void setLimit(long num) {
+  }
+
+  @Override
+  public boolean isSplittable() {
+    return false;
+  }
+
+  /**
+   * The total size of the input is unknown until all fetches are finished.
+   * So, the progress is only reported as 0 or 1.
+   */
+  @Override
+  public float getProgress() {
+    return finished ? 1.0f : 0.0f;
+  }
+
+  @Override
+  public TableStats getInputStats() {
+    return tableStats;
+  }
+
+  @Override
+  public Schema getSchema() {
+    return schema;
+  }
+}
@@ -61,6 +61,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * LocalFetcher retrieves locally stored data. Its behavior can be different according to the pull server is running
@@ -90,6 +91,7 @@ public class LocalFetcher extends AbstractFetcher {
   private final String tableName;
   private final FileSystem localFileSystem;
   private final LocalDirAllocator localDirAllocator;
+  private Supplier<AbstractFetcher> fallbackFetcherFactory;
 
   @VisibleForTesting
   public LocalFetcher(TajoConf conf, URI uri, String tableName) throws IOException {
@@ -168,6 +170,15 @@ public class LocalFetcher extends AbstractFetcher {
     }
   }
 
+  /**
+   * Sets the factory of the fetcher which pulls the data through the external pull server if the shuffle files are
+   * not accessible from this process, e.g., when the pull server uses different local directories.
+   * The fallback fetcher is created only when it is needed.
+   */
+  public void setFallbackFetcherFactory(Supplier<AbstractFetcher> fallbackFetcherFactory) {
+    this.fallbackFetcherFactory = fallbackFetcherFactory;
+  }
+
   @Override
   public List<FileChunk> get() throws IOException {
     this.startTime = System.currentTimeMillis();
@@ -219,11 +230,17 @@ public class LocalFetcher extends AbstractFetcher {
     final Path partPath = StorageUtil.concatPath(queryBaseDir, "hash-shuffle", String.valueOf(partParentId), partId);
 
     if (!localDirAllocator.ifExists(partPath.toString(), conf)) {
+      if (fallbackFetcherFactory != null) {
+        return getWithFallbackFetcher("Hash shuffle or Scattered hash shuffle - file not exist: " + partPath);
+      }
       endFetch(FetcherState.FETCH_FAILED);
       throw new IOException("Hash shuffle or Scattered hash shuffle - file not exist: " + partPath);
     }
     final Path path = localFileSystem.makeQualified(localDirAllocator.getLocalPathToRead(partPath.toString(), conf));
     final File file = new File(path.toUri());
+    if (!file.canRead() && fallbackFetcherFactory != null) {
+      return getWithFallbackFetcher("Hash shuffle or Scattered hash shuffle - file not readable: " + file);
+    }
     final long startPos = (offset >= 0 && length >= 0) ? offset : 0;
     final long readLen = (offset >= 0 && length >= 0) ? length : file.length();
 
@@ -291,6 +308,9 @@ public class LocalFetcher extends AbstractFetcher {
         for (FileChunkMeta eachMeta : chunkMetas) {
           Path outputPath = StorageUtil.concatPath(queryBaseDir, eachMeta.getTaskId(), "output");
           if (!localDirAllocator.ifExists(outputPath.toString(), conf)) {
+            if (fallbackFetcherFactory != null) {
+              return getWithFallbackFetcher("Range shuffle - file not exist: " + outputPath);
+            }
             LOG.warn("Range shuffle - file not exist. " + outputPath);
             continue;
           }
@@ -314,6 +334,20 @@ public class LocalFetcher extends AbstractFetcher {
     }
   }
 
+  private List<FileChunk> getWithFallbackFetcher(String reason) throws IOException {
+    LOG.info(reason + ", so the data are fetched through the pull server: " + uri);
+    AbstractFetcher fallbackFetcher = fallbackFetcherFactory.get();
+    fallbackFetcher.setFetchedDataQueue(fetchedDataQueue);
+    try {
+      return fallbackFetcher.get();
+    } finally {
+      fileLen = fallbackFetcher.getFileLen();
+      fileNum = fallbackFetcher.getFileNum();
+      messageReceiveCount = fallbackFetcher.getMessageReceiveCount();
+      endFetch(fallbackFetcher.getState());
+    }
+  }
+
   public class HttpClientHandler extends ChannelInboundHandlerAdapter {
     private int length = -1;
     private int totalReceivedContentLength = 0;
@@ -0,0 +1,41 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import java.io.IOException;
+
+/**
+ * An operator which reserves the memory of a task through {@link TaskMemoryContext}.
+ */
+public interface MemoryConsumer {
+
+  /**
+   * @return The memory size currently reserved by this consumer
+   */
+  long getReservedMemory();
+
+  /**
+   * It is called when another consumer of the same task cannot reserve memory.
+   * An implementation should move its in-memory data into a disk if it is possible in the current state,
+   * and release the memory of the spilled data.
+   *
+   * @return The released memory size. 0 if nothing is spilled.
+   */
+  long spill() throws IOException;
+}
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.util.FileUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MemoryManager keeps track of the execution memory reserved by running tasks in a worker.
+ *
+ * Each task can reserve up to 1/N of the capacity, where N is the number of running tasks,
+ * so that a task consuming a lot of memory does not starve the other tasks.
+ * A reservation is never blocked. If it is not granted, the operator is expected to spill its data.
+ */
+public class MemoryManager {
+  private static final Log LOG = LogFactory.getLog(MemoryManager.class);
+
+  private final long capacity;
+  private final Map<TaskAttemptId, Long> taskMemory = new HashMap<>();
+  private long used;
+  private long peakUsed;
+
+  public MemoryManager(long capacity) {
+    this.capacity = capacity;
+  }
+
+  public synchronized void registerTask(TaskAttemptId taskId) {
+    if (!taskMemory.containsKey(taskId)) {
+      taskMemory.put(taskId, 0L);
+    }
+  }
+
+  /**
+   * Release all memory reserved by a task.
+   *
+   * @return The memory size which has not been released by the task itself
+   */
+  public synchronized long unregisterTask(TaskAttemptId taskId) {
+    Long remain = taskMemory.remove(taskId);
+    if (remain == null) {
+      return 0;
+    }
+    used -= remain;
+    if (remain > 0 && LOG.isDebugEnabled()) {
+      LOG.debug(FileUtil.humanReadableByteCount(remain, false) + " of " + taskId + " is released at the end of task");
+    }
+    return remain;
+  }
+
+  /**
+   * Try to reserve memory for a task. A task which is not registered, e.g., one already unregistered at its end,
+   * cannot reserve memory because nobody would release it.
+   *
+   * @param taskId The task attempt id
+   * @param bytes The memory size to be reserved
+   * @param force If true, the memory is reserved even if it exceeds the capacity
+   * @return True if the memory is reserved
+   */
+  public synchronized boolean reserve(TaskAttemptId taskId, long bytes, boolean force) {
+    Long taskUsed = taskMemory.get(taskId);
+    if (taskUsed == null) {
+      LOG.warn("Unregistered task " + taskId + " cannot reserve "
+          + FileUtil.humanReadableByteCount(bytes, false));
+      return false;
+    }
+
+    if (!force) {
+      long maxPerTask = capacity / taskMemory.size();
+      if (taskUsed + bytes > maxPerTask || used + bytes > capacity) {
+        return false;
+      }
+    }
+
+    taskMemory.put(taskId, taskUsed + bytes);
+    used += bytes;
+    peakUsed = Math.max(peakUsed, used);
+    return true;
+  }
+
+  public synchronized void release(TaskAttemptId taskId, long bytes) {
+    Long taskUsed = taskMemory.get(taskId);
+    if (taskUsed == null) {
+      return;
+    }
+    long released = Math.min(taskUsed, bytes);
+    taskMemory.put(taskId, taskUsed - released);
+    used -= released;
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  public synchronized long getUsed() {
+    return used;
+  }
+
+  public synchronized long getPeakUsed() {
+    return peakUsed;
+  }
+
+  public synchronized int getTaskNum() {
+    return taskMemory.size();
+  }
+
+  /**
+   * @return True if forced reservations exceed the capacity
+   */
+  public synchronized boolean isOvercommitted() {
+    return used > capacity;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "used: " + FileUtil.humanReadableByteCount(used, false) + ", capacity: "
+        + FileUtil.humanReadableByteCount(capacity, false) + ", tasks: " + taskMemory.size();
+  }
+}
@@ -48,6 +48,7 @@ public class NodeResourceManager extends AbstractService implements EventHandler
   private final HashMap<Integer, AtomicInteger> volumeMap = Maps.newHashMap();
   private NodeResource totalResource;
   private NodeResource availableResource;
+  private MemoryManager memoryManager;
   private TajoConf tajoConf;
   private boolean enableTest;
   private int diskParallels;
@@ -63,6 +64,7 @@ public class NodeResourceManager extends AbstractService implements EventHandler
     this.tajoConf = TUtil.checkTypeAndGet(conf, TajoConf.class);
     this.totalResource = createWorkerResource(tajoConf);
     this.availableResource = NodeResources.clone(totalResource);
+    this.memoryManager = createMemoryManager(tajoConf, totalResource);
     this.dispatcher.register(NodeResourceEvent.EventType.class, this);
     validateConf(tajoConf);
     this.enableTest = conf.get(TajoConstants.TEST_KEY, Boolean.FALSE.toString())
@@ -135,6 +137,10 @@ public class NodeResourceManager extends AbstractService implements EventHandler
     return availableResource;
   }
 
+  public MemoryManager getMemoryManager() {
+    return memoryManager;
+  }
+
   public int getRunningQueryMasters() {
     return runningQueryMasters.get();
   }
@@ -170,7 +176,13 @@ public class NodeResourceManager extends AbstractService implements EventHandler
   }
 
   private boolean checkFreeHeapMemory(NodeResource resource) {
-    //TODO consider the jvm free memory
+    // operators of running tasks already use more memory than the execution memory
+    if (memoryManager.isOvercommitted()) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Execution memory is overcommitted (" + memoryManager + "). " + resource + " is rejected");
+      }
+      return false;
+    }
     return true;
   }
 
@@ -203,6 +215,13 @@ public class NodeResourceManager extends AbstractService implements EventHandler
     return NodeResource.createResource(memoryMb, vCores);
   }
 
+  private MemoryManager createMemoryManager(TajoConf conf, NodeResource resource) {
+    float rate = conf.getFloatVar(TajoConf.ConfVars.WORKER_RESOURCE_EXECUTION_MEMORY_RATE);
+    long capacity = (long) (resource.getMemory() * (double) StorageUnit.MB * rate);
+    LOG.info("Execution memory: " + capacity / StorageUnit.MB + " MB");
+    return new MemoryManager(capacity);
+  }
+
   private void validateConf(TajoConf conf) {
     // validate node memory allocation setting
     int minMem = conf.getIntVar(TajoConf.ConfVars.TASK_RESOURCE_MINIMUM_MEMORY);
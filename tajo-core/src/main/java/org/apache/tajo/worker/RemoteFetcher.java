@@ -20,6 +20,7 @@ package org.apache.tajo.worker;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.*;
@@ -34,6 +35,7 @@ import org.apache.tajo.TajoProtos;
 import org.apache.tajo.TajoProtos.FetcherState;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.pullserver.PullServerConstants;
+import org.apache.tajo.pullserver.PullServerUtil;
 import org.apache.tajo.pullserver.retriever.FileChunk;
 import org.apache.tajo.rpc.NettyUtils;
 
@@ -43,15 +45,23 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  * RemoteFetcher fetches data from a given uri via HTTP protocol and stores them into
  * a specific file. It aims at asynchronous and efficient data transmit.
+ *
+ * If a {@link FetchedDataQueue} is given, the fetched data are kept in memory and handed over to the queue
+ * as long as the queue can reserve memory for them. Otherwise, they are stored into the file.
+ *
+ * If many uris to the same pull server are given, they are sent as a single batched request and
+ * the chunks of all uris are received through one connection.
  */
 public class RemoteFetcher extends AbstractFetcher {
 
@@ -62,9 +72,23 @@ public class RemoteFetcher extends AbstractFetcher {
 
   private final Bootstrap bootstrap;
   private final List<Long> chunkLengths = new ArrayList<>();
+  private final List<URI> batch;
+  private boolean fetchedInMemory;
 
   public RemoteFetcher(TajoConf conf, URI uri, FileChunk chunk) {
-    super(conf, uri, chunk);
+    this(conf, Collections.singletonList(uri), chunk);
+  }
+
+  /**
+   * Creates a fetcher which fetches the data of all the given uris at once.
+   *
+   * @param conf
+   * @param batch chunk request uris which must point to the same pull server
+   * @param chunk
+   */
+  public RemoteFetcher(TajoConf conf, List<URI> batch, FileChunk chunk) {
+    super(conf, batch.get(0), chunk);
+    this.batch = batch;
 
     String scheme = uri.getScheme() == null ? "http" : uri.getScheme();
     this.host = uri.getHost() == null ? "localhost" : uri.getHost();
@@ -100,6 +124,8 @@ public class RemoteFetcher extends AbstractFetcher {
 
     this.startTime = System.currentTimeMillis();
     this.state = FetcherState.FETCH_DATA_FETCHING;
+    this.fetchedInMemory = false;
+    chunkLengths.clear();
     ChannelFuture future = null;
     try {
       future = bootstrap.clone().connect(new InetSocketAddress(host, port))
@@ -112,10 +138,18 @@ public class RemoteFetcher extends AbstractFetcher {
         throw new IOException(future.cause());
       }
 
-      String query = uri.getPath()
-          + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
       // Prepare the HTTP request.
-      HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, query);
+      HttpRequest request;
+      if (isBatch()) {
+        byte[] content = PullServerUtil.encodeBatchRequest(batch);
+        request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/",
+            Unpooled.wrappedBuffer(content));
+        HttpHeaders.setContentLength(request, content.length);
+      } else {
+        String query = uri.getPath()
+            + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+        request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, query);
+      }
       request.headers().set(HttpHeaders.Names.HOST, host);
       request.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.CLOSE);
       request.headers().set(HttpHeaders.Names.ACCEPT_ENCODING, HttpHeaders.Values.GZIP);
@@ -129,6 +163,11 @@ public class RemoteFetcher extends AbstractFetcher {
       // Wait for the server to close the connection. throw exception if failed
       channel.closeFuture().syncUninterruptibly();
 
+      if (fetchedInMemory) {
+        // the fetched data are already handed over to the queue
+        return fileChunks;
+      }
+
       fileChunk.setLength(fileChunk.getFile().length());
 
       long start = 0;
@@ -150,32 +189,70 @@ public class RemoteFetcher extends AbstractFetcher {
 
       this.finishTime = System.currentTimeMillis();
       long elapsedMills = finishTime - startTime;
+      long fetchedLength = fetchedInMemory ? fileLen : fileChunk.length();
       String transferSpeed;
       if(elapsedMills > 1000) {
-        long bytePerSec = (fileChunk.length() * 1000) / elapsedMills;
+        long bytePerSec = (fetchedLength * 1000) / elapsedMills;
         transferSpeed = FileUtils.byteCountToDisplaySize(bytePerSec);
       } else {
-        transferSpeed = FileUtils.byteCountToDisplaySize(Math.max(fileChunk.length(), 0));
+        transferSpeed = FileUtils.byteCountToDisplaySize(Math.max(fetchedLength, 0));
       }
 
-      LOG.info(String.format("Fetcher :%d ms elapsed. %s/sec, len:%d, state:%s, URL:%s",
-          elapsedMills, transferSpeed, fileChunk.length(), getState(), uri));
+      LOG.info(String.format("Fetcher :%d ms elapsed. %s/sec, len:%d, state:%s, memory:%b, batch:%d, URL:%s",
+          elapsedMills, transferSpeed, fetchedLength, getState(), fetchedInMemory, batch.size(), uri));
     }
   }
 
+  public boolean isBatch() {
+    return batch.size() > 1;
+  }
+
   public class HttpClientHandler extends ChannelInboundHandlerAdapter {
     private final File file;
     private RandomAccessFile raf;
     private FileChannel fc;
+    private ByteBuffer buffer;
     private long length = -1;
     private int totalReceivedContentLength = 0;
 
     public HttpClientHandler(File file) throws FileNotFoundException {
       this.file = file;
+      if (fetchedDataQueue == null) {
+        openFile();
+      }
+    }
+
+    private void openFile() throws FileNotFoundException {
       this.raf = new RandomAccessFile(file, "rw");
       this.fc = raf.getChannel();
     }
 
+    /**
+     * Hand the buffered data over to the queue. Each chunk is enqueued separately.
+     */
+    private void publishBuffer() {
+      buffer.flip();
+      int start = 0;
+      for (Long eachChunkLength : chunkLengths) {
+        if (eachChunkLength == 0) continue;
+        ByteBuffer chunk = buffer.duplicate();
+        chunk.position(start);
+        chunk.limit(start + eachChunkLength.intValue());
+        fetchedDataQueue.add(chunk.slice());
+        start += eachChunkLength.intValue();
+      }
+      // release the memory of the data which are not included in any chunk
+      fetchedDataQueue.release(buffer.limit() - start);
+      buffer = null;
+    }
+
+    private void releaseBuffer() {
+      if (buffer != null) {
+        fetchedDataQueue.release(buffer.capacity());
+        buffer = null;
+      }
+    }
+
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg)
         throws Exception {
@@ -222,6 +299,15 @@ public class RemoteFetcher extends AbstractFetcher {
             endFetch(FetcherState.FETCH_FAILED);
             return;
           }
+
+          if (fetchedDataQueue != null) {
+            if (length > 0 && length <= Integer.MAX_VALUE && fetchedDataQueue.reserve(length)) {
+              buffer = ByteBuffer.allocate((int) length);
+              fetchedInMemory = true;
+            } else {
+              openFile();
+            }
+          }
         } catch (Exception e) {
           LOG.error(e.getMessage(), e);
         } finally {
@@ -236,17 +322,33 @@ public class RemoteFetcher extends AbstractFetcher {
         if (state != FetcherState.FETCH_FAILED) {
           try {
             if (content.isReadable()) {
-              totalReceivedContentLength += content.readableBytes();
-              content.readBytes(fc, content.readableBytes());
+              int readableBytes = content.readableBytes();
+              totalReceivedContentLength += readableBytes;
+              if (buffer != null) {
+                if (readableBytes > buffer.remaining()) {
+                  throw new IOException("Invalid fetch length: " + totalReceivedContentLength
+                      + ", but expected " + length);
+                }
+                content.readBytes(buffer.array(), buffer.position(), readableBytes);
+                buffer.position(buffer.position() + readableBytes);
+              } else {
+                content.readBytes(fc, readableBytes);
+              }
             }
 
             if (msg instanceof LastHttpContent) {
               if (raf != null) {
                 fileLen = file.length();
                 fileNum = 1;
+              } else if (buffer != null) {
+                fileLen = buffer.position();
+                fileNum = 1;
               }
 
               if (totalReceivedContentLength == length) {
+                if (buffer != null) {
+                  publishBuffer();
+                }
                 endFetch(FetcherState.FETCH_DATA_FINISHED);
               } else {
                 endFetch(FetcherState.FETCH_FAILED);
@@ -289,6 +391,7 @@ public class RemoteFetcher extends AbstractFetcher {
         LOG.error("Channel closed by peer: " + ctx.channel());
       }
       IOUtils.cleanup(LOG, fc, raf);
+      releaseBuffer();
 
       super.channelUnregistered(ctx);
     }
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.RpcCallback;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.ResourceProtos.ShuffleBlockProto;
+import org.apache.tajo.ResourceProtos.ShufflePushRequest;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaFactory;
+import org.apache.tajo.catalog.SchemaUtil;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos.BoolProto;
+import org.apache.tajo.storage.HashShuffleAppenderManager;
+import org.apache.tajo.tuple.memory.MemoryRowBlock;
+
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <code>ShufflePushMerger</code> appends the hash partitions pushed by remote tasks to the hash shuffle files
+ * of this worker. Pushed blocks are tracked per pushing task like local ones, so they are reported as failures
+ * unless the task tells that it has succeeded.
+ */
+public class ShufflePushMerger {
+  private static final Log LOG = LogFactory.getLog(ShufflePushMerger.class);
+
+  private final TajoWorker.WorkerContext workerContext;
+  private final ExecutorService executor;
+
+  public ShufflePushMerger(TajoConf conf, TajoWorker.WorkerContext workerContext) {
+    this.workerContext = workerContext;
+    this.executor = Executors.newFixedThreadPool(conf.getIntVar(TajoConf.ConfVars.SHUFFLE_PUSH_MERGER_THREAD_NUM),
+        new ThreadFactoryBuilder().setNameFormat("ShufflePushMerger #%d").setDaemon(true).build());
+  }
+
+  /**
+   * Merges the pushed blocks asynchronously. The callback is called after all blocks are written.
+   */
+  public void merge(final ShufflePushRequest request, final RpcCallback<BoolProto> done) {
+    executor.submit(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          mergeBlocks(request);
+          done.run(TajoWorker.TRUE_PROTO);
+        } catch (Throwable t) {
+          LOG.error("Failed to merge the shuffle data of " + new TaskAttemptId(request.getTaskId()), t);
+          done.run(TajoWorker.FALSE_PROTO);
+        }
+      }
+    });
+  }
+
+  protected void mergeBlocks(ShufflePushRequest request) throws Exception {
+    TaskAttemptId taskId = new TaskAttemptId(request.getTaskId());
+    TableMeta meta = new TableMeta(request.getMeta());
+    Schema schema = SchemaFactory.newV1(request.getSchema());
+    DataType[] dataTypes = SchemaUtil.toDataTypes(schema);
+    HashShuffleAppenderManager appenderManager = workerContext.getHashShuffleAppenderManager();
+
+    // join the stage, so this worker reports the merged partitions even if it runs no task of the stage
+    if (request.hasQueryMasterHostAndPort()) {
+      workerContext.getTaskManager().getOrCreateExecutionBlock(
+          taskId.getTaskId().getExecutionBlockId(), request.getQueryMasterHostAndPort());
+    }
+
+    List<Future<MemoryRowBlock>> futures = new ArrayList<>();
+    for (ShuffleBlockProto block : request.getBlocksList()) {
+      MemoryRowBlock rowBlock = new MemoryRowBlock(dataTypes, block.getData().size(), true, meta.getDataFormat());
+      try {
+        rowBlock.getMemory().writeBytes(Channels.newChannel(block.getData().newInput()));
+        rowBlock.setRows(block.getRows());
+        futures.add(appenderManager.writePartitions(meta, schema, taskId, block.getPartId(), rowBlock, true));
+      } catch (Throwable t) {
+        rowBlock.release();
+        throw t;
+      }
+    }
+
+    for (Future<MemoryRowBlock> future : futures) {
+      future.get();
+    }
+
+    if (request.getTaskFinished()) {
+      appenderManager.finalizeTask(taskId);
+    }
+  }
+
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,217 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import com.google.protobuf.ByteString;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.ResourceProtos.ShuffleBlockProto;
+import org.apache.tajo.ResourceProtos.ShufflePushRequest;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.ipc.TajoWorkerProtocol;
+import org.apache.tajo.rpc.AsyncRpcClient;
+import org.apache.tajo.rpc.CallFuture;
+import org.apache.tajo.rpc.RpcClientManager;
+import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos.BoolProto;
+import org.apache.tajo.tuple.memory.MemoryRowBlock;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.NetUtils;
+import org.apache.tajo.util.RpcParameterFactory;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * <code>ShufflePusher</code> pushes the hash partitions of a task to the workers merging them.
+ *
+ * A partition is assigned to a merger by rendezvous hashing over the given mergers. So, all tasks of a stage
+ * push the same partition to the same merger, and a consumer fetches it with a few large reads.
+ * The partitions assigned to the worker of the task are written locally.
+ */
+public class ShufflePusher {
+  private static final Log LOG = LogFactory.getLog(ShufflePusher.class);
+  private static final int MAX_REQUEST_SIZE = 8 * StorageUnit.MB;
+
+  private final TaskAttemptId taskId;
+  private final String queryMasterHostAndPort;
+  private final String localMerger;
+  private final List<String> mergers;
+  private final Properties rpcParams;
+
+  private final Map<Integer, String> partitionMergers = new HashMap<>();
+  private final Map<String, ShufflePushRequest.Builder> pendingRequests = new HashMap<>();
+  private final Map<String, Integer> pendingBytes = new HashMap<>();
+  private final List<CallFuture<BoolProto>> inflightRequests = new ArrayList<>();
+  private final Set<String> pushedMergers = new HashSet<>();
+
+  private TableMeta meta;
+  private Schema schema;
+  private long pushedBytes;
+
+  public ShufflePusher(TajoConf conf, TaskAttemptId taskId, String queryMasterHostAndPort, String localMerger,
+                       List<String> mergers) {
+    this.taskId = taskId;
+    this.queryMasterHostAndPort = queryMasterHostAndPort;
+    this.localMerger = localMerger;
+    this.mergers = new ArrayList<>(mergers);
+    this.rpcParams = RpcParameterFactory.get(conf);
+  }
+
+  public void init(TableMeta meta, Schema schema) {
+    this.meta = meta;
+    this.schema = schema;
+  }
+
+  /**
+   * Returns the merger of a partition. It is the merger having the highest weight for the partition.
+   */
+  public String getMerger(int partId) {
+    String selected = partitionMergers.get(partId);
+    if (selected == null) {
+      long maxWeight = Long.MIN_VALUE;
+      for (String merger : mergers) {
+        long weight = weight(merger, partId);
+        if (selected == null || weight > maxWeight) {
+          selected = merger;
+          maxWeight = weight;
+        }
+      }
+      partitionMergers.put(partId, selected);
+    }
+    return selected;
+  }
+
+  private static long weight(String merger, int partId) {
+    // finalization mix of MurmurHash3
+    long h = (((long) merger.hashCode()) << 32) ^ (partId & 0xffffffffL);
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  public boolean isLocal(int partId) {
+    return mergers.isEmpty() || localMerger.equals(getMerger(partId));
+  }
+
+  public long getPushedBytes() {
+    return pushedBytes;
+  }
+
+  /**
+   * Copies a row block into the request to the merger of the partition.
+   * The request is sent as soon as it exceeds {@link #MAX_REQUEST_SIZE}.
+   */
+  public void add(int partId, MemoryRowBlock rowBlock, boolean release) throws IOException {
+    String merger = getMerger(partId);
+    ShufflePushRequest.Builder request = pendingRequests.get(merger);
+    if (request == null) {
+      request = newRequest();
+      pendingRequests.put(merger, request);
+      pendingBytes.put(merger, 0);
+    }
+
+    int rows = rowBlock.rows();
+    ByteString.Output out = ByteString.newOutput(rowBlock.usedMem());
+    int length = rowBlock.getMemory().writeTo(out);
+    if (release) {
+      rowBlock.release();
+    } else {
+      rowBlock.clear();
+    }
+
+    request.addBlocks(ShuffleBlockProto.newBuilder().setPartId(partId).setRows(rows).setData(out.toByteString()));
+    pushedBytes += length;
+
+    int requestBytes = pendingBytes.get(merger) + length;
+    if (requestBytes >= MAX_REQUEST_SIZE) {
+      inflightRequests.add(send(merger, pendingRequests.remove(merger).build()));
+      pendingBytes.remove(merger);
+    } else {
+      pendingBytes.put(merger, requestBytes);
+    }
+  }
+
+  /**
+   * Sends all pending requests, and waits for the acknowledgements of all mergers.
+   */
+  public void flush() throws IOException {
+    for (Map.Entry<String, ShufflePushRequest.Builder> entry : pendingRequests.entrySet()) {
+      inflightRequests.add(send(entry.getKey(), entry.getValue().build()));
+    }
+    pendingRequests.clear();
+    pendingBytes.clear();
+
+    try {
+      for (CallFuture<BoolProto> future : inflightRequests) {
+        if (!future.get().getValue()) {
+          throw new IOException(taskId + " failed to push shuffle data");
+        }
+      }
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(taskId + " failed to push shuffle data", e);
+    } finally {
+      inflightRequests.clear();
+    }
+  }
+
+  /**
+   * Tells the mergers that this task has succeeded. Until then, the pushed data are regarded as failed ones.
+   */
+  public void finish() throws IOException {
+    flush();
+    for (String merger : pushedMergers) {
+      inflightRequests.add(send(merger, newRequest().setTaskFinished(true).build()));
+    }
+    flush();
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(taskId + " pushed " + pushedBytes + " bytes to " + pushedMergers.size() + " mergers");
+    }
+  }
+
+  private ShufflePushRequest.Builder newRequest() {
+    return ShufflePushRequest.newBuilder()
+        .setTaskId(taskId.getProto())
+        .setQueryMasterHostAndPort(queryMasterHostAndPort)
+        .setMeta(meta.getProto())
+        .setSchema(schema.getProto());
+  }
+
+  private CallFuture<BoolProto> send(String merger, ShufflePushRequest request) throws IOException {
+    pushedMergers.add(merger);
+    CallFuture<BoolProto> callFuture = new CallFuture<>();
+    try {
+      AsyncRpcClient rpcClient = RpcClientManager.getInstance().getClient(
+          NetUtils.createSocketAddr(merger), TajoWorkerProtocol.class, true, rpcParams);
+      TajoWorkerProtocol.TajoWorkerProtocolService.Interface stub = rpcClient.getStub();
+      stub.pushShuffle(callFuture.getController(), request, callFuture);
+    } catch (Exception e) {
+      throw new IOException("Failed to connect to shuffle merger " + merger, e);
+    }
+    return callFuture;
+  }
+}
@@ -52,6 +52,7 @@ import org.apache.tajo.service.ServiceTracker;
 import org.apache.tajo.service.ServiceTrackerFactory;
 import org.apache.tajo.storage.HashShuffleAppenderManager;
 import org.apache.tajo.storage.OldStorageManager;
+import org.apache.tajo.storage.compress.BlockCompressionMetrics;
 import org.apache.tajo.util.*;
 import org.apache.tajo.util.history.HistoryReader;
 import org.apache.tajo.util.history.HistoryWriter;
@@ -214,6 +215,30 @@ public class TajoWorker extends CompositeService {
 
     workerSystemMetrics.register(Node.Tasks.RUNNING_TASKS,
         () -> taskExecutor != null ? taskExecutor.getRunningTasks() : 0);
+
+    workerSystemMetrics.register(Node.Shuffle.COMPRESSION_RAW_BYTES, BlockCompressionMetrics::getRawBytes);
+    workerSystemMetrics.register(Node.Shuffle.COMPRESSION_COMPRESSED_BYTES,
+        BlockCompressionMetrics::getCompressedBytes);
+    workerSystemMetrics.register(Node.Shuffle.COMPRESSION_RATIO, BlockCompressionMetrics::getCompressionRatio);
+    workerSystemMetrics.register(Node.Shuffle.COMPRESSION_CPU_MILLIS, BlockCompressionMetrics::getCompressMillis);
+    workerSystemMetrics.register(Node.Shuffle.DECOMPRESSION_CPU_MILLIS,
+        BlockCompressionMetrics::getDecompressMillis);
+    workerSystemMetrics.register(Node.Shuffle.CHECKSUM_FAILURES, BlockCompressionMetrics::getChecksumFailures);
+
+    if (pullService != null) {
+      workerSystemMetrics.register(Node.PullServer.INDEX_CACHE_HITS,
+          () -> pullService.getIndexCacheStats().hitCount());
+      workerSystemMetrics.register(Node.PullServer.INDEX_CACHE_MISSES,
+          () -> pullService.getIndexCacheStats().missCount());
+      workerSystemMetrics.register(Node.PullServer.INDEX_CACHE_EVICTIONS,
+          () -> pullService.getIndexCacheStats().evictionCount());
+      workerSystemMetrics.register(Node.PullServer.FILE_CACHE_HITS,
+          () -> pullService.getFileCacheStats().hitCount());
+      workerSystemMetrics.register(Node.PullServer.FILE_CACHE_MISSES,
+          () -> pullService.getFileCacheStats().missCount());
+      workerSystemMetrics.register(Node.PullServer.FILE_CACHE_EVICTIONS,
+          () -> pullService.getFileCacheStats().evictionCount());
+    }
   }
 
   private int initWebServer() {
@@ -27,6 +27,7 @@ import org.apache.hadoop.service.CompositeService;
 import org.apache.tajo.QueryId;
 import org.apache.tajo.ResourceProtos.BatchAllocationRequest;
 import org.apache.tajo.ResourceProtos.BatchAllocationResponse;
+import org.apache.tajo.ResourceProtos.ShufflePushRequest;
 import org.apache.tajo.ResourceProtos.StopExecutionBlockRequest;
 import org.apache.tajo.TajoIdProtos;
 import org.apache.tajo.TaskAttemptId;
@@ -50,6 +51,7 @@ public class TajoWorkerManagerService extends CompositeService
   private InetSocketAddress bindAddr;
 
   private TajoWorker.WorkerContext workerContext;
+  private ShufflePushMerger shufflePushMerger;
 
   public TajoWorkerManagerService(TajoWorker.WorkerContext workerContext) {
     super(TajoWorkerManagerService.class.getName());
@@ -73,6 +75,7 @@ public class TajoWorkerManagerService extends CompositeService
       this.rpcServer.start();
 
       this.bindAddr = NetUtils.getConnectAddress(rpcServer.getListenAddress());
+      this.shufflePushMerger = new ShufflePushMerger(tajoConf, workerContext);
     } catch (Exception e) {
       LOG.error(e.getMessage(), e);
     }
@@ -87,6 +90,9 @@ public class TajoWorkerManagerService extends CompositeService
     if(rpcServer != null) {
       rpcServer.shutdown();
     }
+    if (shufflePushMerger != null) {
+      shufflePushMerger.shutdown();
+    }
     LOG.info("TajoWorkerManagerService stopped");
     super.serviceStop();
   }
@@ -144,4 +150,10 @@ public class TajoWorkerManagerService extends CompositeService
     workerContext.getTaskManager().getDispatcher().getEventHandler().handle(new QueryStopEvent(new QueryId(request)));
     done.run(TajoWorker.TRUE_PROTO);
   }
+
+  @Override
+  public void pushShuffle(RpcController controller, ShufflePushRequest request,
+                          RpcCallback<PrimitiveProtos.BoolProto> done) {
+    shufflePushMerger.merge(request, done);
+  }
 }
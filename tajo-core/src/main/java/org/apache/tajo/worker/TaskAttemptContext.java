@@ -30,6 +30,10 @@ import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.proto.CatalogProtos.PartitionDescProto;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.codegen.CompiledPipeline;
+import org.apache.tajo.engine.codegen.PipelineCodeGenerator;
+import org.apache.tajo.engine.codegen.PipelineFragment;
+import org.apache.tajo.engine.codegen.TajoClassLoader;
 import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.engine.planner.global.DataChannel;
 import org.apache.tajo.engine.query.QueryContext;
@@ -39,6 +43,7 @@ import org.apache.tajo.storage.HashShuffleAppenderManager;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
+import org.apache.tajo.util.BloomFilter;
 import org.apache.tajo.worker.TajoWorker.WorkerContext;
 
 import java.io.File;
@@ -87,6 +92,18 @@ public class TaskAttemptContext {
 
   private List<PartitionDescProto> partitions;
 
+  /** a runtime join filter built over the shuffle keys of this task's output */
+  private BloomFilter runtimeJoinFilter;
+
+  /** the memory reserved by the operators of this task */
+  private final TaskMemoryContext memoryContext;
+
+  /** the queues of input tables whose fetched data are streamed into the scans */
+  private final Map<String, FetchedDataQueue> fetchedDataQueues = Maps.newHashMap();
+
+  /** pushes the hash partitions of this task to merger workers if push shuffle is enabled */
+  private ShufflePusher shufflePusher;
+
   public TaskAttemptContext(QueryContext queryContext, final ExecutionBlockContext executionBlockContext,
                             final TaskAttemptId taskId,
                             final FragmentProto[] fragments,
@@ -100,6 +117,12 @@ public class TaskAttemptContext {
 
     this.taskId = taskId;
 
+    MemoryManager memoryManager = null;
+    if (workerContext != null && workerContext.getNodeResourceManager() != null) {
+      memoryManager = workerContext.getNodeResourceManager().getMemoryManager();
+    }
+    this.memoryContext = new TaskMemoryContext(memoryManager, taskId);
+
     if (fragments != null) {
       for (FragmentProto t : fragments) {
         if (fragmentMap.containsKey(t.getId())) {
@@ -164,6 +187,44 @@ public class TaskAttemptContext {
     return this.enforcer;
   }
 
+  public void setRuntimeJoinFilter(BloomFilter runtimeJoinFilter) {
+    this.runtimeJoinFilter = runtimeJoinFilter;
+  }
+
+  public BloomFilter getRuntimeJoinFilter() {
+    return runtimeJoinFilter;
+  }
+
+  public TaskMemoryContext getMemoryContext() {
+    return memoryContext;
+  }
+
+  public void addFetchedDataQueue(FetchedDataQueue queue) {
+    fetchedDataQueues.put(queue.getTableName(), queue);
+  }
+
+  /**
+   * @return The queue of the fetched data of the table, or null if the fetched data are localized before scanning
+   */
+  public FetchedDataQueue getFetchedDataQueue(String tableName) {
+    return fetchedDataQueues.get(tableName);
+  }
+
+  public Collection<FetchedDataQueue> getFetchedDataQueues() {
+    return fetchedDataQueues.values();
+  }
+
+  public void setShufflePusher(ShufflePusher shufflePusher) {
+    this.shufflePusher = shufflePusher;
+  }
+
+  /**
+   * @return The pusher of the hash partitions, or null if all partitions are written locally
+   */
+  public ShufflePusher getShufflePusher() {
+    return shufflePusher;
+  }
+
   public ExecutionBlockSharedResource getSharedResource() {
     return sharedResource;
   }
@@ -181,6 +242,15 @@ public class TaskAttemptContext {
     }
   }
 
+  public CompiledPipeline compilePipeline(PipelineFragment fragment) {
+    if (sharedResource != null) {
+      return sharedResource.compilePipeline(this, fragment);
+    } else {
+      LOG.debug("Shared resource is not initialized. It is NORMAL in unit tests");
+      return new PipelineCodeGenerator(new TajoClassLoader()).compile(this, fragment);
+    }
+  }
+
   public boolean hasResultStats() {
     return resultStats != null;
   }
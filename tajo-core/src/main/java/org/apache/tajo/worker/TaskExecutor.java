@@ -131,9 +131,25 @@ public class TaskExecutor extends AbstractService implements EventHandler<TaskSt
 
   protected void stopTask(TaskAttemptId taskId) {
     runningTasks.decrementAndGet();
+    releaseMemory(taskId);
     releaseResource(taskId);
   }
 
+  private MemoryManager getMemoryManager() {
+    NodeResourceManager nodeResourceManager = workerContext.getNodeResourceManager();
+    return nodeResourceManager == null ? null : nodeResourceManager.getMemoryManager();
+  }
+
+  protected void releaseMemory(TaskAttemptId taskId) {
+    MemoryManager memoryManager = getMemoryManager();
+    if (memoryManager != null) {
+      long remain = memoryManager.unregisterTask(taskId);
+      if (remain > 0) {
+        LOG.warn("Task " + taskId + " did not release " + remain + " bytes of execution memory");
+      }
+    }
+  }
+
   @SuppressWarnings("unchecked")
   protected void releaseResource(TaskAttemptId taskId) {
     Allocation allocation =  allocatedResourceMap.remove(taskId);
@@ -170,6 +186,10 @@ public class TaskExecutor extends AbstractService implements EventHandler<TaskSt
   public void handle(TaskStartEvent event) {
 
     allocatedResourceMap.put(event.getTaskAttemptId(), event.getAllocation());
+    MemoryManager memoryManager = getMemoryManager();
+    if (memoryManager != null) {
+      memoryManager.registerTask(event.getTaskAttemptId());
+    }
 
     ExecutionBlockContext context = workerContext.getTaskManager().getExecutionBlockContext(
         event.getTaskAttemptId().getTaskId().getExecutionBlockId());
@@ -50,6 +50,7 @@ public class TaskHistory implements ProtoObject<TaskHistoryProto>, History {
   private int finishedFetchCount;
   private int totalFetchCount;
   private List<FetcherHistoryProto> fetcherHistories;
+  private long peakMemory;
 
   public TaskHistory(TaskAttemptId taskAttemptId, TaskAttemptState state, float progress,
                      long startTime, long finishTime, CatalogProtos.TableStatsProto inputStats) {
@@ -90,6 +91,10 @@ public class TaskHistory implements ProtoObject<TaskHistoryProto>, History {
       this.totalFetchCount = proto.getTotalFetchCount();
     }
 
+    if (proto.hasPeakMemory()) {
+      this.peakMemory = proto.getPeakMemory();
+    }
+
     this.fetcherHistories = proto.getFetcherHistoriesList();
   }
 
@@ -120,6 +125,7 @@ public class TaskHistory implements ProtoObject<TaskHistoryProto>, History {
     builder.setStartTime(startTime);
     builder.setFinishTime(finishTime);
     builder.setInputStats(inputStats);
+    builder.setPeakMemory(peakMemory);
 
     if (outputStats != null) {
       builder.setOutputStats(outputStats);
@@ -214,6 +220,14 @@ public class TaskHistory implements ProtoObject<TaskHistoryProto>, History {
     this.outputStats = outputStats;
   }
 
+  public long getPeakMemory() {
+    return peakMemory;
+  }
+
+  public void setPeakMemory(long peakMemory) {
+    this.peakMemory = peakMemory;
+  }
+
   @Override
   public HistoryType getHistoryType() {
     return HistoryType.TASK;
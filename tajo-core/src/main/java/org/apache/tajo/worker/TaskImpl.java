@@ -21,12 +21,15 @@ package org.apache.tajo.worker;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.protobuf.ByteString;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.CommonConfigurationKeysPublic;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.TajoProtos;
 import org.apache.tajo.TajoProtos.FetcherState;
 import org.apache.tajo.TajoProtos.TaskAttemptState;
@@ -59,6 +62,8 @@ import org.apache.tajo.querymaster.Repartitioner;
 import org.apache.tajo.rpc.NullCallback;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.FileUtil;
 import org.apache.tajo.util.NetUtils;
 
 import java.io.File;
@@ -127,6 +132,11 @@ public class TaskImpl implements Task {
     this.context.setDataChannel(request.getDataChannel());
     this.context.setEnforcer(request.getEnforcer());
     this.context.setState(TaskAttemptState.TA_PENDING);
+    if (!request.getShuffleMergers().isEmpty()) {
+      this.context.setShufflePusher(new ShufflePusher(systemConf, taskAttemptId, request.getQueryMasterHostAndPort(),
+          executionBlockContext.getWorkerContext().getConnectionInfo().getHostAndPeerRpcPort(),
+          request.getShuffleMergers()));
+    }
     this.maxUrlLength = systemConf.getIntVar(ConfVars.PULLSERVER_FETCH_URL_MAX_LENGTH);
   }
 
@@ -135,6 +145,8 @@ public class TaskImpl implements Task {
     updateDescsForScanNodes(NodeType.SCAN);
     updateDescsForScanNodes(NodeType.PARTITIONS_SCAN);
     updateDescsForScanNodes(NodeType.INDEX_SCAN);
+    updateDescsForCompressedFetches();
+    updateDescsForMappedFetches();
 
     interQuery = request.getProto().getInterQuery();
     if (interQuery) {
@@ -183,6 +195,40 @@ public class TaskImpl implements Task {
     }
   }
 
+  /**
+   * Hash-shuffled inputs are compressed by their producers if a compression codec is given in the session.
+   * See HashShuffleFileWriteExec.
+   */
+  private void updateDescsForCompressedFetches() {
+    String compressionCodec = queryContext.getTrimmed(SessionVars.HASH_SHUFFLE_COMPRESSION_CODEC);
+    if (StringUtils.isEmpty(compressionCodec)) {
+      return;
+    }
+
+    for (FetchProto f : request.getFetches()) {
+      TableDesc desc = descs.get(f.getName());
+      if (desc != null && f.getType() != ShuffleType.RANGE_SHUFFLE) {
+        desc.getMeta().putProperty(StorageConstants.COMPRESSION_CODEC, compressionCodec);
+      }
+    }
+  }
+
+  /**
+   * Fetched inputs are files on local disks. They are read through memory-mapped buffers if it is enabled.
+   */
+  private void updateDescsForMappedFetches() {
+    if (!systemConf.getBoolVar(ConfVars.SHUFFLE_FETCHER_MMAP_ENABLED)) {
+      return;
+    }
+
+    for (FetchProto f : request.getFetches()) {
+      TableDesc desc = descs.get(f.getName());
+      if (desc != null) {
+        desc.getMeta().putProperty(StorageConstants.RAWFILE_MMAP_ENABLED, Boolean.TRUE.toString());
+      }
+    }
+  }
+
   private void startScriptExecutors() throws IOException {
     for (TajoScriptEngine executor : context.getEvalContext().getAllScriptEngines()) {
       executor.start(systemConf);
@@ -279,6 +325,7 @@ public class TaskImpl implements Task {
     stopScriptExecutors();
     context.setState(TaskAttemptState.TA_KILLED);
     context.stop();
+    closeFetchedDataQueues();
   }
 
   @Override
@@ -286,6 +333,16 @@ public class TaskImpl implements Task {
     stopScriptExecutors();
     context.setState(TaskAttemptState.TA_FAILED);
     context.stop();
+    closeFetchedDataQueues();
+  }
+
+  /**
+   * Wake up the scans waiting for the fetched data, and release the memory of the remaining data.
+   */
+  private void closeFetchedDataQueues() {
+    for (FetchedDataQueue queue : context.getFetchedDataQueues()) {
+      queue.close();
+    }
   }
 
   @Override
@@ -301,6 +358,7 @@ public class TaskImpl implements Task {
     if (context.getResultStats() != null) {
       builder.setResultStats(context.getResultStats().getProto());
     }
+    builder.setPeakMemory(context.getMemoryContext().getPeakUsed());
     return builder.build();
   }
 
@@ -351,6 +409,11 @@ public class TaskImpl implements Task {
       builder.addAllPartitions(context.getPartitions());
     }
 
+    if (context.getRuntimeJoinFilter() != null) {
+      builder.setRuntimeJoinFilter(ByteString.copyFrom(context.getRuntimeJoinFilter().toByteArray()));
+    }
+    builder.setPeakMemory(context.getMemoryContext().getPeakUsed());
+
     Iterator<Entry<Integer, String>> it = context.getShuffleFileOutputs();
     if (it.hasNext()) {
       do {
@@ -408,10 +471,14 @@ public class TaskImpl implements Task {
       if(!context.isStopped()) {
         context.setState(TajoProtos.TaskAttemptState.TA_RUNNING);
         if (context.hasFetchPhase()) {
-          // If the fetch is still in progress, the query unit must wait for complete.
-          waitForFetch();
-          context.setFetcherProgress(FETCHER_PROGRESS);
-          updateProgress();
+          if (context.getFetchedDataQueues().isEmpty()) {
+            // If the fetch is still in progress, the query unit must wait for complete.
+            waitForFetch();
+            context.setFetcherProgress(FETCHER_PROGRESS);
+            updateProgress();
+          } else {
+            LOG.info(context.getTaskId() + " starts while fetching. The fetched data are streamed into the scans.");
+          }
         }
 
         this.executor = executionBlockContext.getTQueryEngine().createPlan(context, plan);
@@ -419,6 +486,10 @@ public class TaskImpl implements Task {
 
         while(!context.isStopped() && executor.next() != null) {
         }
+
+        if (!context.isStopped() && context.getShufflePusher() != null) {
+          context.getShufflePusher().finish();
+        }
       }
     } catch (Throwable e) {
       error = e ;
@@ -435,6 +506,7 @@ public class TaskImpl implements Task {
         }
         this.executor = null;
       }
+      closeFetchedDataQueues();
 
       executionBlockContext.completedTasksNum.incrementAndGet();
       context.getHashShuffleAppenderManager().finalizeTask(getId());
@@ -489,6 +561,11 @@ public class TaskImpl implements Task {
       LOG.fatal(e.getMessage(), e);
     }
 
+    long remain = context.getMemoryContext().releaseAll();
+    if (remain > 0) {
+      LOG.warn(getId() + " did not release " + FileUtil.humanReadableByteCount(remain, false) + " of memory");
+    }
+
     executionBlockContext.getWorkerContext().getTaskHistoryWriter().appendHistory(taskHistory);
     stopScriptExecutors();
   }
@@ -511,6 +588,7 @@ public class TaskImpl implements Task {
       if (context.getResultStats() != null) {
         taskHistory.setOutputStats(context.getResultStats().getProto());
       }
+      taskHistory.setPeakMemory(context.getMemoryContext().getPeakUsed());
 
       if (hasFetchPhase()) {
         taskHistory.setTotalFetchCount(fetcherRunners.size());
@@ -615,7 +693,9 @@ public class TaskImpl implements Task {
             if (fetcher.getState() == FetcherState.FETCH_DATA_FINISHED) {
               for (FileChunk eachFetch : fetched) {
                 if (eachFetch.getFile() != null) {
-                  if (!eachFetch.fromRemote()) {
+                  if (fetcher.getFetchedDataQueue() != null) {
+                    fetcher.getFetchedDataQueue().add(eachFetch);
+                  } else if (!eachFetch.fromRemote()) {
                     localChunks.add(eachFetch);
                   } else {
                     remoteChunks.add(eachFetch);
@@ -631,6 +711,9 @@ public class TaskImpl implements Task {
         }
       } finally {
         if(fetcher.getState() == FetcherState.FETCH_DATA_FINISHED){
+          if (fetcher.getFetchedDataQueue() != null) {
+            fetcher.getFetchedDataQueue().fetcherFinished();
+          }
           fetcherFinished(ctx);
         } else {
           if (retryNum == maxRetryNum) {
@@ -638,6 +721,9 @@ public class TaskImpl implements Task {
           }
           stopScriptExecutors();
           context.stop(); // retry task
+          if (fetcher.getFetchedDataQueue() != null) {
+            fetcher.getFetchedDataQueue().fetcherFailed();
+          }
           ctx.getFetchLatch().countDown();
         }
       }
@@ -679,9 +765,13 @@ public class TaskImpl implements Task {
       int i = 0;
       int localStoreChunkCount = 0;
       File storeDir;
-      File defaultStoreFile;
       List<FileChunk> storeChunkList = new ArrayList<>();
       List<AbstractFetcher> runnerList = Lists.newArrayList();
+      boolean streaming = isFetchStreamable(fetches);
+      boolean batchEnabled = systemConf.getBoolVar(ConfVars.SHUFFLE_FETCHER_BATCH_ENABLED);
+      int batchMaxNum = systemConf.getIntVar(ConfVars.SHUFFLE_FETCHER_BATCH_MAX_NUM);
+      // remote hash shuffle partitions of the same input table and the same pull server
+      Map<String, List<URI>> batches = new LinkedHashMap<>();
 
       for (FetchProto f : fetches) {
         storeDir = new File(inputDir.toString(), f.getName());
@@ -689,25 +779,62 @@ public class TaskImpl implements Task {
           if (!storeDir.mkdirs()) throw new IOException("Failed to create " + storeDir);
         }
 
+        FetchedDataQueue queue = null;
+        if (streaming) {
+          queue = ctx.getFetchedDataQueue(f.getName());
+          if (queue == null) {
+            queue = new FetchedDataQueue(f.getName(), ctx.getMemoryContext(),
+                (long) systemConf.getIntVar(ConfVars.SHUFFLE_FETCHER_STREAMING_BUFFER_SIZE) * StorageUnit.MB);
+            ctx.addFetchedDataQueue(queue);
+          }
+        }
+
         for (URI uri : Repartitioner.createFullURIs(maxUrlLength, f)) {
           storeChunkList.clear();
-          defaultStoreFile = new File(storeDir, "in_" + i);
           InetAddress address = InetAddress.getByName(uri.getHost());
 
+          AbstractFetcher fetcher;
           WorkerConnectionInfo conn = executionBlockContext.getWorkerContext().getConnectionInfo();
           if (NetUtils.isLocalAddress(address) && conn.getPullServerPort() == uri.getPort()) {
             localStoreChunkCount++;
-            runnerList.add(new LocalFetcher(systemConf, uri, executionBlockContext, f.getName()));
+            LocalFetcher localFetcher = new LocalFetcher(systemConf, uri, executionBlockContext, f.getName());
+            File fallbackFile = new File(storeDir, "in_local_" + localStoreChunkCount);
+            String name = f.getName();
+            localFetcher.setFallbackFetcherFactory(
+                () -> newRemoteFetcher(fallbackFile, name, Collections.singletonList(uri)));
+            fetcher = localFetcher;
+          } else if (batchEnabled && f.getType() != ShuffleType.RANGE_SHUFFLE) {
+            String batchKey = f.getName() + "@" + uri.getHost() + ":" + uri.getPort();
+            List<URI> batch = batches.computeIfAbsent(batchKey, k -> new ArrayList<>());
+            batch.add(uri);
+            if (batch.size() < batchMaxNum) {
+              continue;
+            }
+            batches.remove(batchKey);
+            fetcher = newRemoteFetcher(new File(storeDir, "in_" + i++), f.getName(), batch);
           } else {
-            // If we decide that intermediate data should be really fetched from a remote host, storeChunk
-            // represents a complete file. Otherwise, storeChunk may represent a complete file or only a part of it
-            FileChunk remoteChunk = new FileChunk(defaultStoreFile, 0, -1);
-            remoteChunk.setFromRemote(true);
-            remoteChunk.setEbId(f.getName());
-            runnerList.add(new RemoteFetcher(systemConf, uri, remoteChunk));
-            i++;
+            fetcher = newRemoteFetcher(new File(storeDir, "in_" + i++), f.getName(), Collections.singletonList(uri));
+          }
+
+          if (queue != null) {
+            fetcher.setFetchedDataQueue(queue);
+            queue.registerFetcher();
           }
+          runnerList.add(fetcher);
+        }
+      }
+
+      // create the fetchers for the remaining batches
+      for (Entry<String, List<URI>> batch : batches.entrySet()) {
+        String name = batch.getKey().substring(0, batch.getKey().lastIndexOf('@'));
+        AbstractFetcher fetcher = newRemoteFetcher(new File(new File(inputDir.toString(), name), "in_" + i++), name,
+            batch.getValue());
+        if (streaming) {
+          FetchedDataQueue queue = ctx.getFetchedDataQueue(name);
+          fetcher.setFetchedDataQueue(queue);
+          queue.registerFetcher();
         }
+        runnerList.add(fetcher);
       }
       ctx.addFetchPhase(runnerList.size(), new File(inputDir.toString()));
       LOG.info("Create shuffle Fetchers local:" + localStoreChunkCount +
@@ -718,6 +845,45 @@ public class TaskImpl implements Task {
     }
   }
 
+  private RemoteFetcher newRemoteFetcher(File storeFile, String name, List<URI> uris) {
+    // If we decide that intermediate data should be really fetched from a remote host, storeChunk
+    // represents a complete file. Otherwise, storeChunk may represent a complete file or only a part of it
+    FileChunk remoteChunk = new FileChunk(storeFile, 0, -1);
+    remoteChunk.setFromRemote(true);
+    remoteChunk.setEbId(name);
+    return new RemoteFetcher(systemConf, uris, remoteChunk);
+  }
+
+  /**
+   * The fetched data can be streamed into the scans only if no operator needs the whole input before it starts.
+   * A join chooses its algorithm by the volume of the localized inputs, and a sorted input is merged
+   * from the localized fragments. In addition, the shuffle data format should be readable from memory.
+   */
+  private boolean isFetchStreamable(List<FetchProto> fetches) {
+    if (!systemConf.getBoolVar(ConfVars.SHUFFLE_FETCHER_STREAMING_ENABLED)
+        || PlannerUtil.findTopNode(plan, NodeType.JOIN) != null
+        || context.getEnforcer().hasEnforceProperty(EnforceType.SORTED_INPUT)
+        || context.getEnforcer().hasEnforceProperty(EnforceType.BROADCAST)) {
+      return false;
+    }
+
+    Set<String> scannedTables = new HashSet<>();
+    LogicalNode[] scanNodes = PlannerUtil.findAllNodes(plan, NodeType.SCAN);
+    if (scanNodes != null) {
+      for (LogicalNode node : scanNodes) {
+        scannedTables.add(((ScanNode) node).getCanonicalName());
+      }
+    }
+
+    for (FetchProto f : fetches) {
+      if (!scannedTables.contains(f.getName())
+          || !FetchedDataScanner.isStreamable(descs.get(f.getName()).getMeta().getDataFormat())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public static Path getTaskAttemptDir(TaskAttemptId quid) {
     return StorageUtil.concatPath(ExecutionBlockContext.getBaseInputDir(quid.getTaskId().getExecutionBlockId()),
         String.valueOf(quid.getTaskId().getId()),
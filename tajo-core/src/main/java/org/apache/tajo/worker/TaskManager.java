@@ -76,7 +76,7 @@ public class TaskManager extends AbstractService implements EventHandler<TaskMan
 
     this.dispatcher = dispatcher;
     this.workerContext = workerContext;
-    this.executionBlockContextMap = Maps.newHashMap();
+    this.executionBlockContextMap = Maps.newConcurrentMap();
     this.executor = executor;
     this.rpcParams = RpcParameterFactory.get(this.workerContext.getConf());
     this.pullServerService = pullServerService;
@@ -146,6 +146,24 @@ public class TaskManager extends AbstractService implements EventHandler<TaskMan
     }
   }
 
+  /**
+   * Returns the running execution block. It is started if this worker has not joined it yet.
+   * A merger of push shuffle may join an execution block before any task of it runs on this worker.
+   */
+  protected synchronized ExecutionBlockContext getOrCreateExecutionBlock(ExecutionBlockId executionBlockId,
+                                                                      String queryMasterHostAndPort) {
+    ExecutionBlockContext context = executionBlockContextMap.get(executionBlockId);
+    if (context == null) {
+      context = createExecutionBlock(executionBlockId, queryMasterHostAndPort);
+
+      executionBlockContextMap.put(context.getExecutionBlockId(), context);
+      LOG.info("Running ExecutionBlocks: " + executionBlockContextMap.size()
+          + ", running tasks:" + getRunningTasks() + ", availableResource: "
+          + workerContext.getNodeResourceManager().getAvailableResource());
+    }
+    return context;
+  }
+
   protected void stopExecutionBlock(ExecutionBlockContext context,
                                     ExecutionBlockListProto cleanupList) {
 
@@ -184,15 +202,8 @@ public class TaskManager extends AbstractService implements EventHandler<TaskMan
         //receive event from NodeResourceManager
         TaskStartEvent taskStartEvent = TUtil.checkTypeAndGet(event, TaskStartEvent.class);
         try {
-          if (!executionBlockContextMap.containsKey(taskStartEvent.getExecutionBlockId())) {
-            ExecutionBlockContext context = createExecutionBlock(taskStartEvent.getExecutionBlockId(),
-                taskStartEvent.getTaskRequest().getQueryMasterHostAndPort());
-
-            executionBlockContextMap.put(context.getExecutionBlockId(), context);
-            LOG.info("Running ExecutionBlocks: " + executionBlockContextMap.size()
-                + ", running tasks:" + getRunningTasks() + ", availableResource: "
-                + workerContext.getNodeResourceManager().getAvailableResource());
-          }
+          getOrCreateExecutionBlock(taskStartEvent.getExecutionBlockId(),
+              taskStartEvent.getTaskRequest().getQueryMasterHostAndPort());
         } catch (Throwable e) {
           LOG.fatal(e.getMessage(), e);
           getTaskExecutor().releaseResource(taskStartEvent.getAllocation());
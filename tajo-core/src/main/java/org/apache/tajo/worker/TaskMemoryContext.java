@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.util.FileUtil;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TaskMemoryContext keeps track of the memory reserved by the operators of a task attempt.
+ *
+ * When the worker {@link MemoryManager} does not grant a reservation, the other consumers of the same task are
+ * asked to spill from the largest one. Victims are chosen under the lock of this context, but they spill
+ * after the lock is released. Thus, consumers calling this context from other threads, such as fetchers,
+ * are never blocked by disk writes, and this context never calls consumers while holding its lock.
+ * If there is no worker memory manager (e.g., in unit tests), every reservation is granted and only
+ * the usage is tracked.
+ */
+public class TaskMemoryContext {
+  private static final Log LOG = LogFactory.getLog(TaskMemoryContext.class);
+
+  private final MemoryManager memoryManager;
+  private final TaskAttemptId taskId;
+  private final Map<MemoryConsumer, Long> consumers = new IdentityHashMap<>();
+  private long used;
+  private long peakUsed;
+
+  public TaskMemoryContext(MemoryManager memoryManager, TaskAttemptId taskId) {
+    this.memoryManager = memoryManager;
+    this.taskId = taskId;
+  }
+
+  /**
+   * Reserve memory for a consumer.
+   *
+   * @param consumer The consumer which requests memory
+   * @param bytes The memory size to be reserved
+   * @param force If true, the memory is reserved even if the worker memory is exhausted
+   * @return True if the memory is reserved
+   */
+  public boolean reserve(MemoryConsumer consumer, long bytes, boolean force) throws IOException {
+    List<MemoryConsumer> victims;
+    synchronized (this) {
+      if (tryReserve(consumer, bytes, false)) {
+        return true;
+      }
+      victims = chooseVictims(consumer);
+    }
+
+    for (MemoryConsumer victim : victims) {
+      long released = victim.spill();
+      if (released > 0) {
+        LOG.info("[" + taskId + "] " + victim.getClass().getSimpleName() + " spilled "
+            + FileUtil.humanReadableByteCount(released, false) + " for "
+            + consumer.getClass().getSimpleName());
+        synchronized (this) {
+          if (tryReserve(consumer, bytes, false)) {
+            return true;
+          }
+        }
+      }
+    }
+
+    synchronized (this) {
+      return force && tryReserve(consumer, bytes, true);
+    }
+  }
+
+  /**
+   * @return The other consumers holding memory in the descending order of the memory reserved through this context
+   */
+  private List<MemoryConsumer> chooseVictims(final MemoryConsumer consumer) {
+    List<Map.Entry<MemoryConsumer, Long>> candidates = new ArrayList<>();
+    for (Map.Entry<MemoryConsumer, Long> entry : consumers.entrySet()) {
+      if (entry.getKey() != consumer && entry.getValue() > 0) {
+        candidates.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+      }
+    }
+    candidates.sort(Comparator.comparingLong((Map.Entry<MemoryConsumer, Long> e) -> e.getValue()).reversed());
+
+    List<MemoryConsumer> victims = new ArrayList<>(candidates.size());
+    for (Map.Entry<MemoryConsumer, Long> candidate : candidates) {
+      victims.add(candidate.getKey());
+    }
+    return victims;
+  }
+
+  /**
+   * Reserve memory for a consumer which runs out of the task thread, such as a fetcher.
+   * Unlike {@link #reserve(MemoryConsumer, long, boolean)}, the other consumers are never asked to spill.
+   *
+   * @return True if the memory is reserved
+   */
+  public synchronized boolean reserveWithoutSpill(MemoryConsumer consumer, long bytes) {
+    return tryReserve(consumer, bytes, false);
+  }
+
+  private boolean tryReserve(MemoryConsumer consumer, long bytes, boolean force) {
+    if (memoryManager != null && !memoryManager.reserve(taskId, bytes, force)) {
+      return false;
+    }
+    Long reserved = consumers.get(consumer);
+    consumers.put(consumer, (reserved == null ? 0 : reserved) + bytes);
+    used += bytes;
+    peakUsed = Math.max(peakUsed, used);
+    return true;
+  }
+
+  public synchronized void release(MemoryConsumer consumer, long bytes) {
+    Long reserved = consumers.get(consumer);
+    if (reserved == null) {
+      return;
+    }
+    long released = Math.min(reserved, bytes);
+    if (reserved == released) {
+      consumers.remove(consumer);
+    } else {
+      consumers.put(consumer, reserved - released);
+    }
+    used -= released;
+    if (memoryManager != null) {
+      memoryManager.release(taskId, released);
+    }
+  }
+
+  /**
+   * Release all memory of this task. It is called at the end of the task.
+   *
+   * @return The memory size which has not been released by the consumers themselves
+   */
+  public synchronized long releaseAll() {
+    long remain = used;
+    consumers.clear();
+    if (memoryManager != null) {
+      memoryManager.release(taskId, remain);
+    }
+    used = 0;
+    return remain;
+  }
+
+  public synchronized long getUsed() {
+    return used;
+  }
+
+  /**
+   * @return The maximum memory size reserved by this task at once
+   */
+  public synchronized long getPeakUsed() {
+    return peakUsed;
+  }
+}
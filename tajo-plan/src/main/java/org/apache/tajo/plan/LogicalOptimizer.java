@@ -90,8 +90,13 @@ public class LogicalOptimizer {
 
     if (context == null || context.getBool(SessionVars.TEST_JOIN_OPT_ENABLED)) {
       // default is true
+      JoinOrderAlgorithm algorithm = joinOrderAlgorithm;
+      if (context != null && context.getInt(SessionVars.JOIN_ORDER_DP_MAX_RELATIONS) > 0) {
+        algorithm = new DynamicProgrammingJoinOrderAlgorithm(context.getInt(SessionVars.JOIN_ORDER_DP_MAX_RELATIONS),
+            joinOrderAlgorithm);
+      }
       while (blockCursor.hasNext()) {
-        optimizeJoinOrder(plan, blockCursor.nextBlock());
+        optimizeJoinOrder(plan, blockCursor.nextBlock(), algorithm);
       }
     } else {
       LOG.info("Skip join order optimization");
@@ -100,7 +105,8 @@ public class LogicalOptimizer {
     return plan.getRootBlock().getRoot();
   }
 
-  private void optimizeJoinOrder(LogicalPlan plan, String blockName) throws TajoException {
+  private void optimizeJoinOrder(LogicalPlan plan, String blockName, JoinOrderAlgorithm joinOrderAlgorithm)
+      throws TajoException {
     LogicalPlan.QueryBlock block = plan.getBlock(blockName);
 
     if (block.hasNode(NodeType.JOIN)) {
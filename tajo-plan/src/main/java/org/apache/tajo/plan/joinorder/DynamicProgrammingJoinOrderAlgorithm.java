@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.plan.joinorder;
+
+import org.apache.tajo.algebra.JoinType;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.exception.TajoException;
+import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.expr.EvalTreeUtil;
+import org.apache.tajo.plan.logical.JoinNode;
+import org.apache.tajo.plan.logical.JoinSpec;
+import org.apache.tajo.plan.logical.RelationNode;
+
+import java.util.*;
+
+/**
+ * This algorithm finds the optimal bushy join tree of inner joins by dynamic programming over the subsets of relations.
+ * Like DPccp, only the pairs of disjoint subsets connected by at least one predicate are considered,
+ * so cross joins are never introduced. The cost of a join tree is the sum of the estimated numbers of rows
+ * produced by its joins, and the numbers of rows are estimated by {@link SelectivityEstimator}.
+ *
+ * Since the number of subsets grows exponentially, this algorithm is used only if the number of relations
+ * does not exceed the given maximum. Otherwise, or if the join graph contains outer, semi, or anti joins,
+ * the fallback algorithm is used.
+ */
+public class DynamicProgrammingJoinOrderAlgorithm implements JoinOrderAlgorithm {
+
+  private final int maxRelations;
+  private final JoinOrderAlgorithm fallback;
+
+  public DynamicProgrammingJoinOrderAlgorithm(int maxRelations, JoinOrderAlgorithm fallback) {
+    this.maxRelations = maxRelations;
+    this.fallback = fallback;
+  }
+
+  @Override
+  public FoundJoinOrder findBestOrder(LogicalPlan plan, LogicalPlan.QueryBlock block, JoinGraphContext graphContext)
+      throws TajoException {
+
+    List<RelationNode> relations = new ArrayList<>(block.getRelations());
+    if (relations.size() < 2 || relations.size() > maxRelations || !isInnerJoinGraph(graphContext.getJoinGraph())) {
+      return fallback.findBestOrder(plan, block, graphContext);
+    }
+
+    // Every predicate can be evaluated at any join which covers the relations referenced by the predicate.
+    Set<EvalNode> predicateSet = new LinkedHashSet<>();
+    for (JoinEdge edge : graphContext.getJoinGraph().getEdgesAll()) {
+      predicateSet.addAll(edge.getJoinQual());
+    }
+    predicateSet.addAll(graphContext.getCandidateJoinConditions());
+    predicateSet.addAll(graphContext.getCandidateJoinFilters());
+
+    EvalNode[] predicates = predicateSet.toArray(new EvalNode[predicateSet.size()]);
+    int[] masks = new int[predicates.length];
+    for (int i = 0; i < predicates.length; i++) {
+      masks[i] = getRelationMask(relations, predicates[i]);
+      if (masks[i] == 0) {
+        // a predicate which is not bound to the relations
+        return fallback.findBestOrder(plan, block, graphContext);
+      }
+    }
+
+    SelectivityEstimator estimator = new SelectivityEstimator(relations);
+    double[] selectivities = new double[predicates.length];
+    for (int i = 0; i < predicates.length; i++) {
+      selectivities[i] = estimator.estimateSelectivity(predicates[i]);
+    }
+
+    int fullSet = (1 << relations.size()) - 1;
+    double[] rows = new double[fullSet + 1];
+    double[] costs = new double[fullSet + 1];
+    int[] bestSplits = new int[fullSet + 1];
+    Arrays.fill(costs, Double.POSITIVE_INFINITY);
+    for (int i = 0; i < relations.size(); i++) {
+      rows[1 << i] = estimator.estimateRows(relations.get(i));
+      costs[1 << i] = 0;
+    }
+
+    // Every subset of a set is smaller than the set, so the subsets are always computed before.
+    for (int set = 1; set <= fullSet; set++) {
+      if (Integer.bitCount(set) < 2) {
+        continue;
+      }
+
+      int lowest = Integer.lowestOneBit(set);
+      rows[set] = rows[lowest] * rows[set ^ lowest];
+      for (int i = 0; i < predicates.length; i++) {
+        if (isPlacedAt(masks[i], set, lowest, set ^ lowest)) {
+          rows[set] *= selectivities[i];
+        }
+      }
+      rows[set] = Math.max(1, rows[set]);
+
+      // Enumerate the subsets containing the lowest relation to avoid the symmetric pairs.
+      for (int left = (set - 1) & set; left > 0; left = (left - 1) & set) {
+        int right = set ^ left;
+        if ((left & lowest) == 0 || costs[left] == Double.POSITIVE_INFINITY
+            || costs[right] == Double.POSITIVE_INFINITY || !isConnected(masks, left, right)) {
+          continue;
+        }
+        double cost = costs[left] + costs[right] + rows[set];
+        if (cost < costs[set]) {
+          costs[set] = cost;
+          bestSplits[set] = left;
+        }
+      }
+    }
+
+    if (costs[fullSet] == Double.POSITIVE_INFINITY) {
+      // The join graph is not connected, and thus cross joins are required.
+      return fallback.findBestOrder(plan, block, graphContext);
+    }
+
+    JoinVertex vertex = buildVertex(fullSet, relations, predicates, masks, rows, bestSplits);
+    JoinNode joinTree = (JoinNode) vertex.buildPlan(plan, block);
+    // all generated nodes should be registered to corresponding blocks
+    block.registerNode(joinTree);
+
+    // All predicates are pushed to some join nodes.
+    graphContext.markAsEvaluatedJoinConditions(predicateSet);
+    graphContext.markAsEvaluatedJoinFilters(predicateSet);
+    return new FoundJoinOrder(joinTree, GreedyHeuristicJoinOrderAlgorithm.getCost(joinTree));
+  }
+
+  private static boolean isInnerJoinGraph(JoinGraph joinGraph) {
+    for (JoinEdge edge : joinGraph.getEdgesAll()) {
+      if (edge.getJoinType() != JoinType.INNER && edge.getJoinType() != JoinType.CROSS) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the bit mask of the relations referenced by the predicate, or 0 if any column is not found.
+   */
+  private static int getRelationMask(List<RelationNode> relations, EvalNode predicate) {
+    int mask = 0;
+    for (Column column : EvalTreeUtil.findUniqueColumns(predicate)) {
+      int found = 0;
+      for (int i = 0; i < relations.size() && found == 0; i++) {
+        if (relations.get(i).getOutSchema().contains(column)) {
+          found = 1 << i;
+        }
+      }
+      if (found == 0) {
+        return 0;
+      }
+      mask |= found;
+    }
+    return mask;
+  }
+
+  /**
+   * A predicate is evaluated at the lowest join which covers all relations referenced by the predicate.
+   */
+  private static boolean isPlacedAt(int mask, int set, int left, int right) {
+    return (mask & set) == mask && !isEvaluatedIn(mask, left) && !isEvaluatedIn(mask, right);
+  }
+
+  private static boolean isEvaluatedIn(int mask, int set) {
+    // predicates are not evaluated at scans in this algorithm
+    return Integer.bitCount(set) > 1 && (mask & set) == mask;
+  }
+
+  private static boolean isConnected(int[] masks, int left, int right) {
+    for (int mask : masks) {
+      if ((mask & left) != 0 && (mask & right) != 0 && (mask & ~(left | right)) == 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static JoinVertex buildVertex(int set, List<RelationNode> relations, EvalNode[] predicates, int[] masks,
+                                        double[] rows, int[] bestSplits) {
+    if (Integer.bitCount(set) == 1) {
+      return new RelationVertex(relations.get(Integer.numberOfTrailingZeros(set)));
+    }
+
+    int left = bestSplits[set];
+    int right = set ^ left;
+    if (rows[left] < rows[right]) {
+      // the smaller input is placed on the right side, which is preferred as the build side of hash join
+      int tmp = left;
+      left = right;
+      right = tmp;
+    }
+
+    Set<EvalNode> joinQuals = new HashSet<>();
+    for (int i = 0; i < predicates.length; i++) {
+      if (isPlacedAt(masks[i], set, left, right)) {
+        joinQuals.add(predicates[i]);
+      }
+    }
+    JoinSpec joinSpec = new JoinSpec(joinQuals.isEmpty() ? JoinType.CROSS : JoinType.INNER);
+    joinSpec.addPredicates(joinQuals);
+
+    JoinVertex leftVertex = buildVertex(left, relations, predicates, masks, rows, bestSplits);
+    JoinVertex rightVertex = buildVertex(right, relations, predicates, masks, rows, bestSplits);
+    return new JoinedRelationsVertex(new JoinEdge(joinSpec, leftVertex, rightVertex));
+  }
+}
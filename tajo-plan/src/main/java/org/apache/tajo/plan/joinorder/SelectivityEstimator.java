@@ -0,0 +1,332 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.plan.joinorder;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.SchemaUtil;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.plan.logical.RelationNode;
+import org.apache.tajo.plan.logical.ScanNode;
+
+import java.util.Collection;
+
+import static org.apache.tajo.plan.joinorder.GreedyHeuristicJoinOrderAlgorithm.DEFAULT_SELECTION_FACTOR;
+
+/**
+ * This class estimates the fraction of rows satisfying a predicate with the column stats of relations.
+ * If a column has a histogram, it is used for equality and range predicates.
+ * Otherwise, the number of distinct values and the min/max values are used with the uniformity assumption.
+ * Predicates which cannot be estimated with stats get default selectivities.
+ */
+public class SelectivityEstimator {
+  public static final double DEFAULT_RANGE_SELECTIVITY = 1.0d / 3;
+
+  private final Collection<RelationNode> relations;
+
+  public SelectivityEstimator(Collection<RelationNode> relations) {
+    this.relations = relations;
+  }
+
+  /**
+   * Estimate the number of rows produced by a relation. The filter of a scan is also considered.
+   *
+   * @param relation relation
+   * @return the estimated number of rows
+   */
+  public double estimateRows(RelationNode relation) {
+    double rows = getBaseRows(relation);
+    if (relation instanceof ScanNode && ((ScanNode) relation).hasQual()) {
+      rows *= estimateSelectivity(((ScanNode) relation).getQual());
+    }
+    return Math.max(1, rows);
+  }
+
+  private static double getBaseRows(RelationNode relation) {
+    if (relation instanceof ScanNode) {
+      TableStats stats = ((ScanNode) relation).getTableDesc().getStats();
+      if (stats != null && stats.getNumRows() != null && stats.getNumRows() > 0) {
+        return stats.getNumRows();
+      }
+    }
+    // the number of rows is unknown, so it is derived from the estimated volume
+    double bytes = GreedyHeuristicJoinOrderAlgorithm.getCost(relation);
+    return bytes / Math.max(1, SchemaUtil.estimateRowByteSizeWithSchema(relation.getOutSchema()));
+  }
+
+  /**
+   * Estimate the selectivity of a predicate.
+   *
+   * @param predicate predicate
+   * @return the estimated selectivity in [0, 1]
+   */
+  public double estimateSelectivity(EvalNode predicate) {
+    return Math.min(1, Math.max(0, estimate(predicate)));
+  }
+
+  private double estimate(EvalNode predicate) {
+    switch (predicate.getType()) {
+    case AND: {
+      BinaryEval binaryEval = (BinaryEval) predicate;
+      return estimateSelectivity(binaryEval.getLeftExpr()) * estimateSelectivity(binaryEval.getRightExpr());
+    }
+    case OR: {
+      BinaryEval binaryEval = (BinaryEval) predicate;
+      double left = estimateSelectivity(binaryEval.getLeftExpr());
+      double right = estimateSelectivity(binaryEval.getRightExpr());
+      return left + right - left * right;
+    }
+    case NOT:
+      return 1 - estimateSelectivity(((NotEval) predicate).getChild());
+    case EQUAL:
+      return estimateEquality((BinaryEval) predicate);
+    case NOT_EQUAL:
+      return 1 - estimateEquality((BinaryEval) predicate);
+    case LTH:
+    case LEQ:
+    case GTH:
+    case GEQ:
+      return estimateComparison((BinaryEval) predicate);
+    case BETWEEN:
+      return estimateBetween((BetweenPredicateEval) predicate);
+    case IN:
+      return estimateIn((InEval) predicate);
+    case IS_NULL:
+      return estimateIsNull((IsNullEval) predicate);
+    default:
+      return DEFAULT_SELECTION_FACTOR;
+    }
+  }
+
+  private double estimateEquality(BinaryEval predicate) {
+    Column left = getColumn(predicate.getLeftExpr());
+    Column right = getColumn(predicate.getRightExpr());
+
+    if (left != null && right != null) {
+      // Equi-join. The values of the column with less distinct values are assumed to be contained in the other.
+      double ndv = Math.max(getNumDistVals(left), getNumDistVals(right));
+      if (ndv <= 0) {
+        // Without stats, the join is assumed to be between a foreign key and the key of the smaller relation.
+        RelationNode leftRelation = findRelation(left);
+        RelationNode rightRelation = findRelation(right);
+        if (leftRelation == null || rightRelation == null) {
+          return DEFAULT_SELECTION_FACTOR;
+        }
+        ndv = Math.min(getBaseRows(leftRelation), getBaseRows(rightRelation));
+      }
+      return 1 / Math.max(1, ndv);
+    } else if (left != null && isConstant(predicate.getRightExpr())) {
+      return estimateEquality(left, getConstant(predicate.getRightExpr()));
+    } else if (right != null && isConstant(predicate.getLeftExpr())) {
+      return estimateEquality(right, getConstant(predicate.getLeftExpr()));
+    }
+    return DEFAULT_SELECTION_FACTOR;
+  }
+
+  private double estimateEquality(Column column, Datum value) {
+    if (value.isNull()) {
+      return 0;
+    }
+    ColumnStats stats = findColumnStats(column);
+    if (stats != null && stats.hasHistogram()) {
+      try {
+        return stats.getHistogram().estimateEqualSelectivity(value) * getNonNullFraction(column, stats);
+      } catch (Throwable t) {
+        // the constant is not comparable with the values of the histogram
+      }
+    }
+    double ndv = getNumDistVals(column);
+    return ndv > 0 ? 1 / ndv : DEFAULT_SELECTION_FACTOR;
+  }
+
+  private double estimateComparison(BinaryEval predicate) {
+    Column column;
+    Datum value;
+    EvalType type = predicate.getType();
+    if (isConstant(predicate.getRightExpr())) {
+      column = getColumn(predicate.getLeftExpr());
+      value = getConstant(predicate.getRightExpr());
+    } else if (isConstant(predicate.getLeftExpr())) {
+      // const op col is the same as col (reversed op) const
+      column = getColumn(predicate.getRightExpr());
+      value = getConstant(predicate.getLeftExpr());
+      type = type == EvalType.LTH ? EvalType.GTH : type == EvalType.LEQ ? EvalType.GEQ :
+          type == EvalType.GTH ? EvalType.LTH : EvalType.LEQ;
+    } else {
+      return DEFAULT_RANGE_SELECTIVITY;
+    }
+    if (column == null || value.isNull()) {
+      return DEFAULT_RANGE_SELECTIVITY;
+    }
+
+    double lessThan = estimateLessThan(column, value, type == EvalType.LEQ || type == EvalType.GTH);
+    if (lessThan < 0) {
+      return DEFAULT_RANGE_SELECTIVITY;
+    }
+    if (type == EvalType.LTH || type == EvalType.LEQ) {
+      return lessThan;
+    } else {
+      ColumnStats stats = findColumnStats(column);
+      double nonNull = stats == null ? 1 : getNonNullFraction(column, stats);
+      return nonNull - lessThan;
+    }
+  }
+
+  private double estimateBetween(BetweenPredicateEval predicate) {
+    Column column = getColumn(predicate.getPredicand());
+    double selectivity = DEFAULT_RANGE_SELECTIVITY;
+    if (column != null && isConstant(predicate.getBegin()) && isConstant(predicate.getEnd())) {
+      Datum begin = getConstant(predicate.getBegin());
+      Datum end = getConstant(predicate.getEnd());
+      if (!begin.isNull() && !end.isNull()) {
+        try {
+          if (predicate.isSymmetric() && begin.compareTo(end) > 0) {
+            Datum tmp = begin;
+            begin = end;
+            end = tmp;
+          }
+          double lessThanEnd = estimateLessThan(column, end, true);
+          double lessThanBegin = estimateLessThan(column, begin, false);
+          if (lessThanEnd >= 0 && lessThanBegin >= 0) {
+            selectivity = Math.max(0, lessThanEnd - lessThanBegin);
+          }
+        } catch (Throwable t) {
+          // the bounds are not comparable with each other
+        }
+      }
+    }
+    return predicate.isNot() ? 1 - selectivity : selectivity;
+  }
+
+  private double estimateIn(InEval predicate) {
+    Column column = getColumn(predicate.getLeftExpr());
+    double selectivity = 0;
+    if (column != null && predicate.getRightExpr() instanceof ValueSetEval) {
+      for (Datum value : ((ValueSetEval) predicate.getRightExpr()).getValues()) {
+        selectivity += estimateEquality(column, value);
+      }
+    } else {
+      selectivity = DEFAULT_SELECTION_FACTOR;
+    }
+    selectivity = Math.min(1, selectivity);
+    return predicate.isNot() ? 1 - selectivity : selectivity;
+  }
+
+  private double estimateIsNull(IsNullEval predicate) {
+    Column column = getColumn(predicate.getChild());
+    ColumnStats stats = column == null ? null : findColumnStats(column);
+    double selectivity = DEFAULT_SELECTION_FACTOR;
+    if (stats != null) {
+      selectivity = 1 - getNonNullFraction(column, stats);
+    }
+    return predicate.isNot() ? 1 - selectivity : selectivity;
+  }
+
+  /**
+   * @return the estimated fraction of rows of which the column is less than the given value,
+   *         or a negative value if it cannot be estimated
+   */
+  private double estimateLessThan(Column column, Datum value, boolean inclusive) {
+    ColumnStats stats = findColumnStats(column);
+    if (stats == null) {
+      return -1;
+    }
+    double nonNull = getNonNullFraction(column, stats);
+    try {
+      if (stats.hasHistogram()) {
+        return stats.getHistogram().estimateLessThanSelectivity(value, inclusive) * nonNull;
+      }
+      if (!stats.minIsNotSet() && !stats.maxIsNotSet()) {
+        Datum min = stats.getMinValue();
+        Datum max = stats.getMaxValue();
+        if (value.compareTo(min) < 0 || (value.compareTo(min) == 0 && !inclusive)) {
+          return 0;
+        } else if (value.compareTo(max) > 0 || (value.compareTo(max) == 0 && inclusive)) {
+          return nonNull;
+        } else if (min.isNumeric() && max.isNumeric() && value.isNumeric()
+            && max.asFloat8() > min.asFloat8()) {
+          return (value.asFloat8() - min.asFloat8()) / (max.asFloat8() - min.asFloat8()) * nonNull;
+        }
+      }
+    } catch (Throwable t) {
+      // the value is not comparable with the stats
+    }
+    return -1;
+  }
+
+  private double getNonNullFraction(Column column, ColumnStats stats) {
+    double rows = getBaseRows(findRelation(column));
+    if (stats.getNumNulls() == null || rows <= 0) {
+      return 1;
+    }
+    return Math.max(0, 1 - stats.getNumNulls() / rows);
+  }
+
+  /**
+   * @return the number of distinct values of a column, or a negative value if it is unknown
+   */
+  private double getNumDistVals(Column column) {
+    ColumnStats stats = findColumnStats(column);
+    if (stats != null && stats.getNumDistValues() != null && stats.getNumDistValues() > 0) {
+      return Math.min(getBaseRows(findRelation(column)), stats.getNumDistValues());
+    }
+    return -1;
+  }
+
+  private RelationNode findRelation(Column column) {
+    for (RelationNode relation : relations) {
+      if (relation.getOutSchema().contains(column)) {
+        return relation;
+      }
+    }
+    return null;
+  }
+
+  private ColumnStats findColumnStats(Column column) {
+    RelationNode relation = findRelation(column);
+    if (relation instanceof ScanNode) {
+      TableStats stats = ((ScanNode) relation).getTableDesc().getStats();
+      if (stats != null && stats.getColumnStats() != null) {
+        for (ColumnStats eachStats : stats.getColumnStats()) {
+          if (eachStats.getColumn().getSimpleName().equals(column.getSimpleName())) {
+            return eachStats;
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  private static Column getColumn(EvalNode eval) {
+    if (eval.getType() == EvalType.CAST) {
+      eval = ((CastEval) eval).getOperand();
+    }
+    return eval.getType() == EvalType.FIELD ? ((FieldEval) eval).getColumnRef() : null;
+  }
+
+  private static boolean isConstant(EvalNode eval) {
+    return eval.getType() == EvalType.CONST;
+  }
+
+  private static Datum getConstant(EvalNode eval) {
+    return ((ConstEval) eval).getValue();
+  }
+}
@@ -26,6 +26,7 @@ import org.apache.hadoop.io.ReadaheadPool;
 import org.apache.hadoop.io.nativeio.NativeIO;
 
 import io.netty.channel.DefaultFileRegion;
+import org.apache.tajo.pullserver.FileHandleCache.FileHandle;
 
 import java.io.FileDescriptor;
 import java.io.IOException;
@@ -33,6 +34,7 @@ import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class FadvisedFileRegion extends DefaultFileRegion {
 
@@ -48,6 +50,8 @@ public class FadvisedFileRegion extends DefaultFileRegion {
   private final int shuffleBufferSize;
   private final boolean shuffleTransferToAllowed;
   private final FileChannel fileChannel;
+  private final FileHandle handle;
+  private final AtomicBoolean deallocated = new AtomicBoolean(false);
 
   private ReadaheadPool.ReadaheadRequest readaheadRequest;
   public static final int DEFAULT_SHUFFLE_BUFFER_SIZE = 128 * 1024;
@@ -63,7 +67,27 @@ public class FadvisedFileRegion extends DefaultFileRegion {
                             boolean manageOsCache, int readaheadLength, ReadaheadPool readaheadPool,
                             String identifier, int shuffleBufferSize,
                             boolean shuffleTransferToAllowed) throws IOException {
+    this(file, null, position, count, manageOsCache, readaheadLength, readaheadPool, identifier,
+        shuffleBufferSize, shuffleTransferToAllowed);
+  }
+
+  /**
+   * Creates a region of a shared file handle. The handle is released instead of closing the file
+   * when the region is deallocated.
+   */
+  public FadvisedFileRegion(FileHandle handle, long position, long count,
+                            boolean manageOsCache, int readaheadLength, ReadaheadPool readaheadPool,
+                            String identifier) throws IOException {
+    this(handle.getFile(), handle, position, count, manageOsCache, readaheadLength, readaheadPool,
+        identifier, DEFAULT_SHUFFLE_BUFFER_SIZE, true);
+  }
+
+  private FadvisedFileRegion(RandomAccessFile file, FileHandle handle, long position, long count,
+                             boolean manageOsCache, int readaheadLength, ReadaheadPool readaheadPool,
+                             String identifier, int shuffleBufferSize,
+                             boolean shuffleTransferToAllowed) throws IOException {
     super(file.getChannel(), position, count);
+    this.handle = handle;
     this.manageOsCache = manageOsCache;
     this.readaheadLength = readaheadLength;
     this.readaheadPool = readaheadPool;
@@ -153,7 +177,11 @@ public class FadvisedFileRegion extends DefaultFileRegion {
       readaheadRequest.cancel();
       readaheadRequest = null;
     }
-    super.deallocate();
+    if (handle == null) {
+      super.deallocate();
+    } else if (deallocated.compareAndSet(false, true)) {
+      handle.release();
+    }
   }
 
   /**
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.pullserver;
+
+import com.google.common.cache.*;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A cache of opened shuffle data files shared by concurrent fetch requests.
+ * Every handle is reference-counted, and it is closed only when it is evicted and all requests using it release it.
+ * Since data are always transferred with positional reads, a single handle can serve many requests at the same time.
+ */
+public class FileHandleCache implements Closeable {
+  private static final Log LOG = LogFactory.getLog(FileHandleCache.class);
+
+  private final LoadingCache<File, FileHandle> cache;
+  private final boolean enabled;
+
+  /**
+   * @param maxSize the maximum number of opened files. If it is zero, every request opens its own file.
+   * @param timeoutMin the time in minutes after which an unused file is closed
+   */
+  public FileHandleCache(int maxSize, int timeoutMin) {
+    this.enabled = maxSize > 0;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterAccess(timeoutMin, TimeUnit.MINUTES)
+        .recordStats()
+        .removalListener((RemovalListener<File, FileHandle>) removal -> removal.getValue().release())
+        .build(new CacheLoader<File, FileHandle>() {
+          @Override
+          public FileHandle load(File file) throws IOException {
+            return new FileHandle(new RandomAccessFile(file, "r"));
+          }
+        });
+  }
+
+  /**
+   * Returns an opened handle of the given file. The caller must call {@link FileHandle#release()} after use.
+   */
+  public FileHandle get(File file) throws IOException {
+    if (!enabled) {
+      return new FileHandle(new RandomAccessFile(file, "r"));
+    }
+
+    while (true) {
+      FileHandle handle;
+      try {
+        handle = cache.get(file);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw new IOException(e.getCause());
+      }
+
+      if (handle.retain()) {
+        return handle;
+      }
+      // the handle was evicted and closed in the meantime
+      cache.asMap().remove(file, handle);
+    }
+  }
+
+  /**
+   * Closes the cached files under the given directory, which is relative to local directories.
+   * It is called when the outputs of an execution block are not needed anymore.
+   */
+  public void invalidate(String relativeDir) {
+    String pattern = File.separator + relativeDir + File.separator;
+    List<File> removed = new ArrayList<>();
+    for (File file : cache.asMap().keySet()) {
+      if (file.getAbsolutePath().contains(pattern)) {
+        removed.add(file);
+      }
+    }
+    cache.invalidateAll(removed);
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  @Override
+  public void close() {
+    cache.invalidateAll();
+  }
+
+  /**
+   * A reference-counted file handle. The cache itself holds a reference while the handle is cached.
+   */
+  public static class FileHandle {
+    private final RandomAccessFile file;
+    private final AtomicInteger refCount = new AtomicInteger(1);
+
+    FileHandle(RandomAccessFile file) {
+      this.file = file;
+    }
+
+    public RandomAccessFile getFile() {
+      return file;
+    }
+
+    boolean retain() {
+      int current;
+      do {
+        current = refCount.get();
+        if (current <= 0) {
+          return false;
+        }
+      } while (!refCount.compareAndSet(current, current + 1));
+      return true;
+    }
+
+    public void release() {
+      if (refCount.decrementAndGet() == 0) {
+        try {
+          file.close();
+        } catch (IOException e) {
+          LOG.warn("Failed to close a shuffle file", e);
+        }
+      }
+    }
+  }
+}
@@ -19,7 +19,10 @@
 package org.apache.tajo.pullserver;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
 import com.google.gson.Gson;
 import io.netty.handler.codec.http.QueryStringDecoder;
 import org.apache.commons.codec.binary.Base64;
@@ -38,6 +41,7 @@ import org.apache.tajo.pullserver.retriever.FileChunkMeta;
 import org.apache.tajo.pullserver.retriever.IndexCacheKey;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.RowStoreUtil.RowStoreDecoder;
+import org.apache.tajo.storage.index.bst.BSTIndex;
 import org.apache.tajo.storage.index.bst.BSTIndex.BSTIndexReader;
 import org.apache.tajo.util.Pair;
 
@@ -49,6 +53,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -394,6 +399,89 @@ public class PullServerUtil {
     }
   }
 
+  /**
+   * Encodes the chunk requests of a batched fetch into the body of a POST request.
+   * The body consists of the number of requests and the path and query of each request URI.
+   *
+   * @param uris chunk request URIs to the same pull server
+   * @return the encoded request body
+   * @throws IOException
+   */
+  public static byte[] encodeBatchRequest(List<URI> uris) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bos)) {
+      out.writeInt(uris.size());
+      for (URI uri : uris) {
+        out.writeUTF(uri.getRawPath() + "?" + uri.getRawQuery());
+      }
+    }
+    return bos.toByteArray();
+  }
+
+  /**
+   * Decodes the chunk requests of a batched fetch encoded by {@link #encodeBatchRequest(List)}.
+   *
+   * @param in the body of a POST request
+   * @return the params of each chunk request
+   * @throws IOException
+   */
+  public static List<PullServerParams> decodeBatchRequest(InputStream in) throws IOException {
+    DataInputStream din = new DataInputStream(in);
+    int num = din.readInt();
+    Preconditions.checkArgument(num > 0, "Invalid number of batched requests: " + num);
+
+    List<PullServerParams> batch = new ArrayList<>(num);
+    for (int i = 0; i < num; i++) {
+      PullServerParams params = new PullServerParams(din.readUTF());
+      Preconditions.checkArgument(isChunkRequest(params.requestType()), "Only chunk requests can be batched");
+      batch.add(params);
+    }
+    return batch;
+  }
+
+  /**
+   * Creates the cache of index readers shared by range shuffle requests.
+   * If {@link ConfVars#PULLSERVER_CACHE_MEMORY_SIZE} is positive, the cache is bounded by the index bytes
+   * loaded into memory. Otherwise, it is bounded by the number of readers ({@link ConfVars#PULLSERVER_CACHE_SIZE}).
+   * Readers are initialized when they are loaded so that their root index is read only once.
+   *
+   * @param conf tajo conf
+   * @param removalListener listener which closes evicted readers
+   * @return index reader cache
+   */
+  public static LoadingCache<IndexCacheKey, BSTIndexReader> newIndexReaderCache(
+      final TajoConf conf, RemovalListener<IndexCacheKey, BSTIndexReader> removalListener) {
+    long memorySize = conf.getLongVar(ConfVars.PULLSERVER_CACHE_MEMORY_SIZE);
+
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+        .expireAfterWrite(conf.getIntVar(ConfVars.PULLSERVER_CACHE_TIMEOUT), TimeUnit.MINUTES)
+        .recordStats();
+    if (memorySize > 0) {
+      builder.maximumWeight(memorySize)
+          .weigher((IndexCacheKey key, BSTIndexReader reader) ->
+              (int) Math.min(Integer.MAX_VALUE, Math.max(1, reader.getLoadedIndexSize())));
+    } else {
+      builder.maximumSize(conf.getIntVar(ConfVars.PULLSERVER_CACHE_SIZE));
+    }
+
+    return builder.removalListener(removalListener)
+        .build(
+            new CacheLoader<IndexCacheKey, BSTIndexReader>() {
+              @Override
+              public BSTIndexReader load(IndexCacheKey key) throws Exception {
+                BSTIndexReader reader = new BSTIndex(conf).getIndexReader(new Path(key.getPath(), "index"));
+                try {
+                  reader.init();
+                } catch (IOException e) {
+                  reader.forceClose();
+                  throw e;
+                }
+                return reader;
+              }
+            }
+        );
+  }
+
   public static boolean useExternalPullServerService(TajoConf conf) {
     // TODO: add more service types like mesos
     return TajoPullServerService.isStandalone()
@@ -632,6 +720,38 @@ public class PullServerUtil {
     return jsonMetas;
   }
 
+  /**
+   * Retrieve file chunks which correspond to the batched requests. The chunks are ordered by the requests.
+   * A hash shuffle partition which does not exist is skipped like a single request answered with no content.
+   *
+   * @param conf
+   * @param lDirAlloc
+   * @param localFS
+   * @param batch
+   * @param indexReaderCache
+   * @param lowCacheHitCheckThreshold
+   * @return
+   * @throws IOException
+   * @throws ExecutionException
+   */
+  public static List<FileChunk> getFileChunks(final TajoConf conf,
+                                              final LocalDirAllocator lDirAlloc,
+                                              final FileSystem localFS,
+                                              final List<PullServerParams> batch,
+                                              final LoadingCache<IndexCacheKey, BSTIndexReader> indexReaderCache,
+                                              final int lowCacheHitCheckThreshold)
+      throws IOException, ExecutionException {
+    final List<FileChunk> chunks = new ArrayList<>();
+    for (PullServerParams params : batch) {
+      try {
+        chunks.addAll(getFileChunks(conf, lDirAlloc, localFS, params, indexReaderCache, lowCacheHitCheckThreshold));
+      } catch (FileNotFoundException e) {
+        LOG.warn("Skip a batched request for no data: " + e.getMessage());
+      }
+    }
+    return chunks;
+  }
+
   /**
    * Retrieve file chunks which correspond to the requested URI.
    * Only the file chunks which has non-zero length are retrieved.
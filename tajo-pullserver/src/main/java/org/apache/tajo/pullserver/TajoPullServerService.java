@@ -18,13 +18,13 @@
 
 package org.apache.tajo.pullserver;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import com.google.common.cache.RemovalListener;
 import com.google.gson.Gson;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
 import io.netty.channel.group.ChannelGroup;
@@ -46,7 +46,6 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocalDirAllocator;
 import org.apache.hadoop.fs.LocalFileSystem;
-import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.io.ReadaheadPool;
 import org.apache.hadoop.metrics2.MetricsSystem;
@@ -63,11 +62,11 @@ import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.exception.InvalidURLException;
 import org.apache.tajo.exception.TajoInternalError;
+import org.apache.tajo.pullserver.FileHandleCache.FileHandle;
 import org.apache.tajo.pullserver.PullServerUtil.PullServerParams;
 import org.apache.tajo.pullserver.retriever.FileChunk;
 import org.apache.tajo.pullserver.retriever.IndexCacheKey;
 import org.apache.tajo.rpc.NettyUtils;
-import org.apache.tajo.storage.index.bst.BSTIndex;
 import org.apache.tajo.storage.index.bst.BSTIndex.BSTIndexReader;
 import org.apache.tajo.util.TajoIdUtils;
 
@@ -78,7 +77,6 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
 
 import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
 
@@ -105,6 +103,7 @@ public class TajoPullServerService extends AbstractService {
 
   private LoadingCache<IndexCacheKey, BSTIndexReader> indexReaderCache = null;
   private int lowCacheHitCheckThreshold;
+  private FileHandleCache fileHandleCache = null;
 
   private static final boolean STANDALONE;
 
@@ -198,19 +197,9 @@ public class TajoPullServerService extends AbstractService {
     int cacheSize = tajoConf.getIntVar(ConfVars.PULLSERVER_CACHE_SIZE);
     int cacheTimeout = tajoConf.getIntVar(ConfVars.PULLSERVER_CACHE_TIMEOUT);
 
-    indexReaderCache = CacheBuilder.newBuilder()
-        .maximumSize(cacheSize)
-        .expireAfterWrite(cacheTimeout, TimeUnit.MINUTES)
-        .removalListener(removalListener)
-        .build(
-            new CacheLoader<IndexCacheKey, BSTIndexReader>() {
-              @Override
-              public BSTIndexReader load(IndexCacheKey key) throws Exception {
-                return new BSTIndex(tajoConf).getIndexReader(new Path(key.getPath(), "index"));
-              }
-            }
-        );
+    indexReaderCache = PullServerUtil.newIndexReaderCache(tajoConf, removalListener);
     lowCacheHitCheckThreshold = (int) (cacheSize * 0.1f);
+    fileHandleCache = new FileHandleCache(tajoConf.getIntVar(ConfVars.PULLSERVER_FILE_CACHE_SIZE), cacheTimeout);
 
     if (STANDALONE) {
       File pullServerPortFile = getPullServerPortFile();
@@ -290,10 +279,19 @@ public class TajoPullServerService extends AbstractService {
 
     localFS.close();
     indexReaderCache.invalidateAll();
+    fileHandleCache.close();
 
     super.serviceStop();
   }
 
+  public CacheStats getIndexCacheStats() {
+    return indexReaderCache.stats();
+  }
+
+  public CacheStats getFileCacheStats() {
+    return fileHandleCache.stats();
+  }
+
   public List<FileChunk> getFileChunks(TajoConf conf, LocalDirAllocator lDirAlloc, PullServerParams params)
       throws IOException, ExecutionException {
     return PullServerUtil.getFileChunks(conf, lDirAlloc, localFS, params, indexReaderCache,
@@ -329,7 +327,8 @@ public class TajoPullServerService extends AbstractService {
       int maxChunkSize = getConfig().getInt(ConfVars.SHUFFLE_FETCHER_CHUNK_MAX_SIZE.varname,
           ConfVars.SHUFFLE_FETCHER_CHUNK_MAX_SIZE.defaultIntVal);
       pipeline.addLast("codec", new HttpServerCodec(maxUrlLength, 8192, maxChunkSize));
-      pipeline.addLast("aggregator", new HttpObjectAggregator(1 << 16));
+      // a batched fetch request carries its chunk requests in the content
+      pipeline.addLast("aggregator", new HttpObjectAggregator(1 << 20));
       pipeline.addLast("chunking", new ChunkedWriteHandler());
       pipeline.addLast("shuffle", PullServer);
       // TODO factor security manager into pipeline
@@ -379,6 +378,15 @@ public class TajoPullServerService extends AbstractService {
 
         clearIndexCache(request.getUri());
         return;
+      } else if (request.getMethod() == HttpMethod.POST) {
+        try {
+          handleBatchRequest(ctx, request,
+              PullServerUtil.decodeBatchRequest(new ByteBufInputStream(request.content())));
+        } catch (Throwable e) {
+          LOG.error("Failed to handle batch request " + request.getUri(), e);
+          sendError(ctx, e.getMessage(), HttpResponseStatus.BAD_REQUEST);
+        }
+        return;
       } else if (request.getMethod() != HttpMethod.GET) {
         sendError(ctx, HttpResponseStatus.METHOD_NOT_ALLOWED);
         return;
@@ -441,6 +449,7 @@ public class TajoPullServerService extends AbstractService {
           waitForRemove.remove(eachKey);
         }
       }
+      fileHandleCache.invalidate(PullServerUtil.getBaseOutputDir(queryId, ebSeqId).toString());
     }
 
     private void handleMetaRequest(ChannelHandlerContext ctx, FullHttpRequest request, final PullServerParams params)
@@ -493,6 +502,33 @@ public class TajoPullServerService extends AbstractService {
         throw new TajoInternalError(e.getCause());
       }
 
+      sendChunks(ctx, request, chunks);
+    }
+
+    /**
+     * Serves many chunk requests in a single response. The chunks of all requests are written in the order of
+     * the requests, so the client can split them by the chunk lengths header as for a single request.
+     */
+    private void handleBatchRequest(ChannelHandlerContext ctx, FullHttpRequest request,
+                                    final List<PullServerParams> batch)
+        throws IOException {
+      final List<FileChunk> chunks;
+      try {
+        chunks = PullServerUtil.getFileChunks(conf, lDirAlloc, localFS, batch, indexReaderCache,
+            lowCacheHitCheckThreshold);
+      } catch (IOException | IllegalArgumentException e) { // IOException, EOFException, IllegalArgumentException
+        sendError(ctx, e.getMessage(), HttpResponseStatus.BAD_REQUEST);
+        return;
+      } catch (ExecutionException e) {
+        // There are some problems in index cache
+        throw new TajoInternalError(e.getCause());
+      }
+
+      sendChunks(ctx, request, chunks);
+    }
+
+    private void sendChunks(ChannelHandlerContext ctx, FullHttpRequest request, final List<FileChunk> chunks)
+        throws IOException {
       // Write the content.
       if (chunks.size() == 0) {
         HttpResponse response = new DefaultHttpResponse(HTTP_1_1, HttpResponseStatus.NO_CONTENT);
@@ -548,17 +584,21 @@ public class TajoPullServerService extends AbstractService {
     private ChannelFuture sendFile(ChannelHandlerContext ctx,
                                    FileChunk file) throws IOException {
       RandomAccessFile spill = null;      
+      FileHandle handle = null;
       ChannelFuture writeFuture;
       try {
-        spill = new RandomAccessFile(file.getFile(), "r");
         if (ctx.pipeline().get(SslHandler.class) == null) {
-          final FadvisedFileRegion filePart = new FadvisedFileRegion(spill,
+          // Zero copy transfers use positional reads, so that an opened file can be shared by requests.
+          handle = fileHandleCache.get(file.getFile());
+          final FadvisedFileRegion filePart = new FadvisedFileRegion(handle,
               file.startOffset(), file.length(), manageOsCache, readaheadLength,
               readaheadPool, file.getFile().getAbsolutePath());
+          handle = null;
           writeFuture = ctx.write(filePart);
           writeFuture.addListener(new FileCloseListener(filePart));
         } else {
           // HTTPS cannot be done with zero copy.
+          spill = new RandomAccessFile(file.getFile(), "r");
           final FadvisedChunkedFile chunk = new FadvisedChunkedFile(spill,
               file.startOffset(), file.length(), sslFileBufferSize,
               manageOsCache, readaheadLength, readaheadPool,
@@ -573,6 +613,9 @@ public class TajoPullServerService extends AbstractService {
           //should close a opening file
           spill.close();
         }
+        if (handle != null) {
+          handle.release();
+        }
         return null;
       }
       metrics.shuffleConnections.incr();
@@ -198,6 +198,7 @@ WINDOW : W I N D O W;
 AVG : A V G;
 ADD: A D D;
 ALTER : A L T E R;
+ANALYZE : A N A L Y Z E;
 
 BETWEEN : B E T W E E N;
 BY : B Y;
@@ -208,6 +209,7 @@ CHARACTER : C H A R A C T E R;
 COLLECT : C O L L E C T;
 COALESCE : C O A L E S C E;
 COLUMN : C O L U M N;
+COLUMNS : C O L U M N S;
 COUNT : C O U N T;
 CUBE : C U B E;
 CUME_DIST : C U M E UNDERLINE D I S T;
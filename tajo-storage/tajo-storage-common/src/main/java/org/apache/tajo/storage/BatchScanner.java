@@ -0,0 +1,35 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import java.io.IOException;
+
+/**
+ * A scanner which is able to fill a {@link ColumnBatch} without materializing each row as a tuple.
+ * The schema of a batch should be equivalent to the tuples returned by {@link #next()}.
+ */
+public interface BatchScanner extends Scanner {
+
+  /**
+   * Fill the given batch with the next rows after resetting it.
+   *
+   * @return false if the scanner has no more rows
+   */
+  boolean nextBatch(ColumnBatch batch) throws IOException;
+}
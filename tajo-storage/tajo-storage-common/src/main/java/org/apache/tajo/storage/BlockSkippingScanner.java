@@ -0,0 +1,38 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.plan.expr.EvalNode;
+
+/**
+ * A scanner which is able to skip blocks of a file, such as ORC stripes or Parquet row groups,
+ * if the statistics of the blocks show that none of their rows can satisfy a given filter.
+ *
+ * Unlike {@link Scanner#setFilter(EvalNode)}, rows of the remaining blocks may not satisfy the filter.
+ * So, the filter still should be evaluated against the returned rows.
+ */
+public interface BlockSkippingScanner extends Scanner {
+
+  /**
+   * Set a filter used to skip blocks. It must be called before {@link #init()}.
+   *
+   * @param filter a filter which is not bound to any schema
+   */
+  void setSkippingFilter(EvalNode filter);
+}
@@ -0,0 +1,303 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+
+/**
+ * A batch of rows stored column by column. Fixed-width values are kept in primitive arrays, variable-length
+ * values in byte arrays, and the other values as datums.
+ *
+ * A batch also has a selection vector. If <code>selectionInUse</code> is true, only the row ids in
+ * <code>selected[0, selectedNum)</code> are valid rows of the batch.
+ */
+public class ColumnBatch {
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  private final Schema schema;
+  private final ColumnVector[] vectors;
+  private final int capacity;
+
+  /** the number of rows filled in this batch */
+  private int size;
+
+  private final int[] selected;
+  private int selectedNum;
+  private boolean selectionInUse;
+
+  public ColumnBatch(Schema schema) {
+    this(schema, DEFAULT_CAPACITY);
+  }
+
+  public ColumnBatch(Schema schema, int capacity) {
+    this.schema = schema;
+    this.capacity = capacity;
+    this.vectors = new ColumnVector[schema.size()];
+    for (int i = 0; i < vectors.length; i++) {
+      vectors[i] = new ColumnVector(schema.getColumn(i).getDataType().getType(), capacity);
+    }
+    this.selected = new int[capacity];
+  }
+
+  private ColumnBatch(Schema schema, ColumnVector[] vectors, int capacity) {
+    this.schema = schema;
+    this.vectors = vectors;
+    this.capacity = capacity;
+    this.selected = new int[capacity];
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isFull() {
+    return size == capacity;
+  }
+
+  public ColumnVector getVector(int columnId) {
+    return vectors[columnId];
+  }
+
+  public void reset() {
+    size = 0;
+    selectedNum = 0;
+    selectionInUse = false;
+  }
+
+  /**
+   * Append a row to this batch.
+   */
+  public void add(Tuple tuple) {
+    for (int i = 0; i < vectors.length; i++) {
+      vectors[i].put(size, tuple, i);
+    }
+    size++;
+  }
+
+  /**
+   * Increase the number of rows after the vectors of a row are filled directly.
+   */
+  public void commitRow() {
+    size++;
+  }
+
+  public boolean isSelectionInUse() {
+    return selectionInUse;
+  }
+
+  public int[] getSelected() {
+    return selected;
+  }
+
+  /**
+   * @return the number of valid rows
+   */
+  public int getSelectedNum() {
+    return selectionInUse ? selectedNum : size;
+  }
+
+  /**
+   * @param i the index of the valid rows
+   * @return the row id of the i-th valid row
+   */
+  public int getRowId(int i) {
+    return selectionInUse ? selected[i] : i;
+  }
+
+  public void setSelectedNum(int selectedNum) {
+    this.selectedNum = selectedNum;
+    this.selectionInUse = true;
+  }
+
+  /**
+   * Fill the given tuple with the values of a row.
+   */
+  public void getRow(int rowId, VTuple tuple) {
+    for (int i = 0; i < vectors.length; i++) {
+      tuple.put(i, vectors[i].getDatum(rowId));
+    }
+  }
+
+  /**
+   * Create a batch which shares the vectors of this batch in the order of the given column ids.
+   * Rows of the returned batch are valid after {@link #copySelectionTo(ColumnBatch)} is called.
+   */
+  public ColumnBatch project(Schema projected, int[] columnIds) {
+    ColumnVector[] projectedVectors = new ColumnVector[columnIds.length];
+    for (int i = 0; i < columnIds.length; i++) {
+      projectedVectors[i] = vectors[columnIds[i]];
+    }
+    return new ColumnBatch(projected, projectedVectors, capacity);
+  }
+
+  /**
+   * Copy the number of rows and the selection vector into a batch sharing the vectors of this batch.
+   */
+  public void copySelectionTo(ColumnBatch batch) {
+    batch.size = size;
+    batch.selectionInUse = selectionInUse;
+    batch.selectedNum = selectedNum;
+    if (selectionInUse) {
+      System.arraycopy(selected, 0, batch.selected, 0, selectedNum);
+    }
+  }
+
+  public enum VectorType {
+    LONG, DOUBLE, BYTES, DATUM
+  }
+
+  public static VectorType getVectorType(Type type) {
+    switch (type) {
+      case INT2:
+      case INT4:
+      case INT8:
+      case DATE:
+      case TIME:
+      case TIMESTAMP: return VectorType.LONG;
+      case FLOAT4:
+      case FLOAT8: return VectorType.DOUBLE;
+      case TEXT:
+      case BLOB: return VectorType.BYTES;
+      default: return VectorType.DATUM;
+    }
+  }
+
+  /**
+   * The values of a column
+   */
+  public static class ColumnVector {
+    private final Type type;
+    private final VectorType vectorType;
+    private final boolean[] isNull;
+
+    private long[] longs;
+    private double[] doubles;
+    private byte[][] bytes;
+    private Datum[] datums;
+
+    private ColumnVector(Type type, int capacity) {
+      this.type = type;
+      this.vectorType = getVectorType(type);
+      this.isNull = new boolean[capacity];
+      switch (vectorType) {
+        case LONG: longs = new long[capacity]; break;
+        case DOUBLE: doubles = new double[capacity]; break;
+        case BYTES: bytes = new byte[capacity][]; break;
+        default: datums = new Datum[capacity]; break;
+      }
+    }
+
+    public Type getType() {
+      return type;
+    }
+
+    public VectorType getVectorType() {
+      return vectorType;
+    }
+
+    public boolean isNull(int rowId) {
+      return isNull[rowId];
+    }
+
+    public long getLong(int rowId) {
+      return longs[rowId];
+    }
+
+    public double getDouble(int rowId) {
+      return doubles[rowId];
+    }
+
+    public byte[] getBytes(int rowId) {
+      return bytes[rowId];
+    }
+
+    public void put(int rowId, Tuple tuple, int field) {
+      if (tuple.isBlankOrNull(field)) {
+        isNull[rowId] = true;
+        return;
+      }
+      isNull[rowId] = false;
+      switch (type) {
+        case INT2: longs[rowId] = tuple.getInt2(field); break;
+        case INT4:
+        case DATE: longs[rowId] = tuple.getInt4(field); break;
+        case INT8:
+        case TIME:
+        case TIMESTAMP: longs[rowId] = tuple.getInt8(field); break;
+        case FLOAT4: doubles[rowId] = tuple.getFloat4(field); break;
+        case FLOAT8: doubles[rowId] = tuple.getFloat8(field); break;
+        case TEXT:
+        case BLOB: bytes[rowId] = tuple.getBytes(field); break;
+        default: datums[rowId] = tuple.asDatum(field); break;
+      }
+    }
+
+    public void put(int rowId, Datum datum) {
+      if (datum.isNull()) {
+        isNull[rowId] = true;
+        return;
+      }
+      isNull[rowId] = false;
+      switch (type) {
+        case INT2: longs[rowId] = datum.asInt2(); break;
+        case INT4:
+        case DATE: longs[rowId] = datum.asInt4(); break;
+        case INT8:
+        case TIME:
+        case TIMESTAMP: longs[rowId] = datum.asInt8(); break;
+        case FLOAT4: doubles[rowId] = datum.asFloat4(); break;
+        case FLOAT8: doubles[rowId] = datum.asFloat8(); break;
+        case TEXT:
+        case BLOB: bytes[rowId] = datum.asByteArray(); break;
+        default: datums[rowId] = datum; break;
+      }
+    }
+
+    public Datum getDatum(int rowId) {
+      if (isNull[rowId]) {
+        return NullDatum.get();
+      }
+      switch (type) {
+        case INT2: return DatumFactory.createInt2((short) longs[rowId]);
+        case INT4: return DatumFactory.createInt4((int) longs[rowId]);
+        case DATE: return DatumFactory.createDate((int) longs[rowId]);
+        case INT8: return DatumFactory.createInt8(longs[rowId]);
+        case TIME: return DatumFactory.createTime(longs[rowId]);
+        case TIMESTAMP: return DatumFactory.createTimestamp(longs[rowId]);
+        case FLOAT4: return DatumFactory.createFloat4((float) doubles[rowId]);
+        case FLOAT8: return DatumFactory.createFloat8(doubles[rowId]);
+        case TEXT: return DatumFactory.createText(bytes[rowId]);
+        case BLOB: return DatumFactory.createBlob(bytes[rowId]);
+        default: return datums[rowId];
+      }
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.plan.expr.*;
+
+/**
+ * ColumnStatsFilter decides whether a block of rows may contain rows satisfying a filter
+ * only with the minimum and maximum values of columns in the block.
+ *
+ * It is conservative. Any expression which cannot be decided by column statistics,
+ * such as functions or comparisons between columns, is regarded to be satisfied.
+ */
+public class ColumnStatsFilter {
+  private final Schema schema;
+  private final EvalNode filter;
+
+  /**
+   * @param schema the schema of the scanned file
+   * @param filter a filter which is not bound to any schema
+   */
+  public ColumnStatsFilter(Schema schema, EvalNode filter) {
+    this.schema = schema;
+    this.filter = filter;
+  }
+
+  /**
+   * @param stats column statistics of a block. They are indexed by the column ids of the schema,
+   *              and a null element means that there is no statistics for the column.
+   * @return false if no row of the block can satisfy the filter
+   */
+  public boolean canMatch(ColumnStats[] stats) {
+    try {
+      return canMatch(filter, stats);
+    } catch (RuntimeException e) {
+      // a constant is not comparable to the statistics of a column
+      return true;
+    }
+  }
+
+  private boolean canMatch(EvalNode node, ColumnStats[] stats) {
+    switch (node.getType()) {
+    case AND: {
+      BinaryEval binary = (BinaryEval) node;
+      return canMatch(binary.getLeftExpr(), stats) && canMatch(binary.getRightExpr(), stats);
+    }
+    case OR: {
+      BinaryEval binary = (BinaryEval) node;
+      return canMatch(binary.getLeftExpr(), stats) || canMatch(binary.getRightExpr(), stats);
+    }
+    case EQUAL:
+    case LTH:
+    case LEQ:
+    case GTH:
+    case GEQ:
+      return canMatchComparison((BinaryEval) node, stats);
+    case BETWEEN: {
+      BetweenPredicateEval between = (BetweenPredicateEval) node;
+      if (between.isNot() || between.isSymmetric()) {
+        return true;
+      }
+      ColumnStats columnStats = findStats(between.getPredicand(), stats);
+      Datum begin = getConstant(between.getBegin());
+      Datum end = getConstant(between.getEnd());
+      return columnStats == null || begin == null || end == null ||
+          (compare(columnStats.getMaxValue(), begin) >= 0 && compare(columnStats.getMinValue(), end) <= 0);
+    }
+    case IN: {
+      InEval in = (InEval) node;
+      ColumnStats columnStats = findStats(in.getLeftExpr(), stats);
+      if (in.isNot() || columnStats == null) {
+        return true;
+      }
+      for (Datum value : ((ValueSetEval) in.getRightExpr()).getValues()) {
+        if (value.isNull() ||
+            (compare(columnStats.getMinValue(), value) <= 0 && compare(columnStats.getMaxValue(), value) >= 0)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    default:
+      return true;
+    }
+  }
+
+  private boolean canMatchComparison(BinaryEval comparison, ColumnStats[] stats) {
+    EvalType type = comparison.getType();
+    ColumnStats columnStats = findStats(comparison.getLeftExpr(), stats);
+    Datum value = getConstant(comparison.getRightExpr());
+
+    if (columnStats == null || value == null) {
+      // constant op column is transposed into column op' constant
+      columnStats = findStats(comparison.getRightExpr(), stats);
+      value = getConstant(comparison.getLeftExpr());
+      if (columnStats == null || value == null) {
+        return true;
+      }
+      type = transpose(type);
+    }
+
+    switch (type) {
+    case EQUAL:
+      return compare(columnStats.getMinValue(), value) <= 0 && compare(columnStats.getMaxValue(), value) >= 0;
+    case LTH:
+      return compare(columnStats.getMinValue(), value) < 0;
+    case LEQ:
+      return compare(columnStats.getMinValue(), value) <= 0;
+    case GTH:
+      return compare(columnStats.getMaxValue(), value) > 0;
+    case GEQ:
+      return compare(columnStats.getMaxValue(), value) >= 0;
+    default:
+      return true;
+    }
+  }
+
+  private static EvalType transpose(EvalType type) {
+    switch (type) {
+    case LTH:
+      return EvalType.GTH;
+    case LEQ:
+      return EvalType.GEQ;
+    case GTH:
+      return EvalType.LTH;
+    case GEQ:
+      return EvalType.LEQ;
+    default:
+      return type;
+    }
+  }
+
+  /**
+   * @return the statistics of the column if the node is a column reference whose minimum and maximum are known
+   */
+  private ColumnStats findStats(EvalNode node, ColumnStats[] stats) {
+    if (node.getType() != EvalType.FIELD) {
+      return null;
+    }
+    Column column = ((FieldEval) node).getColumnRef();
+    int id = schema.getColumnId(column.getQualifiedName());
+    if (id < 0 || id >= stats.length || stats[id] == null ||
+        stats[id].minIsNotSet() || stats[id].maxIsNotSet() ||
+        isNaN(stats[id].getMinValue()) || isNaN(stats[id].getMaxValue())) {
+      return null;
+    }
+    return stats[id];
+  }
+
+  private static boolean isNaN(Datum datum) {
+    switch (datum.kind()) {
+    case FLOAT4:
+    case FLOAT8:
+      return Double.isNaN(datum.asFloat8());
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * @return the value if the node is a non-null constant
+   */
+  private static Datum getConstant(EvalNode node) {
+    if (node.getType() != EvalType.CONST) {
+      return null;
+    }
+    Datum value = ((ConstEval) node).getValue();
+    return value.isNull() ? null : value;
+  }
+
+  private static int compare(Datum stat, Datum value) {
+    return stat.compareTo(value);
+  }
+}
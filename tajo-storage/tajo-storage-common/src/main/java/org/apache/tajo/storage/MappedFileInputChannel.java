@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.unit.StorageUnit;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * MappedFileInputChannel reads a region of a local file through memory-mapped buffers instead of read system calls.
+ * The region is mapped window by window, so a large region does not occupy the address space at once.
+ * Positions are offsets in the file, and the end of the region is regarded as the end of the channel.
+ */
+public final class MappedFileInputChannel extends SeekableInputChannel {
+  public static final long DEFAULT_WINDOW_SIZE = 64 * StorageUnit.MB;
+
+  private final FileInputStream fileInputStream;
+  private final FileChannel channel;
+  private final long end;
+  private final long windowSize;
+  private MappedByteBuffer window;
+  private long windowStart;
+  private long position;
+
+  public MappedFileInputChannel(FileInputStream fileInputStream, long offset, long length) throws IOException {
+    this(fileInputStream, offset, length, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * @param fileInputStream the file to be read
+   * @param offset the start offset of the region
+   * @param length the length of the region. If negative, the region is extended to the end of the file.
+   * @param windowSize the maximum size of a mapped buffer
+   */
+  public MappedFileInputChannel(FileInputStream fileInputStream, long offset, long length, long windowSize)
+      throws IOException {
+    this.fileInputStream = fileInputStream;
+    this.channel = fileInputStream.getChannel();
+    long fileSize = channel.size();
+    this.position = Math.min(Math.max(offset, 0), fileSize);
+    this.end = length < 0 ? fileSize : Math.min(fileSize, position + length);
+    this.windowSize = Math.min(Math.max(windowSize, 1), Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (position >= end) {
+      return -1;
+    }
+
+    int read = 0;
+    while (dst.hasRemaining() && position < end) {
+      if (window == null || position < windowStart || position >= windowStart + window.capacity()) {
+        map(position);
+      }
+
+      ByteBuffer src = window.duplicate();
+      src.position((int) (position - windowStart));
+      int len = Math.min(src.remaining(), dst.remaining());
+      src.limit(src.position() + len);
+      dst.put(src);
+      position += len;
+      read += len;
+    }
+    return read;
+  }
+
+  private void map(long start) throws IOException {
+    StorageUtil.closeBuffer(window);
+    window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, end - start));
+    windowStart = start;
+  }
+
+  @Override
+  public void seek(long offset) throws IOException {
+    if (offset < 0) {
+      throw new IOException("Negative position: " + offset);
+    }
+    this.position = offset;
+  }
+
+  @Override
+  public long position() throws IOException {
+    return position;
+  }
+
+  /**
+   * @return the end offset of the region
+   */
+  @Override
+  public long size() throws IOException {
+    return end;
+  }
+
+  @Override
+  protected void implCloseChannel() throws IOException {
+    StorageUtil.closeBuffer(window);
+    window = null;
+    IOUtils.cleanup(null, channel, fileInputStream);
+  }
+}
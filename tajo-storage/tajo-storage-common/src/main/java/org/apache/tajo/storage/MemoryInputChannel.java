@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * MemoryInputChannel is a seekable channel over the bytes which are already in memory.
+ * It allows scanners to read data, such as fetched shuffle data, without landing them on a file.
+ */
+public final class MemoryInputChannel extends SeekableInputChannel {
+  private final ByteBuffer buffer;
+
+  /**
+   * @param buffer The bytes between the position and the limit of the buffer are read.
+   */
+  public MemoryInputChannel(ByteBuffer buffer) {
+    this.buffer = buffer.slice();
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (!buffer.hasRemaining()) {
+      return -1;
+    }
+
+    int length = Math.min(buffer.remaining(), dst.remaining());
+    int limit = buffer.limit();
+    buffer.limit(buffer.position() + length);
+    dst.put(buffer);
+    buffer.limit(limit);
+    return length;
+  }
+
+  @Override
+  public void seek(long offset) throws IOException {
+    if (offset < 0 || offset > buffer.limit()) {
+      throw new IOException("Seek position is out of range: " + offset + ", size: " + buffer.limit());
+    }
+    buffer.position((int) offset);
+  }
+
+  @Override
+  public long position() throws IOException {
+    return buffer.position();
+  }
+
+  @Override
+  public long size() throws IOException {
+    return buffer.limit();
+  }
+
+  @Override
+  protected void implCloseChannel() throws IOException {
+  }
+}
@@ -46,6 +46,7 @@ public class MergeScanner implements Scanner {
   private Scanner currentScanner;
   private boolean projectable = false;
   private boolean selectable = false;
+  private EvalNode filter;
   private Schema target;
   private float progress;
   protected TableStats tableStats;
@@ -137,6 +138,9 @@ public class MergeScanner implements Scanner {
     if (iterator.hasNext()) {
       currentFragment = iterator.next();
       currentScanner = TablespaceManager.getLocalFs().getScanner(meta, schema, currentFragment, target);
+      if (filter != null) {
+        currentScanner.setFilter(filter);
+      }
       currentScanner.init();
       return currentScanner;
     } else {
@@ -174,9 +178,18 @@ public class MergeScanner implements Scanner {
     return selectable;
   }
 
+  /**
+   * The filter is given to the scanners of all fragments if they are selectable.
+   */
   @Override
   public void setFilter(EvalNode filter) {
-    throw new TajoRuntimeException(new UnsupportedException());
+    if (!selectable) {
+      throw new TajoRuntimeException(new UnsupportedException());
+    }
+    this.filter = filter;
+    if (currentScanner != null) {
+      currentScanner.setFilter(filter);
+    }
   }
 
   @Override
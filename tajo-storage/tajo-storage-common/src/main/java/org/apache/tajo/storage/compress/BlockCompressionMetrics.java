@@ -0,0 +1,78 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.compress;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters of block compression. They are used to tune the compression codec per workload
+ * by comparing the saved bytes with the CPU time spent for compression and decompression.
+ */
+public final class BlockCompressionMetrics {
+  private static final LongAdder RAW_BYTES = new LongAdder();
+  private static final LongAdder COMPRESSED_BYTES = new LongAdder();
+  private static final LongAdder COMPRESS_NANOS = new LongAdder();
+  private static final LongAdder DECOMPRESS_NANOS = new LongAdder();
+  private static final LongAdder CHECKSUM_FAILURES = new LongAdder();
+
+  private BlockCompressionMetrics() {
+  }
+
+  static void compressed(int rawBytes, int compressedBytes, long nanos) {
+    RAW_BYTES.add(rawBytes);
+    COMPRESSED_BYTES.add(compressedBytes);
+    COMPRESS_NANOS.add(nanos);
+  }
+
+  static void decompressed(long nanos) {
+    DECOMPRESS_NANOS.add(nanos);
+  }
+
+  static void checksumFailed() {
+    CHECKSUM_FAILURES.increment();
+  }
+
+  public static long getRawBytes() {
+    return RAW_BYTES.sum();
+  }
+
+  public static long getCompressedBytes() {
+    return COMPRESSED_BYTES.sum();
+  }
+
+  /**
+   * @return The ratio of the compressed bytes to the raw bytes. 1.0 if nothing is compressed yet.
+   */
+  public static double getCompressionRatio() {
+    long rawBytes = getRawBytes();
+    return rawBytes > 0 ? (double) getCompressedBytes() / rawBytes : 1.0d;
+  }
+
+  public static long getCompressMillis() {
+    return COMPRESS_NANOS.sum() / 1000000;
+  }
+
+  public static long getDecompressMillis() {
+    return DECOMPRESS_NANOS.sum() / 1000000;
+  }
+
+  public static long getChecksumFailures() {
+    return CHECKSUM_FAILURES.sum();
+  }
+}
@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.compress;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.CompressionOutputStream;
+import org.apache.hadoop.io.compress.Compressor;
+import org.apache.tajo.tuple.memory.MemoryBlock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * BlockCompressor compresses each memory block into a self-contained frame, so a file consisting of frames
+ * can be split at any frame boundary. A frame consists of the following:
+ *
+ * <ul>
+ *   <li>raw length (4 bytes)</li>
+ *   <li>compressed length (4 bytes)</li>
+ *   <li>CRC32 checksum of the compressed bytes (4 bytes)</li>
+ *   <li>compressed bytes</li>
+ * </ul>
+ *
+ * @see BlockDecompressionChannel
+ */
+public class BlockCompressor implements Closeable {
+  public static final int HEADER_SIZE = 12;
+
+  private final Compressor compressor;
+  private final DataOutputBuffer compressedBuffer = new DataOutputBuffer();
+  private final CompressionOutputStream compressionStream;
+  private final CRC32 crc32 = new CRC32();
+  private byte[] rawBuffer = new byte[0];
+
+  public BlockCompressor(Configuration conf, String codecName) throws IOException {
+    CompressionCodec codec = getCodec(conf, codecName);
+    this.compressor = CodecPool.getCompressor(codec);
+    this.compressionStream = codec.createOutputStream(compressedBuffer, compressor);
+  }
+
+  /**
+   * Find a codec by its alias (e.g. lz4, snappy, gzip) or its class name.
+   */
+  public static CompressionCodec getCodec(Configuration conf, String codecName) throws IOException {
+    CompressionCodec codec = new CompressionCodecFactory(conf).getCodecByName(codecName);
+    if (codec == null) {
+      throw new IOException("Unknown compression codec: " + codecName);
+    }
+    return codec;
+  }
+
+  /**
+   * Compress all readable bytes of the given memory block into a frame. The bytes are consumed from the block.
+   *
+   * @param block memory block to be compressed
+   * @return a buffer containing the frame, which is valid until the next call
+   * @throws IOException
+   */
+  public ByteBuffer compress(MemoryBlock block) throws IOException {
+    int rawLength = block.readableBytes();
+    if (rawBuffer.length < rawLength) {
+      rawBuffer = new byte[rawLength];
+    }
+    block.getBytes(rawBuffer, 0, rawLength);
+
+    long startTime = System.nanoTime();
+    compressedBuffer.reset();
+    compressedBuffer.write(new byte[HEADER_SIZE]);
+    compressionStream.resetState();
+    compressionStream.write(rawBuffer, 0, rawLength);
+    compressionStream.finish();
+
+    byte[] frame = compressedBuffer.getData();
+    int compressedLength = compressedBuffer.getLength() - HEADER_SIZE;
+    crc32.reset();
+    crc32.update(frame, HEADER_SIZE, compressedLength);
+
+    ByteBuffer header = ByteBuffer.wrap(frame);
+    header.putInt(rawLength);
+    header.putInt(compressedLength);
+    header.putInt((int) crc32.getValue());
+    BlockCompressionMetrics.compressed(rawLength, HEADER_SIZE + compressedLength, System.nanoTime() - startTime);
+
+    return ByteBuffer.wrap(frame, 0, HEADER_SIZE + compressedLength);
+  }
+
+  @Override
+  public void close() throws IOException {
+    CodecPool.returnCompressor(compressor);
+    rawBuffer = null;
+  }
+}
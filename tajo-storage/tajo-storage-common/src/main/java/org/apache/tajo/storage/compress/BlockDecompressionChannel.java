@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.compress;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.ChecksumException;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionInputStream;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.tajo.exception.TajoRuntimeException;
+import org.apache.tajo.exception.UnsupportedException;
+import org.apache.tajo.storage.SeekableInputChannel;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * BlockDecompressionChannel reads the frames written by {@link BlockCompressor} from a range of the underlying
+ * channel, and provides their decompressed bytes. The checksum of each frame is validated before decompression.
+ *
+ * The position of this channel is the number of decompressed bytes from the start of the range.
+ * So, it can be seeked only to the start of the range.
+ */
+public class BlockDecompressionChannel extends SeekableInputChannel {
+  private final SeekableInputChannel channel;
+  private final long startOffset;
+  private final long endOffset;
+  private final Decompressor decompressor;
+  private final DataInputBuffer compressedInput = new DataInputBuffer();
+  private final CompressionInputStream decompressionStream;
+  private final CRC32 crc32 = new CRC32();
+  private final ByteBuffer header = ByteBuffer.allocate(BlockCompressor.HEADER_SIZE);
+
+  private byte[] compressedBuffer = new byte[0];
+  private byte[] rawBuffer = new byte[0];
+  private ByteBuffer block = ByteBuffer.allocate(0);
+  private long channelPosition;
+  private long position;
+
+  public BlockDecompressionChannel(Configuration conf, String codecName, SeekableInputChannel channel,
+                                   long startOffset, long length) throws IOException {
+    CompressionCodec codec = BlockCompressor.getCodec(conf, codecName);
+    this.channel = channel;
+    this.startOffset = startOffset;
+    this.endOffset = startOffset + length;
+    this.decompressor = CodecPool.getDecompressor(codec);
+    this.decompressionStream = codec.createInputStream(compressedInput, decompressor);
+    seek(startOffset);
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (!block.hasRemaining() && !nextBlock()) {
+      return -1;
+    }
+
+    int length = Math.min(dst.remaining(), block.remaining());
+    ByteBuffer src = block.duplicate();
+    src.limit(src.position() + length);
+    dst.put(src);
+    block.position(block.position() + length);
+    position += length;
+    return length;
+  }
+
+  private boolean nextBlock() throws IOException {
+    if (channelPosition >= endOffset) {
+      return false;
+    }
+
+    header.clear();
+    readFully(header);
+    int rawLength = header.getInt(0);
+    int compressedLength = header.getInt(4);
+    int checksum = header.getInt(8);
+
+    if (compressedBuffer.length < compressedLength) {
+      compressedBuffer = new byte[compressedLength];
+    }
+    readFully(ByteBuffer.wrap(compressedBuffer, 0, compressedLength));
+
+    crc32.reset();
+    crc32.update(compressedBuffer, 0, compressedLength);
+    if ((int) crc32.getValue() != checksum) {
+      BlockCompressionMetrics.checksumFailed();
+      throw new ChecksumException("Checksum mismatch of the compressed block at " + channelPosition, channelPosition);
+    }
+
+    long startTime = System.nanoTime();
+    if (rawBuffer.length < rawLength) {
+      rawBuffer = new byte[rawLength];
+    }
+    compressedInput.reset(compressedBuffer, compressedLength);
+    decompressionStream.resetState();
+    IOUtils.readFully(decompressionStream, rawBuffer, 0, rawLength);
+    BlockCompressionMetrics.decompressed(System.nanoTime() - startTime);
+
+    channelPosition += BlockCompressor.HEADER_SIZE + compressedLength;
+    block = ByteBuffer.wrap(rawBuffer, 0, rawLength);
+    return true;
+  }
+
+  private void readFully(ByteBuffer dst) throws IOException {
+    while (dst.hasRemaining()) {
+      if (channel.read(dst) < 0) {
+        throw new EOFException("Unexpected end of the compressed block at " + channelPosition);
+      }
+    }
+  }
+
+  @Override
+  public void seek(long offset) throws IOException {
+    if (offset != startOffset) {
+      throw new TajoRuntimeException(new UnsupportedException("seek in the middle of compressed blocks"));
+    }
+    channel.seek(startOffset);
+    channelPosition = startOffset;
+    position = startOffset;
+    block = ByteBuffer.allocate(0);
+  }
+
+  @Override
+  public long position() throws IOException {
+    return position;
+  }
+
+  /**
+   * @return the offset of the underlying channel up to which the compressed blocks have been read
+   */
+  public long getCompressedPosition() {
+    return channelPosition;
+  }
+
+  @Override
+  public long size() throws IOException {
+    return channel.size();
+  }
+
+  @Override
+  protected void implCloseChannel() throws IOException {
+    CodecPool.returnDecompressor(decompressor);
+    channel.close();
+  }
+}
@@ -41,6 +41,7 @@ import org.apache.tajo.util.Pair;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
@@ -219,6 +220,45 @@ public class HashShuffleAppenderManager {
     });
   }
 
+  /**
+   * Asynchronously write the row blocks of many partitions. The blocks of the partitions on the same volume are
+   * written one after another by a single request to the writer of the volume, so a flush costs a request
+   * per volume instead of a request per partition. The order of writes to each partition is preserved because
+   * every volume has a single writer.
+   *
+   * @return the futures of the volumes. Each of them returns the written row blocks, which are released
+   * if release is true, or cleared to be reused otherwise.
+   */
+  public List<Future<List<MemoryRowBlock>>> writePartitions(TableMeta meta, Schema schema, final TaskAttemptId taskId,
+                                                            Map<Integer, MemoryRowBlock> rowBlocks,
+                                                            final boolean release) throws IOException {
+    Map<Integer, List<Pair<HashShuffleAppenderWrapper, MemoryRowBlock>>> volumeBlocks = new HashMap<>();
+    for (Map.Entry<Integer, MemoryRowBlock> entry : rowBlocks.entrySet()) {
+      HashShuffleAppenderWrapper appender =
+          getAppender(entry.getValue(), taskId.getTaskId().getExecutionBlockId(), entry.getKey(), meta, schema);
+      volumeBlocks.computeIfAbsent(appender.getVolumeId(), k -> new ArrayList<>())
+          .add(new Pair<>(appender, entry.getValue()));
+    }
+
+    List<Future<List<MemoryRowBlock>>> futures = new ArrayList<>();
+    for (Map.Entry<Integer, List<Pair<HashShuffleAppenderWrapper, MemoryRowBlock>>> entry : volumeBlocks.entrySet()) {
+      final List<Pair<HashShuffleAppenderWrapper, MemoryRowBlock>> blocks = entry.getValue();
+      futures.add(executors.get(entry.getKey()).submit(() -> {
+        List<MemoryRowBlock> written = new ArrayList<>(blocks.size());
+        for (Pair<HashShuffleAppenderWrapper, MemoryRowBlock> eachBlock : blocks) {
+          eachBlock.getFirst().writeRowBlock(taskId, eachBlock.getSecond());
+
+          if (release) eachBlock.getSecond().release();
+          else eachBlock.getSecond().clear();
+
+          written.add(eachBlock.getSecond());
+        }
+        return written;
+      }));
+    }
+    return futures;
+  }
+
   public void shutdown() {
     for (ExecutorService service : executors.values()) {
       service.shutdownNow();
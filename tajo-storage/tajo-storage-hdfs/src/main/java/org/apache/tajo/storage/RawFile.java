@@ -35,6 +35,8 @@ import org.apache.tajo.datum.ProtobufDatumFactory;
 import org.apache.tajo.exception.TajoRuntimeException;
 import org.apache.tajo.exception.UnsupportedException;
 import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.storage.compress.BlockDecompressionChannel;
+import org.apache.tajo.storage.fragment.AbstractFileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.rawfile.DirectRawFileWriter;
 import org.apache.tajo.unit.StorageUnit;
@@ -45,7 +47,6 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.channels.FileChannel;
 
 public class RawFile {
   private static final Log LOG = LogFactory.getLog(RawFile.class);
@@ -53,8 +54,33 @@ public class RawFile {
   public static final String WRITE_BUFFER_SIZE = "tajo.storage.raw.io.write-buffer.bytes";
   public static final int DEFAULT_BUFFER_SIZE = 128 * StorageUnit.KB;
 
+  /**
+   * Opens a channel on the local file of the given fragment. If the table meta enables
+   * {@link StorageConstants#RAWFILE_MMAP_ENABLED}, the range of the fragment is read through memory-mapped buffers.
+   */
+  public static SeekableInputChannel openLocalChannel(TableMeta meta, AbstractFileFragment fragment)
+      throws IOException {
+    File file;
+    try {
+      if (fragment.getPath().toUri().getScheme() != null) {
+        file = new File(fragment.getPath().toUri());
+      } else {
+        file = new File(fragment.getPath().toString());
+      }
+    } catch (IllegalArgumentException iae) {
+      throw new IOException(iae);
+    }
+
+    FileInputStream in = new FileInputStream(file);
+    if (Boolean.parseBoolean(meta.getProperty(StorageConstants.RAWFILE_MMAP_ENABLED, "false"))) {
+      return new MappedFileInputChannel(in, fragment.getStartKey(), fragment.getLength());
+    } else {
+      return new LocalFileInputChannel(in);
+    }
+  }
+
   public static class RawFileScanner extends FileScanner implements SeekableScanner {
-    private FileChannel channel;
+    private SeekableInputChannel channel;
     private DataType[] columnTypes;
 
     private ByteBuffer buffer;
@@ -67,7 +93,6 @@ public class RawFile {
     private boolean eos = false;
     private long startOffset;
     private long endOffset;
-    private FileInputStream fis;
     private long recordCount;
     private long totalReadBytes;
     private long filePosition;
@@ -77,23 +102,31 @@ public class RawFile {
       super(conf, schema, meta, fragment);
     }
 
+    /**
+     * Create a scanner which reads the given channel instead of the file of the fragment.
+     * The fragment describes the range of the channel to be read.
+     */
+    public RawFileScanner(Configuration conf, Schema schema, TableMeta meta, Fragment fragment,
+                          SeekableInputChannel channel) throws IOException {
+      super(conf, schema, meta, fragment);
+      this.channel = channel;
+    }
+
     @Override
     public void init() throws IOException {
-      File file;
-      try {
-        if (fragment.getPath().toUri().getScheme() != null) {
-          file = new File(fragment.getPath().toUri());
-        } else {
-          file = new File(fragment.getPath().toString());
-        }
-      } catch (IllegalArgumentException iae) {
-        throw new IOException(iae);
+      if (channel == null) {
+        channel = openLocalChannel(meta, fragment);
       }
-      fis = new FileInputStream(file);
-      channel = fis.getChannel();
       filePosition = startOffset = fragment.getStartKey();
       endOffset = fragment.getEndKey();
 
+      if (meta.containsProperty(StorageConstants.COMPRESSION_CODEC) && !(channel instanceof BlockDecompressionChannel)) {
+        channel = new BlockDecompressionChannel(conf, meta.getProperty(StorageConstants.COMPRESSION_CODEC), channel,
+            startOffset, fragment.getLength());
+        // the decompressed data are read until the end of the channel because their length is unknown.
+        endOffset = Long.MAX_VALUE;
+      }
+
       if (LOG.isDebugEnabled()) {
         LOG.debug("RawFileScanner open:" + fragment + "," + channel.position() + ", file size :" + channel.size()
             + ", fragment length :" + fragment.getLength());
@@ -115,7 +148,7 @@ public class RawFile {
 
       // initial set position
       if (fragment.getStartKey() > 0) {
-        channel.position(fragment.getStartKey());
+        channel.seek(fragment.getStartKey());
       }
 
       forceFillBuffer = true;
@@ -140,7 +173,7 @@ public class RawFile {
           throw new IndexOutOfBoundsException(String.format("range(%d, %d), offset: %d",
               startOffset, startOffset + fragment.getLength(), offset));
         }
-        channel.position(offset);
+        channel.seek(offset);
         filePosition = offset;
         buffer.clear();
         forceFillBuffer = true;
@@ -396,7 +429,7 @@ public class RawFile {
       forceFillBuffer = true;
       filePosition = fragment.getStartKey();
       recordCount = 0;
-      channel.position(filePosition);
+      channel.seek(filePosition);
       eos = false;
     }
 
@@ -410,7 +443,7 @@ public class RawFile {
         buf = null;
       }
 
-      IOUtils.cleanup(LOG, channel, fis);
+      IOUtils.cleanup(LOG, channel);
     }
 
     @Override
@@ -468,6 +468,7 @@ public class BSTIndex implements IndexMethod {
     private int keyCursor;
     private int offsetCursor;
     private long dataLength;
+    private long loadedIndexSize;
 
     // mutex
     private final Object mutex = new Object();
@@ -609,13 +610,23 @@ public class BSTIndex implements IndexMethod {
 
           rootIndexIn.seek(0);
           fillRootIndex(entryNum, rootIndexIn);
+          loadedIndexSize = fileLength;
         }
 
       } else {
         fillLeafIndex(entryNum, indexIn, -1);
+        loadedIndexSize = dataLength;
       }
     }
 
+    /**
+     * Returns the approximate number of index bytes kept in memory after {@link #init()}.
+     * It is the size of the root index for a two-level index, or the whole index data otherwise.
+     */
+    public long getLoadedIndexSize() {
+      return loadedIndexSize;
+    }
+
     /**
      *
      * @return
@@ -31,9 +31,17 @@ import org.apache.orc.*;
 import org.apache.orc.Reader.Options;
 import org.apache.orc.impl.BufferChunk;
 import org.apache.orc.impl.InStream;
+import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.storage.BatchScanner;
+import org.apache.tajo.storage.BlockSkippingScanner;
+import org.apache.tajo.storage.ColumnBatch;
+import org.apache.tajo.storage.ColumnStatsFilter;
 import org.apache.tajo.storage.FileScanner;
 import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.StorageUtil;
@@ -41,6 +49,8 @@ import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.thirdparty.orc.OrcRecordReader;
 import org.apache.tajo.storage.thirdparty.orc.OrcUtils;
+import org.apache.tajo.util.datetime.DateTimeConstants;
+import org.apache.tajo.util.datetime.DateTimeUtil;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -48,7 +58,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.TimeZone;
 
-public class OrcScanner extends FileScanner {
+public class OrcScanner extends FileScanner implements BatchScanner, BlockSkippingScanner {
   private static final Log LOG = LogFactory.getLog(OrcScanner.class);
 
   private static final int DIRECTORY_SIZE_GUESS = 16 * 1024;
@@ -80,6 +90,8 @@ public class OrcScanner extends FileScanner {
   private ByteBuffer footerMetaAndPsBuffer;
 
   private OrcRecordReader recordReader;
+  private EvalNode skippingFilter;
+  private List<StripeInformation> selectedStripes;
 
   private long recordCount = 0;
 
@@ -235,7 +247,7 @@ public class OrcScanner extends FileScanner {
   }
 
   public OrcRecordReader createRecordReader() throws IOException {
-    return new OrcRecordReader(this.stripes, fileSystem, schema, targets, fragment, types, codec, bufferSize,
+    return new OrcRecordReader(this.selectedStripes, fileSystem, schema, targets, fragment, types, codec, bufferSize,
         rowIndexStride, buildReaderOptions(meta), conf,
         timeZone);
   }
@@ -272,6 +284,7 @@ public class OrcScanner extends FileScanner {
     this.fileStats = rInfo.footer.getStatisticsList();
     this.versionList = footerMetaData.versionList;
     this.stripes = convertProtoStripesToStripes(rInfo.footer.getStripesList());
+    this.selectedStripes = selectStripes();
 
     this.timeZone = TimeZone.getTimeZone(meta.getProperty(StorageConstants.TIMEZONE,
         StorageUtil.TAJO_CONF.getSystemTimezone().getID()));
@@ -289,6 +302,13 @@ public class OrcScanner extends FileScanner {
     return next;
   }
 
+  @Override
+  public boolean nextBatch(ColumnBatch batch) throws IOException {
+    batch.reset();
+    recordCount += recordReader.nextBatch(batch);
+    return batch.size() > 0;
+  }
+
   @Override
   public void reset() throws IOException {
     // TODO: improve this
@@ -320,6 +340,124 @@ public class OrcScanner extends FileScanner {
     // TODO: implement this
   }
 
+  @Override
+  public void setSkippingFilter(EvalNode filter) {
+    this.skippingFilter = filter;
+  }
+
+  /**
+   * Stripes are skipped if their statistics show that no row satisfies the skipping filter.
+   * Stripes out of this fragment are always retained because the record reader counts their rows.
+   */
+  private List<StripeInformation> selectStripes() {
+    if (skippingFilter == null || stripeStats.size() != stripes.size()) {
+      return stripes;
+    }
+
+    ColumnStatsFilter statsFilter = new ColumnStatsFilter(schema, skippingFilter);
+    List<StripeInformation> selected = new ArrayList<>(stripes.size());
+    long startOffset = fragment.getStartKey();
+    long endOffset = fragment.getEndKey();
+    int skipped = 0;
+
+    for (int i = 0; i < stripes.size(); i++) {
+      StripeInformation stripe = stripes.get(i);
+      if (stripe.getOffset() < startOffset || stripe.getOffset() >= endOffset
+          || statsFilter.canMatch(toColumnStats(schema, stripeStats.get(i)))) {
+        selected.add(stripe);
+      } else {
+        skipped++;
+      }
+    }
+
+    if (skipped > 0 && LOG.isDebugEnabled()) {
+      LOG.debug(String.format("%d stripes are skipped by the filter in %s", skipped, path));
+    }
+    return selected;
+  }
+
+  /**
+   * The i-th column of the schema is the (i + 1)-th column of ORC, because the root struct is the 0-th column.
+   */
+  private static ColumnStats[] toColumnStats(Schema schema, OrcProto.StripeStatistics stripeStats) {
+    ColumnStats[] stats = new ColumnStats[schema.size()];
+    for (int i = 0; i < stats.length && i + 1 < stripeStats.getColStatsCount(); i++) {
+      stats[i] = toColumnStats(schema.getColumn(i), stripeStats.getColStats(i + 1));
+    }
+    return stats;
+  }
+
+  private static ColumnStats toColumnStats(Column column, OrcProto.ColumnStatistics stats) {
+    Datum min = null;
+    Datum max = null;
+
+    switch (column.getDataType().getType()) {
+    case INT2:
+    case INT4:
+    case INT8:
+      if (stats.hasIntStatistics() && stats.getIntStatistics().hasMinimum()
+          && stats.getIntStatistics().hasMaximum()) {
+        min = toIntDatum(column, stats.getIntStatistics().getMinimum());
+        max = toIntDatum(column, stats.getIntStatistics().getMaximum());
+      }
+      break;
+    case FLOAT4:
+    case FLOAT8:
+      if (stats.hasDoubleStatistics() && stats.getDoubleStatistics().hasMinimum()
+          && stats.getDoubleStatistics().hasMaximum()) {
+        min = DatumFactory.createFloat8(stats.getDoubleStatistics().getMinimum());
+        max = DatumFactory.createFloat8(stats.getDoubleStatistics().getMaximum());
+      }
+      break;
+    case TEXT:
+      if (stats.hasStringStatistics() && stats.getStringStatistics().hasMinimum()
+          && stats.getStringStatistics().hasMaximum()) {
+        min = DatumFactory.createText(stats.getStringStatistics().getMinimum());
+        max = DatumFactory.createText(stats.getStringStatistics().getMaximum());
+      }
+      break;
+    case DATE:
+      if (stats.hasDateStatistics() && stats.getDateStatistics().hasMinimum()
+          && stats.getDateStatistics().hasMaximum()) {
+        min = DatumFactory.createDate(stats.getDateStatistics().getMinimum() + DateTimeConstants.UNIX_EPOCH_JDATE);
+        max = DatumFactory.createDate(stats.getDateStatistics().getMaximum() + DateTimeConstants.UNIX_EPOCH_JDATE);
+      }
+      break;
+    case TIMESTAMP:
+      if (stats.hasTimestampStatistics() && stats.getTimestampStatistics().hasMinimum()
+          && stats.getTimestampStatistics().hasMaximum()) {
+        // statistics are kept in milliseconds, so the maximum is rounded up to cover microseconds
+        min = DatumFactory.createTimestamp(
+            DateTimeUtil.javaTimeToJulianTime(stats.getTimestampStatistics().getMinimum()));
+        max = DatumFactory.createTimestamp(
+            DateTimeUtil.javaTimeToJulianTime(stats.getTimestampStatistics().getMaximum())
+                + DateTimeConstants.USECS_PER_MSEC);
+      }
+      break;
+    default:
+      break;
+    }
+
+    if (min == null || max == null) {
+      return null;
+    }
+    ColumnStats columnStats = new ColumnStats(column);
+    columnStats.setMinValue(min);
+    columnStats.setMaxValue(max);
+    return columnStats;
+  }
+
+  private static Datum toIntDatum(Column column, long value) {
+    switch (column.getDataType().getType()) {
+    case INT2:
+      return DatumFactory.createInt2((short) value);
+    case INT4:
+      return DatumFactory.createInt4((int) value);
+    default:
+      return DatumFactory.createInt8(value);
+    }
+  }
+
   @Override
   public float getProgress() {
     return inited ? recordReader.getProgress() : super.getProgress();
@@ -25,6 +25,7 @@ import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.exception.NotImplementedException;
 import org.apache.tajo.exception.TajoRuntimeException;
 import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.storage.BlockSkippingScanner;
 import org.apache.tajo.storage.EmptyTuple;
 import org.apache.tajo.storage.FileScanner;
 import org.apache.tajo.storage.Tuple;
@@ -35,11 +36,14 @@ import java.io.IOException;
 /**
  * FileScanner for reading Parquet files
  */
-public class ParquetScanner extends FileScanner {
+public class ParquetScanner extends FileScanner implements BlockSkippingScanner {
   private TajoParquetReader reader;
+  private EvalNode skippingFilter;
   /** The number of actual read records */
   private long currentRowCount;
   private long totalRowCount;
+  /** The number of returned records */
+  private long recordCount;
   private boolean closed;
 
   /**
@@ -64,10 +68,16 @@ public class ParquetScanner extends FileScanner {
     if (targets == null) {
       targets = schema.toArray();
     }
-    reader = new TajoParquetReader(conf, fragment.getPath(), schema,
-        SchemaBuilder.builder().addAll(targets).build());
+    if (skippingFilter != null) {
+      reader = new TajoParquetReader(conf, fragment.getPath(), schema,
+          SchemaBuilder.builder().addAll(targets).build(), skippingFilter);
+    } else {
+      reader = new TajoParquetReader(conf, fragment.getPath(), schema,
+          SchemaBuilder.builder().addAll(targets).build());
+    }
     totalRowCount = reader.getTotalRowCount();
     currentRowCount = 0;
+    recordCount = 0;
     closed = false;
     super.init();
   }
@@ -86,11 +96,16 @@ public class ParquetScanner extends FileScanner {
         return null;
       } else {
         currentRowCount++;
+        recordCount++;
         return EmptyTuple.get();
       }
     }
 
-    return reader.read();
+    Tuple tuple = reader.read();
+    if (tuple != null) {
+      recordCount++;
+    }
+    return tuple;
   }
 
   /**
@@ -108,6 +123,8 @@ public class ParquetScanner extends FileScanner {
   public void close() throws IOException {
     if (reader != null) {
       reader.close();
+      inputStats.setNumBytes(reader.getReadBytes());
+      inputStats.setNumRows(recordCount);
     }
     closed = true;
   }
@@ -137,6 +154,14 @@ public class ParquetScanner extends FileScanner {
     throw new TajoRuntimeException(new NotImplementedException());
   }
 
+  /**
+   * Sets a filter to skip row groups whose column statistics cannot satisfy it.
+   */
+  @Override
+  public void setSkippingFilter(EvalNode filter) {
+    this.skippingFilter = filter;
+  }
+
   /**
    * Returns whether this scanner is splittable.
    *
@@ -20,12 +20,25 @@ package org.apache.tajo.storage.parquet;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.statistics.*;
 import org.apache.parquet.filter.UnboundRecordFilter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.schema.MessageType;
+import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.storage.ColumnStatsFilter;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.thirdparty.parquet.ParquetReader;
+import org.apache.tajo.util.datetime.DateTimeConstants;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Tajo implementation of {@link ParquetReader} to read Tajo records from a
@@ -33,6 +46,8 @@ import java.io.IOException;
  * directly.
  */
 public class TajoParquetReader extends ParquetReader<Tuple> {
+  private Schema readSchema;
+  private ColumnStatsFilter statsFilter;
 
   /**
    * Creates a new TajoParquetReader.
@@ -63,4 +78,100 @@ public class TajoParquetReader extends ParquetReader<Tuple> {
     super(conf, file, new TajoReadSupport(readSchema, requestedSchema),
           recordFilter);
   }
+
+  /**
+   * Creates a new TajoParquetReader which skips row groups by their column statistics.
+   *
+   * @param conf the configuration
+   * @param file The file to read from.
+   * @param readSchema Tajo schema of the table.
+   * @param requestedSchema Tajo schema of the projection.
+   * @param skippingFilter a filter to skip row groups. Rows of the remaining row groups are not filtered.
+   */
+  public TajoParquetReader(Configuration conf, Path file, Schema readSchema,
+                           Schema requestedSchema, EvalNode skippingFilter) throws IOException {
+    super(conf, file, new TajoReadSupport(readSchema, requestedSchema));
+    this.readSchema = readSchema;
+    this.statsFilter = new ColumnStatsFilter(readSchema, skippingFilter);
+  }
+
+  @Override
+  protected List<BlockMetaData> filterRowGroups(List<BlockMetaData> blocks, MessageType fileSchema) {
+    List<BlockMetaData> filtered = super.filterRowGroups(blocks, fileSchema);
+    if (statsFilter == null) {
+      return filtered;
+    }
+
+    List<BlockMetaData> selected = new ArrayList<>(filtered.size());
+    for (BlockMetaData block : filtered) {
+      if (statsFilter.canMatch(toColumnStats(block))) {
+        selected.add(block);
+      }
+    }
+    return selected;
+  }
+
+  private ColumnStats[] toColumnStats(BlockMetaData block) {
+    ColumnStats[] stats = new ColumnStats[readSchema.size()];
+    for (ColumnChunkMetaData chunk : block.getColumns()) {
+      int id = readSchema.getColumnIdByName(chunk.getPath().toDotString());
+      if (id >= 0) {
+        try {
+          stats[id] = toColumnStats(readSchema.getColumn(id), chunk);
+        } catch (ClassCastException e) {
+          // the physical type of the file is different from the table schema
+          stats[id] = null;
+        }
+      }
+    }
+    return stats;
+  }
+
+  /**
+   * Binary statistics are not used because they are compared as signed bytes in this version of Parquet.
+   */
+  private static ColumnStats toColumnStats(Column column, ColumnChunkMetaData chunk) {
+    Statistics statistics = chunk.getStatistics();
+    // statistics of a column chunk consisting of only nulls do not have valid minimum and maximum
+    if (statistics == null || statistics.isEmpty() || statistics.getNumNulls() >= chunk.getValueCount()) {
+      return null;
+    }
+
+    Datum min;
+    Datum max;
+    switch (column.getDataType().getType()) {
+    case INT2:
+      min = DatumFactory.createInt2((short) ((IntStatistics) statistics).getMin());
+      max = DatumFactory.createInt2((short) ((IntStatistics) statistics).getMax());
+      break;
+    case INT4:
+      min = DatumFactory.createInt4(((IntStatistics) statistics).getMin());
+      max = DatumFactory.createInt4(((IntStatistics) statistics).getMax());
+      break;
+    case INT8:
+      min = DatumFactory.createInt8(((LongStatistics) statistics).getMin());
+      max = DatumFactory.createInt8(((LongStatistics) statistics).getMax());
+      break;
+    case FLOAT4:
+      min = DatumFactory.createFloat4(((FloatStatistics) statistics).getMin());
+      max = DatumFactory.createFloat4(((FloatStatistics) statistics).getMax());
+      break;
+    case FLOAT8:
+      min = DatumFactory.createFloat8(((DoubleStatistics) statistics).getMin());
+      max = DatumFactory.createFloat8(((DoubleStatistics) statistics).getMax());
+      break;
+    case DATE:
+      // Parquet DATE type is based on Unix Epoch(Jan 1, 1970).
+      min = DatumFactory.createDate(((IntStatistics) statistics).getMin() + DateTimeConstants.UNIX_EPOCH_JDATE);
+      max = DatumFactory.createDate(((IntStatistics) statistics).getMax() + DateTimeConstants.UNIX_EPOCH_JDATE);
+      break;
+    default:
+      return null;
+    }
+
+    ColumnStats columnStats = new ColumnStats(column);
+    columnStats.setMinValue(min);
+    columnStats.setMaxValue(max);
+    return columnStats;
+  }
 }
@@ -31,6 +31,7 @@ import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.compress.BlockDecompressionChannel;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.tuple.RowBlockReader;
 import org.apache.tajo.tuple.memory.MemoryRowBlock;
@@ -38,8 +39,6 @@ import org.apache.tajo.tuple.memory.RowBlock;
 import org.apache.tajo.tuple.memory.UnSafeTuple;
 import org.apache.tajo.unit.StorageUnit;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 
 public class DirectRawFileScanner extends FileScanner implements SeekableScanner {
@@ -49,11 +48,16 @@ public class DirectRawFileScanner extends FileScanner implements SeekableScanner
   public static final int DEFAULT_BUFFER_SIZE = 128 * StorageUnit.KB;
 
   private SeekableInputChannel channel;
+  // null if the file is not compressed
+  private BlockDecompressionChannel decompressionChannel;
 
   private boolean eos = false;
   private long recordCount;
+  // the position in the data of the channel. It counts decompressed bytes if the file is compressed.
   private long filePosition;
   private long endOffset;
+  // the bytes read from the channel. They are decompressed ones if the file is compressed.
+  private long readBytes;
 
   private UnSafeTuple unSafeTuple = new UnSafeTuple();
   private RowBlock tupleBuffer;
@@ -63,6 +67,16 @@ public class DirectRawFileScanner extends FileScanner implements SeekableScanner
     super(conf, schema, meta, fragment);
   }
 
+  /**
+   * Create a scanner which reads the given channel instead of the file of the fragment.
+   * The fragment describes the range of the channel to be read.
+   */
+  public DirectRawFileScanner(Configuration conf, Schema schema, TableMeta meta, Fragment fragment,
+                              SeekableInputChannel channel) throws IOException {
+    super(conf, schema, meta, fragment);
+    this.channel = channel;
+  }
+
   @Override
   public void init() throws IOException {
     initChannel();
@@ -80,24 +94,16 @@ public class DirectRawFileScanner extends FileScanner implements SeekableScanner
   }
 
   private void initChannel() throws IOException {
-    FileSystem fs = FileScanner.getFileSystem((TajoConf) conf, fragment.getPath());
-
-    if (fs instanceof LocalFileSystem) {
-      File file;
-      try {
-        if (fragment.getPath().toUri().getScheme() != null) {
-          file = new File(fragment.getPath().toUri());
-        } else {
-          file = new File(fragment.getPath().toString());
-        }
-      } catch (IllegalArgumentException iae) {
-        throw new IOException(iae);
-      }
+    if (channel == null) {
+      openChannel();
+    }
 
-      channel = new LocalFileInputChannel(new FileInputStream(file));
-    } else {
-      channel = new FSDataInputChannel(fs.open(fragment.getPath()));
+    boolean compressed = meta.containsProperty(StorageConstants.COMPRESSION_CODEC);
+    if (compressed && !(channel instanceof BlockDecompressionChannel)) {
+      channel = new BlockDecompressionChannel(conf, meta.getProperty(StorageConstants.COMPRESSION_CODEC), channel,
+          fragment.getStartKey(), fragment.getLength());
     }
+    decompressionChannel = compressed ? (BlockDecompressionChannel) channel : null;
 
     // initial set position
     if (fragment.getStartKey() > 0) {
@@ -105,13 +111,25 @@ public class DirectRawFileScanner extends FileScanner implements SeekableScanner
     }
 
     filePosition = fragment.getStartKey();
-    endOffset = fragment.getStartKey() + fragment.getLength();
+    readBytes = 0;
+    // the decompressed data are read until the end of the channel because their length is unknown.
+    endOffset = compressed ? Long.MAX_VALUE : fragment.getStartKey() + fragment.getLength();
     if (LOG.isDebugEnabled()) {
       LOG.debug("RawFileScanner open:" + fragment.getPath() + ", offset :" +
           fragment.getStartKey() + ", fragment length :" + fragment.getLength());
     }
   }
 
+  private void openChannel() throws IOException {
+    FileSystem fs = FileScanner.getFileSystem((TajoConf) conf, fragment.getPath());
+
+    if (fs instanceof LocalFileSystem) {
+      channel = RawFile.openLocalChannel(meta, fragment);
+    } else {
+      channel = new FSDataInputChannel(fs.open(fragment.getPath()));
+    }
+  }
+
   @Override
   public long getNextOffset() throws IOException {
     return filePosition - reader.remainForRead();
@@ -129,7 +147,9 @@ public class DirectRawFileScanner extends FileScanner implements SeekableScanner
     long reamin = reader == null ? 0 : reader.remainForRead();
     boolean ret = rowblock.copyFromChannel(channel);
     reader = rowblock.getReader();
-    filePosition += rowblock.getMemory().writerPosition() - reamin;
+    long read = rowblock.getMemory().writerPosition() - reamin;
+    filePosition += read;
+    readBytes += read;
     return ret;
   }
 
@@ -172,7 +192,7 @@ public class DirectRawFileScanner extends FileScanner implements SeekableScanner
   @Override
   public void close() throws IOException {
     if (inputStats != null) {
-      inputStats.setReadBytes(filePosition - fragment.getStartKey());
+      inputStats.setReadBytes(readBytes);
       inputStats.setNumRows(recordCount);
     }
     if(tupleBuffer != null) {
@@ -208,7 +228,7 @@ public class DirectRawFileScanner extends FileScanner implements SeekableScanner
   public TableStats getInputStats() {
     if(inputStats != null){
       inputStats.setNumRows(recordCount);
-      inputStats.setReadBytes(filePosition - fragment.getStartKey()); // actual read bytes (scan + rescan * n)
+      inputStats.setReadBytes(readBytes); // actual read bytes (scan + rescan * n)
       inputStats.setNumBytes(fragment.getLength());
     }
     return inputStats;
@@ -222,11 +242,13 @@ public class DirectRawFileScanner extends FileScanner implements SeekableScanner
       return 1.0f;
     }
 
-    long readBytes = filePosition - fragment.getStartKey();
-    if (readBytes == 0) {
+    // the length of a fragment is the compressed one if the file is compressed
+    long readFileBytes = decompressionChannel != null ?
+        decompressionChannel.getCompressedPosition() - fragment.getStartKey() : filePosition - fragment.getStartKey();
+    if (readFileBytes == 0) {
       return 0.0f;
     } else {
-      return Math.min(1.0f, ((float) readBytes / fragment.getLength()));
+      return Math.min(1.0f, ((float) readFileBytes / fragment.getLength()));
     }
   }
 }
@@ -40,6 +40,7 @@ import org.apache.tajo.storage.FileAppender;
 import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.TableStatistics;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.compress.BlockCompressor;
 import org.apache.tajo.tuple.memory.MemoryRowBlock;
 import org.apache.tajo.tuple.memory.OffHeapRowBlockUtils.TupleConverter;
 import org.apache.tajo.tuple.memory.RowWriter;
@@ -49,6 +50,7 @@ import org.apache.tajo.unit.StorageUnit;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
 public class DirectRawFileWriter extends FileAppender {
@@ -69,6 +71,7 @@ public class DirectRawFileWriter extends FileAppender {
   protected boolean analyzeField;
   protected boolean hasExternalBuf;
   protected boolean isLocal;
+  protected BlockCompressor compressor;
 
   public DirectRawFileWriter(Configuration conf, TaskAttemptId taskAttemptId,
                              final Schema schema, final TableMeta meta, final Path path)
@@ -124,6 +127,11 @@ public class DirectRawFileWriter extends FileAppender {
 
     tupleConverter = initConverter();
 
+    if (meta.containsProperty(StorageConstants.COMPRESSION_CODEC)) {
+      // each row block is written as a compressed frame, so the offsets of row blocks are kept
+      compressor = new BlockCompressor(conf, meta.getProperty(StorageConstants.COMPRESSION_CODEC));
+    }
+
     pos = 0;
     super.init();
   }
@@ -196,7 +204,17 @@ public class DirectRawFileWriter extends FileAppender {
   }
 
   public void writeRowBlock(MemoryRowBlock rowBlock) throws IOException {
-    if(isLocal) {
+    if (compressor != null) {
+      ByteBuffer frame = compressor.compress(rowBlock.getMemory());
+      pos += frame.remaining();
+      if (isLocal) {
+        while (frame.hasRemaining()) {
+          channel.write(frame);
+        }
+      } else {
+        fos.write(frame.array(), frame.position(), frame.remaining());
+      }
+    } else if(isLocal) {
       pos += rowBlock.getMemory().writeTo(channel);
     } else {
       pos += rowBlock.getMemory().writeTo(fos);
@@ -237,7 +255,7 @@ public class DirectRawFileWriter extends FileAppender {
       LOG.debug("RawFileAppender written: " + getOffset() + " bytes, path: " + path);
     }
 
-    IOUtils.cleanup(LOG, channel, randomAccessFile, fos);
+    IOUtils.cleanup(LOG, channel, randomAccessFile, fos, compressor);
     if(!hasExternalBuf && rowBlock != null) {
       rowBlock.release();
     }
@@ -41,10 +41,19 @@ public class CSVLineDeserializer extends TextLineDeserializer {
   private int delimiterCompensation;
 
   private int [] targetColumnIndexes;
+  /** the offset and length of each projected field in the current line. The length is -1 if it is absent. */
+  private int [] fieldOffsets;
+  private int [] fieldLengths;
+
+  /** a line partially deserialized and the fields decoded from it */
+  private ByteBuf currentLine;
+  private boolean [] decodedFields;
 
   public CSVLineDeserializer(Schema schema, TableMeta meta, Column [] projected) {
     super(schema, meta);
     targetColumnIndexes = PlannerUtil.getTargetIds(schema, projected);
+    fieldOffsets = new int[targetColumnIndexes.length];
+    fieldLengths = new int[targetColumnIndexes.length];
 
     // The quote char must be a single ASCII character.
     hasQuoteChar = meta.containsProperty(StorageConstants.QUOTE_CHAR);
@@ -74,6 +83,48 @@ public class CSVLineDeserializer extends TextLineDeserializer {
     if (lineBuf == null || targetColumnIndexes == null || targetColumnIndexes.length == 0) {
       return;
     }
+
+    split(lineBuf);
+    for (int i = 0; i < targetColumnIndexes.length; i++) {
+      output.put(i, decode(lineBuf, i));
+    }
+  }
+
+  @Override
+  public void deserializePartially(final ByteBuf lineBuf, Tuple output, boolean[] fields)
+      throws IOException, TextLineParsingError {
+    if (lineBuf == null || targetColumnIndexes == null || targetColumnIndexes.length == 0) {
+      return;
+    }
+
+    split(lineBuf);
+    for (int i = 0; i < targetColumnIndexes.length; i++) {
+      if (fields[i]) {
+        output.put(i, decode(lineBuf, i));
+      }
+    }
+    currentLine = lineBuf;
+    decodedFields = fields;
+  }
+
+  @Override
+  public void deserializeRemaining(Tuple output) throws IOException, TextLineParsingError {
+    if (currentLine == null) {
+      return;
+    }
+
+    for (int i = 0; i < targetColumnIndexes.length; i++) {
+      if (!decodedFields[i]) {
+        output.put(i, decode(currentLine, i));
+      }
+    }
+    currentLine = null;
+  }
+
+  /**
+   * Find the offsets of projected fields in a line.
+   */
+  private void split(final ByteBuf lineBuf) {
     int[] projection = targetColumnIndexes;
 
     final int rowLength = lineBuf.readableBytes();
@@ -93,22 +144,8 @@ public class CSVLineDeserializer extends TextLineDeserializer {
       }
 
       if (projection.length > currentTarget && currentIndex == projection[currentTarget]) {
-        final int terminalOffset = start + fieldLength;
-        lineBuf.setIndex(start, terminalOffset);
-
-        // See the issue TAJO-1955. This routine strips quote if the property 'quote_char' is specified
-        if (hasQuoteChar) {
-          if (lineBuf.getByte(start) == quoteChar && lineBuf.getByte(terminalOffset - 1) == quoteChar) {
-            lineBuf.setIndex(start + 1, terminalOffset - 1);
-          }
-        }
-
-        try {
-          Datum datum = fieldSerDer.deserialize(currentIndex, lineBuf, nullChars);
-          output.put(currentTarget, datum);
-        } catch (Exception e) {
-          output.put(currentTarget, NullDatum.get());
-        }
+        fieldOffsets[currentTarget] = start;
+        fieldLengths[currentTarget] = fieldLength;
         currentTarget++;
       }
 
@@ -121,11 +158,33 @@ public class CSVLineDeserializer extends TextLineDeserializer {
     }
 
     /* If a text row is less than table schema size, tuple should set to NullDatum */
-    if (projection.length > currentTarget) {
-      for (; currentTarget < projection.length; currentTarget++) {
-        output.put(currentTarget, NullDatum.get());
+    for (; currentTarget < projection.length; currentTarget++) {
+      fieldLengths[currentTarget] = -1;
+    }
+  }
+
+  private Datum decode(final ByteBuf lineBuf, int target) {
+    final int start = fieldOffsets[target];
+    final int fieldLength = fieldLengths[target];
+    if (fieldLength < 0) {
+      return NullDatum.get();
+    }
+
+    final int terminalOffset = start + fieldLength;
+    lineBuf.setIndex(start, terminalOffset);
+
+    // See the issue TAJO-1955. This routine strips quote if the property 'quote_char' is specified
+    if (hasQuoteChar) {
+      if (lineBuf.getByte(start) == quoteChar && lineBuf.getByte(terminalOffset - 1) == quoteChar) {
+        lineBuf.setIndex(start + 1, terminalOffset - 1);
       }
     }
+
+    try {
+      return fieldSerDer.deserialize(targetColumnIndexes[target], lineBuf, nullChars);
+    } catch (Exception e) {
+      return NullDatum.get();
+    }
   }
 
   @Override
@@ -31,12 +31,16 @@ import org.apache.hadoop.io.compress.CompressionCodecFactory;
 import org.apache.hadoop.io.compress.CompressionOutputStream;
 import org.apache.hadoop.io.compress.Compressor;
 import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.exception.TajoRuntimeException;
 import org.apache.tajo.exception.UnsupportedException;
 import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.expr.EvalTreeUtil;
+import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.compress.CodecPool;
 import org.apache.tajo.storage.fragment.Fragment;
@@ -48,6 +52,7 @@ import java.io.BufferedOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static org.apache.tajo.storage.StorageConstants.DEFAULT_TEXT_ERROR_TOLERANCE_MAXNUM;
@@ -125,6 +130,17 @@ public class DelimitedTextFile {
       this.schema = schema;
     }
 
+    private void initFilterFields() {
+      // the fields of an output tuple are ordered by their column ids
+      int[] targetIds = PlannerUtil.getTargetIds(schema, targets);
+      Set<Column> filterColumns = EvalTreeUtil.findUniqueColumns(filter);
+
+      filterFields = new boolean[targetIds.length];
+      for (int i = 0; i < targetIds.length; i++) {
+        filterFields[i] = filterColumns.contains(schema.getColumn(targetIds[i]));
+      }
+    }
+
     public TextLineSerDe getLineSerde() {
       return DelimitedTextFile.getLineSerde(meta);
     }
@@ -281,6 +297,11 @@ public class DelimitedTextFile {
 
     private VTuple outTuple;
 
+    private final boolean lateMaterialization;
+    private EvalNode filter;
+    /** flags indicating the fields of an output tuple referred by the filter */
+    private boolean[] filterFields;
+
     public DelimitedTextFileScanner(Configuration conf, final Schema schema, final TableMeta meta,
                                     final Fragment fragment)
         throws IOException {
@@ -295,6 +316,8 @@ public class DelimitedTextFile {
 
       errorTorrenceMaxNum =
           Integer.parseInt(meta.getProperty(TEXT_ERROR_TOLERANCE_MAXNUM, DEFAULT_TEXT_ERROR_TOLERANCE_MAXNUM));
+      lateMaterialization = conf.getBoolean(TajoConf.ConfVars.TEXT_LATE_MATERIALIZATION_ENABLED.varname,
+          TajoConf.ConfVars.TEXT_LATE_MATERIALIZATION_ENABLED.defaultBoolVal);
     }
 
 
@@ -348,6 +371,13 @@ public class DelimitedTextFile {
         return null;
       }
 
+      if (filter != null && targets.length > 0) {
+        if (filterFields == null) {
+          initFilterFields();
+        }
+        return nextSatisfied();
+      }
+
       // this loop will continue until one tuple is build or EOS (end of stream).
       do {
         long offset = reader.getUncompressedPosition();
@@ -373,20 +403,7 @@ public class DelimitedTextFile {
           break;
 
         } catch (TextLineParsingError tae) {
-
-          errorNum++;
-
-          // suppress too many log prints, which probably cause performance degradation
-          if (errorNum < errorPrintOutMaxNum) {
-            LOG.warn("Ignore Text Parse Error (" + errorNum + "): ", tae);
-          }
-
-          // Only when the maximum error torrence limit is set (i.e., errorTorrenceMaxNum >= 0),
-          // it checks if the number of parsing error exceeds the max limit.
-          // Otherwise, it will ignore all parsing errors.
-          if (errorTorrenceMaxNum >= 0 && errorNum > errorTorrenceMaxNum) {
-            throw new IOException(tae);
-          }
+          handleParsingError(tae);
         }
       } while (reader.isReadable()); // continue until EOS
 
@@ -396,6 +413,53 @@ public class DelimitedTextFile {
       return outTuple;
     }
 
+    /**
+     * It returns the next tuple satisfying the filter. Only the fields referred by the filter are decoded
+     * before evaluating the filter, and the other fields are decoded only for lines satisfying it.
+     */
+    private Tuple nextSatisfied() throws IOException {
+      while (reader.isReadable()) {
+        long offset = reader.getUncompressedPosition();
+        ByteBuf buf = reader.readLine();
+
+        // if no more line, then return EOT (end of tuple)
+        if (buf == null) {
+          return null;
+        }
+
+        outTuple.setOffset(offset);
+
+        try {
+          deserializer.deserializePartially(buf, outTuple, filterFields);
+          recordCount++;
+
+          if (filter.eval(outTuple).isTrue()) {
+            deserializer.deserializeRemaining(outTuple);
+            return outTuple;
+          }
+        } catch (TextLineParsingError tae) {
+          handleParsingError(tae);
+        }
+      }
+      return null;
+    }
+
+    private void handleParsingError(TextLineParsingError tae) throws IOException {
+      errorNum++;
+
+      // suppress too many log prints, which probably cause performance degradation
+      if (errorNum < errorPrintOutMaxNum) {
+        LOG.warn("Ignore Text Parse Error (" + errorNum + "): ", tae);
+      }
+
+      // Only when the maximum error torrence limit is set (i.e., errorTorrenceMaxNum >= 0),
+      // it checks if the number of parsing error exceeds the max limit.
+      // Otherwise, it will ignore all parsing errors.
+      if (errorTorrenceMaxNum >= 0 && errorNum > errorTorrenceMaxNum) {
+        throw new IOException(tae);
+      }
+    }
+
     @Override
     public void reset() throws IOException {
       recordCount = 0;
@@ -464,14 +528,25 @@ public class DelimitedTextFile {
       return true;
     }
 
+    /**
+     * With late materialization, this scanner evaluates a filter while decoding lines.
+     */
     @Override
     public boolean isSelectable() {
-      return false;
+      return lateMaterialization;
     }
 
+    /**
+     * The filter is evaluated against output tuples. So, it should be bound to the target schema before
+     * the first call of {@link #next()}.
+     */
     @Override
     public void setFilter(EvalNode filter) {
-      throw new TajoRuntimeException(new UnsupportedException());
+      if (!lateMaterialization) {
+        throw new TajoRuntimeException(new UnsupportedException());
+      }
+      this.filter = filter;
+      this.filterFields = null;
     }
 
     @Override
@@ -51,6 +51,29 @@ public abstract class TextLineDeserializer {
    */
   public abstract void deserialize(final ByteBuf buf, Tuple output) throws IOException, TextLineParsingError;
 
+  /**
+   * It fills only the given fields of a tuple with a read line, so that a filter can be evaluated
+   * before decoding the other fields. The other fields are filled by {@link #deserializeRemaining(Tuple)}.
+   * By default, all fields are filled at once.
+   *
+   * @param buf Read line
+   * @param output Tuple to be filled with read fields
+   * @param fields Flags indicating which fields of the output tuple are filled first
+   */
+  public void deserializePartially(final ByteBuf buf, Tuple output, boolean[] fields)
+      throws IOException, TextLineParsingError {
+    deserialize(buf, output);
+  }
+
+  /**
+   * It fills the fields which are not filled by the last {@link #deserializePartially(ByteBuf, Tuple, boolean[])}.
+   * The read line given to it should not be changed before this call.
+   *
+   * @param output Tuple to be filled with read fields
+   */
+  public void deserializeRemaining(Tuple output) throws IOException, TextLineParsingError {
+  }
+
   /**
    * Release external resources
    */
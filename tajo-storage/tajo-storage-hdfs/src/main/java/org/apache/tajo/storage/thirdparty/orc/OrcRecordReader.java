@@ -30,6 +30,7 @@ import org.apache.orc.impl.*;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.SchemaBuilder;
+import org.apache.tajo.storage.ColumnBatch;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 import org.apache.tajo.storage.fragment.AbstractFileFragment;
@@ -255,6 +256,34 @@ public class OrcRecordReader implements Closeable {
     }
   }
 
+  /**
+   * Fill the given batch with the next rows. The tree readers of this reader decode one value at a time,
+   * so the batch is filled row by row. Each value is put into its vector directly without a row tuple.
+   *
+   * @return the number of rows read
+   */
+  public int nextBatch(ColumnBatch batch) throws IOException {
+    int rowNum = 0;
+    try {
+      while (hasNext() && !batch.isFull()) {
+        int rowId = batch.size();
+        for (int i = 0; i < reader.length; i++) {
+          batch.getVector(i).put(rowId, reader[i].next());
+        }
+        batch.commitRow();
+        rowNum++;
+
+        // find the next row
+        rowInStripe += 1;
+        advanceToNextRow(reader, rowInStripe + rowBaseInStripe, true);
+      }
+    } catch (IOException e) {
+      // Rethrow exception with file name in log message
+      throw new IOException("Error reading file: " + path, e);
+    }
+    return rowNum;
+  }
+
   /**
    * Read the next stripe until we find a row that we don't skip.
    *
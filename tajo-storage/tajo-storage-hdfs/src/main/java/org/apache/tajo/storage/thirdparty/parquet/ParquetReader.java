@@ -31,6 +31,7 @@ import org.apache.parquet.hadoop.Footer;
 import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.api.ReadSupport;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.util.HiddenFileFilter;
 import org.apache.parquet.schema.MessageType;
 
@@ -44,6 +45,8 @@ import static org.apache.parquet.Preconditions.checkNotNull;
 
 /**
  * This class is borrowed from parquet-mr-1.8.1, but it is modified in order to fix the PARQUET-363 and progress.
+ * In addition, subclasses can skip row groups by overriding {@link #filterRowGroups(List, MessageType)},
+ * and the bytes of the row groups to be read are counted.
  *
  * Read records from a Parquet file.
  */
@@ -56,6 +59,7 @@ public class ParquetReader<T> implements Closeable {
 
   private InternalParquetRecordReader<T> reader;
   private long totalRowCount;
+  private long readBytes;
 
   /**
    * @param file the file to read
@@ -154,8 +158,12 @@ public class ParquetReader<T> implements Closeable {
 
       MessageType fileSchema = footer.getParquetMetadata().getFileMetaData().getSchema();
 
-      List<BlockMetaData> filteredBlocks = RowGroupFilter.filterRowGroups(
-          filter, blocks, fileSchema);
+      List<BlockMetaData> filteredBlocks = filterRowGroups(blocks, fileSchema);
+      for (BlockMetaData block : filteredBlocks) {
+        for (ColumnChunkMetaData column : block.getColumns()) {
+          readBytes += column.getTotalSize();
+        }
+      }
 
       reader = new InternalParquetRecordReader<T>(readSupport, filter);
       reader.initialize(footer.getParquetMetadata().getFileMetaData(),
@@ -163,6 +171,13 @@ public class ParquetReader<T> implements Closeable {
     }
   }
 
+  /**
+   * @return row groups to be read
+   */
+  protected List<BlockMetaData> filterRowGroups(List<BlockMetaData> blocks, MessageType fileSchema) {
+    return RowGroupFilter.filterRowGroups(filter, blocks, fileSchema);
+  }
+
   @Override
   public void close() throws IOException {
     if (reader != null) {
@@ -186,6 +201,13 @@ public class ParquetReader<T> implements Closeable {
     return totalRowCount;
   }
 
+  /**
+   * @return the compressed bytes of the row groups which have been selected to be read
+   */
+  public long getReadBytes() {
+    return readBytes;
+  }
+
   public static <T> Builder<T> builder(ReadSupport<T> readSupport, Path path) {
     return new Builder<T>(readSupport, path);
   }
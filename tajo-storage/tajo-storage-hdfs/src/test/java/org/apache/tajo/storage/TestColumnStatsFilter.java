@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SchemaBuilder;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.plan.expr.*;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestColumnStatsFilter {
+  private static final Schema schema = SchemaBuilder.builder()
+      .add("id", Type.INT4)
+      .add("name", Type.TEXT)
+      .add("score", Type.FLOAT8)
+      .build();
+
+  private static final Column id = schema.getColumn("id");
+  private static final Column name = schema.getColumn("name");
+
+  private static ColumnStats[] newStats(int minId, int maxId) {
+    ColumnStats idStats = new ColumnStats(id);
+    idStats.setMinValue(DatumFactory.createInt4(minId));
+    idStats.setMaxValue(DatumFactory.createInt4(maxId));
+    // no statistics for name and score
+    return new ColumnStats[] {idStats, null, null};
+  }
+
+  private static EvalNode compare(EvalType type, Column column, Datum value) {
+    return new BinaryEval(type, new FieldEval(column), new ConstEval(value));
+  }
+
+  @Test
+  public void testComparison() {
+    ColumnStats[] stats = newStats(10, 20);
+
+    assertTrue(canMatch(compare(EvalType.EQUAL, id, DatumFactory.createInt4(10)), stats));
+    assertFalse(canMatch(compare(EvalType.EQUAL, id, DatumFactory.createInt4(21)), stats));
+    assertFalse(canMatch(compare(EvalType.LTH, id, DatumFactory.createInt4(10)), stats));
+    assertTrue(canMatch(compare(EvalType.LEQ, id, DatumFactory.createInt4(10)), stats));
+    assertFalse(canMatch(compare(EvalType.GTH, id, DatumFactory.createInt4(20)), stats));
+    assertTrue(canMatch(compare(EvalType.GEQ, id, DatumFactory.createInt4(20)), stats));
+
+    // 25 > id
+    assertTrue(canMatch(new BinaryEval(EvalType.GTH,
+        new ConstEval(DatumFactory.createInt4(25)), new FieldEval(id)), stats));
+    // 5 > id
+    assertFalse(canMatch(new BinaryEval(EvalType.GTH,
+        new ConstEval(DatumFactory.createInt4(5)), new FieldEval(id)), stats));
+  }
+
+  @Test
+  public void testLogicalOperators() {
+    ColumnStats[] stats = newStats(10, 20);
+    EvalNode outOfRange = compare(EvalType.GTH, id, DatumFactory.createInt4(30));
+    EvalNode inRange = compare(EvalType.LTH, id, DatumFactory.createInt4(15));
+    EvalNode unknown = compare(EvalType.EQUAL, name, DatumFactory.createText("tajo"));
+
+    assertFalse(canMatch(new BinaryEval(EvalType.AND, inRange, outOfRange), stats));
+    assertTrue(canMatch(new BinaryEval(EvalType.OR, inRange, outOfRange), stats));
+    assertFalse(canMatch(new BinaryEval(EvalType.AND, unknown, outOfRange), stats));
+    assertTrue(canMatch(new BinaryEval(EvalType.OR, unknown, outOfRange), stats));
+    assertTrue(canMatch(new NotEval(outOfRange), stats));
+  }
+
+  @Test
+  public void testBetweenAndIn() {
+    ColumnStats[] stats = newStats(10, 20);
+
+    assertTrue(canMatch(new BetweenPredicateEval(false, false, new FieldEval(id),
+        new ConstEval(DatumFactory.createInt4(0)), new ConstEval(DatumFactory.createInt4(10))), stats));
+    assertFalse(canMatch(new BetweenPredicateEval(false, false, new FieldEval(id),
+        new ConstEval(DatumFactory.createInt4(21)), new ConstEval(DatumFactory.createInt4(30))), stats));
+
+    assertTrue(canMatch(new InEval(new FieldEval(id), new RowConstantEval(new Datum[] {
+        DatumFactory.createInt4(1), DatumFactory.createInt4(15)}), false), stats));
+    assertFalse(canMatch(new InEval(new FieldEval(id), new RowConstantEval(new Datum[] {
+        DatumFactory.createInt4(1), DatumFactory.createInt4(25)}), false), stats));
+    assertTrue(canMatch(new InEval(new FieldEval(id), new RowConstantEval(new Datum[] {
+        DatumFactory.createInt4(1), DatumFactory.createInt4(25)}), true), stats));
+  }
+
+  @Test
+  public void testIncomparableConstant() {
+    ColumnStats[] stats = newStats(10, 20);
+    assertTrue(canMatch(compare(EvalType.LTH, id, DatumFactory.createText("abc")), stats));
+  }
+
+  private static boolean canMatch(EvalNode filter, ColumnStats[] stats) {
+    return new ColumnStatsFilter(schema, filter).canMatch(stats);
+  }
+}
@@ -32,6 +32,7 @@ import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.plan.expr.*;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.junit.Test;
 
@@ -251,4 +252,43 @@ public class TestDelimitedTextFile {
       scanner.close();
     }
   }
+
+  @Test
+  public void testLateMaterialization() throws IOException {
+    TableMeta meta = CatalogUtil.newTableMeta(BuiltinStorages.TEXT, conf);
+    meta.putProperty(StorageUtil.TEXT_DELIMITER, ",");
+    meta.putProperty(StorageUtil.QUOTE_CHAR, "\"");
+    Schema target = SchemaBuilder.builder()
+        .add(schema.getColumn("col4"))
+        .add(schema.getColumn("col8"))
+        .build();
+
+    assertEquals(6, scanWithFilter(meta, target, EvalType.EQUAL, 59));
+    assertEquals(0, scanWithFilter(meta, target, EvalType.GTH, 59));
+  }
+
+  private int scanWithFilter(TableMeta meta, Schema target, EvalType type, int value) throws IOException {
+    FileFragment fragment = getFileFragment("testStripQuote.txt");
+    Scanner scanner = TablespaceManager.getLocalFs().getScanner(meta, schema, fragment, target);
+    assertTrue(scanner.isSelectable());
+
+    EvalNode filter = new BinaryEval(type, new FieldEval(schema.getColumn("col4")),
+        new ConstEval(DatumFactory.createInt4(value)));
+    scanner.setFilter(filter);
+    scanner.init();
+    filter.bind(new EvalContext(), target);
+
+    Tuple tuple;
+    int i = 0;
+    try {
+      while ((tuple = scanner.next()) != null) {
+        assertEquals(baseTuple.getInt4(3), tuple.getInt4(0));
+        assertEquals(baseTuple.getText(7), tuple.getText(1));
+        i++;
+      }
+    } finally {
+      scanner.close();
+    }
+    return i;
+  }
 }
@@ -26,6 +26,8 @@ import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Writable;
+import org.apache.orc.OrcConf;
+import org.apache.parquet.hadoop.ParquetOutputFormat;
 import org.apache.tajo.BuiltinStorages;
 import org.apache.tajo.QueryId;
 import org.apache.tajo.TajoIdProtos;
@@ -41,6 +43,10 @@ import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.datum.ProtobufDatumFactory;
 import org.apache.tajo.exception.ValueTooLongForTypeCharactersException;
+import org.apache.tajo.plan.expr.BinaryEval;
+import org.apache.tajo.plan.expr.ConstEval;
+import org.apache.tajo.plan.expr.EvalType;
+import org.apache.tajo.plan.expr.FieldEval;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
@@ -1545,4 +1551,67 @@ public class TestStorages {
     assertEquals(0, tuple.size());
     scanner.close();
   }
+
+  @Test
+  public void testBlockSkipping() throws IOException {
+    if (!dataFormat.equalsIgnoreCase(BuiltinStorages.ORC) && !dataFormat.equalsIgnoreCase(BuiltinStorages.PARQUET)) {
+      return;
+    }
+
+    Schema schema = SchemaBuilder.builder()
+        .add("id", Type.INT4)
+        .add("name", Type.TEXT)
+        .build();
+
+    // small stripes and row groups, whose id ranges are disjoint because the ids are written in order
+    TableMeta meta = CatalogUtil.newTableMeta(dataFormat, conf);
+    meta.putProperty(OrcConf.STRIPE_SIZE.getAttribute(), "1024");
+    meta.putProperty(ParquetOutputFormat.BLOCK_SIZE, "1024");
+    meta.putProperty(ParquetOutputFormat.PAGE_SIZE, "1024");
+
+    Path tablePath = new Path(testDir, "testBlockSkipping.data");
+    Appender appender = TablespaceManager.getLocalFs().getAppender(meta, schema, tablePath);
+    appender.init();
+    int tupleNum = 20000;
+    VTuple vTuple = new VTuple(2);
+    for (int i = 0; i < tupleNum; i++) {
+      vTuple.put(0, DatumFactory.createInt4(i));
+      vTuple.put(1, DatumFactory.createText("name_" + i));
+      appender.addTuple(vTuple);
+    }
+    appender.close();
+
+    FileStatus status = fs.getFileStatus(tablePath);
+    FileFragment fragment = new FileFragment("table", tablePath, 0, status.getLen());
+
+    // without a skipping filter
+    Scanner scanner = TablespaceManager.getLocalFs().getScanner(meta, schema, fragment, schema);
+    scanner.init();
+    while (scanner.next() != null) {
+    }
+    scanner.close();
+    long fullRows = scanner.getInputStats().getNumRows();
+    long fullBytes = scanner.getInputStats().getNumBytes();
+    assertEquals(tupleNum, fullRows);
+
+    // id < 100
+    scanner = TablespaceManager.getLocalFs().getScanner(meta, schema, fragment, schema);
+    assertTrue(scanner instanceof BlockSkippingScanner);
+    ((BlockSkippingScanner) scanner).setSkippingFilter(new BinaryEval(EvalType.LTH,
+        new FieldEval(schema.getColumn("id")), new ConstEval(DatumFactory.createInt4(100))));
+    scanner.init();
+    int matched = 0;
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      if (tuple.getInt4(0) < 100) {
+        matched++;
+      }
+    }
+    scanner.close();
+
+    // all matched rows are read from the first blocks, and the other blocks are skipped.
+    assertEquals(100, matched);
+    assertTrue(scanner.getInputStats().getNumRows() < fullRows);
+    assertTrue(scanner.getInputStats().getNumBytes() < fullBytes);
+  }
 }
\ No newline at end of file
@@ -21,6 +21,9 @@ package org.apache.tajo.storage.raw;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.ChecksumException;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -32,8 +35,11 @@ import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.datum.ProtobufDatum;
 import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos;
+import org.apache.tajo.storage.MappedFileInputChannel;
+import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.TestFileTablespace;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.compress.BlockCompressor;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.rawfile.DirectRawFileScanner;
 import org.apache.tajo.storage.rawfile.DirectRawFileWriter;
@@ -51,6 +57,8 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameters;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
@@ -262,6 +270,169 @@ public class TestDirectRawFile {
     reader.close();
   }
 
+  @Test
+  public void testRWWithCompression() throws IOException {
+    int rowNum = 10000;
+
+    TableMeta meta = CatalogUtil.newTableMeta(BuiltinStorages.DRAW, tajoConf);
+    meta.putProperty(StorageConstants.COMPRESSION_CODEC, "default");
+
+    Path outputDir = new Path(testDir, UUID.randomUUID() + "");
+    outputDir.getFileSystem(tajoConf).mkdirs(outputDir);
+    Path outputFile = new Path(outputDir, "output.draw");
+
+    // write two compressed blocks
+    DirectRawFileWriter writer = new DirectRawFileWriter(tajoConf, null, schema, meta, outputFile);
+    writer.init();
+    MemoryRowBlock rowBlock = createRowBlock(rowNum);
+    long rawLength = rowBlock.usedMem();
+    writer.writeRowBlock(rowBlock);
+    rowBlock.release();
+    long firstBlockLength = writer.getOffset();
+    rowBlock = createRowBlock(rowNum);
+    rawLength += rowBlock.usedMem();
+    writer.writeRowBlock(rowBlock);
+    rowBlock.release();
+    long writtenLength = writer.getOffset();
+    writer.close();
+
+    long fileLength = outputFile.getFileSystem(tajoConf).getFileStatus(outputFile).getLen();
+    assertEquals(writtenLength, fileLength);
+
+    // the whole file
+    FileFragment fragment = new FileFragment("testRWWithCompression", outputFile, 0, fileLength);
+    DirectRawFileScanner reader = new DirectRawFileScanner(tajoConf, schema, meta, fragment);
+    reader.init();
+    assertEquals(0.0f, reader.getProgress(), 0.0f);
+    int j = 0;
+    Tuple tuple;
+    while ((tuple = reader.next()) != null) {
+      validateTupleResult(j % rowNum, tuple);
+      if (j == 0) {
+        // the progress follows the compressed bytes read from the file
+        float progress = reader.getProgress();
+        assertTrue(progress > 0.0f && progress <= (float) firstBlockLength / fileLength);
+      }
+      j++;
+    }
+    assertEquals(rowNum * 2, j);
+    assertEquals(1.0f, reader.getProgress(), 0.0f);
+    // the read bytes are the decompressed ones
+    assertEquals(rawLength, reader.getInputStats().getReadBytes().longValue());
+
+    reader.reset();
+    j = 0;
+    while (reader.next() != null) {
+      j++;
+    }
+    assertEquals(rowNum * 2, j);
+    reader.close();
+
+    // only the second block
+    fragment = new FileFragment("testRWWithCompression", outputFile, firstBlockLength,
+        fileLength - firstBlockLength);
+    reader = new DirectRawFileScanner(tajoConf, schema, meta, fragment);
+    reader.init();
+    j = 0;
+    while ((tuple = reader.next()) != null) {
+      validateTupleResult(j, tuple);
+      j++;
+    }
+    assertEquals(rowNum, j);
+    reader.close();
+  }
+
+  @Test
+  public void testMemoryMappedRead() throws IOException {
+    int rowNum = 10000;
+
+    TableMeta meta = CatalogUtil.newTableMeta(BuiltinStorages.DRAW, tajoConf);
+    meta.putProperty(StorageConstants.RAWFILE_MMAP_ENABLED, "true");
+
+    Path outputDir = new Path(testDir, UUID.randomUUID() + "");
+    outputDir.getFileSystem(tajoConf).mkdirs(outputDir);
+    Path outputFile = new Path(outputDir, "output.draw");
+
+    DirectRawFileWriter writer = new DirectRawFileWriter(tajoConf, null, schema, meta, outputFile);
+    writer.init();
+    MemoryRowBlock rowBlock = createRowBlock(rowNum);
+    writer.writeRowBlock(rowBlock);
+    rowBlock.release();
+    long firstBlockLength = writer.getOffset();
+    rowBlock = createRowBlock(rowNum);
+    writer.writeRowBlock(rowBlock);
+    rowBlock.release();
+    writer.close();
+    long fileLength = outputFile.getFileSystem(tajoConf).getFileStatus(outputFile).getLen();
+
+    // only the second block is mapped
+    FileFragment fragment = new FileFragment("testMemoryMappedRead", outputFile, firstBlockLength,
+        fileLength - firstBlockLength);
+    DirectRawFileScanner reader = new DirectRawFileScanner(tajoConf, schema, meta, fragment);
+    reader.init();
+    int j = 0;
+    Tuple tuple;
+    while ((tuple = reader.next()) != null) {
+      validateTupleResult(j, tuple);
+      j++;
+    }
+    assertEquals(rowNum, j);
+
+    reader.reset();
+    j = 0;
+    while (reader.next() != null) {
+      j++;
+    }
+    assertEquals(rowNum, j);
+    reader.close();
+
+    if (isLocal) {
+      // the whole file is mapped window by window
+      fragment = new FileFragment("testMemoryMappedRead", outputFile, 0, fileLength);
+      MappedFileInputChannel channel = new MappedFileInputChannel(
+          new FileInputStream(new File(outputFile.toUri())), 0, fileLength, 4096);
+      reader = new DirectRawFileScanner(tajoConf, schema, meta, fragment, channel);
+      reader.init();
+      j = 0;
+      while ((tuple = reader.next()) != null) {
+        validateTupleResult(j % rowNum, tuple);
+        j++;
+      }
+      assertEquals(rowNum * 2, j);
+      reader.close();
+    }
+  }
+
+  @Test(expected = ChecksumException.class)
+  public void testCompressionChecksum() throws IOException {
+    TableMeta meta = CatalogUtil.newTableMeta(BuiltinStorages.DRAW, tajoConf);
+    meta.putProperty(StorageConstants.COMPRESSION_CODEC, "default");
+
+    MemoryRowBlock rowBlock = createRowBlock(100);
+    FileStatus outputFile = writeRowBlock(tajoConf, meta, rowBlock);
+    rowBlock.release();
+
+    // corrupt a byte of the compressed data
+    FileSystem fs = outputFile.getPath().getFileSystem(tajoConf);
+    byte[] bytes = new byte[(int) outputFile.getLen()];
+    try (FSDataInputStream in = fs.open(outputFile.getPath())) {
+      in.readFully(bytes);
+    }
+    bytes[BlockCompressor.HEADER_SIZE + 1] ^= 0xff;
+    try (FSDataOutputStream out = fs.create(outputFile.getPath(), true)) {
+      out.write(bytes);
+    }
+
+    FileFragment fragment = new FileFragment("testCompressionChecksum", outputFile.getPath(), 0, bytes.length);
+    DirectRawFileScanner reader = new DirectRawFileScanner(tajoConf, schema, meta, fragment);
+    reader.init();
+    try {
+      reader.next();
+    } finally {
+      reader.close();
+    }
+  }
+
   public static MemoryRowBlock createRowBlock(int rowNum) {
     long allocateStart = System.currentTimeMillis();
     MemoryRowBlock rowBlock = new MemoryRowBlock(SchemaUtil.toDataTypes(schema), StorageUnit.KB * 128);
@@ -19,8 +19,6 @@
 package org.apache.tajo.yarn;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.cache.RemovalListener;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -31,7 +29,6 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocalDirAllocator;
 import org.apache.hadoop.fs.LocalFileSystem;
-import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.ReadaheadPool;
 import org.apache.hadoop.metrics2.MetricsSystem;
 import org.apache.hadoop.metrics2.annotation.Metric;
@@ -55,12 +52,12 @@ import org.apache.tajo.pullserver.PullServerUtil;
 import org.apache.tajo.pullserver.PullServerUtil.PullServerParams;
 import org.apache.tajo.pullserver.retriever.FileChunk;
 import org.apache.tajo.pullserver.retriever.IndexCacheKey;
-import org.apache.tajo.storage.index.bst.BSTIndex;
 import org.apache.tajo.storage.index.bst.BSTIndex.BSTIndexReader;
 import org.apache.tajo.util.SizeOf;
 import org.apache.tajo.util.TajoIdUtils;
 import org.jboss.netty.bootstrap.ServerBootstrap;
 import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBufferInputStream;
 import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.*;
 import org.jboss.netty.channel.group.ChannelGroup;
@@ -216,20 +213,8 @@ public class TajoPullServerService extends AuxiliaryService {
         PullServerConstants.DEFAULT_SUFFLE_SSL_FILE_BUFFER_SIZE);
 
     int cacheSize = tajoConf.getIntVar(ConfVars.PULLSERVER_CACHE_SIZE);
-    int cacheTimeout = tajoConf.getIntVar(ConfVars.PULLSERVER_CACHE_TIMEOUT);
-
-    indexReaderCache = CacheBuilder.newBuilder()
-        .maximumSize(cacheSize)
-        .expireAfterWrite(cacheTimeout, TimeUnit.MINUTES)
-        .removalListener(removalListener)
-        .build(
-            new CacheLoader<IndexCacheKey, BSTIndexReader>() {
-              @Override
-              public BSTIndexReader load(IndexCacheKey key) throws Exception {
-                return new BSTIndex(tajoConf).getIndexReader(new Path(key.getPath(), "index"));
-              }
-            }
-        );
+
+    indexReaderCache = PullServerUtil.newIndexReaderCache(tajoConf, removalListener);
     lowCacheHitCheckThreshold = (int) (cacheSize * 0.1f);
 
     super.serviceInit(tajoConf);
@@ -309,7 +294,8 @@ public class TajoPullServerService extends AuxiliaryService {
       int maxChunkSize = getConfig().getInt(ConfVars.SHUFFLE_FETCHER_CHUNK_MAX_SIZE.varname,
           ConfVars.SHUFFLE_FETCHER_CHUNK_MAX_SIZE.defaultIntVal);
       pipeline.addLast("codec", new HttpServerCodec(maxUrlLength, 8192, maxChunkSize));
-      pipeline.addLast("aggregator", new HttpChunkAggregator(1 << 16));
+      // a batched fetch request carries its chunk requests in the content
+      pipeline.addLast("aggregator", new HttpChunkAggregator(1 << 20));
       pipeline.addLast("chunking", new ChunkedWriteHandler());
       pipeline.addLast("shuffle", PullServer);
       return pipeline;
@@ -357,6 +343,15 @@ public class TajoPullServerService extends AuxiliaryService {
 
         clearIndexCache(request.getUri());
         return;
+      } else if (request.getMethod() == HttpMethod.POST) {
+        try {
+          handleBatchRequest(ctx, request,
+              PullServerUtil.decodeBatchRequest(new ChannelBufferInputStream(request.getContent())));
+        } catch (Throwable e) {
+          LOG.error("Failed to handle batch request " + request.getUri(), e);
+          sendError(ctx, e.getMessage(), HttpResponseStatus.BAD_REQUEST);
+        }
+        return;
       } else if (request.getMethod() != HttpMethod.GET) {
         sendError(ctx, HttpResponseStatus.METHOD_NOT_ALLOWED);
         return;
@@ -471,6 +466,33 @@ public class TajoPullServerService extends AuxiliaryService {
         throw new TajoInternalError(e.getCause());
       }
 
+      sendChunks(ctx, request, chunks);
+    }
+
+    /**
+     * Serves many chunk requests in a single response. The chunks of all requests are written in the order of
+     * the requests, so the client can split them by the chunk lengths header as for a single request.
+     */
+    private void handleBatchRequest(ChannelHandlerContext ctx, HttpRequest request,
+                                    final List<PullServerParams> batch)
+        throws IOException {
+      final List<FileChunk> chunks;
+      try {
+        chunks = PullServerUtil.getFileChunks(conf, lDirAlloc, localFS, batch, indexReaderCache,
+            lowCacheHitCheckThreshold);
+      } catch (IOException | IllegalArgumentException e) { // IOException, EOFException, IllegalArgumentException
+        sendError(ctx, e.getMessage(), HttpResponseStatus.BAD_REQUEST);
+        return;
+      } catch (ExecutionException e) {
+        // There are some problems in index cache
+        throw new TajoInternalError(e.getCause());
+      }
+
+      sendChunks(ctx, request, chunks);
+    }
+
+    private void sendChunks(ChannelHandlerContext ctx, HttpRequest request, final List<FileChunk> chunks)
+        throws IOException {
       // Write the content.
       final Channel ch = ctx.getChannel();
       if (chunks.size() == 0) {